@@ -0,0 +1,37 @@
+package com.example.pettrail.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "pettrail.active-walks")
+public class ActiveWalkConfig {
+
+    private boolean enabled = true;
+    private long resyncIntervalMs = 30000; // Reload from the database; bounds how long a change made by another instance goes unseen
+    private int finishedRetentionMinutes = 10; // How long stopped walks are remembered, to reject late uploads without a query
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getResyncIntervalMs() {
+        return resyncIntervalMs;
+    }
+
+    public void setResyncIntervalMs(long resyncIntervalMs) {
+        this.resyncIntervalMs = resyncIntervalMs;
+    }
+
+    public int getFinishedRetentionMinutes() {
+        return finishedRetentionMinutes;
+    }
+
+    public void setFinishedRetentionMinutes(int finishedRetentionMinutes) {
+        this.finishedRetentionMinutes = finishedRetentionMinutes;
+    }
+}
@@ -1,17 +1,40 @@
 package com.example.pettrail.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Database configuration for Supabase PostgreSQL
  * This class handles environment variable loading for database connection
+ * and builds the tuned HikariCP pool used by the application.
  */
 @Configuration
 @Profile("!test")
 public class DatabaseConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
+
     @Value("${SUPABASE_DB_PASSWORD:your_database_password_here}")
     private String databasePassword;
 
@@ -27,6 +50,207 @@ public class DatabaseConfig {
     @Value("${SUPABASE_DB_USER:postgres}")
     private String databaseUser;
 
+    // Fixed pool size; 0 derives it from the number of cores
+    @Value("${pettrail.datasource.pool.size:0}")
+    private int poolSize;
+
+    // Peak number of requests and jobs of one instance using the database at once; 0 when unknown
+    @Value("${pettrail.datasource.pool.expected-concurrency:0}")
+    private int expectedConcurrency;
+
+    // Connections the database grants this application (Supabase plan limit minus admin headroom)
+    @Value("${pettrail.datasource.pool.server-connection-budget:40}")
+    private int serverConnectionBudget;
+
+    // Number of backend instances sharing the connection budget
+    @Value("${pettrail.datasource.pool.instances:1}")
+    private int instances;
+
+    @Value("${pettrail.datasource.pool.connection-timeout-ms:5000}")
+    private long connectionTimeoutMs;
+
+    @Value("${pettrail.datasource.pool.max-lifetime-ms:1740000}")
+    private long maxLifetimeMs;
+
+    @Value("${pettrail.datasource.pool.keepalive-ms:120000}")
+    private long keepaliveMs;
+
+    @Value("${pettrail.datasource.pool.leak-detection-ms:0}")
+    private long leakDetectionMs;
+
+    @Value("${pettrail.datasource.statement-timeout-ms:30000}")
+    private long statementTimeoutMs;
+
+    @Value("${pettrail.datasource.idle-in-transaction-timeout-ms:60000}")
+    private long idleInTransactionTimeoutMs;
+
+    @Value("${pettrail.datasource.prepare-threshold:3}")
+    private int prepareThreshold;
+
+    @Value("${pettrail.datasource.prepared-statement-cache-queries:256}")
+    private int preparedStatementCacheQueries;
+
+    @Value("${pettrail.datasource.prepared-statement-cache-size-mib:5}")
+    private int preparedStatementCacheSizeMiB;
+
+    /**
+     * Primary connection pool tuned for a remote PostgreSQL where every round trip is expensive.
+     * When read replicas are configured, read-only transactions are routed to them.
+     * @param properties the standard spring.datasource.* connection settings
+     * @param replicaConfig the pettrail.datasource.replica.* settings
+     * @param meterRegistry registry receiving pool metrics, if actuator metrics are available
+     * @return the pooled DataSource
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, ReadReplicaConfig replicaConfig,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        HikariDataSource primary = buildPool("pettrail-primary", properties.determineUrl(),
+                properties.determineUsername(), properties.determinePassword(), registry);
+
+        List<String> replicaUrls = replicaConfig.getUrls() == null ? List.of()
+                : replicaConfig.getUrls().stream().filter(StringUtils::hasText).toList();
+        if (replicaUrls.isEmpty()) {
+            return primary;
+        }
+
+        String username = replicaConfig.getUsername() != null ? replicaConfig.getUsername() : properties.determineUsername();
+        String password = replicaConfig.getPassword() != null ? replicaConfig.getPassword() : properties.determinePassword();
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            replicas.add(buildPool("pettrail-replica-" + i, replicaUrls.get(i), username, password, registry));
+        }
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas,
+                replicaConfig.getMaxLagMs(), replicaConfig.getHealthCheckIntervalMs(), registry);
+        logger.info("Read-only transactions routed across {} replica(s), max lag {}ms",
+                replicas.size(), replicaConfig.getMaxLagMs());
+        return new LazyRoutingDataSource(routing);
+    }
+
+    /**
+     * Build a HikariCP pool with the pgjdbc tuning and metrics shared by every pool of the application
+     * @param poolName name used in logs and metric tags
+     * @param url JDBC URL
+     * @param username database user
+     * @param password database password
+     * @param meterRegistry registry receiving pool metrics (nullable)
+     * @return the started pool
+     */
+    HikariDataSource buildPool(String poolName, String url, String username, String password,
+                               MeterRegistry meterRegistry) {
+        int size = resolvePoolSize();
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+
+        // Fixed-size pool: no connection churn against the remote server
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(size);
+        config.setConnectionTimeout(connectionTimeoutMs);
+        config.setMaxLifetime(maxLifetimeMs);
+        config.setKeepaliveTime(keepaliveMs);
+        config.setLeakDetectionThreshold(leakDetectionMs);
+
+        // Collapse JDBC batches into multi-row INSERTs (one round trip per batch)
+        config.addDataSourceProperty("reWriteBatchedInserts", "true");
+        // Switch to server-side prepared statements after a few executions and keep them cached
+        config.addDataSourceProperty("prepareThreshold", String.valueOf(prepareThreshold));
+        config.addDataSourceProperty("preparedStatementCacheQueries", String.valueOf(preparedStatementCacheQueries));
+        config.addDataSourceProperty("preparedStatementCacheSizeMiB", String.valueOf(preparedStatementCacheSizeMiB));
+        // Server-side timeouts so a runaway query or a forgotten transaction cannot pin a connection
+        config.addDataSourceProperty("options", "-c statement_timeout=" + statementTimeoutMs
+                + " -c idle_in_transaction_session_timeout=" + idleInTransactionTimeoutMs);
+        config.addDataSourceProperty("socketTimeout", String.valueOf(statementTimeoutMs / 1000 + 30));
+        config.addDataSourceProperty("tcpKeepAlive", "true");
+        config.addDataSourceProperty("ApplicationName", poolName);
+
+        if (meterRegistry != null) {
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        }
+
+        HikariDataSource dataSource = new HikariDataSource(config);
+        if (meterRegistry != null) {
+            registerSaturationGauges(dataSource, meterRegistry);
+        }
+
+        logger.info("Connection pool {} configured with {} connections (statement_timeout={}ms)",
+                poolName, size, statementTimeoutMs);
+        return dataSource;
+    }
+
+    /**
+     * Pool size: (cores * 2) + 1 as recommended for PostgreSQL, no more than the expected load can
+     * keep busy (connections beyond the peak concurrency only sit idle holding server slots), and
+     * capped by this instance's share of the server connection budget. Load above the core-based
+     * size waits in the pool's queue rather than adding connections the server cannot run in parallel.
+     * @return the number of connections for each pool
+     */
+    int resolvePoolSize() {
+        return resolvePoolSize(Runtime.getRuntime().availableProcessors());
+    }
+
+    int resolvePoolSize(int cores) {
+        if (poolSize > 0) {
+            return poolSize;
+        }
+        int size = cores * 2 + 1;
+        if (expectedConcurrency > 0) {
+            size = Math.min(size, expectedConcurrency);
+        }
+        int byBudget = Math.max(2, serverConnectionBudget / Math.max(1, instances));
+        return Math.max(2, Math.min(size, byBudget));
+    }
+
+    /**
+     * Export saturation indicators on top of the standard hikaricp.* meters so alerts can fire
+     * before requests start timing out waiting for a connection
+     */
+    private void registerSaturationGauges(HikariDataSource dataSource, MeterRegistry meterRegistry) {
+        String poolName = dataSource.getPoolName();
+        Gauge.builder("pettrail.db.pool.saturation", dataSource, DatabaseConfig::saturation)
+                .description("Active connections divided by maximum pool size")
+                .tag("pool", poolName)
+                .register(meterRegistry);
+        Gauge.builder("pettrail.db.pool.waiting", dataSource, ds -> {
+                    HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+                    return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+                })
+                .description("Threads blocked waiting for a connection")
+                .tag("pool", poolName)
+                .register(meterRegistry);
+    }
+
+    private static double saturation(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null || dataSource.getMaximumPoolSize() == 0) {
+            return 0.0;
+        }
+        return (double) pool.getActiveConnections() / dataSource.getMaximumPoolSize();
+    }
+
+    /**
+     * Defers fetching a physical connection until the first statement, when the transaction's
+     * read-only flag is known; closes the underlying pools on shutdown
+     */
+    static class LazyRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+        LazyRoutingDataSource(ReplicaRoutingDataSource routing) {
+            setTargetDataSource(routing);
+            setDefaultAutoCommit(true);
+            setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        }
+
+        @Override
+        public void close() {
+            ((ReplicaRoutingDataSource) obtainTargetDataSource()).close();
+        }
+    }
+
     // Getters for potential use in other configurations
     public String getDatabasePassword() {
         return databasePassword;
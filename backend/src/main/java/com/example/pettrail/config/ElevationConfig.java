@@ -0,0 +1,37 @@
+package com.example.pettrail.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "pettrail.elevation")
+public class ElevationConfig {
+
+    private boolean enabled = false;
+    private String directory = "data/dem"; // SRTM/Copernicus .hgt tiles named like S24W047.hgt, on every instance
+    private int maxOpenTiles = 32; // Mapped tiles kept open, least recently used closed first
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getMaxOpenTiles() {
+        return maxOpenTiles;
+    }
+
+    public void setMaxOpenTiles(int maxOpenTiles) {
+        this.maxOpenTiles = maxOpenTiles;
+    }
+}
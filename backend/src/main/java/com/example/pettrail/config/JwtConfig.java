@@ -8,7 +8,8 @@ import org.springframework.context.annotation.Configuration;
 public class JwtConfig {
     
     private String secret = "mySecretKey"; // This should be overridden in application.properties
-    private int expiration = 86400000; // 24 hours in milliseconds
+    private int expiration = 900000; // Access token lifetime: 15 minutes in milliseconds
+    private int refreshExpirationDays = 30; // Refresh token lifetime, renewed on every refresh
     private String issuer = "pettrail";
     private String audience = "pettrail-users";
     
@@ -28,6 +29,14 @@ public class JwtConfig {
         this.expiration = expiration;
     }
     
+    public int getRefreshExpirationDays() {
+        return refreshExpirationDays;
+    }
+    
+    public void setRefreshExpirationDays(int refreshExpirationDays) {
+        this.refreshExpirationDays = refreshExpirationDays;
+    }
+    
     public String getIssuer() {
         return issuer;
     }
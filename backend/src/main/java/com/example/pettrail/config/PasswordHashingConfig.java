@@ -0,0 +1,83 @@
+package com.example.pettrail.config;
+
+import com.example.pettrail.enums.PasswordHashAlgorithm;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "pettrail.password")
+public class PasswordHashingConfig {
+
+    private PasswordHashAlgorithm algorithm = PasswordHashAlgorithm.BCRYPT; // Used for new hashes and rehashes
+    private int bcryptStrength = 10; // log2 of the rounds; each step doubles the cost
+    private int argon2MemoryKib = 19456;
+    private int argon2Iterations = 2;
+    private int argon2Parallelism = 1;
+    private int threads = 0; // 0 = one per available core
+    private int queueCapacity = 64; // Hashes waiting for a thread before new ones are rejected
+    private long maxWaitMs = 3000; // Longest a request waits for its hash, queueing included
+
+    public PasswordHashAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(PasswordHashAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public int getBcryptStrength() {
+        return bcryptStrength;
+    }
+
+    public void setBcryptStrength(int bcryptStrength) {
+        this.bcryptStrength = bcryptStrength;
+    }
+
+    public int getArgon2MemoryKib() {
+        return argon2MemoryKib;
+    }
+
+    public void setArgon2MemoryKib(int argon2MemoryKib) {
+        this.argon2MemoryKib = argon2MemoryKib;
+    }
+
+    public int getArgon2Iterations() {
+        return argon2Iterations;
+    }
+
+    public void setArgon2Iterations(int argon2Iterations) {
+        this.argon2Iterations = argon2Iterations;
+    }
+
+    public int getArgon2Parallelism() {
+        return argon2Parallelism;
+    }
+
+    public void setArgon2Parallelism(int argon2Parallelism) {
+        this.argon2Parallelism = argon2Parallelism;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getMaxWaitMs() {
+        return maxWaitMs;
+    }
+
+    public void setMaxWaitMs(long maxWaitMs) {
+        this.maxWaitMs = maxWaitMs;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.pettrail.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "pettrail.pet-deletion")
+public class PetDeletionConfig {
+
+    private boolean enabled = true;
+    private int walkBatchSize = 20; // Walks whose points are deleted together; the walk rows go in one transaction
+    private int pointBatchSize = 5000; // Points deleted per transaction
+    private int maxBatchesPerRun = 200; // Per poll; an unfinished job continues on the next poll
+    private int leaseSeconds = 300; // A job whose worker stopped renewing this is picked up again
+    private int maxAttempts = 8; // Failed attempts before the job is marked FAILED
+    private int retryDelaySeconds = 30; // Doubled after each failed attempt
+    private int jobRetentionDays = 7; // How long completed jobs stay queryable
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getWalkBatchSize() {
+        return walkBatchSize;
+    }
+
+    public void setWalkBatchSize(int walkBatchSize) {
+        this.walkBatchSize = walkBatchSize;
+    }
+
+    public int getPointBatchSize() {
+        return pointBatchSize;
+    }
+
+    public void setPointBatchSize(int pointBatchSize) {
+        this.pointBatchSize = pointBatchSize;
+    }
+
+    public int getMaxBatchesPerRun() {
+        return maxBatchesPerRun;
+    }
+
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    public int getLeaseSeconds() {
+        return leaseSeconds;
+    }
+
+    public void setLeaseSeconds(int leaseSeconds) {
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public int getRetryDelaySeconds() {
+        return retryDelaySeconds;
+    }
+
+    public void setRetryDelaySeconds(int retryDelaySeconds) {
+        this.retryDelaySeconds = retryDelaySeconds;
+    }
+
+    public int getJobRetentionDays() {
+        return jobRetentionDays;
+    }
+
+    public void setJobRetentionDays(int jobRetentionDays) {
+        this.jobRetentionDays = jobRetentionDays;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.pettrail.config;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps read-only transactions about recently written walks/pets on the primary,
+ * so a replica that has not replayed the write yet cannot serve stale data
+ */
+@Component
+public class PrimaryPinRegistry {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+    private static final int PURGE_EVERY = 1024;
+
+    private final Map<UUID, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private final AtomicInteger pinsSincePurge = new AtomicInteger();
+    private final long pinWindowNanos;
+
+    public PrimaryPinRegistry(ReadReplicaConfig readReplicaConfig) {
+        this.pinWindowNanos = TimeUnit.MILLISECONDS.toNanos(readReplicaConfig.getPinWindowMs());
+    }
+
+    /**
+     * Pin reads of the given keys (walk or pet IDs) to the primary for the configured window
+     * @param keys the IDs that were just written
+     */
+    public void pin(UUID... keys) {
+        long until = System.nanoTime() + pinWindowNanos;
+        for (UUID key : keys) {
+            if (key != null) {
+                pinnedUntil.put(key, until);
+            }
+        }
+        if (pinsSincePurge.incrementAndGet() >= PURGE_EVERY) {
+            pinsSincePurge.set(0);
+            long now = System.nanoTime();
+            pinnedUntil.values().removeIf(expiry -> expiry - now < 0);
+        }
+    }
+
+    /**
+     * Route the current read-only transaction to the primary if the key was written recently.
+     * Must be called before the first query of the transaction.
+     * @param key the walk or pet ID about to be read
+     */
+    public void routeToPrimaryIfPinned(UUID key) {
+        Long until = pinnedUntil.get(key);
+        if (until == null || until - System.nanoTime() < 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                PRIMARY_REQUIRED.remove();
+            }
+        });
+    }
+
+    /**
+     * @return true if the current transaction was pinned to the primary
+     */
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.pettrail.config;
+
+import com.example.pettrail.enums.RateLimitKeyType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "pettrail.rate-limit")
+public class RateLimitConfig {
+
+    private boolean enabled = true;
+    private String store = "local"; // local (per instance) or jdbc (shared by all instances through the database)
+    private List<Policy> policies = new ArrayList<>(); // The first policy matching a request applies
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getStore() {
+        return store;
+    }
+
+    public void setStore(String store) {
+        this.store = store;
+    }
+
+    public List<Policy> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(List<Policy> policies) {
+        this.policies = policies;
+    }
+
+    public static class Policy {
+
+        private String name;
+        private List<String> paths = new ArrayList<>(); // Path patterns, e.g. /api/walks/*/points
+        private List<String> methods = new ArrayList<>(); // Empty means any method
+        private RateLimitKeyType key = RateLimitKeyType.USER;
+        private int capacity = 60; // Burst size: requests allowed at once after a quiet period
+        private double refillPerMinute = 60; // Sustained rate
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public RateLimitKeyType getKey() {
+            return key;
+        }
+
+        public void setKey(RateLimitKeyType key) {
+            this.key = key;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerMinute() {
+            return refillPerMinute;
+        }
+
+        public void setRefillPerMinute(double refillPerMinute) {
+            this.refillPerMinute = refillPerMinute;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.pettrail.config;
+
+import com.example.pettrail.dto.ErrorResponse;
+import com.example.pettrail.enums.ErrorCode;
+import com.example.pettrail.service.ratelimit.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Rejects requests over their rate limit with 429 and Retry-After. Runs in the security chain
+ * right after JWT authentication, so limits can be per user.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitConfig rateLimitConfig;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitConfig rateLimitConfig, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.rateLimitConfig = rateLimitConfig;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RateLimiter.Rejection rejection = rateLimitConfig.isEnabled() ? rateLimiter.check(request) : null;
+        if (rejection == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                ErrorCode.RATE_LIMITED,
+                "Too many requests, retry in " + rejection.retryAfterSeconds() + " s",
+                List.of()
+        );
+        // Debug only: a misbehaving client would flood the log (see the pettrail.ratelimit.rejected metric)
+        logger.debug("Rate limited by policy {}: {} {} from {}", rejection.policy(), request.getMethod(),
+                request.getRequestURI(), request.getRemoteAddr());
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(rejection.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
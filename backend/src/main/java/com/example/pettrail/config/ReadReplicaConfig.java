@@ -0,0 +1,67 @@
+package com.example.pettrail.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "pettrail.datasource.replica")
+public class ReadReplicaConfig {
+
+    private List<String> urls = new ArrayList<>(); // Empty list disables read routing
+    private String username;
+    private String password;
+    private long maxLagMs = 5000; // Replicas lagging more than this are skipped
+    private long pinWindowMs = 15000; // How long reads of a just-written walk stay on the primary
+    private long healthCheckIntervalMs = 5000;
+
+    public List<String> getUrls() {
+        return urls;
+    }
+
+    public void setUrls(List<String> urls) {
+        this.urls = urls;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public long getMaxLagMs() {
+        return maxLagMs;
+    }
+
+    public void setMaxLagMs(long maxLagMs) {
+        this.maxLagMs = maxLagMs;
+    }
+
+    public long getPinWindowMs() {
+        return pinWindowMs;
+    }
+
+    public void setPinWindowMs(long pinWindowMs) {
+        this.pinWindowMs = pinWindowMs;
+    }
+
+    public long getHealthCheckIntervalMs() {
+        return healthCheckIntervalMs;
+    }
+
+    public void setHealthCheckIntervalMs(long healthCheckIntervalMs) {
+        this.healthCheckIntervalMs = healthCheckIntervalMs;
+    }
+}
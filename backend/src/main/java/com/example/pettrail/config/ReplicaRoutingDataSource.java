@@ -0,0 +1,191 @@
+package com.example.pettrail.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource that sends read-only transactions to healthy replicas and everything else to the primary.
+ * Must be wrapped in a LazyConnectionDataSourceProxy so the routing decision happens at the first
+ * statement, after Spring has marked the transaction read-only.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    // Lag is zero while the replica has replayed everything it received, even if the primary is idle
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0) END";
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMs;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaPools,
+                                    long maxLagMs, long healthCheckIntervalMs, MeterRegistry meterRegistry) {
+        this(primary, replicaPools, maxLagMs, meterRegistry, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        // Replicas start unhealthy; the first check (immediately) lets them take traffic
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, 0, healthCheckIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Without scheduled health checks: replicas take traffic once checkReplicas() has passed them
+     */
+    ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaPools, long maxLagMs,
+                             MeterRegistry meterRegistry, ScheduledExecutorService healthChecker) {
+        this.primary = primary;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.maxLagMs = maxLagMs;
+
+        if (meterRegistry != null) {
+            this.primaryReads = Counter.builder("pettrail.db.routing.reads").tag("target", "primary").register(meterRegistry);
+            this.replicaReads = Counter.builder("pettrail.db.routing.reads").tag("target", "replica").register(meterRegistry);
+            for (Replica replica : replicas) {
+                Gauge.builder("pettrail.db.replica.lag", replica, r -> r.lagMs)
+                        .baseUnit("milliseconds").tag("pool", replica.name).register(meterRegistry);
+                Gauge.builder("pettrail.db.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                        .tag("pool", replica.name).register(meterRegistry);
+            }
+        } else {
+            this.primaryReads = null;
+            this.replicaReads = null;
+        }
+        this.healthChecker = healthChecker;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!isReadOnlyTransaction()) {
+            return primary.getConnection();
+        }
+        Replica replica = selectReplica();
+        if (replica == null) {
+            count(primaryReads);
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.pool.getConnection();
+            count(replicaReads);
+            return connection;
+        } catch (SQLException e) {
+            // Fail over immediately; the health checker brings the replica back once it recovers
+            replica.markDown(e.getMessage());
+            count(primaryReads);
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Never routed: a caller passing its own credentials gets whatever the primary pool does with
+     * them (HikariCP refuses them with SQLFeatureNotSupportedException, as without replicas)
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    private boolean isReadOnlyTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !PrimaryPinRegistry.isPrimaryRequired();
+    }
+
+    /**
+     * Round-robin over replicas that passed the last health check
+     * @return a healthy replica, or null to fall back to the primary
+     */
+    private Replica selectReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(cursor.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                long lag = (long) resultSet.getDouble(1);
+                replica.lagMs = lag;
+                if (lag > maxLagMs) {
+                    replica.markDown("replication lag " + lag + "ms");
+                } else {
+                    replica.markUp();
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+    }
+
+    private static void count(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final HikariDataSource pool;
+        private volatile boolean healthy;
+        private volatile long lagMs;
+
+        private Replica(HikariDataSource pool) {
+            this.name = pool.getPoolName();
+            this.pool = pool;
+        }
+
+        private void markUp() {
+            if (!healthy) {
+                logger.info("Replica {} is healthy (lag {}ms), routing reads to it", name, lagMs);
+            }
+            healthy = true;
+        }
+
+        private void markDown(String reason) {
+            if (healthy) {
+                logger.warn("Replica {} taken out of rotation: {}", name, reason);
+            }
+            healthy = false;
+        }
+    }
+}
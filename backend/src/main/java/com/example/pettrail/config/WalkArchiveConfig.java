@@ -0,0 +1,55 @@
+package com.example.pettrail.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "pettrail.archive")
+public class WalkArchiveConfig {
+
+    private boolean enabled = false;
+    private String directory = "data/archive"; // Must be persistent storage shared by every instance
+    private int minAgeDays = 90; // Finished walks older than this are archived
+    private int batchSize = 100; // Walks per segment file
+    private int maxBatchesPerRun = 50;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getMinAgeDays() {
+        return minAgeDays;
+    }
+
+    public void setMinAgeDays(int minAgeDays) {
+        this.minAgeDays = minAgeDays;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxBatchesPerRun() {
+        return maxBatchesPerRun;
+    }
+
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+}
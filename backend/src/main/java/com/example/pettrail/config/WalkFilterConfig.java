@@ -0,0 +1,106 @@
+package com.example.pettrail.config;
+
+import com.example.pettrail.enums.PointFilterStageType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "pettrail.filter")
+public class WalkFilterConfig {
+
+    // KALMAN and STATIONARY move or drop the stored points themselves, so they are opt-in
+    private List<PointFilterStageType> stages = new ArrayList<>(List.of(
+            PointFilterStageType.ACCURACY, PointFilterStageType.SPEED));
+    private double maxAccuracyM = 50.0; // Points reported less accurate than this are discarded
+    private double maxSpeedMps = 50.0; // 180 km/h
+    private double defaultAccuracyM = 10.0; // Assumed for points sent without an accuracy
+    private double accelerationNoise = 0.3; // m/s²; how fast the Kalman filter lets the velocity change
+    private double stationaryRadiusM = 8.0; // Movement smaller than this is treated as jitter
+    private int stateIdleMinutes = 120; // Filter state of walks without uploads for this long is dropped
+    private double pauseSpeedMps = 0.5; // Slower intervals count as stopped time
+    private int pauseWindowSeconds = 30; // Span of the window the pause radius is measured over
+    private double pauseRadiusM = 15.0; // Staying within this over the window counts as stopped time
+
+    public List<PointFilterStageType> getStages() {
+        return stages;
+    }
+
+    public void setStages(List<PointFilterStageType> stages) {
+        this.stages = stages;
+    }
+
+    public double getMaxAccuracyM() {
+        return maxAccuracyM;
+    }
+
+    public void setMaxAccuracyM(double maxAccuracyM) {
+        this.maxAccuracyM = maxAccuracyM;
+    }
+
+    public double getMaxSpeedMps() {
+        return maxSpeedMps;
+    }
+
+    public void setMaxSpeedMps(double maxSpeedMps) {
+        this.maxSpeedMps = maxSpeedMps;
+    }
+
+    public double getDefaultAccuracyM() {
+        return defaultAccuracyM;
+    }
+
+    public void setDefaultAccuracyM(double defaultAccuracyM) {
+        this.defaultAccuracyM = defaultAccuracyM;
+    }
+
+    public double getAccelerationNoise() {
+        return accelerationNoise;
+    }
+
+    public void setAccelerationNoise(double accelerationNoise) {
+        this.accelerationNoise = accelerationNoise;
+    }
+
+    public double getStationaryRadiusM() {
+        return stationaryRadiusM;
+    }
+
+    public void setStationaryRadiusM(double stationaryRadiusM) {
+        this.stationaryRadiusM = stationaryRadiusM;
+    }
+
+    public int getStateIdleMinutes() {
+        return stateIdleMinutes;
+    }
+
+    public void setStateIdleMinutes(int stateIdleMinutes) {
+        this.stateIdleMinutes = stateIdleMinutes;
+    }
+
+    public double getPauseSpeedMps() {
+        return pauseSpeedMps;
+    }
+
+    public void setPauseSpeedMps(double pauseSpeedMps) {
+        this.pauseSpeedMps = pauseSpeedMps;
+    }
+
+    public int getPauseWindowSeconds() {
+        return pauseWindowSeconds;
+    }
+
+    public void setPauseWindowSeconds(int pauseWindowSeconds) {
+        this.pauseWindowSeconds = pauseWindowSeconds;
+    }
+
+    public double getPauseRadiusM() {
+        return pauseRadiusM;
+    }
+
+    public void setPauseRadiusM(double pauseRadiusM) {
+        this.pauseRadiusM = pauseRadiusM;
+    }
+}
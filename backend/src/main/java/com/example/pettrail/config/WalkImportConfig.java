@@ -0,0 +1,100 @@
+package com.example.pettrail.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "pettrail.import")
+public class WalkImportConfig {
+
+    private long maxBytes = 500L * 1024 * 1024; // Largest accepted upload
+    private String spoolDirectory; // Where uploads wait for processing; defaults to java.io.tmpdir
+    private int splitGapMinutes = 30; // A pause longer than this inside a track starts a new walk
+    private int batchSize = 1000; // Points per JDBC batch
+    private int threads = 2;
+    private int queueCapacity = 8; // Imports waiting for a worker before new ones are rejected
+    private int jobRetentionMinutes = 60; // How long finished jobs stay queryable
+    private int leaseSeconds = 120; // A job whose worker stopped renewing this may be resumed by an instance with its spool file
+    private int maxAttempts = 3; // Workers that may start a job before it is failed (an upload that keeps crashing them)
+    private int orphanTimeoutMinutes = 15; // A job nobody resumed this long after its lease expired is failed
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public String getSpoolDirectory() {
+        return spoolDirectory;
+    }
+
+    public void setSpoolDirectory(String spoolDirectory) {
+        this.spoolDirectory = spoolDirectory;
+    }
+
+    public int getSplitGapMinutes() {
+        return splitGapMinutes;
+    }
+
+    public void setSplitGapMinutes(int splitGapMinutes) {
+        this.splitGapMinutes = splitGapMinutes;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getJobRetentionMinutes() {
+        return jobRetentionMinutes;
+    }
+
+    public void setJobRetentionMinutes(int jobRetentionMinutes) {
+        this.jobRetentionMinutes = jobRetentionMinutes;
+    }
+
+    public int getLeaseSeconds() {
+        return leaseSeconds;
+    }
+
+    public void setLeaseSeconds(int leaseSeconds) {
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public int getOrphanTimeoutMinutes() {
+        return orphanTimeoutMinutes;
+    }
+
+    public void setOrphanTimeoutMinutes(int orphanTimeoutMinutes) {
+        this.orphanTimeoutMinutes = orphanTimeoutMinutes;
+    }
+}
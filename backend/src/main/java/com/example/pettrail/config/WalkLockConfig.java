@@ -0,0 +1,29 @@
+package com.example.pettrail.config;
+
+import com.example.pettrail.enums.WalkLockMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "pettrail.walk-lock")
+public class WalkLockConfig {
+
+    private WalkLockMode mode = WalkLockMode.ADVISORY;
+    private int stripes = 1024; // LOCAL mode: number of locks walks are hashed onto (rounded up to a power of two)
+
+    public WalkLockMode getMode() {
+        return mode;
+    }
+
+    public void setMode(WalkLockMode mode) {
+        this.mode = mode;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.pettrail.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "pettrail.partitions")
+public class WalkPointPartitionConfig {
+
+    private boolean enabled = true;
+    private int monthsAhead = 3; // Future monthly partitions kept ready for inserts
+    private int retentionMonths = 0; // Partitions older than this are detached; 0 keeps everything
+    private boolean dropDetached = false; // Drop detached partitions instead of leaving them for archiving
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMonthsAhead() {
+        return monthsAhead;
+    }
+
+    public void setMonthsAhead(int monthsAhead) {
+        this.monthsAhead = monthsAhead;
+    }
+
+    public int getRetentionMonths() {
+        return retentionMonths;
+    }
+
+    public void setRetentionMonths(int retentionMonths) {
+        this.retentionMonths = retentionMonths;
+    }
+
+    public boolean isDropDetached() {
+        return dropDetached;
+    }
+
+    public void setDropDetached(boolean dropDetached) {
+        this.dropDetached = dropDetached;
+    }
+}
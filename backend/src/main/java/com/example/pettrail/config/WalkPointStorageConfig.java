@@ -0,0 +1,47 @@
+package com.example.pettrail.config;
+
+import com.example.pettrail.enums.PointStorageMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "pettrail.point-storage")
+public class WalkPointStorageConfig {
+
+    private PointStorageMode mode = PointStorageMode.DUAL;
+    private boolean backfillEnabled = true; // Convert rows written before the fixed-point columns existed
+    private int backfillBatchSize = 5000; // Rows updated per transaction
+    private int backfillMaxBatchesPerRun = 100;
+
+    public PointStorageMode getMode() {
+        return mode;
+    }
+
+    public void setMode(PointStorageMode mode) {
+        this.mode = mode;
+    }
+
+    public boolean isBackfillEnabled() {
+        return backfillEnabled;
+    }
+
+    public void setBackfillEnabled(boolean backfillEnabled) {
+        this.backfillEnabled = backfillEnabled;
+    }
+
+    public int getBackfillBatchSize() {
+        return backfillBatchSize;
+    }
+
+    public void setBackfillBatchSize(int backfillBatchSize) {
+        this.backfillBatchSize = backfillBatchSize;
+    }
+
+    public int getBackfillMaxBatchesPerRun() {
+        return backfillMaxBatchesPerRun;
+    }
+
+    public void setBackfillMaxBatchesPerRun(int backfillMaxBatchesPerRun) {
+        this.backfillMaxBatchesPerRun = backfillMaxBatchesPerRun;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.pettrail.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "pettrail.profile")
+public class WalkProfileConfig {
+
+    private double splitDistanceM = 1000.0; // One split per kilometre
+    private double elevationHysteresisM = 3.0; // Elevation changes smaller than this are treated as GPS noise
+    private int sampleIntervalS = 5; // Initial width of a profile sample; doubled whenever the walk needs more than max-samples
+    private int maxSamples = 300; // Samples per series at most
+
+    public double getSplitDistanceM() {
+        return splitDistanceM;
+    }
+
+    public void setSplitDistanceM(double splitDistanceM) {
+        this.splitDistanceM = splitDistanceM;
+    }
+
+    public double getElevationHysteresisM() {
+        return elevationHysteresisM;
+    }
+
+    public void setElevationHysteresisM(double elevationHysteresisM) {
+        this.elevationHysteresisM = elevationHysteresisM;
+    }
+
+    public int getSampleIntervalS() {
+        return sampleIntervalS;
+    }
+
+    public void setSampleIntervalS(int sampleIntervalS) {
+        this.sampleIntervalS = sampleIntervalS;
+    }
+
+    public int getMaxSamples() {
+        return maxSamples;
+    }
+
+    public void setMaxSamples(int maxSamples) {
+        this.maxSamples = maxSamples;
+    }
+}
@@ -2,7 +2,9 @@ package com.example.pettrail.controller;
 
 import com.example.pettrail.dto.AuthResponse;
 import com.example.pettrail.dto.LoginRequest;
+import com.example.pettrail.dto.RefreshTokenRequest;
 import com.example.pettrail.dto.RegisterRequest;
+import com.example.pettrail.exception.PasswordHashingRejectedException;
 import com.example.pettrail.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -77,6 +79,14 @@ public class AuthController {
                     """
                 )
             )
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Too many logins in progress; retry after the Retry-After delay",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/ErrorResponse")
+            )
         )
     })
     public ResponseEntity<AuthResponse> register(
@@ -132,6 +142,14 @@ public class AuthController {
                     """
                 )
             )
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Too many logins in progress; retry after the Retry-After delay",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/ErrorResponse")
+            )
         )
     })
     public ResponseEntity<AuthResponse> login(
@@ -140,10 +158,82 @@ public class AuthController {
         try {
             AuthResponse response = authService.login(request);
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingRejectedException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
     }
-}
 
+    @PostMapping("/refresh")
+    @Operation(
+        summary = "Refresh tokens",
+        description = "Exchanges a refresh token for a new access token and a new refresh token. "
+            + "Each refresh token works once: presenting a used one again revokes every token of its login."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Tokens refreshed",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = AuthResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Validation error",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/ErrorResponse")
+            )
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Refresh token unknown, expired, revoked or already used; log in again",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/ErrorResponse"),
+                examples = @ExampleObject(
+                    name = "Token Already Used",
+                    value = """
+                    {
+                      "code": "UNAUTHORIZED",
+                      "message": "Refresh token already used",
+                      "details": []
+                    }
+                    """
+                )
+            )
+        )
+    })
+    public ResponseEntity<AuthResponse> refresh(
+        @Valid @RequestBody RefreshTokenRequest request
+    ) {
+        return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+    }
 
+    @PostMapping("/logout")
+    @Operation(
+        summary = "Logout user",
+        description = "Revokes the refresh token and every token issued from the same login. "
+            + "Access tokens stay valid until they expire."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Logged out"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Validation error",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/ErrorResponse")
+            )
+        )
+    })
+    public ResponseEntity<Void> logout(
+        @Valid @RequestBody RefreshTokenRequest request
+    ) {
+        authService.logout(request.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
+}
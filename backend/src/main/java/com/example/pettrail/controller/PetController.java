@@ -2,10 +2,12 @@ package com.example.pettrail.controller;
 
 import com.example.pettrail.dto.CriarPetRequest;
 import com.example.pettrail.dto.AtualizarPetRequest;
+import com.example.pettrail.dto.PetDeletionJobResponse;
 import com.example.pettrail.model.Pet;
 import com.example.pettrail.model.User;
 import com.example.pettrail.repository.PetRepository;
 import com.example.pettrail.service.AuthService;
+import com.example.pettrail.service.PetDeletionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -21,6 +23,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -36,6 +39,9 @@ public class PetController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private PetDeletionService petDeletionService;
+
     @GetMapping
     @Operation(
         summary = "List all pets",
@@ -331,12 +337,16 @@ public class PetController {
     @DeleteMapping("/{id}")
     @Operation(
         summary = "Delete a pet",
-        description = "Deletes a pet by its ID"
+        description = "Deletes a pet by its ID. The pet and its walks disappear at once; the walks and their points are removed in the background, with progress available from the returned job."
     )
     @ApiResponses(value = {
         @ApiResponse(
-            responseCode = "204",
-            description = "Pet deleted successfully"
+            responseCode = "202",
+            description = "Pet deleted, removal of its walks queued",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = PetDeletionJobResponse.class)
+            )
         ),
         @ApiResponse(
             responseCode = "404",
@@ -377,20 +387,50 @@ public class PetController {
             )
         )
     })
-    public ResponseEntity<Void> deletePet(
+    public ResponseEntity<PetDeletionJobResponse> deletePet(
         @Parameter(description = "ID of the pet to delete", required = true)
         @PathVariable UUID id,
         HttpServletRequest request
     ) {
         String token = extractTokenFromRequest(request);
         User currentUser = authService.getCurrentUser(token);
-        Optional<Pet> pet = petRepository.findByIdAndUserId(id, currentUser.getId());
-        if (pet.isPresent()) {
-            petRepository.deleteById(id);
-            return ResponseEntity.noContent().build();
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+        PetDeletionJobResponse response = petDeletionService.requestDeletion(id, currentUser.getId());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/pets/deletions/" + response.getJobId()))
+                .body(response);
+    }
+
+    @GetMapping("/deletions/{jobId}")
+    @Operation(
+        summary = "Get pet deletion progress",
+        description = "Progress of the background removal of a deleted pet's walks, including their routes in the archive. Completed jobs are kept for a limited time."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Deletion progress",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = PetDeletionJobResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Deletion job not found",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/ErrorResponse")
+            )
+        )
+    })
+    public ResponseEntity<PetDeletionJobResponse> getDeletion(
+        @Parameter(description = "ID of the deletion job", required = true)
+        @PathVariable UUID jobId,
+        HttpServletRequest request
+    ) {
+        String token = extractTokenFromRequest(request);
+        User currentUser = authService.getCurrentUser(token);
+        return ResponseEntity.ok(petDeletionService.getJob(jobId, currentUser.getId()));
     }
 
     private String extractTokenFromRequest(HttpServletRequest request) {
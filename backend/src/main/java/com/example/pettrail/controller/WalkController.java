@@ -6,7 +6,12 @@ import com.example.pettrail.dto.WalkPointRequest;
 import com.example.pettrail.dto.WalkPointsBatchResponse;
 import com.example.pettrail.dto.WalksPageResponse;
 import com.example.pettrail.dto.WalkGeoJsonResponse;
+import com.example.pettrail.dto.WalkListItem;
+import com.example.pettrail.dto.WalkProfileResponse;
 import com.example.pettrail.exception.PaginationValidationException;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.service.WalkPointsBinaryFormat;
+import com.example.pettrail.service.WalkProfileService;
 import com.example.pettrail.service.WalkService;
 import com.example.pettrail.service.WalkPointsService;
 import com.example.pettrail.validation.ValidWalkPointsArray;
@@ -19,10 +24,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.UUID;
 
@@ -33,11 +48,14 @@ public class WalkController {
 
     private final WalkService walkService;
     private final WalkPointsService walkPointsService;
+    private final WalkProfileService walkProfileService;
 
     @Autowired
-    public WalkController(WalkService walkService, WalkPointsService walkPointsService) {
+    public WalkController(WalkService walkService, WalkPointsService walkPointsService,
+                          WalkProfileService walkProfileService) {
         this.walkService = walkService;
         this.walkPointsService = walkPointsService;
+        this.walkProfileService = walkProfileService;
     }
 
     @PostMapping("/start")
@@ -178,7 +196,9 @@ public class WalkController {
     @PostMapping("/{id}/points")
     @Operation(
         summary = "Upload walk points in batch",
-        description = "Upload GPS points for a walk. Points are validated, sorted by timestamp, and outliers (speed > 50 m/s) are discarded. Coordinates must be WGS84 lat/lon in degrees for OpenStreetMap compatibility."
+        description = "Upload GPS points for a walk. Points are validated, sorted by timestamp and run through the walk's filter pipeline, which continues from the previous batch: " +
+                "inaccurate fixes and outliers (speed > 50 m/s) are discarded and the remaining positions are stored as reported. " +
+                "Deployments can enable smoothing (Kalman) and dropping jitter while standing still, which store the smoothed positions instead. Coordinates must be WGS84 lat/lon in degrees for OpenStreetMap compatibility."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -258,6 +278,65 @@ public class WalkController {
         return ResponseEntity.accepted().body(response);
     }
 
+    @PostMapping(value = "/{id}/points", consumes = WalkPointsBinaryFormat.MEDIA_TYPE)
+    @Operation(
+        summary = "Upload walk points in batch (binary)",
+        description = "Same as the JSON upload, with the points as a delta-encoded varint batch (" +
+                WalkPointsBinaryFormat.MEDIA_TYPE + ", see WalkPointsBinaryFormat): ms timestamps, coordinates in " +
+                "1e-7 degrees, optional elevations in cm and optional accuracies in dm. About 1/15 of the JSON size and decoded without per-point objects."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "Points processed successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = WalkPointsBatchResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Malformed payload, too many points, or out-of-range values",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/ErrorResponse"),
+                examples = @ExampleObject(
+                    name = "Out Of Range",
+                    value = "{\"code\": \"VALIDATION_ERROR\", \"message\": \"One or more validation errors occurred.\", \"details\": [{\"field\": \"points[3].lat\", \"issue\": \"Latitude must be between -90 and 90 degrees\"}]}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Walk not found",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/ErrorResponse")
+            )
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Walk already finished",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/ErrorResponse")
+            )
+        )
+    })
+    public ResponseEntity<WalkPointsBatchResponse> uploadWalkPointsBinary(
+            @Parameter(
+                description = "ID of the walk to upload points for",
+                required = true,
+                example = "123"
+            )
+            @PathVariable("id") UUID walkId,
+            InputStream body) throws IOException {
+
+        WalkTrack points = WalkPointsBinaryFormat.decode(body);
+        WalkPointsBatchResponse response = walkPointsService.ingestPoints(walkId, points);
+        return ResponseEntity.accepted().body(response);
+    }
+
     @PostMapping("/{id}/stop")
     @Operation(
         summary = "Stop a walk and compute consolidated metrics",
@@ -327,7 +406,7 @@ public class WalkController {
     @GetMapping
     @Operation(
         summary = "List walks by pet with pagination",
-        description = "Get a paginated list of walks for a specific pet, ordered by start time descending. Returns walks with their metrics (distance, duration, average speed)."
+        description = "Get a paginated list of walks for a specific pet, ordered by start time descending. Returns walks with their metrics (distance, duration, average speed). The response has an ETag; a request with a matching If-None-Match gets 304."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -341,6 +420,10 @@ public class WalkController {
                 )
             )
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "The page hasn't changed since the ETag in If-None-Match"
+        ),
         @ApiResponse(
             responseCode = "400",
             description = "Invalid pagination parameters",
@@ -405,13 +488,17 @@ public class WalkController {
         }
         
         WalksPageResponse response = walkService.listByPet(petId, page, size);
-        return ResponseEntity.ok(response);
+        // Spring answers 304 itself when the tag matches If-None-Match
+        return ResponseEntity.ok()
+                .eTag(pageETag(response))
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(response);
     }
 
     @GetMapping("/{id}/geojson")
     @Operation(
         summary = "Get walk route as GeoJSON",
-        description = "Get a walk's route as a GeoJSON Feature with LineString geometry. Coordinates are in WGS84 [longitude, latitude] order for OpenStreetMap/Leaflet compatibility. Returns empty LineString if walk has no points."
+        description = "Get a walk's route as a GeoJSON Feature with LineString geometry. Coordinates are in WGS84 [longitude, latitude] order for OpenStreetMap/Leaflet compatibility. Returns empty LineString if walk has no points. A finished walk's route never changes: its response has an ETag, and a request with a matching If-None-Match gets 304 without reading the points."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -432,6 +519,10 @@ public class WalkController {
                 }
             )
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "The walk is finished and its route matches the ETag in If-None-Match"
+        ),
         @ApiResponse(
             responseCode = "404",
             description = "Walk not found",
@@ -463,9 +554,107 @@ public class WalkController {
                 required = true,
                 example = "123"
             )
-            @PathVariable("id") UUID walkId) {
-        
+            @PathVariable("id") UUID walkId,
+            WebRequest webRequest) {
+
+        // Checked before reading the route; this also sets the ETag header of the full response
+        String eTag = walkService.getGeoJsonETag(walkId);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
         WalkGeoJsonResponse response = walkService.getGeoJson(walkId);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(response);
+    }
+
+    @GetMapping(value = "/{id}/profile", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Get walk splits and profile",
+        description = "Get a finished walk's per-kilometre splits, elevation gain/loss and downsampled speed and elevation series. The profile is built when the walk finishes and never changes: the response may be cached for good, and a request with a matching If-None-Match gets 304."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Splits and profile of the walk",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = WalkProfileResponse.class),
+                examples = @ExampleObject(
+                    name = "Profile",
+                    value = "{\"walkId\":\"550e8400-e29b-41d4-a716-446655440000\",\"distanciaM\":1450.2,\"ganhoElevacaoM\":12.0,\"perdaElevacaoM\":9.0,\"parciais\":[{\"km\":1,\"distanciaM\":1000.0,\"duracaoS\":652,\"ritmoSKm\":652,\"velMediaKmh\":5.52,\"ganhoElevacaoM\":8.0,\"perdaElevacaoM\":3.0},{\"km\":2,\"distanciaM\":450.2,\"duracaoS\":301,\"ritmoSKm\":669,\"velMediaKmh\":5.38,\"ganhoElevacaoM\":4.0,\"perdaElevacaoM\":6.0}],\"intervaloS\":5,\"velocidadesKmh\":[4.8,5.1],\"elevacoesM\":[760.0,761.5]}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "The profile matches the ETag in If-None-Match"
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Walk not found",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/ErrorResponse"),
+                examples = @ExampleObject(
+                    name = "Walk Not Found",
+                    value = "{\"code\": \"NOT_FOUND\", \"message\": \"walk not found\", \"details\": [{\"field\": \"id\", \"issue\": \"unknown\"}]}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Walk is still active",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/ErrorResponse"),
+                examples = @ExampleObject(
+                    name = "Walk Not Finished",
+                    value = "{\"code\": \"CONFLICT\", \"message\": \"walk not finished\", \"details\": []}"
+                )
+            )
+        )
+    })
+    public ResponseEntity<String> getWalkProfile(
+            @Parameter(
+                description = "ID of the walk to get the profile for",
+                required = true,
+                example = "550e8400-e29b-41d4-a716-446655440000"
+            )
+            @PathVariable("id") UUID walkId,
+            WebRequest webRequest) {
+
+        // Checked before reading the profile; this also sets the ETag header of the full response
+        String eTag = walkProfileService.getProfileETag(walkId);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        // Stored as the JSON to serve
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
+                .body(walkProfileService.getProfileJson(walkId));
+    }
+
+    private static String pageETag(WalksPageResponse response) {
+        StringBuilder state = new StringBuilder(64 + response.getContent().size() * 96)
+                .append(response.getPage()).append('/').append(response.getSize()).append('/')
+                .append(response.getTotalPages()).append('/').append(response.getTotalElements());
+        for (WalkListItem item : response.getContent()) {
+            state.append('|').append(item.getId()).append(',').append(item.getStartedAt()).append(',')
+                    .append(item.getFinishedAt()).append(',').append(item.getDistanciaM()).append(',')
+                    .append(item.getDuracaoS()).append(',').append(item.getVelMediaKmh()).append(',')
+                    .append(item.getTempoMovimentoS()).append(',').append(item.getTempoParadoS()).append(',')
+                    .append(item.getVelMovimentoKmh());
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(state.toString().getBytes(StandardCharsets.UTF_8));
+            // Weak, like the GeoJSON tag, so the page can still be compressed
+            return "W/\"" + HexFormat.of().formatHex(digest, 0, 16) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
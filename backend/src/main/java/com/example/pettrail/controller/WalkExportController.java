@@ -0,0 +1,103 @@
+package com.example.pettrail.controller;
+
+import com.example.pettrail.enums.ExportFormat;
+import com.example.pettrail.service.WalkExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/walks/export")
+@Tag(name = "Walk export", description = "Bulk export of walks as GPX, GeoJSON or a ZIP of GPX files")
+public class WalkExportController {
+
+    private final WalkExportService walkExportService;
+
+    @Autowired
+    public WalkExportController(WalkExportService walkExportService) {
+        this.walkExportService = walkExportService;
+    }
+
+    @GetMapping
+    @Operation(
+        summary = "Export walks",
+        description = "Download the current user's finished walks, optionally for one pet and/or a date range " +
+                "(by start date, both ends inclusive). The file is streamed while it is generated, so the size " +
+                "is not known in advance and an error after the first bytes ends the download early."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Export file",
+            content = {
+                @Content(mediaType = "application/geo+json"),
+                @Content(mediaType = "application/gpx+xml"),
+                @Content(mediaType = "application/zip")
+            }
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Unknown format or invalid date range",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/ErrorResponse"),
+                examples = @ExampleObject(
+                    name = "Invalid Range",
+                    value = "{\"code\": \"VALIDATION_ERROR\", \"message\": \"'from' must not be after 'to'\", \"details\": []}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Pet not found",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/ErrorResponse")
+            )
+        )
+    })
+    public ResponseEntity<StreamingResponseBody> exportWalks(
+            @Parameter(description = "GPX, GEOJSON (default) or ZIP")
+            @RequestParam(value = "format", required = false) String format,
+            @Parameter(description = "Only walks of this pet")
+            @RequestParam(value = "petId", required = false) UUID petId,
+            @Parameter(description = "First day (yyyy-MM-dd)", example = "2025-01-01")
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day, inclusive (yyyy-MM-dd)", example = "2025-12-31")
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        ExportFormat exportFormat = WalkExportService.resolveFormat(format);
+        StreamingResponseBody body = walkExportService.export(exportFormat, petId, from, to);
+
+        String filename = "pettrail-walks-" + LocalDate.now() + switch (exportFormat) {
+            case GPX -> ".gpx";
+            case GEOJSON -> ".geojson";
+            case ZIP -> ".zip";
+        };
+        MediaType mediaType = switch (exportFormat) {
+            case GPX -> MediaType.parseMediaType("application/gpx+xml");
+            case GEOJSON -> MediaType.parseMediaType("application/geo+json");
+            case ZIP -> MediaType.parseMediaType("application/zip");
+        };
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
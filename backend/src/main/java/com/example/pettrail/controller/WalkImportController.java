@@ -0,0 +1,123 @@
+package com.example.pettrail.controller;
+
+import com.example.pettrail.dto.ImportJobResponse;
+import com.example.pettrail.enums.ImportFormat;
+import com.example.pettrail.service.WalkImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/walks/import")
+@Tag(name = "Walk import", description = "Bulk import of historical walks from GPX, GeoJSON or CSV files")
+public class WalkImportController {
+
+    private final WalkImportService walkImportService;
+
+    @Autowired
+    public WalkImportController(WalkImportService walkImportService) {
+        this.walkImportService = walkImportService;
+    }
+
+    @PostMapping
+    @Operation(
+        summary = "Import historical walks",
+        description = "Send the file as the raw request body (not multipart). Each GPX track, GeoJSON feature or CSV track " +
+                "becomes a finished walk; pauses longer than the configured gap split a track into several walks. " +
+                "Points go through the same filter pipeline as live uploads. Processing is asynchronous: poll the returned job."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "Upload accepted and queued",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ImportJobResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Unknown format, empty or too large upload",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/ErrorResponse"),
+                examples = @ExampleObject(
+                    name = "Unknown Format",
+                    value = "{\"code\": \"VALIDATION_ERROR\", \"message\": \"Cannot determine the import format; pass format=GPX|GEOJSON|CSV\", \"details\": []}"
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Pet not found",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/ErrorResponse")
+            )
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Too many imports in progress",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/ErrorResponse")
+            )
+        )
+    })
+    public ResponseEntity<ImportJobResponse> importWalks(
+            @Parameter(description = "ID of the pet the walks belong to", required = true)
+            @RequestParam("petId") UUID petId,
+            @Parameter(description = "File format; detected from the Content-Type when omitted")
+            @RequestParam(value = "format", required = false) String format,
+            HttpServletRequest request) throws IOException {
+
+        ImportFormat importFormat = WalkImportService.resolveFormat(format, request.getContentType());
+        ImportJobResponse response = walkImportService.submit(petId, importFormat, request.getInputStream());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/walks/import/" + response.getJobId()))
+                .body(response);
+    }
+
+    @GetMapping("/{jobId}")
+    @Operation(
+        summary = "Get import progress",
+        description = "Progress and counters of an import started by the current user. Finished jobs are kept for a limited time."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Import progress",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ImportJobResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Import job not found",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/ErrorResponse")
+            )
+        )
+    })
+    public ResponseEntity<ImportJobResponse> getImport(
+            @Parameter(description = "ID of the import job", required = true)
+            @PathVariable("jobId") UUID jobId) {
+
+        return ResponseEntity.ok(walkImportService.getJob(jobId));
+    }
+}
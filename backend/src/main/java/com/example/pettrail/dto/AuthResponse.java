@@ -14,6 +14,12 @@ public class AuthResponse {
     @Schema(description = "Token type", example = "Bearer")
     private String tokenType = "Bearer";
 
+    @Schema(description = "Access token lifetime in seconds", example = "900")
+    private Long expiresIn;
+
+    @Schema(description = "Single-use token for POST /api/auth/refresh; each refresh returns a new one", example = "q4Zr0c7C3m1u0pN9bXc0sS2x7WvJgH0yKf5aL8dE1tI")
+    private String refreshToken;
+
     @Schema(description = "User's ID", example = "550e8400-e29b-41d4-a716-446655440000")
     private UUID userId;
 
@@ -45,6 +51,13 @@ public class AuthResponse {
         this.role = role;
     }
 
+    public AuthResponse(String token, Long expiresIn, String refreshToken, UUID userId, String email,
+                        String firstName, String lastName, Role role) {
+        this(token, userId, email, firstName, lastName, role);
+        this.expiresIn = expiresIn;
+        this.refreshToken = refreshToken;
+    }
+
     // Getters and Setters
     public String getToken() {
         return token;
@@ -62,6 +75,22 @@ public class AuthResponse {
         this.tokenType = tokenType;
     }
 
+    public Long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(Long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     public UUID getUserId() {
         return userId;
     }
@@ -11,7 +11,7 @@ public class ErrorResponse {
     @Schema(
         description = "Error code", 
         example = "VALIDATION_ERROR",
-        allowableValues = {"VALIDATION_ERROR", "NOT_FOUND", "CONFLICT", "INTERNAL_ERROR"}
+        allowableValues = {"VALIDATION_ERROR", "UNAUTHORIZED", "NOT_FOUND", "CONFLICT", "SERVICE_UNAVAILABLE", "RATE_LIMITED", "INTERNAL_ERROR"}
     )
     private ErrorCode code;
 
@@ -0,0 +1,181 @@
+package com.example.pettrail.dto;
+
+import com.example.pettrail.enums.ImportFormat;
+import com.example.pettrail.enums.ImportStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Schema(description = "Progress of a walk import")
+public class ImportJobResponse {
+
+    @Schema(description = "Import job ID", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID jobId;
+
+    @Schema(description = "Pet the walks are imported for", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID petId;
+
+    @Schema(description = "Detected file format", example = "GPX")
+    private ImportFormat format;
+
+    @Schema(description = "Job status", example = "RUNNING")
+    private ImportStatus status;
+
+    @Schema(description = "Size of the uploaded file in bytes", example = "52428800")
+    private long bytesTotal;
+
+    @Schema(description = "Bytes parsed so far", example = "10485760")
+    private long bytesProcessed;
+
+    @Schema(description = "Parsing progress (0-100)", example = "20")
+    private int progressPercent;
+
+    @Schema(description = "Walks created so far", example = "42")
+    private int walksImported;
+
+    @Schema(description = "Tracks skipped (already imported, or fewer than 2 valid points)", example = "1")
+    private int walksSkipped;
+
+    @Schema(description = "Points read from the file", example = "120000")
+    private long pointsReceived;
+
+    @Schema(description = "Points stored", example = "118500")
+    private long pointsAccepted;
+
+    @Schema(description = "Points discarded (invalid, outliers or skipped tracks)", example = "1500")
+    private long pointsDiscarded;
+
+    @Schema(description = "Failure reason when status is FAILED")
+    private String error;
+
+    @Schema(description = "When the upload was accepted", example = "2025-08-14T22:00:00")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "When processing ended (null while running)", example = "2025-08-14T22:03:10")
+    private LocalDateTime finishedAt;
+
+    // Constructors
+    public ImportJobResponse() {}
+
+    // Getters and Setters
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(UUID jobId) {
+        this.jobId = jobId;
+    }
+
+    public UUID getPetId() {
+        return petId;
+    }
+
+    public void setPetId(UUID petId) {
+        this.petId = petId;
+    }
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(ImportFormat format) {
+        this.format = format;
+    }
+
+    public ImportStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ImportStatus status) {
+        this.status = status;
+    }
+
+    public long getBytesTotal() {
+        return bytesTotal;
+    }
+
+    public void setBytesTotal(long bytesTotal) {
+        this.bytesTotal = bytesTotal;
+    }
+
+    public long getBytesProcessed() {
+        return bytesProcessed;
+    }
+
+    public void setBytesProcessed(long bytesProcessed) {
+        this.bytesProcessed = bytesProcessed;
+    }
+
+    public int getProgressPercent() {
+        return progressPercent;
+    }
+
+    public void setProgressPercent(int progressPercent) {
+        this.progressPercent = progressPercent;
+    }
+
+    public int getWalksImported() {
+        return walksImported;
+    }
+
+    public void setWalksImported(int walksImported) {
+        this.walksImported = walksImported;
+    }
+
+    public int getWalksSkipped() {
+        return walksSkipped;
+    }
+
+    public void setWalksSkipped(int walksSkipped) {
+        this.walksSkipped = walksSkipped;
+    }
+
+    public long getPointsReceived() {
+        return pointsReceived;
+    }
+
+    public void setPointsReceived(long pointsReceived) {
+        this.pointsReceived = pointsReceived;
+    }
+
+    public long getPointsAccepted() {
+        return pointsAccepted;
+    }
+
+    public void setPointsAccepted(long pointsAccepted) {
+        this.pointsAccepted = pointsAccepted;
+    }
+
+    public long getPointsDiscarded() {
+        return pointsDiscarded;
+    }
+
+    public void setPointsDiscarded(long pointsDiscarded) {
+        this.pointsDiscarded = pointsDiscarded;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
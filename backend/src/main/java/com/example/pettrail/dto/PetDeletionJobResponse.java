@@ -0,0 +1,147 @@
+package com.example.pettrail.dto;
+
+import com.example.pettrail.enums.PetDeletionStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Schema(description = "Progress of a pet deletion")
+public class PetDeletionJobResponse {
+
+    @Schema(description = "Deletion job ID", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID jobId;
+
+    @Schema(description = "Deleted pet", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID petId;
+
+    @Schema(description = "Job status", example = "RUNNING")
+    private PetDeletionStatus status;
+
+    @Schema(description = "Walks the pet had", example = "120")
+    private int walksTotal;
+
+    @Schema(description = "Walks removed so far", example = "40")
+    private int walksDeleted;
+
+    @Schema(description = "Points removed so far", example = "96000")
+    private long pointsDeleted;
+
+    @Schema(description = "Archive files still holding routes of removed walks; they are rewritten without them before the job completes", example = "0")
+    private int archiveSegmentsPending;
+
+    @Schema(description = "Removal progress (0-100)", example = "33")
+    private int progressPercent;
+
+    @Schema(description = "Failed attempts so far; failed attempts are retried", example = "0")
+    private int attempts;
+
+    @Schema(description = "Last failure reason")
+    private String error;
+
+    @Schema(description = "When the pet was deleted", example = "2025-08-14T22:00:00")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "When its walks and archived routes were all removed (null until then)", example = "2025-08-14T22:00:12")
+    private LocalDateTime finishedAt;
+
+    // Constructors
+    public PetDeletionJobResponse() {}
+
+    // Getters and Setters
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(UUID jobId) {
+        this.jobId = jobId;
+    }
+
+    public UUID getPetId() {
+        return petId;
+    }
+
+    public void setPetId(UUID petId) {
+        this.petId = petId;
+    }
+
+    public PetDeletionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(PetDeletionStatus status) {
+        this.status = status;
+    }
+
+    public int getWalksTotal() {
+        return walksTotal;
+    }
+
+    public void setWalksTotal(int walksTotal) {
+        this.walksTotal = walksTotal;
+    }
+
+    public int getWalksDeleted() {
+        return walksDeleted;
+    }
+
+    public void setWalksDeleted(int walksDeleted) {
+        this.walksDeleted = walksDeleted;
+    }
+
+    public long getPointsDeleted() {
+        return pointsDeleted;
+    }
+
+    public void setPointsDeleted(long pointsDeleted) {
+        this.pointsDeleted = pointsDeleted;
+    }
+
+    public int getArchiveSegmentsPending() {
+        return archiveSegmentsPending;
+    }
+
+    public void setArchiveSegmentsPending(int archiveSegmentsPending) {
+        this.archiveSegmentsPending = archiveSegmentsPending;
+    }
+
+    public int getProgressPercent() {
+        return progressPercent;
+    }
+
+    public void setProgressPercent(int progressPercent) {
+        this.progressPercent = progressPercent;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
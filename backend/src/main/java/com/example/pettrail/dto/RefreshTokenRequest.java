@@ -0,0 +1,30 @@
+package com.example.pettrail.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+@Schema(description = "Request carrying a refresh token")
+public class RefreshTokenRequest {
+
+    @NotBlank(message = "Refresh token is required")
+    @Size(max = 100, message = "Refresh token is too long")
+    @Schema(description = "Refresh token from the last login or refresh", example = "q4Zr0c7C3m1u0pN9bXc0sS2x7WvJgH0yKf5aL8dE1tI", required = true)
+    private String refreshToken;
+
+    // Constructors
+    public RefreshTokenRequest() {}
+
+    public RefreshTokenRequest(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    // Getters and Setters
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -20,6 +20,15 @@ public class StopWalkResponse {
     @Schema(description = "Average speed in km/h", example = "5.65", required = true)
     private Double velMediaKmh;
 
+    @Schema(description = "Time spent moving in seconds (null for walks recorded before auto-pause)", example = "1320")
+    private Integer tempoMovimentoS;
+
+    @Schema(description = "Time spent stopped in seconds (null for walks recorded before auto-pause)", example = "240")
+    private Integer tempoParadoS;
+
+    @Schema(description = "Average speed while moving in km/h", example = "6.63")
+    private Double velMovimentoKmh;
+
     @Schema(description = "When the walk started", example = "2025-08-13T23:15:00Z", required = true)
     private LocalDateTime startedAt;
 
@@ -29,12 +38,16 @@ public class StopWalkResponse {
     // Constructors
     public StopWalkResponse() {}
 
-    public StopWalkResponse(UUID walkId, Double distanciaM, Integer duracaoS, Double velMediaKmh, 
+    public StopWalkResponse(UUID walkId, Double distanciaM, Integer duracaoS, Double velMediaKmh,
+                           Integer tempoMovimentoS, Integer tempoParadoS, Double velMovimentoKmh, 
                            LocalDateTime startedAt, LocalDateTime finishedAt) {
         this.walkId = walkId;
         this.distanciaM = distanciaM;
         this.duracaoS = duracaoS;
         this.velMediaKmh = velMediaKmh;
+        this.tempoMovimentoS = tempoMovimentoS;
+        this.tempoParadoS = tempoParadoS;
+        this.velMovimentoKmh = velMovimentoKmh;
         this.startedAt = startedAt;
         this.finishedAt = finishedAt;
     }
@@ -70,6 +83,33 @@ public class StopWalkResponse {
 
     public void setVelMediaKmh(Double velMediaKmh) {
         this.velMediaKmh = velMediaKmh;
+        this.tempoMovimentoS = tempoMovimentoS;
+        this.tempoParadoS = tempoParadoS;
+        this.velMovimentoKmh = velMovimentoKmh;
+    }
+
+    public Integer getTempoMovimentoS() {
+        return tempoMovimentoS;
+    }
+
+    public void setTempoMovimentoS(Integer tempoMovimentoS) {
+        this.tempoMovimentoS = tempoMovimentoS;
+    }
+
+    public Integer getTempoParadoS() {
+        return tempoParadoS;
+    }
+
+    public void setTempoParadoS(Integer tempoParadoS) {
+        this.tempoParadoS = tempoParadoS;
+    }
+
+    public Double getVelMovimentoKmh() {
+        return velMovimentoKmh;
+    }
+
+    public void setVelMovimentoKmh(Double velMovimentoKmh) {
+        this.velMovimentoKmh = velMovimentoKmh;
     }
 
     public LocalDateTime getStartedAt() {
@@ -26,17 +26,30 @@ public class WalkListItem {
     @Schema(description = "Average speed in km/h", example = "5.65")
     private Double velMediaKmh;
 
+    @Schema(description = "Time spent moving in seconds (null for walks recorded before auto-pause)", example = "1320")
+    private Integer tempoMovimentoS;
+
+    @Schema(description = "Time spent stopped in seconds (null for walks recorded before auto-pause)", example = "240")
+    private Integer tempoParadoS;
+
+    @Schema(description = "Average speed while moving in km/h", example = "6.63")
+    private Double velMovimentoKmh;
+
     // Constructors
     public WalkListItem() {}
 
     public WalkListItem(UUID id, LocalDateTime startedAt, LocalDateTime finishedAt, 
-                       Double distanciaM, Integer duracaoS, Double velMediaKmh) {
+                       Double distanciaM, Integer duracaoS, Double velMediaKmh,
+                           Integer tempoMovimentoS, Integer tempoParadoS, Double velMovimentoKmh) {
         this.id = id;
         this.startedAt = startedAt;
         this.finishedAt = finishedAt;
         this.distanciaM = distanciaM;
         this.duracaoS = duracaoS;
         this.velMediaKmh = velMediaKmh;
+        this.tempoMovimentoS = tempoMovimentoS;
+        this.tempoParadoS = tempoParadoS;
+        this.velMovimentoKmh = velMovimentoKmh;
     }
 
     // Getters and Setters
@@ -86,5 +99,32 @@ public class WalkListItem {
 
     public void setVelMediaKmh(Double velMediaKmh) {
         this.velMediaKmh = velMediaKmh;
+        this.tempoMovimentoS = tempoMovimentoS;
+        this.tempoParadoS = tempoParadoS;
+        this.velMovimentoKmh = velMovimentoKmh;
+    }
+
+    public Integer getTempoMovimentoS() {
+        return tempoMovimentoS;
+    }
+
+    public void setTempoMovimentoS(Integer tempoMovimentoS) {
+        this.tempoMovimentoS = tempoMovimentoS;
+    }
+
+    public Integer getTempoParadoS() {
+        return tempoParadoS;
+    }
+
+    public void setTempoParadoS(Integer tempoParadoS) {
+        this.tempoParadoS = tempoParadoS;
+    }
+
+    public Double getVelMovimentoKmh() {
+        return velMovimentoKmh;
+    }
+
+    public void setVelMovimentoKmh(Double velMovimentoKmh) {
+        this.velMovimentoKmh = velMovimentoKmh;
     }
 }
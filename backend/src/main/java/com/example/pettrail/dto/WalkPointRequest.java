@@ -30,6 +30,11 @@ public class WalkPointRequest {
     @Schema(description = "Elevation in meters above sea level (optional)", example = "760.2")
     private BigDecimal elev;
 
+    @DecimalMin(value = "0.0", message = "Accuracy must not be negative")
+    @Schema(description = "Horizontal accuracy in meters as reported by the device (optional); " +
+            "less accurate points are discarded or weigh less in smoothing", example = "8.5")
+    private BigDecimal accuracy;
+
     // Constructors
     public WalkPointRequest() {}
 
@@ -76,4 +81,12 @@ public class WalkPointRequest {
     public void setElev(BigDecimal elev) {
         this.elev = elev;
     }
+
+    public BigDecimal getAccuracy() {
+        return accuracy;
+    }
+
+    public void setAccuracy(BigDecimal accuracy) {
+        this.accuracy = accuracy;
+    }
 }
@@ -11,7 +11,7 @@ public class WalkPointsBatchResponse {
     @Schema(description = "Number of points successfully accepted and stored", example = "95")
     private int accepted;
 
-    @Schema(description = "Number of points discarded due to validation or outlier detection", example = "5")
+    @Schema(description = "Number of points discarded by the filters (accuracy, outliers, stationary jitter)", example = "5")
     private int discarded;
 
     // Constructors
@@ -0,0 +1,115 @@
+package com.example.pettrail.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Splits and speed/elevation profile of a finished walk")
+public class WalkProfileResponse {
+
+    @Schema(description = "ID of the walk", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID walkId;
+
+    @Schema(description = "Total distance in meters", example = "2450.7")
+    private Double distanciaM;
+
+    @Schema(description = "Elevation gained in meters, after hysteresis smoothing", example = "31.0")
+    private Double ganhoElevacaoM;
+
+    @Schema(description = "Elevation lost in meters, after hysteresis smoothing", example = "28.0")
+    private Double perdaElevacaoM;
+
+    @Schema(description = "Per-kilometre splits; the last one covers the remainder")
+    private List<WalkSplit> parciais;
+
+    @Schema(description = "Seconds covered by each sample of the series", example = "10")
+    private Integer intervaloS;
+
+    @Schema(description = "Average speed of each sample in km/h", example = "[4.8, 5.1, 0.0, 5.3]")
+    private List<Double> velocidadesKmh;
+
+    @Schema(description = "Smoothed elevation of each sample in meters (null until the first point with an elevation)", example = "[null, 760.0, 763.0, 763.0]")
+    private List<Double> elevacoesM;
+
+    // Constructors
+    public WalkProfileResponse() {}
+
+    public WalkProfileResponse(UUID walkId, Double distanciaM, Double ganhoElevacaoM, Double perdaElevacaoM,
+                               List<WalkSplit> parciais, Integer intervaloS, List<Double> velocidadesKmh,
+                               List<Double> elevacoesM) {
+        this.walkId = walkId;
+        this.distanciaM = distanciaM;
+        this.ganhoElevacaoM = ganhoElevacaoM;
+        this.perdaElevacaoM = perdaElevacaoM;
+        this.parciais = parciais;
+        this.intervaloS = intervaloS;
+        this.velocidadesKmh = velocidadesKmh;
+        this.elevacoesM = elevacoesM;
+    }
+
+    // Getters and Setters
+    public UUID getWalkId() {
+        return walkId;
+    }
+
+    public void setWalkId(UUID walkId) {
+        this.walkId = walkId;
+    }
+
+    public Double getDistanciaM() {
+        return distanciaM;
+    }
+
+    public void setDistanciaM(Double distanciaM) {
+        this.distanciaM = distanciaM;
+    }
+
+    public Double getGanhoElevacaoM() {
+        return ganhoElevacaoM;
+    }
+
+    public void setGanhoElevacaoM(Double ganhoElevacaoM) {
+        this.ganhoElevacaoM = ganhoElevacaoM;
+    }
+
+    public Double getPerdaElevacaoM() {
+        return perdaElevacaoM;
+    }
+
+    public void setPerdaElevacaoM(Double perdaElevacaoM) {
+        this.perdaElevacaoM = perdaElevacaoM;
+    }
+
+    public List<WalkSplit> getParciais() {
+        return parciais;
+    }
+
+    public void setParciais(List<WalkSplit> parciais) {
+        this.parciais = parciais;
+    }
+
+    public Integer getIntervaloS() {
+        return intervaloS;
+    }
+
+    public void setIntervaloS(Integer intervaloS) {
+        this.intervaloS = intervaloS;
+    }
+
+    public List<Double> getVelocidadesKmh() {
+        return velocidadesKmh;
+    }
+
+    public void setVelocidadesKmh(List<Double> velocidadesKmh) {
+        this.velocidadesKmh = velocidadesKmh;
+    }
+
+    public List<Double> getElevacoesM() {
+        return elevacoesM;
+    }
+
+    public void setElevacoesM(List<Double> elevacoesM) {
+        this.elevacoesM = elevacoesM;
+    }
+}
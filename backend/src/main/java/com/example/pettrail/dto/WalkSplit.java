@@ -0,0 +1,99 @@
+package com.example.pettrail.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "One split of a walk: a full kilometre, or the remainder at the end")
+public class WalkSplit {
+
+    @Schema(description = "Number of the split, from 1", example = "1")
+    private int km;
+
+    @Schema(description = "Distance of the split in meters (the split distance, except for the last one)", example = "1000.0")
+    private Double distanciaM;
+
+    @Schema(description = "Time taken in seconds", example = "652")
+    private Integer duracaoS;
+
+    @Schema(description = "Pace in seconds per kilometre", example = "652")
+    private Integer ritmoSKm;
+
+    @Schema(description = "Average speed in km/h", example = "5.52")
+    private Double velMediaKmh;
+
+    @Schema(description = "Elevation gained in meters", example = "12.0")
+    private Double ganhoElevacaoM;
+
+    @Schema(description = "Elevation lost in meters", example = "4.0")
+    private Double perdaElevacaoM;
+
+    // Constructors
+    public WalkSplit() {}
+
+    public WalkSplit(int km, Double distanciaM, Integer duracaoS, Integer ritmoSKm, Double velMediaKmh,
+                     Double ganhoElevacaoM, Double perdaElevacaoM) {
+        this.km = km;
+        this.distanciaM = distanciaM;
+        this.duracaoS = duracaoS;
+        this.ritmoSKm = ritmoSKm;
+        this.velMediaKmh = velMediaKmh;
+        this.ganhoElevacaoM = ganhoElevacaoM;
+        this.perdaElevacaoM = perdaElevacaoM;
+    }
+
+    // Getters and Setters
+    public int getKm() {
+        return km;
+    }
+
+    public void setKm(int km) {
+        this.km = km;
+    }
+
+    public Double getDistanciaM() {
+        return distanciaM;
+    }
+
+    public void setDistanciaM(Double distanciaM) {
+        this.distanciaM = distanciaM;
+    }
+
+    public Integer getDuracaoS() {
+        return duracaoS;
+    }
+
+    public void setDuracaoS(Integer duracaoS) {
+        this.duracaoS = duracaoS;
+    }
+
+    public Integer getRitmoSKm() {
+        return ritmoSKm;
+    }
+
+    public void setRitmoSKm(Integer ritmoSKm) {
+        this.ritmoSKm = ritmoSKm;
+    }
+
+    public Double getVelMediaKmh() {
+        return velMediaKmh;
+    }
+
+    public void setVelMediaKmh(Double velMediaKmh) {
+        this.velMediaKmh = velMediaKmh;
+    }
+
+    public Double getGanhoElevacaoM() {
+        return ganhoElevacaoM;
+    }
+
+    public void setGanhoElevacaoM(Double ganhoElevacaoM) {
+        this.ganhoElevacaoM = ganhoElevacaoM;
+    }
+
+    public Double getPerdaElevacaoM() {
+        return perdaElevacaoM;
+    }
+
+    public void setPerdaElevacaoM(Double perdaElevacaoM) {
+        this.perdaElevacaoM = perdaElevacaoM;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.pettrail.enums;
+
+/**
+ * State of a walk in the active-walk registry (see ActiveWalkRegistry)
+ */
+public enum ActiveWalkStatus {
+    ACTIVE,
+    // Stopped; kept for a while so late uploads are rejected without a query
+    FINISHED
+}
@@ -2,7 +2,10 @@ package com.example.pettrail.enums;
 
 public enum ErrorCode {
     VALIDATION_ERROR,
+    UNAUTHORIZED,
     NOT_FOUND,
     CONFLICT,
+    SERVICE_UNAVAILABLE,
+    RATE_LIMITED,
     INTERNAL_ERROR
 }
@@ -0,0 +1,15 @@
+package com.example.pettrail.enums;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "File formats offered by the walk export")
+public enum ExportFormat {
+    @Schema(description = "Single GPX 1.1 document with one <trk> per walk")
+    GPX,
+
+    @Schema(description = "GeoJSON FeatureCollection with one LineString feature per walk")
+    GEOJSON,
+
+    @Schema(description = "ZIP archive with one GPX file per walk")
+    ZIP
+}
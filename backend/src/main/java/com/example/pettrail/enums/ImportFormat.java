@@ -0,0 +1,15 @@
+package com.example.pettrail.enums;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "File formats accepted by the walk import")
+public enum ImportFormat {
+    @Schema(description = "GPX 1.0/1.1: one walk per <trk>")
+    GPX,
+
+    @Schema(description = "GeoJSON Feature/FeatureCollection: one walk per LineString or MultiLineString feature")
+    GEOJSON,
+
+    @Schema(description = "CSV with a header row: lat, lon, time and optional elevation and track columns")
+    CSV
+}
@@ -0,0 +1,11 @@
+package com.example.pettrail.enums;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Walk import job status")
+public enum ImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,14 @@
+package com.example.pettrail.enums;
+
+/**
+ * Entity changes broadcast to the other instances so they can evict what they cache about them
+ * (see CacheInvalidationBus)
+ */
+public enum InvalidationType {
+    // A pet was deleted; its walks are removed later, batch by batch
+    PET_DELETED,
+    // A walk was stopped and no longer takes points
+    WALK_STOPPED,
+    // Walks (and their points) were removed from the database
+    WALKS_DELETED
+}
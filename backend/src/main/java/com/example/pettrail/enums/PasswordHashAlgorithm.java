@@ -0,0 +1,12 @@
+package com.example.pettrail.enums;
+
+/**
+ * Algorithm for new password hashes; stored hashes carry their own in a {id} prefix
+ */
+public enum PasswordHashAlgorithm {
+    // bcrypt with the configured strength
+    BCRYPT,
+
+    // Argon2id with the configured memory, iterations and parallelism
+    ARGON2
+}
@@ -0,0 +1,11 @@
+package com.example.pettrail.enums;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Pet deletion job status")
+public enum PetDeletionStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,18 @@
+package com.example.pettrail.enums;
+
+/**
+ * Stages of the point filter pipeline, listed in pettrail.filter.stages in the order they run
+ */
+public enum PointFilterStageType {
+    // Discard points whose reported accuracy is worse than max-accuracy-m
+    ACCURACY,
+
+    // Discard non-increasing timestamps and jumps faster than max-speed-mps
+    SPEED,
+
+    // Replace each position with a constant-velocity Kalman estimate
+    KALMAN,
+
+    // Discard points closer than stationary-radius-m to the last kept one
+    STATIONARY
+}
@@ -0,0 +1,11 @@
+package com.example.pettrail.enums;
+
+/**
+ * How walk point coordinates are written (see V10 migration)
+ */
+public enum PointStorageMode {
+    // Fixed-point and decimal columns; instances still reading only the decimals keep working
+    DUAL,
+    // Fixed-point columns only; the backfill also clears the decimal columns of older rows
+    FIXED
+}
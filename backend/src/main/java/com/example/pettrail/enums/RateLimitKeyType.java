@@ -0,0 +1,12 @@
+package com.example.pettrail.enums;
+
+/**
+ * What a rate limit policy counts requests by
+ */
+public enum RateLimitKeyType {
+    // The authenticated user (from the JWT); the client IP for anonymous requests
+    USER,
+
+    // The client IP, even for authenticated requests
+    IP
+}
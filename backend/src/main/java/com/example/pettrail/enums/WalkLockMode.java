@@ -0,0 +1,11 @@
+package com.example.pettrail.enums;
+
+/**
+ * How ingestion and stop of the same walk are serialized (see WalkLockRegistry)
+ */
+public enum WalkLockMode {
+    // Striped locks inside this JVM; enough when a single instance serves the API
+    LOCAL,
+    // PostgreSQL transaction-scoped advisory locks, shared by all instances
+    ADVISORY
+}
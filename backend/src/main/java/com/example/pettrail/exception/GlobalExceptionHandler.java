@@ -6,6 +6,7 @@ import com.example.pettrail.enums.ErrorCode;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -114,6 +115,18 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
     }
 
+    @ExceptionHandler(WalkNotFinishedException.class)
+    public ResponseEntity<ErrorResponse> handleWalkNotFinishedException(WalkNotFinishedException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                ErrorCode.CONFLICT,
+                ex.getMessage(),
+                List.of()
+        );
+
+        logger.warn("Walk not finished conflict: {}", errorResponse);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<ErrorResponse> handleConstraintViolationException(ConstraintViolationException ex) {
         ErrorResponse errorResponse = new ErrorResponse(
@@ -126,6 +139,18 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
 
+    @ExceptionHandler(InvalidPointsPayloadException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidPointsPayloadException(InvalidPointsPayloadException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                ErrorCode.VALIDATION_ERROR,
+                ex.getMessage(),
+                ex.getDetails()
+        );
+
+        logger.warn("Invalid points payload: {}", errorResponse);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<ErrorResponse> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException ex) {
         String field = ex.getName();
@@ -184,6 +209,94 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
 
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidImportException(InvalidImportException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                ErrorCode.VALIDATION_ERROR,
+                ex.getMessage(),
+                List.of()
+        );
+
+        logger.warn("Invalid import: {}", errorResponse);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    @ExceptionHandler(InvalidExportException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidExportException(InvalidExportException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                ErrorCode.VALIDATION_ERROR,
+                ex.getMessage(),
+                List.of()
+        );
+
+        logger.warn("Invalid export: {}", errorResponse);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    @ExceptionHandler(ImportJobNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleImportJobNotFoundException(ImportJobNotFoundException ex) {
+        ValidationError validationError = new ValidationError("jobId", "unknown");
+        ErrorResponse errorResponse = new ErrorResponse(
+                ErrorCode.NOT_FOUND,
+                "import job not found",
+                List.of(validationError)
+        );
+
+        logger.warn("Import job not found: {}", errorResponse);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    }
+
+    @ExceptionHandler(PetDeletionJobNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handlePetDeletionJobNotFoundException(PetDeletionJobNotFoundException ex) {
+        ValidationError validationError = new ValidationError("jobId", "unknown");
+        ErrorResponse errorResponse = new ErrorResponse(
+                ErrorCode.NOT_FOUND,
+                "pet deletion job not found",
+                List.of(validationError)
+        );
+
+        logger.warn("Pet deletion job not found: {}", errorResponse);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    }
+
+    @ExceptionHandler(ImportRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleImportRejectedException(ImportRejectedException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                ErrorCode.SERVICE_UNAVAILABLE,
+                ex.getMessage(),
+                List.of()
+        );
+
+        logger.warn("Import rejected: {}", errorResponse);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidRefreshTokenException(InvalidRefreshTokenException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                ErrorCode.UNAUTHORIZED,
+                ex.getMessage(),
+                List.of()
+        );
+
+        logger.warn("Invalid refresh token: {}", errorResponse);
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+    }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingRejectedException(PasswordHashingRejectedException ex) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                ErrorCode.SERVICE_UNAVAILABLE,
+                ex.getMessage(),
+                List.of()
+        );
+
+        logger.warn("Password hashing rejected: {}", errorResponse);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
         ErrorResponse errorResponse = new ErrorResponse(
@@ -0,0 +1,12 @@
+package com.example.pettrail.exception;
+
+public class ImportJobNotFoundException extends RuntimeException {
+    
+    public ImportJobNotFoundException(String message) {
+        super(message);
+    }
+    
+    public ImportJobNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.pettrail.exception;
+
+public class InvalidExportException extends RuntimeException {
+    
+    public InvalidExportException(String message) {
+        super(message);
+    }
+    
+    public InvalidExportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
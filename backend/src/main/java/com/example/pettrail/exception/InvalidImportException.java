@@ -0,0 +1,12 @@
+package com.example.pettrail.exception;
+
+public class InvalidImportException extends RuntimeException {
+    
+    public InvalidImportException(String message) {
+        super(message);
+    }
+    
+    public InvalidImportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.pettrail.exception;
+
+import com.example.pettrail.dto.ValidationError;
+
+import java.util.List;
+
+public class InvalidPointsPayloadException extends RuntimeException {
+
+    private final List<ValidationError> details;
+
+    public InvalidPointsPayloadException(String message) {
+        this(message, List.of());
+    }
+
+    public InvalidPointsPayloadException(String message, List<ValidationError> details) {
+        super(message);
+        this.details = details;
+    }
+
+    public List<ValidationError> getDetails() {
+        return details;
+    }
+}
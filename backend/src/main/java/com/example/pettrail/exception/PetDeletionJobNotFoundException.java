@@ -0,0 +1,12 @@
+package com.example.pettrail.exception;
+
+public class PetDeletionJobNotFoundException extends RuntimeException {
+    
+    public PetDeletionJobNotFoundException(String message) {
+        super(message);
+    }
+    
+    public PetDeletionJobNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.pettrail.exception;
+
+public class WalkNotFinishedException extends RuntimeException {
+    
+    public WalkNotFinishedException(String message) {
+        super(message);
+    }
+    
+    public WalkNotFinishedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
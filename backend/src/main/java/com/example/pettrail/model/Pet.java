@@ -8,17 +8,20 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Max;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
 @Table(name = "pets")
+// Deleted pets stay until PetDeletionService has removed their walks
+@SQLRestriction("deleted_at IS NULL")
 @Schema(description = "Entity that represents a pet")
 public class Pet {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Schema(description = "Unique ID of the pet", example = "550e8400-e29b-41d4-a716-446655440000")
     private UUID id;
 
@@ -0,0 +1,165 @@
+package com.example.pettrail.model;
+
+import com.example.pettrail.enums.PetDeletionStatus;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Background removal of a deleted pet's walks and points (see PetDeletionService)
+ */
+@Entity
+@Table(name = "pet_deletion_jobs")
+public class PetDeletionJob {
+
+    @Id
+    @UuidV7
+    private UUID id;
+
+    @Column(name = "pet_id", nullable = false)
+    private UUID petId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PetDeletionStatus status;
+
+    // Walks the pet had when it was deleted
+    @Column(name = "walks_total", nullable = false)
+    private int walksTotal;
+
+    @Column(name = "walks_deleted", nullable = false)
+    private int walksDeleted;
+
+    @Column(name = "points_deleted", nullable = false)
+    private long pointsDeleted;
+
+    // Failed attempts so far
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    // Retry time after a failure, or the end of the running worker's lease
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Constructors
+    public PetDeletionJob() {}
+
+    public PetDeletionJob(UUID petId, UUID userId, int walksTotal, LocalDateTime createdAt) {
+        this.petId = petId;
+        this.userId = userId;
+        this.walksTotal = walksTotal;
+        this.status = PetDeletionStatus.QUEUED;
+        this.nextAttemptAt = createdAt;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getPetId() {
+        return petId;
+    }
+
+    public void setPetId(UUID petId) {
+        this.petId = petId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public PetDeletionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(PetDeletionStatus status) {
+        this.status = status;
+    }
+
+    public int getWalksTotal() {
+        return walksTotal;
+    }
+
+    public void setWalksTotal(int walksTotal) {
+        this.walksTotal = walksTotal;
+    }
+
+    public int getWalksDeleted() {
+        return walksDeleted;
+    }
+
+    public void setWalksDeleted(int walksDeleted) {
+        this.walksDeleted = walksDeleted;
+    }
+
+    public long getPointsDeleted() {
+        return pointsDeleted;
+    }
+
+    public void setPointsDeleted(long pointsDeleted) {
+        this.pointsDeleted = pointsDeleted;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
@@ -21,7 +21,7 @@ import java.util.UUID;
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Schema(description = "Unique ID of the user", example = "550e8400-e29b-41d4-a716-446655440000")
     private UUID id;
 
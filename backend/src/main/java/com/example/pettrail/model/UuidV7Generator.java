@@ -0,0 +1,49 @@
+package com.example.pettrail.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDs (version 7, RFC 9562): a 48-bit Unix millisecond timestamp, a 12-bit counter
+ * and 62 random bits. New keys land at the right edge of the primary key B-tree instead of on a
+ * random page, which keeps inserts into walk_points from splitting pages all over the index.
+ * <p>
+ * IDs are strictly increasing within this JVM: the counter restarts at 0 every millisecond and,
+ * if more than 4096 IDs are taken in one millisecond, carries into the timestamp, which then runs
+ * ahead of the clock until the clock catches up. Across instances they are only roughly ordered.
+ * The random bits come from a SecureRandom, as with UUID.randomUUID(), so IDs stay unguessable.
+ */
+public class UuidV7Generator implements IdentifierGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Timestamp (ms) << 12 | counter of the last ID handed out
+    private static final AtomicLong LAST = new AtomicLong();
+
+    /**
+     * Next ID, for rows inserted without Hibernate
+     * @return a version 7 UUID greater than every one previously returned by this JVM
+     */
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long timeAndCounter = LAST.updateAndGet(last -> Math.max(last + 1, now));
+        return build(timeAndCounter, RANDOM.nextLong());
+    }
+
+    static UUID build(long timeAndCounter, long random) {
+        long msb = (timeAndCounter >>> 12) << 16 // unix_ts_ms, 48 bits
+                | 0x7000L // version
+                | (timeAndCounter & 0xFFFL); // rand_a, used as the counter
+        long lsb = 0x8000000000000000L | (random >>> 2); // variant 0b10, then rand_b
+        return new UUID(msb, lsb);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return next();
+    }
+}
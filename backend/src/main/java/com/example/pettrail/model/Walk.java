@@ -3,17 +3,20 @@ package com.example.pettrail.model;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
 @Table(name = "walks")
+// Hides the walks of deleted pets until they are removed; the subquery runs once per query on a partial index
+@SQLRestriction("pet_id NOT IN (SELECT d.id FROM pets d WHERE d.deleted_at IS NOT NULL)")
 @Schema(description = "Entity that represents a walk")
 public class Walk {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Schema(description = "Unique ID of the walk", example = "550e8400-e29b-41d4-a716-446655440000")
     private UUID id;
 
@@ -48,6 +51,30 @@ public class Walk {
     @Schema(description = "Average speed in km/h", example = "5.65")
     private Double velMediaKmh;
 
+    @Column(name = "tempo_movimento_ms")
+    @Schema(description = "Time spent moving in milliseconds (null for walks recorded before auto-pause)", example = "1320000")
+    private Long tempoMovimentoMs;
+
+    @Column(name = "tempo_parado_ms")
+    @Schema(description = "Time spent stopped between points in milliseconds (null for walks recorded before auto-pause)", example = "240000")
+    private Long tempoParadoMs;
+
+    @Column(name = "distancia_movimento_m")
+    @Schema(description = "Distance covered while moving in meters", example = "2431.2")
+    private Double distanciaMovimentoM;
+
+    @Column(name = "vel_movimento_kmh")
+    @Schema(description = "Average speed while moving in km/h", example = "6.63")
+    private Double velMovimentoKmh;
+
+    @Column(name = "archived_at")
+    @Schema(description = "When the walk's points were moved to the archive (null while they are in the database)", example = "2025-11-14T03:45:00Z")
+    private LocalDateTime archivedAt;
+
+    @Column(name = "archive_segment", length = 64)
+    @Schema(hidden = true)
+    private String archiveSegment;
+
     // Constructors
     public Walk() {}
 
@@ -59,6 +86,9 @@ public class Walk {
         this.distanciaM = null;
         this.duracaoS = null;
         this.velMediaKmh = null;
+        this.tempoMovimentoMs = 0L;
+        this.tempoParadoMs = 0L;
+        this.distanciaMovimentoM = 0.0;
     }
 
     public Walk(UUID petId, UUID userId, LocalDateTime startedAt, LocalDateTime finishedAt) {
@@ -69,6 +99,9 @@ public class Walk {
         this.distanciaM = null;
         this.duracaoS = null;
         this.velMediaKmh = null;
+        this.tempoMovimentoMs = 0L;
+        this.tempoParadoMs = 0L;
+        this.distanciaMovimentoM = 0.0;
     }
 
     // Getters and Setters
@@ -136,6 +169,58 @@ public class Walk {
         this.velMediaKmh = velMediaKmh;
     }
 
+    public Long getTempoMovimentoMs() {
+        return tempoMovimentoMs;
+    }
+
+    public void setTempoMovimentoMs(Long tempoMovimentoMs) {
+        this.tempoMovimentoMs = tempoMovimentoMs;
+    }
+
+    public Long getTempoParadoMs() {
+        return tempoParadoMs;
+    }
+
+    public void setTempoParadoMs(Long tempoParadoMs) {
+        this.tempoParadoMs = tempoParadoMs;
+    }
+
+    public Double getDistanciaMovimentoM() {
+        return distanciaMovimentoM;
+    }
+
+    public void setDistanciaMovimentoM(Double distanciaMovimentoM) {
+        this.distanciaMovimentoM = distanciaMovimentoM;
+    }
+
+    public Double getVelMovimentoKmh() {
+        return velMovimentoKmh;
+    }
+
+    public void setVelMovimentoKmh(Double velMovimentoKmh) {
+        this.velMovimentoKmh = velMovimentoKmh;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+
+    public String getArchiveSegment() {
+        return archiveSegment;
+    }
+
+    public void setArchiveSegment(String archiveSegment) {
+        this.archiveSegment = archiveSegment;
+    }
+
+    public boolean isArchived() {
+        return archivedAt != null;
+    }
+
     public boolean isActive() {
         return finishedAt == null;
     }
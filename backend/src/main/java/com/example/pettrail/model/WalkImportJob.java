@@ -0,0 +1,236 @@
+package com.example.pettrail.model;
+
+import com.example.pettrail.enums.ImportFormat;
+import com.example.pettrail.enums.ImportStatus;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A walk import and its last reported progress (see WalkImportService), shared by all instances
+ */
+@Entity
+@Table(name = "import_jobs")
+public class WalkImportJob {
+
+    @Id
+    @UuidV7
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "pet_id", nullable = false)
+    private UUID petId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private ImportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ImportStatus status;
+
+    // Spooled upload, on the disk of the instance that received it unless the spool directory is shared
+    @Column(name = "spool_path", nullable = false, length = 1000)
+    private String spoolPath;
+
+    @Column(name = "bytes_total", nullable = false)
+    private long bytesTotal;
+
+    @Column(name = "bytes_processed", nullable = false)
+    private long bytesProcessed;
+
+    @Column(name = "walks_imported", nullable = false)
+    private int walksImported;
+
+    @Column(name = "walks_skipped", nullable = false)
+    private int walksSkipped;
+
+    @Column(name = "points_received", nullable = false)
+    private long pointsReceived;
+
+    @Column(name = "points_accepted", nullable = false)
+    private long pointsAccepted;
+
+    @Column(name = "points_discarded", nullable = false)
+    private long pointsDiscarded;
+
+    // Workers that started the job so far
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(length = 500)
+    private String error;
+
+    // End of the worker's lease; a queued or running job past it may be taken over
+    @Column(name = "lease_until", nullable = false)
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Constructors
+    public WalkImportJob() {}
+
+    public WalkImportJob(UUID userId, UUID petId, ImportFormat format, String spoolPath, long bytesTotal,
+                         LocalDateTime createdAt, LocalDateTime leaseUntil) {
+        this.userId = userId;
+        this.petId = petId;
+        this.format = format;
+        this.status = ImportStatus.QUEUED;
+        this.spoolPath = spoolPath;
+        this.bytesTotal = bytesTotal;
+        this.createdAt = createdAt;
+        this.leaseUntil = leaseUntil;
+    }
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public UUID getPetId() {
+        return petId;
+    }
+
+    public void setPetId(UUID petId) {
+        this.petId = petId;
+    }
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(ImportFormat format) {
+        this.format = format;
+    }
+
+    public ImportStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ImportStatus status) {
+        this.status = status;
+    }
+
+    public String getSpoolPath() {
+        return spoolPath;
+    }
+
+    public void setSpoolPath(String spoolPath) {
+        this.spoolPath = spoolPath;
+    }
+
+    public long getBytesTotal() {
+        return bytesTotal;
+    }
+
+    public void setBytesTotal(long bytesTotal) {
+        this.bytesTotal = bytesTotal;
+    }
+
+    public long getBytesProcessed() {
+        return bytesProcessed;
+    }
+
+    public void setBytesProcessed(long bytesProcessed) {
+        this.bytesProcessed = bytesProcessed;
+    }
+
+    public int getWalksImported() {
+        return walksImported;
+    }
+
+    public void setWalksImported(int walksImported) {
+        this.walksImported = walksImported;
+    }
+
+    public int getWalksSkipped() {
+        return walksSkipped;
+    }
+
+    public void setWalksSkipped(int walksSkipped) {
+        this.walksSkipped = walksSkipped;
+    }
+
+    public long getPointsReceived() {
+        return pointsReceived;
+    }
+
+    public void setPointsReceived(long pointsReceived) {
+        this.pointsReceived = pointsReceived;
+    }
+
+    public long getPointsAccepted() {
+        return pointsAccepted;
+    }
+
+    public void setPointsAccepted(long pointsAccepted) {
+        this.pointsAccepted = pointsAccepted;
+    }
+
+    public long getPointsDiscarded() {
+        return pointsDiscarded;
+    }
+
+    public void setPointsDiscarded(long pointsDiscarded) {
+        this.pointsDiscarded = pointsDiscarded;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(LocalDateTime leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
@@ -16,7 +16,7 @@ import java.util.UUID;
 public class WalkPoint {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Schema(description = "Unique ID of the walk point", example = "550e8400-e29b-41d4-a716-446655440000")
     private UUID id;
 
@@ -25,17 +25,16 @@ public class WalkPoint {
     @Schema(description = "ID of the walk this point belongs to", example = "550e8400-e29b-41d4-a716-446655440000", required = true)
     private UUID walkId;
 
-    @NotNull(message = "Latitude is required")
+    // Decimal columns: NULL once a row only keeps the fixed-point form (see WalkPointColumns)
     @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90 degrees")
     @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90 degrees")
-    @Column(name = "latitude", nullable = false, precision = 10, scale = 8)
+    @Column(name = "latitude", precision = 10, scale = 8)
     @Schema(description = "Latitude in WGS84 degrees (compatible with OpenStreetMap)", example = "-23.5505", required = true)
     private BigDecimal latitude;
 
-    @NotNull(message = "Longitude is required")
     @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180 degrees")
     @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180 degrees")
-    @Column(name = "longitude", nullable = false, precision = 11, scale = 8)
+    @Column(name = "longitude", precision = 11, scale = 8)
     @Schema(description = "Longitude in WGS84 degrees (compatible with OpenStreetMap)", example = "-46.6333", required = true)
     private BigDecimal longitude;
 
@@ -48,6 +47,18 @@ public class WalkPoint {
     @Schema(description = "Elevation in meters above sea level (optional)", example = "760.2")
     private BigDecimal elevation;
 
+    @Column(name = "lat_e7")
+    @Schema(description = "Latitude in 1e-7 degrees", example = "-235505000")
+    private Integer latE7;
+
+    @Column(name = "lon_e7")
+    @Schema(description = "Longitude in 1e-7 degrees", example = "-466333000")
+    private Integer lonE7;
+
+    @Column(name = "elev_cm")
+    @Schema(description = "Elevation in centimeters above sea level (optional)", example = "76020")
+    private Integer elevCm;
+
     @Column(name = "created_at", nullable = false)
     @Schema(description = "When this point was stored in the database", example = "2025-08-14T22:00:00Z")
     private LocalDateTime createdAt;
@@ -126,4 +137,28 @@ public class WalkPoint {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public Integer getLatE7() {
+        return latE7;
+    }
+
+    public void setLatE7(Integer latE7) {
+        this.latE7 = latE7;
+    }
+
+    public Integer getLonE7() {
+        return lonE7;
+    }
+
+    public void setLonE7(Integer lonE7) {
+        this.lonE7 = lonE7;
+    }
+
+    public Integer getElevCm() {
+        return elevCm;
+    }
+
+    public void setElevCm(Integer elevCm) {
+        this.elevCm = elevCm;
+    }
 }
@@ -0,0 +1,75 @@
+package com.example.pettrail.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Splits and speed/elevation profile of a finished walk, stored once as the JSON the profile
+ * endpoint serves (see WalkProfileService)
+ */
+@Entity
+@Table(name = "walk_profiles")
+public class WalkProfile {
+
+    @Id
+    @Column(name = "walk_id")
+    private UUID walkId;
+
+    // Bumped when the builder changes; older profiles are rebuilt on read
+    @Column(nullable = false)
+    private int version;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false, columnDefinition = "jsonb")
+    private String data;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public WalkProfile() {}
+
+    public WalkProfile(UUID walkId, int version, String data) {
+        this.walkId = walkId;
+        this.version = version;
+        this.data = data;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public UUID getWalkId() {
+        return walkId;
+    }
+
+    public void setWalkId(UUID walkId) {
+        this.walkId = walkId;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public String getData() {
+        return data;
+    }
+
+    public void setData(String data) {
+        this.data = data;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.pettrail.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Route of a walk stored as parallel primitive arrays (one slot per point, ordered by timestamp
+ * except for upload batches, see timestampOrder). Used for archived walks, uploads and other paths
+ * that don't need WalkPoint entities. Only ingestion changes it, by moving points (filters) or
+ * filling in missing elevations (ElevationEnricher).
+ */
+public final class WalkTrack {
+
+    private final int size;
+    private final long[] timestampsMicros; // Microseconds since 1970-01-01T00:00 (timestamps have no zone)
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] elevations; // NaN when the point has no elevation
+    private final double[] accuracies; // Horizontal accuracy in meters, NaN when unknown; null when no point has one
+
+    public WalkTrack(int size, long[] timestampsMicros, double[] latitudes, double[] longitudes, double[] elevations) {
+        this(size, timestampsMicros, latitudes, longitudes, elevations, null);
+    }
+
+    public WalkTrack(int size, long[] timestampsMicros, double[] latitudes, double[] longitudes, double[] elevations,
+                     double[] accuracies) {
+        this.size = size;
+        this.timestampsMicros = timestampsMicros;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.elevations = elevations;
+        this.accuracies = accuracies;
+    }
+
+    /**
+     * Build a track from points already ordered by timestamp
+     * @param points the walk points
+     * @return the track
+     */
+    public static WalkTrack fromPoints(List<WalkPoint> points) {
+        int size = points.size();
+        long[] timestamps = new long[size];
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        double[] elevations = new double[size];
+        for (int i = 0; i < size; i++) {
+            WalkPoint point = points.get(i);
+            timestamps[i] = toEpochMicros(point.getTimestamp());
+            // Fixed-point columns first, as WalkPointColumns reads them
+            latitudes[i] = point.getLatE7() != null ? point.getLatE7() / 1e7 : point.getLatitude().doubleValue();
+            longitudes[i] = point.getLonE7() != null ? point.getLonE7() / 1e7 : point.getLongitude().doubleValue();
+            BigDecimal elevation = point.getElevation();
+            elevations[i] = point.getElevCm() != null ? point.getElevCm() / 100.0
+                    : elevation != null ? elevation.doubleValue() : Double.NaN;
+        }
+        return new WalkTrack(size, timestamps, latitudes, longitudes, elevations);
+    }
+
+    public static long toEpochMicros(LocalDateTime timestamp) {
+        // Field arithmetic rather than ChronoUnit.between, which allocates on every call
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1000;
+    }
+
+    public static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long timestampMicros(int index) {
+        return timestampsMicros[index];
+    }
+
+    public LocalDateTime timestamp(int index) {
+        return fromEpochMicros(timestampsMicros[index]);
+    }
+
+    public double latitude(int index) {
+        return latitudes[index];
+    }
+
+    public double longitude(int index) {
+        return longitudes[index];
+    }
+
+    public boolean hasElevation(int index) {
+        return !Double.isNaN(elevations[index]);
+    }
+
+    public double elevation(int index) {
+        return elevations[index];
+    }
+
+    public boolean hasAccuracy(int index) {
+        return accuracies != null && !Double.isNaN(accuracies[index]);
+    }
+
+    public double accuracy(int index) {
+        return accuracies != null ? accuracies[index] : Double.NaN;
+    }
+
+    /**
+     * Replace the position of a point, e.g. with the smoothed one from the ingestion filters
+     */
+    public void moveTo(int index, double latitude, double longitude) {
+        latitudes[index] = latitude;
+        longitudes[index] = longitude;
+    }
+
+    /**
+     * Set the elevation of a point that has none, e.g. from the terrain model
+     */
+    public void setElevation(int index, double elevation) {
+        elevations[index] = elevation;
+    }
+
+    /**
+     * Indexes of the points in timestamp order; equal timestamps keep their upload order
+     * @return a new permutation array (the identity when the points are already ordered)
+     */
+    public int[] timestampOrder() {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        for (int i = 1; i < size; i++) {
+            if (timestampsMicros[i - 1] > timestampsMicros[i]) {
+                mergeSort(order, new int[size], 0, size);
+                break;
+            }
+        }
+        return order;
+    }
+
+    private void mergeSort(int[] order, int[] buffer, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(order, buffer, from, mid);
+        mergeSort(order, buffer, mid, to);
+        if (timestampsMicros[order[mid - 1]] <= timestampsMicros[order[mid]]) {
+            return;
+        }
+        System.arraycopy(order, from, buffer, from, to - from);
+        int left = from;
+        int right = mid;
+        int out = from;
+        while (left < mid && right < to) {
+            order[out++] = timestampsMicros[buffer[right]] < timestampsMicros[buffer[left]] ? buffer[right++] : buffer[left++];
+        }
+        while (left < mid) {
+            order[out++] = buffer[left++];
+        }
+        while (right < to) {
+            order[out++] = buffer[right++];
+        }
+    }
+}
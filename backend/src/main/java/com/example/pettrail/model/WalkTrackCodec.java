@@ -0,0 +1,220 @@
+package com.example.pettrail.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Compact encoding of a route, used for archive segment blocks and the in-memory route cache.
+ * The point count, a flags byte and then one column at a time: timestamps (micros), latitudes
+ * and longitudes (1e-8 degrees, the database scale) and elevations (centimeters), each as zigzag
+ * varint deltas from the previous point. Lossless for routes read from the database.
+ */
+public final class WalkTrackCodec {
+
+    private static final double COORDINATE_SCALE = 1e8;
+    private static final double ELEVATION_SCALE = 100.0;
+    private static final int FLAG_ELEVATION = 1; // At least one point has an elevation
+    private static final int FLAG_ELEVATION_BITMAP = 2; // Some points have none: presence bitmap follows
+
+    private WalkTrackCodec() {
+    }
+
+    /**
+     * Append the encoding of a route
+     * @param track the route
+     * @param out the buffer to write to
+     */
+    public static void encode(WalkTrack track, Buffer out) {
+        int size = track.size();
+        int withElevation = 0;
+        for (int i = 0; i < size; i++) {
+            if (track.hasElevation(i)) {
+                withElevation++;
+            }
+        }
+        int flags = 0;
+        if (withElevation > 0) {
+            flags |= FLAG_ELEVATION;
+            if (withElevation < size) {
+                flags |= FLAG_ELEVATION_BITMAP;
+            }
+        }
+
+        out.writeVarint(size);
+        out.writeByte(flags);
+
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            long value = track.timestampMicros(i);
+            out.writeSignedVarint(value - previous);
+            previous = value;
+        }
+        previous = 0;
+        for (int i = 0; i < size; i++) {
+            long value = Math.round(track.latitude(i) * COORDINATE_SCALE);
+            out.writeSignedVarint(value - previous);
+            previous = value;
+        }
+        previous = 0;
+        for (int i = 0; i < size; i++) {
+            long value = Math.round(track.longitude(i) * COORDINATE_SCALE);
+            out.writeSignedVarint(value - previous);
+            previous = value;
+        }
+        if ((flags & FLAG_ELEVATION_BITMAP) != 0) {
+            for (int i = 0; i < size; i += 8) {
+                int bits = 0;
+                for (int j = i; j < Math.min(i + 8, size); j++) {
+                    if (track.hasElevation(j)) {
+                        bits |= 1 << (j - i);
+                    }
+                }
+                out.writeByte(bits);
+            }
+        }
+        if ((flags & FLAG_ELEVATION) != 0) {
+            // Points without elevation are skipped; the bitmap tells which ones they are
+            previous = 0;
+            for (int i = 0; i < size; i++) {
+                if (track.hasElevation(i)) {
+                    long value = Math.round(track.elevation(i) * ELEVATION_SCALE);
+                    out.writeSignedVarint(value - previous);
+                    previous = value;
+                }
+            }
+        }
+    }
+
+    public static WalkTrack decode(byte[] raw) {
+        return decode(ByteBuffer.wrap(raw));
+    }
+
+    /**
+     * Decode a route
+     * @param encoded the encoding, from its position to its limit; heap or direct. Not modified.
+     * @return the route
+     */
+    public static WalkTrack decode(ByteBuffer encoded) {
+        Reader in = new Reader(encoded);
+        int size = (int) in.readVarint();
+        int flags = in.readByte();
+
+        long[] timestamps = new long[size];
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        double[] elevations = new double[size];
+
+        long value = 0;
+        for (int i = 0; i < size; i++) {
+            value += in.readSignedVarint();
+            timestamps[i] = value;
+        }
+        value = 0;
+        for (int i = 0; i < size; i++) {
+            value += in.readSignedVarint();
+            latitudes[i] = value / COORDINATE_SCALE;
+        }
+        value = 0;
+        for (int i = 0; i < size; i++) {
+            value += in.readSignedVarint();
+            longitudes[i] = value / COORDINATE_SCALE;
+        }
+
+        boolean[] present = null;
+        if ((flags & FLAG_ELEVATION_BITMAP) != 0) {
+            present = new boolean[size];
+            for (int i = 0; i < size; i += 8) {
+                int bits = in.readByte();
+                for (int j = i; j < Math.min(i + 8, size); j++) {
+                    present[j] = (bits & (1 << (j - i))) != 0;
+                }
+            }
+        }
+        value = 0;
+        for (int i = 0; i < size; i++) {
+            if ((flags & FLAG_ELEVATION) != 0 && (present == null || present[i])) {
+                value += in.readSignedVarint();
+                elevations[i] = value / ELEVATION_SCALE;
+            } else {
+                elevations[i] = Double.NaN;
+            }
+        }
+        return new WalkTrack(size, timestamps, latitudes, longitudes, elevations);
+    }
+
+    /**
+     * Growable byte array with varint writers
+     */
+    public static final class Buffer {
+        private byte[] bytes;
+        private int length;
+
+        public Buffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        public void reset() {
+            length = 0;
+        }
+
+        // The backing array; only the first length() bytes are written
+        public byte[] array() {
+            return bytes;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        void writeByte(int value) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        void writeSignedVarint(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+    }
+
+    private static final class Reader {
+        private final ByteBuffer buffer;
+        private int position;
+
+        private Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.position = buffer.position();
+        }
+
+        private int readByte() {
+            // Absolute reads: the buffer may be shared by concurrent readers
+            return buffer.get(position++) & 0xFF;
+        }
+
+        private long readVarint() {
+            long value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        private long readSignedVarint() {
+            long value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
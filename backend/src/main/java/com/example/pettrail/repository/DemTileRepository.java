@@ -0,0 +1,158 @@
+package com.example.pettrail.repository;
+
+import com.example.pettrail.config.ElevationConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads terrain elevation from SRTM or Copernicus .hgt tiles in a local directory; nothing is
+ * fetched over the network.
+ *
+ * A tile covers one degree of latitude and longitude, named after its south-west corner
+ * (S24W047.hgt covers 24°S-23°S, 47°W-46°W). It holds n × n big-endian signed 16-bit heights in
+ * meters, rows from north to south, n = 1201 (3 arc-seconds) or 3601 (1 arc-second); -32768 marks
+ * a void. Tiles are memory-mapped when first used and kept in an LRU of open tiles; a tile that
+ * is not in the directory is remembered as missing the same way.
+ */
+@Repository
+public class DemTileRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(DemTileRepository.class);
+
+    private static final short VOID = Short.MIN_VALUE;
+
+    private final Path directory;
+    private final Map<Integer, Tile> openTiles;
+
+    @Autowired
+    public DemTileRepository(ElevationConfig elevationConfig) {
+        this.directory = Path.of(elevationConfig.getDirectory());
+        int maxOpenTiles = Math.max(1, elevationConfig.getMaxOpenTiles());
+        // Access order: the eldest entry is the least recently used tile
+        this.openTiles = new LinkedHashMap<>(maxOpenTiles * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Tile> eldest) {
+                // The mapping is released once the buffer is garbage collected
+                return size() > maxOpenTiles;
+            }
+        };
+    }
+
+    /**
+     * Get the tile covering a position, mapping it on first use. Callers looking up many nearby
+     * points should keep the tile while {@link Tile#contains} holds.
+     * @param lat latitude in degrees
+     * @param lon longitude in degrees
+     * @return the tile; {@link Tile#isMissing()} when the directory has none for the position
+     */
+    public Tile tileFor(double lat, double lon) {
+        int south = (int) Math.floor(lat);
+        int west = (int) Math.floor(lon);
+        Integer key = south * 360 + west;
+        synchronized (openTiles) {
+            Tile tile = openTiles.get(key);
+            if (tile == null) {
+                tile = open(south, west);
+                openTiles.put(key, tile);
+            }
+            return tile;
+        }
+    }
+
+    private Tile open(int south, int west) {
+        String name = String.format("%c%02d%c%03d.hgt", south >= 0 ? 'N' : 'S', Math.abs(south),
+                west >= 0 ? 'E' : 'W', Math.abs(west));
+        Path path = directory.resolve(name);
+        if (!Files.isRegularFile(path)) {
+            return new Tile(south, west, null, 0);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int samples = (int) Math.round(Math.sqrt(size / 2.0));
+            if (samples < 2 || (long) samples * samples * 2 != size) {
+                logger.warn("Ignoring elevation tile {} of unexpected size {}", path, size);
+                return new Tile(south, west, null, 0);
+            }
+            logger.debug("Mapped elevation tile {} ({}x{})", name, samples, samples);
+            return new Tile(south, west, channel.map(FileChannel.MapMode.READ_ONLY, 0, size), samples);
+        } catch (IOException e) {
+            logger.warn("Cannot map elevation tile {}", path, e);
+            return new Tile(south, west, null, 0);
+        }
+    }
+
+    /**
+     * One mapped tile, or a missing one. Reads are absolute, so a tile can be shared between threads.
+     */
+    public static final class Tile {
+        private final int south;
+        private final int west;
+        private final MappedByteBuffer heights;
+        private final int samples;
+
+        private Tile(int south, int west, MappedByteBuffer heights, int samples) {
+            this.south = south;
+            this.west = west;
+            this.heights = heights;
+            this.samples = samples;
+        }
+
+        /**
+         * @return true if the position falls in this tile's square degree
+         */
+        public boolean contains(double lat, double lon) {
+            return Math.floor(lat) == south && Math.floor(lon) == west;
+        }
+
+        /**
+         * @return true if there is no tile file for this square degree
+         */
+        public boolean isMissing() {
+            return heights == null;
+        }
+
+        /**
+         * Bilinear interpolation between the four surrounding heights; voids are left out and the
+         * remaining weights renormalized
+         * @param lat latitude in degrees, inside the tile
+         * @param lon longitude in degrees, inside the tile
+         * @return elevation in meters, NaN if the tile is missing or all four heights are voids
+         */
+        public double elevation(double lat, double lon) {
+            if (heights == null) {
+                return Double.NaN;
+            }
+            double y = (south + 1 - lat) * (samples - 1);
+            double x = (lon - west) * (samples - 1);
+            int row = Math.min(Math.max((int) y, 0), samples - 2);
+            int column = Math.min(Math.max((int) x, 0), samples - 2);
+            double fy = y - row;
+            double fx = x - column;
+
+            double sum = 0.0;
+            double weights = 0.0;
+            for (int dy = 0; dy <= 1; dy++) {
+                for (int dx = 0; dx <= 1; dx++) {
+                    short height = heights.getShort(((row + dy) * samples + column + dx) * 2);
+                    if (height != VOID) {
+                        double weight = (dy == 0 ? 1 - fy : fy) * (dx == 0 ? 1 - fx : fx);
+                        sum += weight * height;
+                        weights += weight;
+                    }
+                }
+            }
+            return weights > 0.0 ? sum / weights : Double.NaN;
+        }
+    }
+}
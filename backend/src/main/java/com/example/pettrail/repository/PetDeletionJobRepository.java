@@ -0,0 +1,97 @@
+package com.example.pettrail.repository;
+
+import com.example.pettrail.enums.PetDeletionStatus;
+import com.example.pettrail.model.PetDeletionJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PetDeletionJobRepository extends JpaRepository<PetDeletionJob, UUID> {
+
+    /**
+     * Find a deletion job started by the given user
+     * @param id the job ID
+     * @param userId the user ID
+     * @return Optional containing the job if found and started by the user
+     */
+    Optional<PetDeletionJob> findByIdAndUserId(UUID id, UUID userId);
+
+    /**
+     * Lock the oldest queued job, or running job whose lease has expired.
+     * Rows locked by another instance are skipped.
+     * @param now the current time
+     * @return the ID of the locked job, if any
+     */
+    @Query(value = "SELECT id FROM pet_deletion_jobs WHERE status IN ('QUEUED', 'RUNNING') AND next_attempt_at <= :now " +
+            "ORDER BY next_attempt_at LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<UUID> lockNextDue(@Param("now") LocalDateTime now);
+
+    /**
+     * Add the rows removed by one batch to the job's progress and renew its lease
+     * @param id the job ID
+     * @param walks walks deleted
+     * @param points points deleted
+     * @param leaseUntil when another worker may take the job over
+     * @return number of updated jobs
+     */
+    @Modifying
+    @Query("UPDATE PetDeletionJob j SET j.walksDeleted = j.walksDeleted + :walks, j.pointsDeleted = j.pointsDeleted + :points, " +
+            "j.nextAttemptAt = :leaseUntil WHERE j.id = :id")
+    int addProgress(@Param("id") UUID id, @Param("walks") int walks, @Param("points") long points,
+                    @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Record an archive segment that still holds routes of the job's deleted walks
+     * @param id the job ID
+     * @param segment the segment name
+     * @return 1 if recorded, 0 if already recorded
+     */
+    @Modifying
+    @Query(value = "INSERT INTO pet_deletion_job_segments (job_id, segment) VALUES (:id, :segment) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int addSegment(@Param("id") UUID id, @Param("segment") String segment);
+
+    /**
+     * Archive segments still to be compacted for the job
+     * @param id the job ID
+     * @return the segment names
+     */
+    @Query(value = "SELECT segment FROM pet_deletion_job_segments WHERE job_id = :id ORDER BY segment", nativeQuery = true)
+    List<String> findSegments(@Param("id") UUID id);
+
+    /**
+     * Count the archive segments still to be compacted for the job
+     * @param id the job ID
+     * @return number of segments
+     */
+    @Query(value = "SELECT COUNT(*) FROM pet_deletion_job_segments WHERE job_id = :id", nativeQuery = true)
+    int countSegments(@Param("id") UUID id);
+
+    /**
+     * Mark a segment compacted for the job
+     * @param id the job ID
+     * @param segment the segment name
+     * @return number of removed segments
+     */
+    @Modifying
+    @Query(value = "DELETE FROM pet_deletion_job_segments WHERE job_id = :id AND segment = :segment", nativeQuery = true)
+    int removeSegment(@Param("id") UUID id, @Param("segment") String segment);
+
+    /**
+     * Delete jobs in the given status that finished before the cut-off
+     * @param status the status
+     * @param before the cut-off time
+     * @return number of deleted jobs
+     */
+    @Modifying
+    @Query("DELETE FROM PetDeletionJob j WHERE j.status = :status AND j.finishedAt < :before")
+    int deleteByStatusAndFinishedAtBefore(@Param("status") PetDeletionStatus status, @Param("before") LocalDateTime before);
+}
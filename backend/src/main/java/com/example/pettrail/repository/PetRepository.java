@@ -2,8 +2,12 @@ package com.example.pettrail.repository;
 
 import com.example.pettrail.model.Pet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -33,4 +37,25 @@ public interface PetRepository extends JpaRepository<Pet, UUID> {
      * @return true if pet exists and belongs to user, false otherwise
      */
     boolean existsByIdAndUserId(UUID id, UUID userId);
+
+    /**
+     * Mark a pet deleted, which hides it and its walks; PetDeletionService removes them later
+     * @param id the pet ID
+     * @param userId the user ID
+     * @param deletedAt deletion time
+     * @return 1 if the pet was marked, 0 if it doesn't exist, belongs to another user or is already deleted
+     */
+    @Modifying
+    @Query(value = "UPDATE pets SET deleted_at = :deletedAt WHERE id = :id AND user_id = :userId AND deleted_at IS NULL",
+            nativeQuery = true)
+    int markDeleted(@Param("id") UUID id, @Param("userId") UUID userId, @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * Remove a deleted pet's row once its walks are gone
+     * @param id the pet ID
+     * @return number of deleted pets
+     */
+    @Modifying
+    @Query(value = "DELETE FROM pets WHERE id = :id AND deleted_at IS NOT NULL", nativeQuery = true)
+    int deleteMarked(@Param("id") UUID id);
 }
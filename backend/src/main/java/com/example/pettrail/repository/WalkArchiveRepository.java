@@ -0,0 +1,269 @@
+package com.example.pettrail.repository;
+
+import com.example.pettrail.config.WalkArchiveConfig;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.model.WalkTrackCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores the routes of archived walks in append-once segment files.
+ *
+ * Segment layout (big-endian):
+ * <pre>
+ * header  "PTSG" magic, int version
+ * blocks  one deflate-compressed block per walk
+ * index   per walk: UUID (2 longs), long offset, int compressed length, int raw length
+ * footer  long index offset, int walk count, "PTSX" magic
+ * </pre>
+ * A block holds one route in the WalkTrackCodec encoding. Files are memory-mapped for reads.
+ */
+@Repository
+public class WalkArchiveRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalkArchiveRepository.class);
+
+    private static final int MAGIC = 0x50545347; // "PTSG"
+    private static final int FOOTER_MAGIC = 0x50545358; // "PTSX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int FOOTER_BYTES = 16;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("[A-Za-z0-9_-]+\\.seg");
+    private static final DateTimeFormatter NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path directory;
+    private final Map<String, Segment> openSegments = new ConcurrentHashMap<>();
+
+    @Autowired
+    public WalkArchiveRepository(WalkArchiveConfig archiveConfig) {
+        this.directory = Path.of(archiveConfig.getDirectory());
+    }
+
+    /**
+     * Write the routes into a new segment file. The file only becomes visible once complete.
+     * @param tracks routes by walk ID
+     * @return the segment name to store on the walks
+     * @throws IOException if the segment cannot be written
+     */
+    public String writeSegment(Map<UUID, WalkTrack> tracks) throws IOException {
+        Files.createDirectories(directory);
+        String name = "walks-" + LocalDateTime.now().format(NAME_FORMATTER) + "-"
+                + Integer.toHexString(ThreadLocalRandom.current().nextInt(0x100000, 0x1000000)) + ".seg";
+        Path target = directory.resolve(name);
+        Path temp = directory.resolve(name + ".tmp");
+
+        List<UUID> walkIds = new ArrayList<>(tracks.size());
+        List<long[]> entries = new ArrayList<>(tracks.size());
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            long offset = HEADER_BYTES;
+
+            WalkTrackCodec.Buffer raw = new WalkTrackCodec.Buffer(4096);
+            byte[] compressed = new byte[4096];
+            for (Map.Entry<UUID, WalkTrack> entry : tracks.entrySet()) {
+                raw.reset();
+                WalkTrackCodec.encode(entry.getValue(), raw);
+
+                deflater.reset();
+                deflater.setInput(raw.array(), 0, raw.length());
+                deflater.finish();
+                int compressedLength = 0;
+                while (!deflater.finished()) {
+                    if (compressedLength == compressed.length) {
+                        compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                    }
+                    compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+                }
+                out.write(compressed, 0, compressedLength);
+
+                walkIds.add(entry.getKey());
+                entries.add(new long[]{offset, compressedLength, raw.length()});
+                offset += compressedLength;
+            }
+
+            long indexOffset = offset;
+            for (int i = 0; i < walkIds.size(); i++) {
+                UUID walkId = walkIds.get(i);
+                long[] entry = entries.get(i);
+                out.writeLong(walkId.getMostSignificantBits());
+                out.writeLong(walkId.getLeastSignificantBits());
+                out.writeLong(entry[0]);
+                out.writeInt((int) entry[1]);
+                out.writeInt((int) entry[2]);
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(walkIds.size());
+            out.writeInt(FOOTER_MAGIC);
+            out.flush();
+            file.getFD().sync();
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        } finally {
+            deflater.end();
+        }
+
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Wrote archive segment {} with {} walk(s), {} bytes", name, walkIds.size(), Files.size(target));
+        return name;
+    }
+
+    /**
+     * Read one archived route
+     * @param segmentName the segment stored on the walk
+     * @param walkId the walk ID
+     * @return the route
+     * @throws IOException if the segment is missing, corrupt or doesn't contain the walk
+     */
+    public WalkTrack readTrack(String segmentName, UUID walkId) throws IOException {
+        Segment segment = openSegment(segmentName);
+        long[] entry = segment.index.get(walkId);
+        if (entry == null) {
+            throw new IOException("Walk " + walkId + " not found in archive segment " + segmentName);
+        }
+
+        ByteBuffer block = segment.buffer.slice((int) entry[0], (int) entry[1]);
+        byte[] raw = new byte[(int) entry[2]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(block);
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int read = inflater.inflate(raw, length, raw.length - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += read;
+            }
+            if (length != raw.length) {
+                throw new IOException("Truncated block for walk " + walkId + " in archive segment " + segmentName);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block for walk " + walkId + " in archive segment " + segmentName, e);
+        } finally {
+            inflater.end();
+        }
+        return WalkTrackCodec.decode(raw);
+    }
+
+    /**
+     * Delete a segment file no walk refers to any more, e.g. after compaction
+     * @param segmentName the segment name
+     * @return true if the file existed
+     * @throws IOException if the name is invalid or the file cannot be deleted
+     */
+    public boolean deleteSegment(String segmentName) throws IOException {
+        if (segmentName == null || !SEGMENT_NAME.matcher(segmentName).matches()) {
+            throw new IOException("Invalid archive segment name: " + segmentName);
+        }
+        openSegments.remove(segmentName);
+        boolean deleted = Files.deleteIfExists(directory.resolve(segmentName));
+        if (deleted) {
+            logger.info("Deleted archive segment {}", segmentName);
+        }
+        return deleted;
+    }
+
+    /**
+     * Drop the mappings of segments another instance has deleted; a mapping keeps the deleted
+     * file's disk space in use until it is garbage collected
+     * @return number of dropped segments
+     */
+    public int closeDeletedSegments() {
+        int closed = 0;
+        for (String segmentName : openSegments.keySet()) {
+            if (Files.notExists(directory.resolve(segmentName)) && openSegments.remove(segmentName) != null) {
+                closed++;
+            }
+        }
+        return closed;
+    }
+
+    private Segment openSegment(String segmentName) throws IOException {
+        Segment segment = openSegments.get(segmentName);
+        if (segment != null) {
+            return segment;
+        }
+        if (segmentName == null || !SEGMENT_NAME.matcher(segmentName).matches()) {
+            throw new IOException("Invalid archive segment name: " + segmentName);
+        }
+        segment = Segment.open(directory.resolve(segmentName));
+        Segment existing = openSegments.putIfAbsent(segmentName, segment);
+        return existing != null ? existing : segment;
+    }
+
+    /**
+     * A mapped segment file with its walk index loaded
+     */
+    private static final class Segment {
+        private final MappedByteBuffer buffer;
+        private final Map<UUID, long[]> index;
+
+        private Segment(MappedByteBuffer buffer, Map<UUID, long[]> index) {
+            this.buffer = buffer;
+            this.index = index;
+        }
+
+        private static Segment open(Path path) throws IOException {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size < HEADER_BYTES + FOOTER_BYTES || size > Integer.MAX_VALUE) {
+                    throw new IOException("Invalid archive segment size " + size + ": " + path);
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+
+            int limit = buffer.limit();
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(limit - 4) != FOOTER_MAGIC) {
+                throw new IOException("Not an archive segment: " + path);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported archive segment version " + buffer.getInt(4) + ": " + path);
+            }
+            long indexOffset = buffer.getLong(limit - FOOTER_BYTES);
+            int count = buffer.getInt(limit - 8);
+
+            Map<UUID, long[]> index = new HashMap<>(count * 4 / 3 + 1);
+            int position = (int) indexOffset;
+            for (int i = 0; i < count; i++) {
+                UUID walkId = new UUID(buffer.getLong(position), buffer.getLong(position + 8));
+                index.put(walkId, new long[]{buffer.getLong(position + 16), buffer.getInt(position + 24), buffer.getInt(position + 28)});
+                position += 32;
+            }
+            return new Segment(buffer, index);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.pettrail.repository;
+
+import com.example.pettrail.enums.ImportStatus;
+import com.example.pettrail.model.WalkImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface WalkImportJobRepository extends JpaRepository<WalkImportJob, UUID> {
+
+    /**
+     * Find an import started by the given user
+     * @param id the job ID
+     * @param userId the user ID
+     * @return Optional containing the job if found and started by the user
+     */
+    Optional<WalkImportJob> findByIdAndUserId(UUID id, UUID userId);
+
+    /**
+     * Find queued or running jobs whose lease has expired, oldest first
+     * @param statuses the unfinished statuses
+     * @param now the current time
+     * @return the jobs
+     */
+    List<WalkImportJob> findByStatusInAndLeaseUntilLessThanEqualOrderByCreatedAt(Collection<ImportStatus> statuses,
+                                                                               LocalDateTime now);
+
+    /**
+     * Check whether an unfinished job still needs a spool file
+     * @param spoolPath the absolute path of the file
+     * @param statuses the unfinished statuses
+     * @return true if a job refers to it
+     */
+    boolean existsBySpoolPathAndStatusIn(String spoolPath, Collection<ImportStatus> statuses);
+
+    /**
+     * Take a job for a worker: a queued job, or one whose previous worker's lease has expired.
+     * Of two instances claiming the same job, the second sees the renewed lease and gets 0.
+     * @param id the job ID
+     * @param now the current time
+     * @param leaseUntil end of the new worker's lease
+     * @return 1 if the job was claimed
+     */
+    @Modifying
+    @Query(value = "UPDATE import_jobs SET status = 'RUNNING', attempts = attempts + 1, lease_until = :leaseUntil, " +
+            "bytes_processed = 0, walks_imported = 0, walks_skipped = 0, points_received = 0, points_accepted = 0, " +
+            "points_discarded = 0 WHERE id = :id AND (status = 'QUEUED' OR (status = 'RUNNING' AND lease_until <= :now))",
+            nativeQuery = true)
+    int claim(@Param("id") UUID id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Store the progress of a job queued or running on this instance and renew its lease
+     * @return number of updated jobs
+     */
+    @Modifying
+    @Query("UPDATE WalkImportJob j SET j.bytesProcessed = :bytesProcessed, j.walksImported = :walksImported, " +
+            "j.walksSkipped = :walksSkipped, j.pointsReceived = :pointsReceived, j.pointsAccepted = :pointsAccepted, " +
+            "j.pointsDiscarded = :pointsDiscarded, j.leaseUntil = :leaseUntil " +
+            "WHERE j.id = :id AND j.finishedAt IS NULL")
+    int updateProgress(@Param("id") UUID id, @Param("bytesProcessed") long bytesProcessed,
+                       @Param("walksImported") int walksImported, @Param("walksSkipped") int walksSkipped,
+                       @Param("pointsReceived") long pointsReceived, @Param("pointsAccepted") long pointsAccepted,
+                       @Param("pointsDiscarded") long pointsDiscarded, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Fail unfinished jobs whose lease expired before the cut-off, that no instance could resume
+     * @param statuses the unfinished statuses
+     * @param before the cut-off time
+     * @param error the failure reason
+     * @param now the current time
+     * @return number of failed jobs
+     */
+    @Modifying
+    @Query("UPDATE WalkImportJob j SET j.status = com.example.pettrail.enums.ImportStatus.FAILED, j.error = :error, " +
+            "j.finishedAt = :now WHERE j.status IN :statuses AND j.leaseUntil < :before")
+    int failExpired(@Param("statuses") Collection<ImportStatus> statuses, @Param("before") LocalDateTime before,
+                    @Param("error") String error, @Param("now") LocalDateTime now);
+
+    /**
+     * Delete finished jobs that finished before the cut-off
+     * @param statuses the finished statuses
+     * @param before the cut-off time
+     * @return number of deleted jobs
+     */
+    @Modifying
+    @Query("DELETE FROM WalkImportJob j WHERE j.status IN :statuses AND j.finishedAt < :before")
+    int deleteByStatusInAndFinishedAtBefore(@Param("statuses") Collection<ImportStatus> statuses,
+                                            @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,102 @@
+package com.example.pettrail.repository;
+
+import com.example.pettrail.config.WalkPointStorageConfig;
+import com.example.pettrail.enums.PointStorageMode;
+import com.example.pettrail.model.UuidV7Generator;
+import com.example.pettrail.model.WalkTrack;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Inserts walk points with plain JDBC batches, without creating WalkPoint entities.
+ * pgjdbc rewrites each batch into multi-row INSERTs (see DatabaseConfig). Positions are written
+ * as fixed-point integers and, in DUAL storage mode, also as decimals (see WalkPointColumns).
+ */
+@Repository
+public class WalkPointBulkWriter {
+
+    private static final String INSERT_FIXED_SQL =
+            "INSERT INTO walk_points (id, walk_id, lat_e7, lon_e7, timestamp, elev_cm, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_DUAL_SQL =
+            "INSERT INTO walk_points (id, walk_id, lat_e7, lon_e7, timestamp, elev_cm, created_at, " +
+            "latitude, longitude, elevation) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean dual;
+
+    @Autowired
+    public WalkPointBulkWriter(JdbcTemplate jdbcTemplate, WalkPointStorageConfig storageConfig) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dual = storageConfig.getMode() == PointStorageMode.DUAL;
+    }
+
+    /**
+     * Insert the points of a batch, joining the current transaction if there is one
+     * @param walkId the walk the points belong to
+     * @param points the points (NaN elevation is stored as NULL)
+     * @return number of inserted points
+     */
+    public int insert(UUID walkId, WalkTrack points) {
+        return insert(walkId, points, null, points.size());
+    }
+
+    /**
+     * Insert a selection of the points of a batch, joining the current transaction if there is one
+     * @param walkId the walk the points belong to
+     * @param points the points (NaN elevation is stored as NULL)
+     * @param indexes the indexes of the points to insert, in insertion order (null for all points in order)
+     * @param count how many indexes to use
+     * @return number of inserted points
+     */
+    public int insert(UUID walkId, WalkTrack points, int[] indexes, int count) {
+        if (count == 0) {
+            return 0;
+        }
+        LocalDateTime createdAt = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(dual ? INSERT_DUAL_SQL : INSERT_FIXED_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                int index = indexes != null ? indexes[i] : i;
+                double latitude = points.latitude(index);
+                double longitude = points.longitude(index);
+                ps.setObject(1, UuidV7Generator.next());
+                ps.setObject(2, walkId);
+                ps.setInt(3, WalkPointColumns.toFixedCoordinate(latitude));
+                ps.setInt(4, WalkPointColumns.toFixedCoordinate(longitude));
+                ps.setObject(5, points.timestamp(index));
+                if (points.hasElevation(index)) {
+                    ps.setInt(6, WalkPointColumns.toFixedElevation(points.elevation(index)));
+                } else {
+                    ps.setNull(6, Types.INTEGER); // Same type as the non-null rows, so the batch is not split
+                }
+                ps.setObject(7, createdAt);
+                if (dual) {
+                    // Bound as float8: the server's cast to NUMERIC keeps the 15 significant digits of
+                    // the double, which round-trips every coordinate, without a BigDecimal per value
+                    ps.setDouble(8, latitude);
+                    ps.setDouble(9, longitude);
+                    if (points.hasElevation(index)) {
+                        ps.setDouble(10, points.elevation(index));
+                    } else {
+                        ps.setNull(10, Types.DOUBLE);
+                    }
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return count;
+            }
+        });
+        return count;
+    }
+}
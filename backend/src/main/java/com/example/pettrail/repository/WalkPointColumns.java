@@ -0,0 +1,68 @@
+package com.example.pettrail.repository;
+
+import com.example.pettrail.model.WalkTrack;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Reading and writing walk_points positions during the move to fixed-point columns (V10 migration).
+ * Reads take lat_e7/lon_e7/elev_cm when set and fall back to the decimal columns of rows not yet
+ * converted. Everything stays on primitives: no BigDecimal per value.
+ */
+public final class WalkPointColumns {
+
+    /**
+     * Columns to select, in the order the accessors below expect them
+     */
+    public static final String SELECT = "timestamp, lat_e7, lon_e7, elev_cm, latitude, longitude, elevation";
+
+    public static final double COORDINATE_SCALE = 1e7; // lat_e7, lon_e7: 1e-7 degrees, about 1 cm
+    public static final double ELEVATION_SCALE = 100.0; // elev_cm: centimeters
+
+    private WalkPointColumns() {
+    }
+
+    // first: index of the first SELECT column in the result set
+
+    public static LocalDateTime timestamp(ResultSet rs, int first) throws SQLException {
+        return rs.getObject(first, LocalDateTime.class);
+    }
+
+    public static double latitude(ResultSet rs, int first) throws SQLException {
+        int fixed = rs.getInt(first + 1);
+        // Division by an exact power of ten gives the double nearest to the stored decimal value
+        return rs.wasNull() ? rs.getDouble(first + 4) : fixed / COORDINATE_SCALE;
+    }
+
+    public static double longitude(ResultSet rs, int first) throws SQLException {
+        int fixed = rs.getInt(first + 2);
+        return rs.wasNull() ? rs.getDouble(first + 5) : fixed / COORDINATE_SCALE;
+    }
+
+    /**
+     * @return the elevation in meters, NaN when the point has none
+     */
+    public static double elevation(ResultSet rs, int first) throws SQLException {
+        int fixed = rs.getInt(first + 3);
+        if (!rs.wasNull()) {
+            return fixed / ELEVATION_SCALE;
+        }
+        // Converted rows without elevation have NULL in both columns
+        double decimal = rs.getDouble(first + 6);
+        return rs.wasNull() ? Double.NaN : decimal;
+    }
+
+    public static long timestampMicros(ResultSet rs, int first) throws SQLException {
+        return WalkTrack.toEpochMicros(timestamp(rs, first));
+    }
+
+    public static int toFixedCoordinate(double degrees) {
+        return (int) Math.round(degrees * COORDINATE_SCALE);
+    }
+
+    public static int toFixedElevation(double meters) {
+        return (int) Math.round(meters * ELEVATION_SCALE);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.pettrail.repository;
 
 import com.example.pettrail.model.WalkPoint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -27,11 +28,33 @@ public interface WalkPointRepository extends JpaRepository<WalkPoint, UUID> {
      */
     @Query("SELECT COUNT(wp) FROM WalkPoint wp WHERE wp.walkId = :walkId")
     long countByWalkId(@Param("walkId") UUID walkId);
-    
+
     /**
      * Delete all points for a specific walk
      * @param walkId the walk ID
      */
     @Query("DELETE FROM WalkPoint wp WHERE wp.walkId = :walkId")
     void deleteByWalkId(@Param("walkId") UUID walkId);
+
+    /**
+     * Delete all points of several walks
+     * @param walkIds the walk IDs
+     * @return number of deleted points
+     */
+    @Modifying
+    @Query("DELETE FROM WalkPoint wp WHERE wp.walkId IN :walkIds")
+    int deleteByWalkIdIn(@Param("walkIds") List<UUID> walkIds);
+
+    /**
+     * Delete up to a number of points of several walks, to keep each transaction small
+     * @param walkIds the walk IDs
+     * @param limit maximum number of points
+     * @return number of deleted points
+     */
+    @Modifying
+    // walk_id is repeated outside the subquery so the outer side is an index scan too, not a hash join
+    // over a sequential scan of every partition
+    @Query(value = "DELETE FROM walk_points WHERE walk_id IN (:walkIds) AND (id, timestamp) IN " +
+            "(SELECT id, timestamp FROM walk_points WHERE walk_id IN (:walkIds) LIMIT :limit)", nativeQuery = true)
+    int deleteBatchByWalkIdIn(@Param("walkIds") List<UUID> walkIds, @Param("limit") int limit);
 }
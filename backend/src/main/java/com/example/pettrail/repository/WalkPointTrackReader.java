@@ -0,0 +1,150 @@
+package com.example.pettrail.repository;
+
+import com.example.pettrail.model.WalkTrack;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads walk points straight into WalkTracks with plain JDBC, without WalkPoint entities or
+ * BigDecimals (see WalkPointColumns). Joins the current transaction if there is one.
+ */
+@Repository
+public class WalkPointTrackReader {
+
+    static final String TRACK_SQL =
+            "SELECT " + WalkPointColumns.SELECT + " FROM walk_points WHERE walk_id = ? ORDER BY timestamp";
+    static final String LAST_POINT_SQL =
+            "SELECT " + WalkPointColumns.SELECT + " FROM walk_points WHERE walk_id = ? ORDER BY timestamp DESC LIMIT 1";
+    // Active walks only; the point columns are NULL when the walk has no points yet
+    static final String ACTIVE_LAST_POINT_SQL =
+            "SELECT w.finished_at IS NULL, p.* FROM walks w LEFT JOIN LATERAL (SELECT " + WalkPointColumns.SELECT +
+            " FROM walk_points WHERE walk_id = w.id ORDER BY timestamp DESC LIMIT 1) p ON true WHERE w.id = ?";
+    static final String TRACKS_SQL =
+            "SELECT walk_id, " + WalkPointColumns.SELECT + " FROM walk_points WHERE walk_id IN (:walkIds) " +
+            "ORDER BY walk_id, timestamp";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    public WalkPointTrackReader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Read the points of a walk
+     * @param walkId the walk ID
+     * @return the points ordered by timestamp (empty if there are none)
+     */
+    public WalkTrack readTrack(UUID walkId) {
+        TrackBuilder builder = new TrackBuilder(256);
+        jdbcTemplate.query(TRACK_SQL, ps -> ps.setObject(1, walkId), (RowCallbackHandler) rs -> builder.add(rs, 1));
+        return builder.build();
+    }
+
+    /**
+     * Read the latest point of a walk
+     * @param walkId the walk ID
+     * @return a track with the point with the highest timestamp, or an empty track
+     */
+    public WalkTrack readLastPoint(UUID walkId) {
+        TrackBuilder builder = new TrackBuilder(1);
+        jdbcTemplate.query(LAST_POINT_SQL, ps -> ps.setObject(1, walkId), (RowCallbackHandler) rs -> builder.add(rs, 1));
+        return builder.build();
+    }
+
+    /**
+     * Read the latest point of a walk, checking in the same query that the walk is not finished
+     * @param walkId the walk ID
+     * @return a track with the point with the highest timestamp, an empty track if the walk has no
+     * points yet, or null if the walk does not exist or is finished
+     */
+    public WalkTrack readLastPointIfActive(UUID walkId) {
+        return jdbcTemplate.query(ACTIVE_LAST_POINT_SQL, ps -> ps.setObject(1, walkId), (ResultSetExtractor<WalkTrack>) rs -> {
+            if (!rs.next() || !rs.getBoolean(1)) {
+                return null;
+            }
+            TrackBuilder builder = new TrackBuilder(1);
+            if (WalkPointColumns.timestamp(rs, 2) != null) {
+                builder.add(rs, 2);
+            }
+            return builder.build();
+        });
+    }
+
+    /**
+     * Read the points of several walks
+     * @param walkIds the walk IDs
+     * @return each walk's points ordered by timestamp, in the order of walkIds (empty tracks for walks without points)
+     */
+    public Map<UUID, WalkTrack> readTracks(List<UUID> walkIds) {
+        Map<UUID, TrackBuilder> builders = new LinkedHashMap<>();
+        for (UUID walkId : walkIds) {
+            builders.put(walkId, new TrackBuilder(256));
+        }
+        namedJdbcTemplate.query(TRACKS_SQL, new MapSqlParameterSource("walkIds", walkIds),
+                (RowCallbackHandler) rs -> builders.get(rs.getObject(1, UUID.class)).add(rs, 2));
+
+        Map<UUID, WalkTrack> tracks = new LinkedHashMap<>();
+        builders.forEach((walkId, builder) -> tracks.put(walkId, builder.build()));
+        return tracks;
+    }
+
+    /**
+     * Growable parallel arrays, trimmed into a WalkTrack at the end
+     */
+    private static final class TrackBuilder {
+        private long[] timestamps;
+        private double[] latitudes;
+        private double[] longitudes;
+        private double[] elevations;
+        private int size;
+
+        private TrackBuilder(int capacity) {
+            timestamps = new long[capacity];
+            latitudes = new double[capacity];
+            longitudes = new double[capacity];
+            elevations = new double[capacity];
+        }
+
+        // first: index of the first WalkPointColumns.SELECT column
+        private void add(ResultSet rs, int first) throws SQLException {
+            if (size == timestamps.length) {
+                int capacity = size * 2;
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                elevations = Arrays.copyOf(elevations, capacity);
+            }
+            timestamps[size] = WalkPointColumns.timestampMicros(rs, first);
+            latitudes[size] = WalkPointColumns.latitude(rs, first);
+            longitudes[size] = WalkPointColumns.longitude(rs, first);
+            elevations[size] = WalkPointColumns.elevation(rs, first);
+            size++;
+        }
+
+        private WalkTrack build() {
+            if (size < timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size);
+                latitudes = Arrays.copyOf(latitudes, size);
+                longitudes = Arrays.copyOf(longitudes, size);
+                elevations = Arrays.copyOf(elevations, size);
+            }
+            return new WalkTrack(size, timestamps, latitudes, longitudes, elevations);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.pettrail.repository;
+
+import com.example.pettrail.model.WalkProfile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface WalkProfileRepository extends JpaRepository<WalkProfile, UUID> {
+
+    /**
+     * Store a walk's profile, replacing an older one (two first reads of a walk may build it at once)
+     * @param walkId the walk ID
+     * @param version the builder version
+     * @param data the profile JSON
+     */
+    @Modifying
+    @Query(value = "INSERT INTO walk_profiles (walk_id, version, data, created_at) " +
+            "VALUES (:walkId, :version, CAST(:data AS jsonb), now()) " +
+            "ON CONFLICT (walk_id) DO UPDATE SET version = EXCLUDED.version, data = EXCLUDED.data, " +
+            "created_at = EXCLUDED.created_at", nativeQuery = true)
+    void upsert(@Param("walkId") UUID walkId, @Param("version") int version, @Param("data") String data);
+}
@@ -4,10 +4,13 @@ import com.example.pettrail.model.Walk;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -23,13 +26,35 @@ public interface WalkRepository extends JpaRepository<Walk, UUID> {
     Optional<Walk> findActiveWalkByPetId(@Param("petId") UUID petId);
     
     /**
-     * Check if an active walk exists for a specific pet
+     * Start a walk unless the pet already has an active one (checked by idx_walks_active_pet, so
+     * also against walks started concurrently)
+     * @param id the new walk's ID
      * @param petId the pet ID
-     * @return true if an active walk exists, false otherwise
+     * @param userId the user ID
+     * @param startedAt the start time
+     * @return 1 if the walk was created, 0 if the pet already has an active walk
      */
-    @Query("SELECT COUNT(w) > 0 FROM Walk w WHERE w.petId = :petId AND w.finishedAt IS NULL")
-    boolean existsActiveWalkByPetId(@Param("petId") UUID petId);
+    @Modifying
+    @Query(value = "INSERT INTO walks (id, pet_id, user_id, started_at) VALUES (:id, :petId, :userId, :startedAt) " +
+            "ON CONFLICT (pet_id) WHERE finished_at IS NULL DO NOTHING", nativeQuery = true)
+    int insertUnlessActive(@Param("id") UUID id, @Param("petId") UUID petId, @Param("userId") UUID userId,
+                           @Param("startedAt") LocalDateTime startedAt);
     
+    /**
+     * Add the moving and stopped time of an upload batch to the walk's totals (see WalkMotionSegmenter)
+     * @param id the walk ID
+     * @param movingMs moving time in milliseconds
+     * @param stoppedMs stopped time in milliseconds
+     * @param movingDistanceM distance covered while moving in meters
+     * @return number of updated walks
+     */
+    @Modifying
+    @Query(value = "UPDATE walks SET tempo_movimento_ms = COALESCE(tempo_movimento_ms, 0) + :movingMs, " +
+            "tempo_parado_ms = COALESCE(tempo_parado_ms, 0) + :stoppedMs, " +
+            "distancia_movimento_m = COALESCE(distancia_movimento_m, 0) + :movingDistanceM WHERE id = :id", nativeQuery = true)
+    int addMotion(@Param("id") UUID id, @Param("movingMs") long movingMs, @Param("stoppedMs") long stoppedMs,
+                  @Param("movingDistanceM") double movingDistanceM);
+
     /**
      * Find all walks for a specific pet, ordered by start time descending
      * @param petId the pet ID
@@ -46,4 +71,102 @@ public interface WalkRepository extends JpaRepository<Walk, UUID> {
      */
     @Query("SELECT COUNT(w) FROM Walk w WHERE w.petId = :petId")
     long countByPetId(@Param("petId") UUID petId);
+    
+    /**
+     * Check whether the pet already has a walk starting at the given time (used to skip re-imported walks)
+     * @param petId the pet ID
+     * @param startedAt the start time
+     * @return true if such a walk exists
+     */
+    boolean existsByPetIdAndStartedAt(UUID petId, LocalDateTime startedAt);
+
+    /**
+     * Lock a batch of finished, not yet archived walks for the archiver.
+     * Rows locked by another instance are skipped.
+     * @param cutoff only walks finished before this time
+     * @param limit maximum number of walks
+     * @return IDs of the locked walks, oldest first
+     */
+    @Query(value = "SELECT id FROM walks WHERE finished_at < :cutoff AND archived_at IS NULL " +
+            "ORDER BY finished_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<UUID> lockArchiveCandidates(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    /**
+     * Find active walks without points since the cutoff, for the stale walk sweeper. Walks of
+     * deleted pets are left to the deletion job.
+     * @param cutoff only walks started before this time and without points from it on
+     * @param limit maximum number of walks
+     * @return the walk IDs, oldest first
+     */
+    @Query(value = "SELECT w.id FROM walks w WHERE w.finished_at IS NULL AND w.started_at < :cutoff " +
+            "AND w.pet_id NOT IN (SELECT d.id FROM pets d WHERE d.deleted_at IS NOT NULL) " +
+            "AND NOT EXISTS (SELECT 1 FROM walk_points p WHERE p.walk_id = w.id AND p.timestamp >= :cutoff) " +
+            "ORDER BY w.started_at LIMIT :limit", nativeQuery = true)
+    List<UUID> findIdleActiveWalkIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    /**
+     * Record that the walks' points now live in the given archive segment
+     * @param walkIds the archived walks
+     * @param segment the segment name
+     * @param archivedAt archival time
+     * @return number of updated walks
+     */
+    @Modifying
+    @Query("UPDATE Walk w SET w.archivedAt = :archivedAt, w.archiveSegment = :segment WHERE w.id IN :walkIds")
+    int markArchived(@Param("walkIds") List<UUID> walkIds, @Param("segment") String segment,
+                     @Param("archivedAt") LocalDateTime archivedAt);
+
+    /**
+     * Current archive segment of a walk, read from the database (bypasses the persistence context)
+     * @param walkId the walk ID
+     * @return the segment name, or null if the walk is not archived
+     */
+    @Query("SELECT w.archiveSegment FROM Walk w WHERE w.id = :walkId")
+    String findArchiveSegmentById(@Param("walkId") UUID walkId);
+
+    /**
+     * Find the IDs of some walks of a pet, including a deleted pet (native: bypasses the Walk restriction)
+     * @param petId the pet ID
+     * @param limit maximum number of walks
+     * @return the walk IDs
+     */
+    @Query(value = "SELECT id FROM walks WHERE pet_id = :petId LIMIT :limit", nativeQuery = true)
+    List<UUID> findIdBatchByPetId(@Param("petId") UUID petId, @Param("limit") int limit);
+
+    /**
+     * Lock walks about to be deleted, including those of deleted pets, and read where their routes
+     * are archived. The lock keeps a compaction from moving them to another segment before the delete.
+     * @param walkIds the walk IDs
+     * @return the archive segment of each walk, null for walks that are not archived
+     */
+    @Query(value = "SELECT archive_segment FROM walks WHERE id IN (:walkIds) FOR UPDATE", nativeQuery = true)
+    List<String> lockArchiveSegmentsByIdIn(@Param("walkIds") List<UUID> walkIds);
+
+    /**
+     * Delete walks, including those of deleted pets; remaining points go with them (ON DELETE CASCADE).
+     * Archived routes stay in their segments until these are compacted.
+     * @param walkIds the walk IDs
+     * @return number of deleted walks
+     */
+    @Modifying
+    @Query(value = "DELETE FROM walks WHERE id IN (:walkIds)", nativeQuery = true)
+    int deleteByIdIn(@Param("walkIds") List<UUID> walkIds);
+
+    /**
+     * Lock the walks stored in an archive segment, including those of deleted pets
+     * @param segment the segment name
+     * @return the walk IDs
+     */
+    @Query(value = "SELECT id FROM walks WHERE archive_segment = :segment ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<UUID> lockByArchiveSegment(@Param("segment") String segment);
+
+    /**
+     * Point walks at the segment their routes were copied to
+     * @param walkIds the walk IDs
+     * @param segment the new segment name
+     * @return number of updated walks
+     */
+    @Modifying
+    @Query(value = "UPDATE walks SET archive_segment = :segment WHERE id IN (:walkIds)", nativeQuery = true)
+    int moveToArchiveSegment(@Param("walkIds") List<UUID> walkIds, @Param("segment") String segment);
 }
@@ -0,0 +1,80 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.enums.ActiveWalkStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * What the active-walk registry knows about a walk
+ */
+public final class ActiveWalk {
+
+    // No point stored yet, or not known (the walk was looked up, not loaded)
+    public static final long NO_POINT = Long.MIN_VALUE;
+
+    private final UUID walkId;
+    private final UUID petId;
+    private final UUID userId;
+    private final LocalDateTime startedAt;
+    private volatile long lastPointMicros;
+    private volatile ActiveWalkStatus status;
+    private volatile long statusChangedNanos;
+
+    ActiveWalk(UUID walkId, UUID petId, UUID userId, LocalDateTime startedAt, long lastPointMicros,
+               ActiveWalkStatus status) {
+        this.walkId = walkId;
+        this.petId = petId;
+        this.userId = userId;
+        this.startedAt = startedAt;
+        this.lastPointMicros = lastPointMicros;
+        this.status = status;
+        this.statusChangedNanos = System.nanoTime();
+    }
+
+    public UUID getWalkId() {
+        return walkId;
+    }
+
+    public UUID getPetId() {
+        return petId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * @return the timestamp of the walk's latest stored point in epoch microseconds, or NO_POINT
+     */
+    public long getLastPointMicros() {
+        return lastPointMicros;
+    }
+
+    public ActiveWalkStatus getStatus() {
+        return status;
+    }
+
+    public boolean isActive() {
+        return status == ActiveWalkStatus.ACTIVE;
+    }
+
+    synchronized void pointsStored(long timestampMicros) {
+        if (timestampMicros > lastPointMicros) {
+            lastPointMicros = timestampMicros;
+        }
+    }
+
+    void setStatus(ActiveWalkStatus status) {
+        this.status = status;
+        this.statusChangedNanos = System.nanoTime();
+    }
+
+    long getStatusChangedNanos() {
+        return statusChangedNanos;
+    }
+}
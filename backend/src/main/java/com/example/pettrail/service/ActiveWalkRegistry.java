@@ -0,0 +1,254 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.ActiveWalkConfig;
+import com.example.pettrail.enums.ActiveWalkStatus;
+import com.example.pettrail.enums.InvalidationType;
+import com.example.pettrail.model.Walk;
+import com.example.pettrail.model.WalkTrack;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Active walks by walk and by pet, with the timestamp of each walk's last stored point, so the hot
+ * endpoints (point uploads, active walk, walk list) don't query the walks table on every request
+ * while the walk lock is local. Under the shared lock a point upload still reads the walk's state
+ * and last point, in one query (see WalkPointsService). Loaded on startup from the walks that are not
+ * finished and kept up to date by start and stop. Stops and pet deletions on other instances arrive
+ * through CacheInvalidationBus, and a periodic reload picks up walks they started. Walks it doesn't
+ * know are looked up in the database as before.
+ * <p>
+ * The database stays authoritative: idx_walks_active_pet rejects a second active walk of a pet,
+ * and changes happen under the walk lock (see WalkLockRegistry), where a stop marks the walk
+ * finished here before releasing it. That only covers this instance: when the lock is shared
+ * between instances, FINISHED entries are final but ACTIVE ones may be behind a stop elsewhere.
+ */
+@Component
+public class ActiveWalkRegistry implements CacheInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveWalkRegistry.class);
+
+    private static final String LOAD_SQL =
+            "SELECT w.id, w.pet_id, w.user_id, w.started_at, " +
+            "(SELECT max(p.timestamp) FROM walk_points p WHERE p.walk_id = w.id) " +
+            "FROM walks w JOIN pets pet ON pet.id = w.pet_id " +
+            "WHERE w.finished_at IS NULL AND pet.deleted_at IS NULL";
+
+    private final ActiveWalkConfig config;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<UUID, ActiveWalk> walks = new ConcurrentHashMap<>();
+    private final Map<UUID, ActiveWalk> activeByPet = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ActiveWalkRegistry(ActiveWalkConfig config, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.jdbcTemplate = jdbcTemplate;
+        Gauge.builder("pettrail.walks.active", activeByPet, Map::size)
+                .description("Active walks known to this instance")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param walkId the walk ID
+     * @return what is known about the walk (active or recently finished), or null to ask the database
+     */
+    public ActiveWalk find(UUID walkId) {
+        return config.isEnabled() ? walks.get(walkId) : null;
+    }
+
+    /**
+     * @param petId the pet ID
+     * @return the pet's active walk, or null if none is known
+     */
+    public ActiveWalk findActiveByPet(UUID petId) {
+        return config.isEnabled() ? activeByPet.get(petId) : null;
+    }
+
+    /**
+     * Record a walk read from the database, e.g. after a miss
+     * @param walk the walk
+     */
+    public void remember(Walk walk) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        ActiveWalkStatus status = walk.isActive() ? ActiveWalkStatus.ACTIVE : ActiveWalkStatus.FINISHED;
+        add(new ActiveWalk(walk.getId(), walk.getPetId(), walk.getUserId(), walk.getStartedAt(),
+                ActiveWalk.NO_POINT, status));
+    }
+
+    /**
+     * Record a walk started in the current transaction, once it commits
+     * @param walk the new walk
+     */
+    public void started(Walk walk) {
+        afterCommit(() -> remember(walk));
+    }
+
+    /**
+     * Record the latest point stored for a walk in the current transaction, once it commits
+     * @param walkId the walk ID
+     * @param timestampMicros the timestamp of the latest stored point
+     */
+    public void pointsStored(UUID walkId, long timestampMicros) {
+        ActiveWalk walk = find(walkId);
+        if (walk != null) {
+            afterCommit(() -> walk.pointsStored(timestampMicros));
+        }
+    }
+
+    /**
+     * Mark a walk finished right away, while the stopping transaction still holds the walk lock;
+     * undone if the transaction rolls back
+     * @param walk the walk being stopped
+     */
+    public void finishing(Walk walk) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        ActiveWalk entry = walks.get(walk.getId());
+        if (entry == null) {
+            remember(walk);
+            entry = walks.get(walk.getId());
+        }
+        ActiveWalk finished = entry;
+        finished.setStatus(ActiveWalkStatus.FINISHED);
+        activeByPet.remove(finished.getPetId(), finished);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        finished.setStatus(ActiveWalkStatus.ACTIVE);
+                        activeByPet.putIfAbsent(finished.getPetId(), finished);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Forget the walks of a pet deleted in the current transaction, once it commits
+     * @param petId the pet ID
+     */
+    public void petDeleted(UUID petId) {
+        afterCommit(() -> forgetPet(petId));
+    }
+
+    @Override
+    public void invalidate(InvalidationType type, List<UUID> ids) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        switch (type) {
+            case WALK_STOPPED -> ids.forEach(walkId -> {
+                ActiveWalk walk = walks.get(walkId);
+                if (walk != null && walk.isActive()) {
+                    walk.setStatus(ActiveWalkStatus.FINISHED);
+                    activeByPet.remove(walk.getPetId(), walk);
+                }
+            });
+            case PET_DELETED -> ids.forEach(this::forgetPet);
+            case WALKS_DELETED -> ids.forEach(walkId -> {
+                ActiveWalk walk = walks.remove(walkId);
+                if (walk != null) {
+                    activeByPet.remove(walk.getPetId(), walk);
+                }
+            });
+        }
+    }
+
+    /**
+     * Reload the active walks; finished walks stay finished, so they need no flushing
+     */
+    @Override
+    public void flush() {
+        resync();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        resync();
+    }
+
+    /**
+     * Replace what is known about active walks with the database's view and forget walks
+     * finished long enough ago
+     */
+    @Scheduled(fixedDelayString = "${pettrail.active-walks.resync-interval-ms:30000}",
+            initialDelayString = "${pettrail.active-walks.resync-interval-ms:30000}")
+    public void resync() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        Map<UUID, ActiveWalk> loaded = new HashMap<>();
+        try {
+            jdbcTemplate.query(LOAD_SQL, (RowCallbackHandler) rs -> {
+                LocalDateTime lastPoint = rs.getObject(5, LocalDateTime.class);
+                UUID walkId = rs.getObject(1, UUID.class);
+                loaded.put(walkId, new ActiveWalk(walkId, rs.getObject(2, UUID.class), rs.getObject(3, UUID.class),
+                        rs.getObject(4, LocalDateTime.class),
+                        lastPoint != null ? WalkTrack.toEpochMicros(lastPoint) : ActiveWalk.NO_POINT,
+                        ActiveWalkStatus.ACTIVE));
+            });
+        } catch (DataAccessException e) {
+            logger.error("Cannot load active walks, keeping the current registry", e);
+            return;
+        }
+
+        // Walks started since the query ran are dropped too; the next request looks them up again
+        walks.values().removeIf(walk -> walk.isActive() && !loaded.containsKey(walk.getWalkId()));
+        activeByPet.values().removeIf(walk -> !walk.isActive() || !loaded.containsKey(walk.getWalkId()));
+        // Recent stops stay finished: the walk may still be active in the query's snapshot
+        loaded.values().forEach(this::add);
+
+        long retentionNanos = TimeUnit.MINUTES.toNanos(config.getFinishedRetentionMinutes());
+        long now = System.nanoTime();
+        walks.values().removeIf(walk -> !walk.isActive() && now - walk.getStatusChangedNanos() > retentionNanos);
+        logger.debug("Active walk registry: {} active walk(s), {} entries", activeByPet.size(), walks.size());
+    }
+
+    private void forgetPet(UUID petId) {
+        walks.values().removeIf(walk -> walk.getPetId().equals(petId));
+        activeByPet.remove(petId);
+    }
+
+    private void add(ActiveWalk walk) {
+        ActiveWalk current = walks.putIfAbsent(walk.getWalkId(), walk);
+        if (current == null && walk.isActive()) {
+            activeByPet.put(walk.getPetId(), walk);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.pettrail.service;
 
+import com.example.pettrail.config.JwtConfig;
 import com.example.pettrail.dto.AuthResponse;
 import com.example.pettrail.dto.LoginRequest;
 import com.example.pettrail.dto.RegisterRequest;
 import com.example.pettrail.enums.Role;
+import com.example.pettrail.exception.InvalidRefreshTokenException;
+import com.example.pettrail.exception.PasswordHashingRejectedException;
 import com.example.pettrail.model.User;
 import com.example.pettrail.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +16,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -31,6 +35,12 @@ public class AuthService {
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private JwtConfig jwtConfig;
+
     public AuthResponse register(RegisterRequest request) {
         // Check if user already exists
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -48,19 +58,12 @@ public class AuthService {
 
         User savedUser = userRepository.save(user);
 
-        // Generate JWT token
-        String token = jwtService.generateToken(savedUser);
-
-        return new AuthResponse(
-            token,
-            savedUser.getId(),
-            savedUser.getEmail(),
-            savedUser.getFirstName(),
-            savedUser.getLastName(),
-            savedUser.getRole()
-        );
+        return toAuthResponse(savedUser, refreshTokenService.issue(savedUser.getId()));
     }
 
+    // No surrounding transaction: it would hold a pooled connection while the password hash runs.
+    // Loading the user and any rehash (UserDetailsServiceImpl) use their own short transactions
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResponse login(LoginRequest request) {
         try {
             // Authenticate user
@@ -74,27 +77,59 @@ public class AuthService {
             // Get user details
             User user = (User) authentication.getPrincipal();
 
-            // Generate JWT token
-            String token = jwtService.generateToken(user);
-
-            return new AuthResponse(
-                token,
-                user.getId(),
-                user.getEmail(),
-                user.getFirstName(),
-                user.getLastName(),
-                user.getRole()
-            );
+            return toAuthResponse(user, refreshTokenService.issue(user.getId()));
         } catch (AuthenticationException e) {
+            // Saturated hashing pool, wrapped when hit while loading the user (timing-attack dummy hash)
+            if (e.getCause() instanceof PasswordHashingRejectedException rejected) {
+                throw rejected;
+            }
             throw new RuntimeException("Invalid email or password");
         }
     }
 
+    /**
+     * Exchange a refresh token for a new access token and refresh token, without the password
+     * @param refreshToken the refresh token from the last login or refresh
+     * @return the new tokens and the user
+     * @throws InvalidRefreshTokenException if the token can't be used
+     */
+    // Reuse detection revokes tokens and then throws: that must commit
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+
+        User user = userRepository.findById(rotation.userId()).orElse(null);
+        if (user == null || !user.isEnabled()) {
+            refreshTokenService.revoke(rotation.refreshToken());
+            throw new InvalidRefreshTokenException("User not found or disabled");
+        }
+        return toAuthResponse(user, rotation.refreshToken());
+    }
+
+    /**
+     * End a session: the refresh token and every token issued from the same login stop working
+     * @param refreshToken the refresh token of the session
+     */
+    public void logout(String refreshToken) {
+        refreshTokenService.revoke(refreshToken);
+    }
+
     public User getCurrentUser(String token) {
         String email = jwtService.extractUsername(token);
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
-}
-
 
+    private AuthResponse toAuthResponse(User user, String refreshToken) {
+        return new AuthResponse(
+            jwtService.generateToken(user),
+            jwtConfig.getExpiration() / 1000L,
+            refreshToken,
+            user.getId(),
+            user.getEmail(),
+            user.getFirstName(),
+            user.getLastName(),
+            user.getRole()
+        );
+    }
+}
@@ -0,0 +1,358 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.InvalidationConfig;
+import com.example.pettrail.enums.InvalidationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Tells the other instances about entity changes so they evict what they cache in-process (active
+ * walks, routes) instead of serving it until their next reload. Changes are sent with PostgreSQL
+ * NOTIFY once the transaction making them commits, and every instance LISTENs on a dedicated
+ * connection outside the pool. Notifications from the instance itself are ignored: its caches are
+ * updated by the callers.
+ * <p>
+ * Each instance numbers its notifications and announces its last number in a periodic heartbeat.
+ * A receiver that finds a number skipped, or that had to reconnect, may have missed changes and
+ * flushes all its caches instead.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, ?)";
+    // Keeps a notification well under PostgreSQL's 8000-byte payload limit
+    static final int MAX_IDS_PER_MESSAGE = 150;
+    private static final int POLL_TIMEOUT_MS = 1000;
+    // The listener hears its own heartbeats; missing this many means the connection is dead
+    private static final int MISSED_HEARTBEATS_BEFORE_RECONNECT = 3;
+    // Instances silent this long are assumed gone
+    private static final long NODE_RETENTION_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    private final InvalidationConfig config;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final List<CacheInvalidationListener> listeners;
+    private final String nodeId = UUID.randomUUID().toString();
+    // Sends notifications and heartbeats in sequence order; the sequence is only touched on this thread
+    private final ScheduledExecutorService publisher;
+    private final Map<String, NodeState> nodes = new ConcurrentHashMap<>();
+    private final Counter published;
+    private final Counter sendFailures;
+    private final Map<InvalidationType, Counter> received = new EnumMap<>(InvalidationType.class);
+    private final Counter gapFlushes;
+    private final Counter connectFlushes;
+    private long sequence;
+    private volatile boolean running;
+    private volatile long lastHeardNanos;
+    private volatile Connection listenConnection;
+    private Thread listenerThread;
+
+    @Autowired
+    public CacheInvalidationBus(InvalidationConfig config, JdbcTemplate jdbcTemplate,
+                                DataSourceProperties dataSourceProperties, List<CacheInvalidationListener> listeners,
+                                MeterRegistry meterRegistry) {
+        this.config = config;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.listeners = listeners;
+        this.publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.published = Counter.builder("pettrail.invalidation.published")
+                .description("Invalidation notifications sent to the other instances")
+                .register(meterRegistry);
+        this.sendFailures = Counter.builder("pettrail.invalidation.send.failures")
+                .description("Invalidation notifications that could not be sent; receivers flush on the gap")
+                .register(meterRegistry);
+        for (InvalidationType type : InvalidationType.values()) {
+            received.put(type, Counter.builder("pettrail.invalidation.received")
+                    .description("Invalidation notifications applied from other instances")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+        this.gapFlushes = flushCounter(meterRegistry, "gap");
+        this.connectFlushes = flushCounter(meterRegistry, "connect");
+    }
+
+    /**
+     * Announce a change to the other instances; inside a transaction, once it commits
+     * @param type what changed
+     * @param ids the IDs of the changed entities
+     */
+    public void publish(InvalidationType type, Collection<UUID> ids) {
+        if (!config.isEnabled() || ids.isEmpty()) {
+            return;
+        }
+        List<UUID> copy = List.copyOf(ids);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(type, copy);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(type, copy);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        long interval = config.getHeartbeatIntervalMs();
+        publisher.scheduleWithFixedDelay(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS);
+        logger.info("Cache invalidation bus started on channel {} as node {}", config.getChannel(), nodeId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        publisher.shutdownNow();
+        Connection connection = listenConnection;
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.debug("Closing the invalidation listener connection failed: {}", e.getMessage());
+            }
+        }
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void submit(InvalidationType type, List<UUID> ids) {
+        try {
+            publisher.execute(() -> send(type, ids));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Not publishing {} invalidation: shutting down", type);
+        }
+    }
+
+    private void send(InvalidationType type, List<UUID> ids) {
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_MESSAGE) {
+            sequence++;
+            Message message = new Message(nodeId, sequence, type,
+                    ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_MESSAGE)));
+            try {
+                jdbcTemplate.queryForObject(NOTIFY_SQL, Object.class, config.getChannel(), message.encode());
+                published.increment();
+            } catch (DataAccessException e) {
+                // The number stays used: the next notification or heartbeat shows the gap
+                sendFailures.increment();
+                logger.warn("Cannot publish {} invalidation #{}: {}", type, sequence, e.getMessage());
+            }
+        }
+    }
+
+    private void heartbeat() {
+        // Any exception would cancel the schedule
+        try {
+            jdbcTemplate.queryForObject(NOTIFY_SQL, Object.class, config.getChannel(),
+                    new Message(nodeId, sequence, null, List.of()).encode());
+        } catch (RuntimeException e) {
+            logger.warn("Cannot send invalidation heartbeat: {}", e.getMessage());
+        }
+        long now = System.nanoTime();
+        nodes.values().removeIf(node -> now - node.heardNanos() > NODE_RETENTION_NANOS);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = openListenConnection()) {
+                listenConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN \"" + config.getChannel().replace("\"", "\"\"") + "\"");
+                }
+                lastHeardNanos = System.nanoTime();
+                // Whatever was published while not listening is lost
+                connectFlushes.increment();
+                flush();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                long silenceLimitNanos = TimeUnit.MILLISECONDS.toNanos(
+                        config.getHeartbeatIntervalMs() * MISSED_HEARTBEATS_BEFORE_RECONNECT);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                    if (System.nanoTime() - lastHeardNanos > silenceLimitNanos) {
+                        throw new SQLException("No notification, not even our own heartbeat, for "
+                                + config.getHeartbeatIntervalMs() * MISSED_HEARTBEATS_BEFORE_RECONNECT + "ms");
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Invalidation listener failed, reconnecting in {}ms: {}",
+                        config.getReconnectDelayMs(), e.getMessage());
+                try {
+                    Thread.sleep(config.getReconnectDelayMs());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                listenConnection = null;
+            }
+        }
+    }
+
+    private Connection openListenConnection() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", dataSourceProperties.determineUsername());
+        String password = dataSourceProperties.determinePassword();
+        if (password != null) {
+            properties.setProperty("password", password);
+        }
+        properties.setProperty("ApplicationName", "pettrail-invalidation");
+        properties.setProperty("tcpKeepAlive", "true");
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(), properties);
+    }
+
+    /**
+     * Apply a notification: evict, or flush everything if notifications from its sender were missed
+     * @param payload the notification payload
+     */
+    void receive(String payload) {
+        lastHeardNanos = System.nanoTime();
+        Message message = Message.decode(payload);
+        if (message == null) {
+            logger.warn("Ignoring malformed invalidation notification: {}", payload);
+            return;
+        }
+        if (message.node().equals(nodeId)) {
+            return;
+        }
+
+        NodeState previous = nodes.get(message.node());
+        nodes.put(message.node(), new NodeState(previous == null ? message.sequence()
+                : Math.max(previous.sequence(), message.sequence()), System.nanoTime()));
+        boolean heartbeat = message.type() == null;
+        if (previous != null && (heartbeat ? message.sequence() > previous.sequence()
+                : message.sequence() != previous.sequence() + 1)) {
+            logger.warn("Missed invalidations from node {} (last #{}, now #{}); flushing caches",
+                    message.node(), previous.sequence(), message.sequence());
+            gapFlushes.increment();
+            flush();
+            return;
+        }
+        if (heartbeat) {
+            return;
+        }
+
+        received.get(message.type()).increment();
+        for (CacheInvalidationListener listener : listeners) {
+            try {
+                listener.invalidate(message.type(), message.ids());
+            } catch (RuntimeException e) {
+                logger.error("{} failed to apply {} invalidation", listener.getClass().getSimpleName(), message.type(), e);
+            }
+        }
+    }
+
+    private void flush() {
+        for (CacheInvalidationListener listener : listeners) {
+            try {
+                listener.flush();
+            } catch (RuntimeException e) {
+                logger.error("{} failed to flush", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private static Counter flushCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("pettrail.invalidation.flushes")
+                .description("Full cache flushes after invalidations may have been missed")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private record NodeState(long sequence, long heardNanos) {
+    }
+
+    /**
+     * A notification payload: "node sequence" for a heartbeat, "node sequence TYPE id,id,..." for a change
+     */
+    record Message(String node, long sequence, InvalidationType type, List<UUID> ids) {
+
+        String encode() {
+            String header = node + " " + sequence;
+            if (type == null) {
+                return header;
+            }
+            return header + " " + type.name() + " "
+                    + ids.stream().map(UUID::toString).collect(Collectors.joining(","));
+        }
+
+        /**
+         * @param payload the notification payload
+         * @return the message, or null if the payload is malformed
+         */
+        static Message decode(String payload) {
+            String[] parts = payload.split(" ");
+            if (parts.length != 2 && parts.length != 4) {
+                return null;
+            }
+            try {
+                long sequence = Long.parseLong(parts[1]);
+                if (parts.length == 2) {
+                    return new Message(parts[0], sequence, null, List.of());
+                }
+                List<UUID> ids = new ArrayList<>();
+                for (String id : parts[3].split(",")) {
+                    ids.add(UUID.fromString(id));
+                }
+                return new Message(parts[0], sequence, InvalidationType.valueOf(parts[2]), ids);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
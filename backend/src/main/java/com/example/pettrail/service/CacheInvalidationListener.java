@@ -0,0 +1,25 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.enums.InvalidationType;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An in-process cache that evicts on changes made by other instances (see CacheInvalidationBus).
+ * Called from the bus's listener thread.
+ */
+public interface CacheInvalidationListener {
+
+    /**
+     * Evict what is cached about changed entities
+     * @param type what changed
+     * @param ids the IDs of the changed entities
+     */
+    void invalidate(InvalidationType type, List<UUID> ids);
+
+    /**
+     * Evict everything: changes may have been missed
+     */
+    void flush();
+}
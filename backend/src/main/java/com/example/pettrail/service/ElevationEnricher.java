@@ -0,0 +1,81 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.ElevationConfig;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.repository.DemTileRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Fills in the elevation of accepted points sent without one, from the local terrain tiles (see
+ * DemTileRepository). Runs once per batch, after the filters and before the write: consecutive
+ * points almost always fall in the same tile, so the tile is looked up only when a point leaves it.
+ * Elevations the device reported are kept.
+ */
+@Service
+public class ElevationEnricher {
+
+    private final boolean enabled;
+    private final DemTileRepository demTileRepository;
+    private final Counter filledPoints;
+    private final Counter unresolvedPoints;
+
+    @Autowired
+    public ElevationEnricher(ElevationConfig elevationConfig, DemTileRepository demTileRepository,
+                             MeterRegistry meterRegistry) {
+        this.enabled = elevationConfig.isEnabled();
+        this.demTileRepository = demTileRepository;
+        this.filledPoints = Counter.builder("pettrail.elevation.filled")
+                .description("Points whose missing elevation was taken from the terrain tiles")
+                .register(meterRegistry);
+        this.unresolvedPoints = Counter.builder("pettrail.elevation.unresolved")
+                .description("Points left without elevation: no tile, a void, or below sea level")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fill in missing elevations of the first points of an order
+     * @param points the points
+     * @param order point indexes, e.g. the accepted points in timestamp order
+     * @param count number of indexes to process
+     */
+    public void fillMissing(WalkTrack points, int[] order, int count) {
+        if (!enabled) {
+            return;
+        }
+        DemTileRepository.Tile tile = null;
+        int filled = 0;
+        int unresolved = 0;
+        for (int i = 0; i < count; i++) {
+            int index = order != null ? order[i] : i;
+            if (points.hasElevation(index)) {
+                continue;
+            }
+            double lat = points.latitude(index);
+            double lon = points.longitude(index);
+            if (tile == null || !tile.contains(lat, lon)) {
+                tile = demTileRepository.tileFor(lat, lon);
+            }
+            double elevation = tile.elevation(lat, lon);
+            // walk_points only allows elevations >= 0
+            if (elevation >= 0) {
+                points.setElevation(index, elevation);
+                filled++;
+            } else {
+                unresolved++;
+            }
+        }
+        filledPoints.increment(filled);
+        unresolvedPoints.increment(unresolved);
+    }
+
+    /**
+     * Fill in missing elevations of all points
+     * @param points the points
+     */
+    public void fillMissing(WalkTrack points) {
+        fillMissing(points, null, points.size());
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.PetDeletionConfig;
+import com.example.pettrail.dto.PetDeletionJobResponse;
+import com.example.pettrail.enums.InvalidationType;
+import com.example.pettrail.enums.PetDeletionStatus;
+import com.example.pettrail.exception.PetDeletionJobNotFoundException;
+import com.example.pettrail.exception.PetNotFoundException;
+import com.example.pettrail.model.PetDeletionJob;
+import com.example.pettrail.repository.PetDeletionJobRepository;
+import com.example.pettrail.repository.PetRepository;
+import com.example.pettrail.repository.WalkPointRepository;
+import com.example.pettrail.repository.WalkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Deletes pets without holding up the request: the pet is marked deleted, which hides it and its
+ * walks at once, and a job then removes the points and walks in small transactions. Archived routes
+ * live in segment files shared with other walks: the job records the segments its walks were in and
+ * compacts them once the walks are gone, so no route of the pet is left on disk when it completes.
+ * Jobs live in the database, so they survive restarts, are shared between instances and are retried
+ * with backoff.
+ */
+@Service
+public class PetDeletionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PetDeletionService.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final PetRepository petRepository;
+    private final WalkRepository walkRepository;
+    private final WalkPointRepository walkPointRepository;
+    private final PetDeletionJobRepository jobRepository;
+    private final WalkRouteCache walkRouteCache;
+    private final WalkArchiveService walkArchiveService;
+    private final ActiveWalkRegistry activeWalkRegistry;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final PetDeletionConfig deletionConfig;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public PetDeletionService(PetRepository petRepository, WalkRepository walkRepository,
+                              WalkPointRepository walkPointRepository, PetDeletionJobRepository jobRepository,
+                              WalkRouteCache walkRouteCache, WalkArchiveService walkArchiveService,
+                              ActiveWalkRegistry activeWalkRegistry, CacheInvalidationBus cacheInvalidationBus,
+                              PetDeletionConfig deletionConfig, PlatformTransactionManager transactionManager) {
+        this.petRepository = petRepository;
+        this.walkRepository = walkRepository;
+        this.walkPointRepository = walkPointRepository;
+        this.jobRepository = jobRepository;
+        this.walkRouteCache = walkRouteCache;
+        this.walkArchiveService = walkArchiveService;
+        this.activeWalkRegistry = activeWalkRegistry;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.deletionConfig = deletionConfig;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Delete a pet: hide it now and queue the removal of its walks
+     * @param petId the pet ID
+     * @param userId the current user's ID
+     * @return the queued job
+     * @throws PetNotFoundException if the pet doesn't exist, belongs to another user or is already deleted
+     */
+    @Transactional
+    public PetDeletionJobResponse requestDeletion(UUID petId, UUID userId) {
+        // Counted first: once the pet is marked, its walks are hidden from JPQL queries
+        int walksTotal = (int) walkRepository.countByPetId(petId);
+        LocalDateTime now = LocalDateTime.now();
+        if (petRepository.markDeleted(petId, userId, now) == 0) {
+            throw new PetNotFoundException("Pet not found with ID: " + petId);
+        }
+        PetDeletionJob job = jobRepository.save(new PetDeletionJob(petId, userId, walksTotal, now));
+        activeWalkRegistry.petDeleted(petId);
+        cacheInvalidationBus.publish(InvalidationType.PET_DELETED, List.of(petId));
+
+        logger.info("Pet {} deleted, queued removal of {} walk(s) as job {}", petId, walksTotal, job.getId());
+        return toResponse(job, 0);
+    }
+
+    /**
+     * Get the progress of a deletion started by the current user
+     * @param jobId the job ID
+     * @param userId the current user's ID
+     * @return the job progress
+     * @throws PetDeletionJobNotFoundException if the job is unknown, expired or belongs to another user
+     */
+    @Transactional(readOnly = true)
+    public PetDeletionJobResponse getJob(UUID jobId, UUID userId) {
+        return jobRepository.findByIdAndUserId(jobId, userId)
+                .map(job -> toResponse(job, jobRepository.countSegments(job.getId())))
+                .orElseThrow(() -> new PetDeletionJobNotFoundException("Pet deletion job not found with ID: " + jobId));
+    }
+
+    /**
+     * Work through due jobs, up to the per-run batch limit so other scheduled jobs get their turn
+     */
+    @Scheduled(fixedDelayString = "${pettrail.pet-deletion.poll-interval-ms:5000}")
+    public void processDueJobs() {
+        if (!deletionConfig.isEnabled()) {
+            return;
+        }
+        int budget = deletionConfig.getMaxBatchesPerRun();
+        while (budget > 0) {
+            PetDeletionJob job = transactionTemplate.execute(status -> claimNextJob());
+            if (job == null) {
+                return;
+            }
+            budget = process(job, budget);
+        }
+    }
+
+    /**
+     * Delete completed jobs past their retention; failed ones are kept for investigation
+     */
+    @Scheduled(fixedDelay = 3600000)
+    @Transactional
+    public void purgeCompletedJobs() {
+        int purged = jobRepository.deleteByStatusAndFinishedAtBefore(PetDeletionStatus.COMPLETED,
+                LocalDateTime.now().minusDays(deletionConfig.getJobRetentionDays()));
+        if (purged > 0) {
+            logger.info("Purged {} completed pet deletion job(s)", purged);
+        }
+    }
+
+    /**
+     * Lock a due job and take a lease on it. Must run inside a transaction.
+     * @return the job, or null if none is due
+     */
+    PetDeletionJob claimNextJob() {
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> due = jobRepository.lockNextDue(now);
+        if (due.isEmpty()) {
+            return null;
+        }
+        PetDeletionJob job = jobRepository.findById(due.get(0)).orElseThrow();
+        job.setStatus(PetDeletionStatus.RUNNING);
+        job.setNextAttemptAt(leaseEnd());
+        return job;
+    }
+
+    /**
+     * Remove a job's walks batch by batch, then compact the archive segments they were in, until
+     * both are done or the budget is spent
+     * @param job the claimed job
+     * @param budget point batches and segment compactions left in this run
+     * @return the budget left
+     */
+    int process(PetDeletionJob job, int budget) {
+        try {
+            while (budget > 0) {
+                List<UUID> walkIds = walkRepository.findIdBatchByPetId(job.getPetId(), deletionConfig.getWalkBatchSize());
+                if (!walkIds.isEmpty()) {
+                    budget = deleteWalks(job.getId(), walkIds, budget);
+                    continue;
+                }
+                List<String> segments = jobRepository.findSegments(job.getId());
+                if (!segments.isEmpty()) {
+                    budget = compactSegments(job.getId(), segments, budget);
+                    continue;
+                }
+                transactionTemplate.executeWithoutResult(status -> complete(job.getId()));
+                logger.info("Pet deletion job {} completed: pet {} removed", job.getId(), job.getPetId());
+                return budget;
+            }
+            // Out of budget: due again right away, after the other scheduled jobs have run
+            transactionTemplate.executeWithoutResult(status -> jobRepository.findById(job.getId())
+                    .ifPresent(current -> current.setNextAttemptAt(LocalDateTime.now())));
+            return 0;
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> recordFailure(job.getId(), e));
+            return budget;
+        }
+    }
+
+    private int deleteWalks(UUID jobId, List<UUID> walkIds, int budget) {
+        int pointBatchSize = deletionConfig.getPointBatchSize();
+        int deleted;
+        do {
+            if (budget-- <= 0) {
+                return 0;
+            }
+            deleted = transactionTemplate.execute(status -> {
+                int points = walkPointRepository.deleteBatchByWalkIdIn(walkIds, pointBatchSize);
+                jobRepository.addProgress(jobId, 0, points, leaseEnd());
+                return points;
+            });
+        } while (deleted >= pointBatchSize);
+
+        // Points added since by a still-active walk go with it through the cascade. The segments
+        // of archived walks are recorded with the deletion, so a crash cannot lose them.
+        transactionTemplate.executeWithoutResult(status -> {
+            walkRepository.lockArchiveSegmentsByIdIn(walkIds).stream().filter(Objects::nonNull).distinct()
+                    .forEach(segment -> jobRepository.addSegment(jobId, segment));
+            int walks = walkRepository.deleteByIdIn(walkIds);
+            jobRepository.addProgress(jobId, walks, 0, leaseEnd());
+            cacheInvalidationBus.publish(InvalidationType.WALKS_DELETED, walkIds);
+        });
+        walkRouteCache.invalidateAll(walkIds);
+        return budget;
+    }
+
+    private int compactSegments(UUID jobId, List<String> segments, int budget) {
+        for (String segment : segments) {
+            if (budget-- <= 0) {
+                return 0;
+            }
+            // Compacting a segment again is harmless, so it is only marked done afterwards
+            walkArchiveService.compactSegment(segment);
+            transactionTemplate.executeWithoutResult(status -> {
+                jobRepository.removeSegment(jobId, segment);
+                jobRepository.addProgress(jobId, 0, 0, leaseEnd());
+            });
+        }
+        return budget;
+    }
+
+    private void complete(UUID jobId) {
+        PetDeletionJob job = jobRepository.findById(jobId).orElseThrow();
+        petRepository.deleteMarked(job.getPetId());
+        job.setStatus(PetDeletionStatus.COMPLETED);
+        job.setFinishedAt(LocalDateTime.now());
+    }
+
+    private void recordFailure(UUID jobId, RuntimeException e) {
+        PetDeletionJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        int attempts = job.getAttempts() + 1;
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        job.setAttempts(attempts);
+        job.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        if (attempts >= deletionConfig.getMaxAttempts()) {
+            job.setStatus(PetDeletionStatus.FAILED);
+            job.setFinishedAt(LocalDateTime.now());
+            logger.error("Pet deletion job {} failed after {} attempt(s), pet {} stays hidden",
+                    jobId, attempts, job.getPetId(), e);
+            return;
+        }
+        long delaySeconds = (long) deletionConfig.getRetryDelaySeconds() << Math.min(attempts - 1, 16);
+        job.setStatus(PetDeletionStatus.QUEUED);
+        job.setNextAttemptAt(LocalDateTime.now().plusSeconds(delaySeconds));
+        logger.warn("Pet deletion job {} failed (attempt {}), retrying in {} s: {}", jobId, attempts, delaySeconds, message);
+    }
+
+    private LocalDateTime leaseEnd() {
+        return LocalDateTime.now().plusSeconds(deletionConfig.getLeaseSeconds());
+    }
+
+    private static PetDeletionJobResponse toResponse(PetDeletionJob job, int segmentsPending) {
+        PetDeletionJobResponse response = new PetDeletionJobResponse();
+        response.setJobId(job.getId());
+        response.setPetId(job.getPetId());
+        response.setStatus(job.getStatus());
+        response.setWalksTotal(job.getWalksTotal());
+        response.setWalksDeleted(job.getWalksDeleted());
+        response.setPointsDeleted(job.getPointsDeleted());
+        response.setArchiveSegmentsPending(segmentsPending);
+        if (job.getStatus() == PetDeletionStatus.COMPLETED) {
+            response.setProgressPercent(100);
+        } else if (job.getWalksTotal() > 0) {
+            // The last steps, compacting archive segments and removing the pet row, are only done at 100
+            response.setProgressPercent((int) Math.min(99, 100L * job.getWalksDeleted() / job.getWalksTotal()));
+        }
+        response.setAttempts(job.getAttempts());
+        response.setError(job.getLastError());
+        response.setCreatedAt(job.getCreatedAt());
+        response.setFinishedAt(job.getFinishedAt());
+        return response;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.JwtConfig;
+import com.example.pettrail.exception.InvalidRefreshTokenException;
+import com.example.pettrail.model.RefreshToken;
+import com.example.pettrail.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens. Tokens are 256 random bits, so a plain SHA-256 is enough to
+ * store them: a refresh costs a hash and a few indexed queries, never the password encoder.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtConfig jwtConfig;
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, JwtConfig jwtConfig) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtConfig = jwtConfig;
+    }
+
+    /**
+     * Start a new token family, on login or registration
+     * @param userId the user the token is for
+     * @return the token to give to the client
+     */
+    @Transactional
+    public String issue(UUID userId) {
+        return create(userId, UUID.randomUUID());
+    }
+
+    /**
+     * Exchange a refresh token for the next one of its family. A token can be exchanged once;
+     * presenting it again revokes its whole family, logging out whoever holds the current token.
+     * @param token the token presented by the client
+     * @return the user and the new token
+     * @throws InvalidRefreshTokenException if the token is unknown, expired, revoked or already used
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String token) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (current.getRevokedAt() != null || !current.getExpiresAt().isAfter(now)) {
+            throw new InvalidRefreshTokenException("Refresh token expired or revoked");
+        }
+        // The conditional update also settles two concurrent refreshes with the same token
+        if (current.getUsedAt() != null || refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            logger.warn("Refresh token reused for user {}: revoked {} token(s) of family {}",
+                    current.getUserId(), revoked, current.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token already used");
+        }
+
+        return new Rotation(current.getUserId(), create(current.getUserId(), current.getFamilyId()));
+    }
+
+    /**
+     * Revoke the family of a token, on logout. Unknown tokens are ignored.
+     * @param token the token presented by the client
+     */
+    @Transactional
+    public void revoke(String token) {
+        refreshTokenRepository.findByTokenHash(hash(token))
+                .ifPresent(current -> refreshTokenRepository.revokeFamily(current.getFamilyId(), LocalDateTime.now()));
+    }
+
+    /**
+     * Delete expired tokens; used and revoked ones are kept until then for reuse detection
+     */
+    @Scheduled(fixedDelay = 3600000)
+    @Transactional
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteByExpiresAtBefore(LocalDateTime.now());
+        if (purged > 0) {
+            logger.info("Purged {} expired refresh token(s)", purged);
+        }
+    }
+
+    private String create(UUID userId, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(new RefreshToken(userId, familyId, hash(token), now,
+                now.plusDays(jwtConfig.getRefreshExpirationDays())));
+        return token;
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The result of a refresh
+     * @param userId the user the token belongs to
+     * @param refreshToken the token replacing the presented one
+     */
+    public record Rotation(UUID userId, String refreshToken) {
+    }
+}
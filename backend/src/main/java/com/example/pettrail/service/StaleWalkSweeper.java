@@ -0,0 +1,149 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.StaleWalkConfig;
+import com.example.pettrail.repository.WalkRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finishes walks whose owner forgot to stop them: an active walk blocks new walks of its pet. A walk
+ * without points for the idle period is finished at its last point with the same metrics as a stop.
+ * Runs on one instance at a time, holding a session advisory lock for the whole sweep; each walk is
+ * finished in its own transaction under the walk lock, a few in parallel.
+ */
+@Service
+public class StaleWalkSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaleWalkSweeper.class);
+
+    static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(hashtext('stale_walk_sweep'))";
+    static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(hashtext('stale_walk_sweep'))";
+
+    private final WalkRepository walkRepository;
+    private final WalkService walkService;
+    private final JdbcTemplate jdbcTemplate;
+    private final StaleWalkConfig config;
+    private final ExecutorService executor;
+    private final Counter finishedWalks;
+    private final Counter failedWalks;
+
+    @Autowired
+    public StaleWalkSweeper(WalkRepository walkRepository, WalkService walkService, JdbcTemplate jdbcTemplate,
+                            StaleWalkConfig config, MeterRegistry meterRegistry) {
+        this.walkRepository = walkRepository;
+        this.walkService = walkService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, config.getThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "stale-walk-sweeper-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.finishedWalks = Counter.builder("pettrail.walks.idle.finished")
+                .description("Idle walks finished by the sweeper")
+                .register(meterRegistry);
+        this.failedWalks = Counter.builder("pettrail.walks.idle.failures")
+                .description("Idle walks the sweeper failed to finish; retried on the next run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Finish idle walks, batch by batch, unless another instance is already at it
+     */
+    @Scheduled(fixedDelayString = "${pettrail.stale-walks.interval-ms:300000}",
+            initialDelayString = "${pettrail.stale-walks.interval-ms:300000}")
+    public void sweep() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        // A session lock on a connection held for the sweep; the walks are finished on other connections
+        Integer finished = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            if (!queryBoolean(connection, TRY_LOCK_SQL)) {
+                logger.debug("Stale walk sweep already running on another instance");
+                return null;
+            }
+            try {
+                return sweepBatches();
+            } finally {
+                queryBoolean(connection, UNLOCK_SQL);
+            }
+        });
+        if (finished != null && finished > 0) {
+            logger.info("Finished {} walk(s) idle for more than {} minutes", finished, config.getIdleMinutes());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private int sweepBatches() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(config.getIdleMinutes());
+        int total = 0;
+        for (int batch = 0; batch < config.getMaxBatchesPerRun(); batch++) {
+            List<UUID> walkIds = walkRepository.findIdleActiveWalkIds(cutoff, config.getBatchSize());
+            int finished = finishAll(walkIds, cutoff);
+            total += finished;
+            // Walks that failed would be selected again; they wait for the next run
+            if (walkIds.size() < config.getBatchSize() || finished == 0) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int finishAll(List<UUID> walkIds, LocalDateTime cutoff) {
+        List<Future<Boolean>> results = new ArrayList<>(walkIds.size());
+        for (UUID walkId : walkIds) {
+            results.add(executor.submit(() -> walkService.finishIdleWalk(walkId, cutoff)));
+        }
+        int finished = 0;
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                if (results.get(i).get()) {
+                    finishedWalks.increment();
+                    finished++;
+                }
+            } catch (ExecutionException e) {
+                failedWalks.increment();
+                logger.warn("Cannot finish idle walk {}", walkIds.get(i), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.forEach(result -> result.cancel(true));
+                break;
+            }
+        }
+        return finished;
+    }
+
+    private static boolean queryBoolean(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.WalkArchiveConfig;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.repository.WalkArchiveRepository;
+import com.example.pettrail.repository.WalkPointRepository;
+import com.example.pettrail.repository.WalkPointTrackReader;
+import com.example.pettrail.repository.WalkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Moves the points of old finished walks out of PostgreSQL into compressed archive segments.
+ * Reads keep working through WalkRouteReader.
+ */
+@Service
+public class WalkArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalkArchiveService.class);
+
+    private final WalkRepository walkRepository;
+    private final WalkPointRepository walkPointRepository;
+    private final WalkPointTrackReader walkPointTrackReader;
+    private final WalkArchiveRepository walkArchiveRepository;
+    private final WalkArchiveConfig archiveConfig;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public WalkArchiveService(WalkRepository walkRepository, WalkPointRepository walkPointRepository,
+                              WalkPointTrackReader walkPointTrackReader, WalkArchiveRepository walkArchiveRepository, WalkArchiveConfig archiveConfig,
+                              PlatformTransactionManager transactionManager) {
+        this.walkRepository = walkRepository;
+        this.walkPointRepository = walkPointRepository;
+        this.walkPointTrackReader = walkPointTrackReader;
+        this.walkArchiveRepository = walkArchiveRepository;
+        this.archiveConfig = archiveConfig;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Nightly run: archive batches of cold walks until none are left or the per-run limit is reached
+     */
+    @Scheduled(cron = "${pettrail.archive.cron:0 45 3 * * *}")
+    public void archiveColdWalks() {
+        if (!archiveConfig.isEnabled()) {
+            return;
+        }
+        int total = 0;
+        try {
+            for (int batch = 0; batch < archiveConfig.getMaxBatchesPerRun(); batch++) {
+                Integer archived = transactionTemplate.execute(status -> archiveBatch());
+                total += archived != null ? archived : 0;
+                if (archived == null || archived < archiveConfig.getBatchSize()) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Walk archival failed after {} walk(s), will retry on the next run", total, e);
+            return;
+        }
+        if (total > 0) {
+            logger.info("Archived {} walk(s) older than {} days", total, archiveConfig.getMinAgeDays());
+        }
+    }
+
+    /**
+     * Archive one batch of walks into a new segment. Must run inside a transaction: the walks stay
+     * locked until their points are deleted, and a failure leaves them untouched (at worst an
+     * unreferenced segment file remains on disk).
+     * @return number of archived walks
+     */
+    int archiveBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> walkIds = walkRepository.lockArchiveCandidates(
+                now.minusDays(archiveConfig.getMinAgeDays()), archiveConfig.getBatchSize());
+        if (walkIds.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, WalkTrack> tracks = walkPointTrackReader.readTracks(walkIds);
+
+        String segment;
+        try {
+            segment = walkArchiveRepository.writeSegment(tracks);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write archive segment", e);
+        }
+
+        walkRepository.markArchived(walkIds, segment, now);
+        int deleted = walkPointRepository.deleteByWalkIdIn(walkIds);
+        logger.debug("Archived {} walk(s) with {} point(s) into {}", walkIds.size(), deleted, segment);
+        return walkIds.size();
+    }
+
+    /**
+     * Rewrite a segment without the routes of walks deleted since it was written and delete the
+     * old file. The remaining walks are locked while their routes are copied into a new segment
+     * and moved to it; a segment no walk refers to any more is only deleted, so running this
+     * again after a failure is safe. Readers that still hold the old name retry with the new one
+     * (see WalkRouteReader).
+     * @param segment the segment name
+     * @return the new segment, or null if no walk was left in the old one
+     */
+    public String compactSegment(String segment) {
+        String replacement = transactionTemplate.execute(status -> {
+            List<UUID> walkIds = walkRepository.lockByArchiveSegment(segment);
+            if (walkIds.isEmpty()) {
+                return null;
+            }
+            Map<UUID, WalkTrack> tracks = new LinkedHashMap<>();
+            try {
+                for (UUID walkId : walkIds) {
+                    tracks.put(walkId, walkArchiveRepository.readTrack(segment, walkId));
+                }
+                String name = walkArchiveRepository.writeSegment(tracks);
+                walkRepository.moveToArchiveSegment(walkIds, name);
+                return name;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot compact archive segment " + segment, e);
+            }
+        });
+        try {
+            walkArchiveRepository.deleteSegment(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete archive segment " + segment, e);
+        }
+        if (replacement != null) {
+            logger.info("Compacted archive segment {} into {}", segment, replacement);
+        }
+        return replacement;
+    }
+
+    @Scheduled(fixedDelay = 600000)
+    public void closeDeletedSegments() {
+        int closed = walkArchiveRepository.closeDeletedSegments();
+        if (closed > 0) {
+            logger.debug("Closed {} archive segment(s) deleted by another instance", closed);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.WalkExportConfig;
+import com.example.pettrail.enums.ExportFormat;
+import com.example.pettrail.exception.InvalidExportException;
+import com.example.pettrail.exception.PetNotFoundException;
+import com.example.pettrail.model.User;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.repository.PetRepository;
+import com.example.pettrail.service.exporter.ExportedWalk;
+import com.example.pettrail.service.exporter.GeoJsonExportWriter;
+import com.example.pettrail.service.exporter.GpxExportWriter;
+import com.example.pettrail.service.exporter.WalkExportWriter;
+import com.example.pettrail.service.exporter.ZipExportWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Streams a user's finished walks as GPX, GeoJSON or a ZIP of GPX files. Walks are read a page at a
+ * time by keyset, then each walk's route on its own, and written before the next read, so memory
+ * use does not grow with the number of walks. No transaction stays open while the client reads:
+ * a slow download must not hold a snapshot back on the primary (vacuum) or on a replica (replay).
+ */
+@Service
+public class WalkExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalkExportService.class);
+
+    private final PetRepository petRepository;
+    private final WalkRouteReader walkRouteReader;
+    private final WalkExportConfig exportConfig;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+
+    @Autowired
+    public WalkExportService(PetRepository petRepository, WalkRouteReader walkRouteReader,
+                             WalkExportConfig exportConfig, JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager) {
+        this.petRepository = petRepository;
+        this.walkRouteReader = walkRouteReader;
+        this.exportConfig = exportConfig;
+        this.jdbcTemplate = jdbcTemplate;
+        // Read-only, so pages and routes may come from a replica
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Prepare an export of the current user's finished walks. Ownership and parameters are checked
+     * immediately; the returned body does the reading and writing.
+     * @param format the file format
+     * @param petId restrict to one pet (nullable)
+     * @param from first day, by walk start (nullable)
+     * @param to last day, inclusive (nullable)
+     * @return the response body
+     * @throws PetNotFoundException if the pet doesn't exist or belongs to another user
+     * @throws InvalidExportException if the date range is empty
+     */
+    public StreamingResponseBody export(ExportFormat format, UUID petId, LocalDate from, LocalDate to) {
+        // Get current user from security context
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        UUID userId = currentUser.getId();
+
+        if (petId != null && !petRepository.existsByIdAndUserId(petId, userId)) {
+            throw new PetNotFoundException("Pet not found with ID: " + petId);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new InvalidExportException("'from' must not be after 'to'");
+        }
+
+        LocalDateTime start = from != null ? from.atStartOfDay() : null;
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : null;
+        return out -> write(format, userId, petId, start, end, out);
+    }
+
+    /**
+     * Resolve the export format parameter
+     * @param format the format parameter (nullable, defaults to GeoJSON)
+     * @return the format
+     * @throws InvalidExportException if the format is unknown
+     */
+    public static ExportFormat resolveFormat(String format) {
+        if (format == null || format.isBlank()) {
+            return ExportFormat.GEOJSON;
+        }
+        try {
+            return ExportFormat.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidExportException("Unsupported export format: " + format + " (expected GPX, GEOJSON or ZIP)");
+        }
+    }
+
+    private void write(ExportFormat format, UUID userId, UUID petId, LocalDateTime start, LocalDateTime end,
+                       OutputStream out) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 1 << 16);
+        WalkExportWriter writer = switch (format) {
+            case GPX -> new GpxExportWriter(buffered);
+            case GEOJSON -> new GeoJsonExportWriter(buffered);
+            case ZIP -> new ZipExportWriter(buffered);
+        };
+
+        long startNanos = System.nanoTime();
+        int pageSize = Math.max(1, exportConfig.getPageSize());
+        int walks = 0;
+        try {
+            List<WalkRow> page = readPage(userId, petId, start, end, null, pageSize);
+            while (!page.isEmpty()) {
+                for (WalkRow row : page) {
+                    // Re-checks the archive if the points moved since the page was read
+                    WalkTrack track = readTransaction.execute(status ->
+                            walkRouteReader.readFinishedTrackUncached(row.walk().getId(), row.archiveSegment()));
+                    writer.startWalk(row.walk());
+                    for (int i = 0; i < track.size(); i++) {
+                        writer.point(track.latitude(i), track.longitude(i), track.elevation(i), track.timestamp(i));
+                    }
+                    writer.endWalk();
+                    walks++;
+                }
+                page = page.size() < pageSize ? List.of()
+                        : readPage(userId, petId, start, end, page.get(page.size() - 1), pageSize);
+            }
+        } catch (IOException e) {
+            // Usually the client went away; the response is already committed, so just stop
+            logger.info("Export for user {} aborted after {} walk(s): {}", userId, walks, e.getMessage());
+            throw e;
+        }
+        writer.finish();
+        buffered.flush();
+
+        logger.info("Exported {} walk(s) as {} for user {} in {} ms", walks, format, userId,
+                (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * Read the next walks in (started_at, id) order
+     * @param after the last walk of the previous page, null for the first page
+     */
+    private List<WalkRow> readPage(UUID userId, UUID petId, LocalDateTime start, LocalDateTime end,
+                                   WalkRow after, int pageSize) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT w.id, w.pet_id, p.name, w.started_at, w.finished_at, w.distancia_m, w.duracao_s, " +
+                "w.vel_media_kmh, w.archive_segment FROM walks w JOIN pets p ON p.id = w.pet_id " +
+                "WHERE w.user_id = ? AND w.finished_at IS NOT NULL AND p.deleted_at IS NULL");
+        List<Object> params = new ArrayList<>();
+        params.add(userId);
+        if (petId != null) {
+            sql.append(" AND w.pet_id = ?");
+            params.add(petId);
+        }
+        if (start != null) {
+            sql.append(" AND w.started_at >= ?");
+            params.add(start);
+        }
+        if (end != null) {
+            sql.append(" AND w.started_at < ?");
+            params.add(end);
+        }
+        if (after != null) {
+            sql.append(" AND (w.started_at, w.id) > (?, ?)");
+            params.add(after.walk().getStartedAt());
+            params.add(after.walk().getId());
+        }
+        sql.append(" ORDER BY w.started_at, w.id LIMIT ?");
+        params.add(pageSize);
+
+        return readTransaction.execute(status -> jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new WalkRow(new ExportedWalk(
+                        rs.getObject("id", UUID.class),
+                        rs.getObject("pet_id", UUID.class),
+                        rs.getString("name"),
+                        rs.getObject("started_at", LocalDateTime.class),
+                        rs.getObject("finished_at", LocalDateTime.class),
+                        nullableDouble(rs, "distancia_m"),
+                        nullableInt(rs, "duracao_s"),
+                        nullableDouble(rs, "vel_media_kmh")),
+                        rs.getString("archive_segment")),
+                params.toArray()));
+    }
+
+    private static Double nullableDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Integer nullableInt(ResultSet rs, String column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private record WalkRow(ExportedWalk walk, String archiveSegment) {
+    }
+}
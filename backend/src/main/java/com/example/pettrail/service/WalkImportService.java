@@ -0,0 +1,493 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.PrimaryPinRegistry;
+import com.example.pettrail.config.WalkImportConfig;
+import com.example.pettrail.dto.ImportJobResponse;
+import com.example.pettrail.enums.ImportFormat;
+import com.example.pettrail.enums.ImportStatus;
+import com.example.pettrail.exception.ImportJobNotFoundException;
+import com.example.pettrail.exception.ImportRejectedException;
+import com.example.pettrail.exception.InvalidImportException;
+import com.example.pettrail.exception.PetNotFoundException;
+import com.example.pettrail.model.User;
+import com.example.pettrail.model.WalkImportJob;
+import com.example.pettrail.repository.PetRepository;
+import com.example.pettrail.repository.WalkImportJobRepository;
+import com.example.pettrail.repository.WalkPointBulkWriter;
+import com.example.pettrail.repository.WalkRepository;
+import com.example.pettrail.service.importer.CsvTrackParser;
+import com.example.pettrail.service.importer.GeoJsonTrackParser;
+import com.example.pettrail.service.importer.GpxTrackParser;
+import com.example.pettrail.service.importer.ImportJob;
+import com.example.pettrail.service.importer.TrackParser;
+import com.example.pettrail.service.importer.WalkImportSink;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk import of historical walks from GPX, GeoJSON or CSV files. The upload is spooled to disk
+ * and parsed in the background by a streaming parser; progress is polled by job ID.
+ * <p>
+ * Jobs live in the database, so any instance answers the progress poll. The worker copies its
+ * progress to the job row every few seconds, which also renews its lease. A job whose lease expired
+ * (instance stopped) is resumed from the start of its file by an instance that can read the spool
+ * file; walks imported before the interruption are skipped as duplicates. A job nobody can resume
+ * is failed after a timeout.
+ */
+@Service
+public class WalkImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalkImportService.class);
+    private static final List<ImportStatus> UNFINISHED = List.of(ImportStatus.QUEUED, ImportStatus.RUNNING);
+    private static final List<ImportStatus> FINISHED = List.of(ImportStatus.COMPLETED, ImportStatus.FAILED);
+    private static final String SPOOL_GLOB = "walk-import-*.upload";
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final PetRepository petRepository;
+    private final WalkRepository walkRepository;
+    private final WalkImportJobRepository jobRepository;
+    private final WalkPointBulkWriter walkPointBulkWriter;
+    private final PlatformTransactionManager transactionManager;
+    private final PrimaryPinRegistry primaryPinRegistry;
+    private final WalkPointFilterRegistry walkPointFilterRegistry;
+    private final WalkProfileService walkProfileService;
+    private final ElevationEnricher elevationEnricher;
+    private final WalkPointPartitionService walkPointPartitionService;
+    private final WalkImportConfig importConfig;
+    private final TransactionTemplate transactionTemplate;
+    // Jobs queued or running on this instance, whose progress and lease it keeps up to date
+    private final Map<UUID, ImportJob> localJobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private volatile boolean stopping;
+
+    @Autowired
+    public WalkImportService(PetRepository petRepository, WalkRepository walkRepository,
+                             WalkImportJobRepository jobRepository, WalkPointBulkWriter walkPointBulkWriter, PlatformTransactionManager transactionManager,
+                             PrimaryPinRegistry primaryPinRegistry, WalkPointFilterRegistry walkPointFilterRegistry,
+                             WalkProfileService walkProfileService, ElevationEnricher elevationEnricher,
+                             WalkPointPartitionService walkPointPartitionService, WalkImportConfig importConfig) {
+        this.petRepository = petRepository;
+        this.walkRepository = walkRepository;
+        this.jobRepository = jobRepository;
+        this.walkPointBulkWriter = walkPointBulkWriter;
+        this.transactionManager = transactionManager;
+        this.primaryPinRegistry = primaryPinRegistry;
+        this.walkPointFilterRegistry = walkPointFilterRegistry;
+        this.walkProfileService = walkProfileService;
+        this.elevationEnricher = elevationEnricher;
+        this.walkPointPartitionService = walkPointPartitionService;
+        this.importConfig = importConfig;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(importConfig.getThreads(), importConfig.getThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(importConfig.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "walk-import-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Accept an upload: spool it to disk and queue it for processing
+     * @param petId the pet the walks belong to
+     * @param format the file format
+     * @param body the uploaded file
+     * @return the queued job
+     * @throws PetNotFoundException if the pet doesn't exist or belongs to another user
+     * @throws InvalidImportException if the upload is empty or too large
+     * @throws ImportRejectedException if too many imports are already waiting
+     */
+    public ImportJobResponse submit(UUID petId, ImportFormat format, InputStream body) throws IOException {
+        // Get current user from security context
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        UUID userId = currentUser.getId();
+
+        // Check if pet exists and belongs to the current user
+        if (!petRepository.existsByIdAndUserId(petId, userId)) {
+            throw new PetNotFoundException("Pet not found with ID: " + petId);
+        }
+
+        Path spool = spool(body);
+        // Leased from the start: it waits in this instance's queue, not for another instance to take it
+        WalkImportJob job = jobRepository.save(new WalkImportJob(userId, petId, format,
+                spool.toAbsolutePath().toString(), Files.size(spool), LocalDateTime.now(), leaseEnd()));
+        if (!enqueue(job, spool)) {
+            jobRepository.deleteById(job.getId());
+            deleteQuietly(spool);
+            throw new ImportRejectedException("Too many imports in progress, try again later");
+        }
+
+        logger.info("Queued {} import {} for pet {} ({} bytes)", format, job.getId(), petId, job.getBytesTotal());
+        return toResponse(job);
+    }
+
+    /**
+     * Get the progress of an import started by the current user
+     * @param jobId the job ID
+     * @return the job progress
+     * @throws ImportJobNotFoundException if the job is unknown, expired or belongs to another user
+     */
+    public ImportJobResponse getJob(UUID jobId) {
+        User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        // Outside a read-only transaction: a replica may not have the job or its latest progress yet
+        return jobRepository.findByIdAndUserId(jobId, currentUser.getId())
+                .map(WalkImportService::toResponse)
+                .orElseThrow(() -> new ImportJobNotFoundException("Import job not found with ID: " + jobId));
+    }
+
+    /**
+     * Resolve the file format from the explicit parameter or the request content type
+     * @param format the format parameter (nullable)
+     * @param contentType the request content type (nullable)
+     * @return the format
+     * @throws InvalidImportException if the format cannot be determined
+     */
+    public static ImportFormat resolveFormat(String format, String contentType) {
+        if (format != null && !format.isBlank()) {
+            try {
+                return ImportFormat.valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidImportException("Unsupported import format: " + format + " (expected GPX, GEOJSON or CSV)");
+            }
+        }
+        String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        if (type.contains("gpx") || type.contains("xml")) {
+            return ImportFormat.GPX;
+        }
+        if (type.contains("json")) {
+            return ImportFormat.GEOJSON;
+        }
+        if (type.contains("csv")) {
+            return ImportFormat.CSV;
+        }
+        throw new InvalidImportException("Cannot determine the import format; pass format=GPX|GEOJSON|CSV");
+    }
+
+    /**
+     * Queue a job on this instance's workers
+     * @return false if the queue is full
+     */
+    private boolean enqueue(WalkImportJob record, Path spool) {
+        ImportJob job = new ImportJob(record.getId(), record.getUserId(), record.getPetId(), record.getFormat(),
+                record.getBytesTotal());
+        if (localJobs.putIfAbsent(job.getId(), job) != null) {
+            return true;
+        }
+        try {
+            executor.execute(() -> run(job, spool));
+            return true;
+        } catch (RejectedExecutionException e) {
+            localJobs.remove(job.getId());
+            return false;
+        }
+    }
+
+    private void run(ImportJob job, Path spool) {
+        Boolean claimed = transactionTemplate.execute(status ->
+                jobRepository.claim(job.getId(), LocalDateTime.now(), leaseEnd()) == 1);
+        if (!Boolean.TRUE.equals(claimed)) {
+            // Finished, or taken over by another instance while it waited in the queue
+            localJobs.remove(job.getId());
+            return;
+        }
+
+        job.markRunning();
+        WalkImportSink sink = new WalkImportSink(job, walkRepository, walkPointBulkWriter, transactionManager,
+                walkPointFilterRegistry::newFilter, walkProfileService, elevationEnricher, walkPointPartitionService,
+                Duration.ofMinutes(importConfig.getSplitGapMinutes()), importConfig.getBatchSize());
+        try (InputStream in = new ProgressInputStream(
+                new BufferedInputStream(Files.newInputStream(spool), 1 << 16), job.getBytesProcessed())) {
+            parserFor(job.getFormat()).parse(in, sink);
+            sink.finish();
+            job.markCompleted();
+            logger.info("Import {} completed: {} walk(s) imported, {} skipped, {} of {} point(s) accepted",
+                    job.getId(), job.getWalksImported(), job.getWalksSkipped(),
+                    job.getPointsAccepted(), job.getPointsReceived());
+        } catch (IOException e) {
+            sink.abort();
+            if (!stopping) {
+                job.markFailed(e.getMessage());
+                logger.warn("Import {} failed: {}", job.getId(), e.getMessage());
+            }
+        } catch (RuntimeException e) {
+            sink.abort();
+            if (!stopping) {
+                job.markFailed("Unexpected error while importing");
+                logger.error("Import {} failed", job.getId(), e);
+            }
+        } finally {
+            if (job.isFinished()) {
+                saveFinished(job);
+                deleteQuietly(spool);
+            } else {
+                logger.info("Import {} interrupted by shutdown, it resumes once its lease expires", job.getId());
+            }
+            localJobs.remove(job.getId());
+            if (job.getWalksImported().get() > 0) {
+                primaryPinRegistry.pin(job.getPetId());
+            }
+        }
+    }
+
+    private void saveFinished(ImportJob job) {
+        transactionTemplate.executeWithoutResult(status -> jobRepository.findById(job.getId()).ifPresent(record -> {
+            copyProgress(job, record);
+            String error = job.getError();
+            record.setError(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            record.setStatus(job.getStatus());
+            record.setFinishedAt(job.getFinishedAt());
+        }));
+    }
+
+    /**
+     * Copy the progress of this instance's jobs to their rows, renewing their leases
+     */
+    @Scheduled(fixedDelayString = "${pettrail.import.progress-interval-ms:2000}")
+    public void reportProgress() {
+        if (localJobs.isEmpty()) {
+            return;
+        }
+        LocalDateTime leaseUntil = leaseEnd();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (ImportJob job : localJobs.values()) {
+                long processed = Math.min(job.getBytesProcessed().get(), job.getBytesTotal());
+                jobRepository.updateProgress(job.getId(), processed, job.getWalksImported().get(),
+                        job.getWalksSkipped().get(), job.getPointsReceived().get(), job.getPointsAccepted().get(),
+                        job.getPointsDiscarded().get(), leaseUntil);
+            }
+        });
+    }
+
+    /**
+     * Resume jobs whose worker stopped (instance restarted or gone) when their spool file is
+     * readable here, and fail those nobody resumed within the orphan timeout
+     */
+    @Scheduled(fixedDelayString = "${pettrail.import.resume-interval-ms:30000}")
+    public void resumeInterruptedJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        for (WalkImportJob job : jobRepository.findByStatusInAndLeaseUntilLessThanEqualOrderByCreatedAt(UNFINISHED, now)) {
+            Path spool = Path.of(job.getSpoolPath());
+            if (localJobs.containsKey(job.getId()) || !Files.isReadable(spool)) {
+                continue;
+            }
+            if (job.getAttempts() >= importConfig.getMaxAttempts()) {
+                failInterrupted(job.getId(), "Import stopped " + job.getAttempts() + " times without finishing");
+                deleteQuietly(spool);
+                continue;
+            }
+            if (!enqueue(job, spool)) {
+                break;
+            }
+            logger.info("Resuming import {} for pet {} after an interruption", job.getId(), job.getPetId());
+        }
+
+        Integer failed = transactionTemplate.execute(status -> jobRepository.failExpired(UNFINISHED,
+                now.minusMinutes(importConfig.getOrphanTimeoutMinutes()),
+                "Import interrupted and its file is no longer available; upload it again", now));
+        if (failed != null && failed > 0) {
+            logger.warn("Failed {} interrupted import(s) that no instance could resume", failed);
+        }
+    }
+
+    private void failInterrupted(UUID jobId, String error) {
+        transactionTemplate.executeWithoutResult(status -> jobRepository.findById(jobId)
+                .filter(job -> UNFINISHED.contains(job.getStatus()))
+                .ifPresent(job -> {
+                    job.setStatus(ImportStatus.FAILED);
+                    job.setError(error);
+                    job.setFinishedAt(LocalDateTime.now());
+                    logger.warn("Import {} failed: {}", jobId, error);
+                }));
+    }
+
+    private static TrackParser parserFor(ImportFormat format) {
+        return switch (format) {
+            case GPX -> new GpxTrackParser();
+            case GEOJSON -> new GeoJsonTrackParser();
+            case CSV -> new CsvTrackParser();
+        };
+    }
+
+    /**
+     * Copy the upload to a temporary file so the request returns as soon as the bytes are received
+     */
+    private Path spool(InputStream body) throws IOException {
+        Path spool = Files.createTempFile(spoolDirectory(), "walk-import-", ".upload");
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(spool)) {
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                total += read;
+                if (total > importConfig.getMaxBytes()) {
+                    throw new InvalidImportException("Import exceeds the maximum size of "
+                            + importConfig.getMaxBytes() / (1024 * 1024) + " MB");
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(spool);
+            throw e;
+        }
+        if (total == 0) {
+            deleteQuietly(spool);
+            throw new InvalidImportException("Import file is empty");
+        }
+        return spool;
+    }
+
+    private Path spoolDirectory() throws IOException {
+        return importConfig.getSpoolDirectory() != null
+                ? Files.createDirectories(Path.of(importConfig.getSpoolDirectory()))
+                : Path.of(System.getProperty("java.io.tmpdir"));
+    }
+
+    /**
+     * Forget finished jobs once they have been available for the retention period
+     */
+    @Scheduled(fixedDelay = 300000)
+    public void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(importConfig.getJobRetentionMinutes());
+        Integer purged = transactionTemplate.execute(status -> jobRepository.deleteByStatusInAndFinishedAtBefore(FINISHED, cutoff));
+        if (purged != null && purged > 0) {
+            logger.debug("Purged {} finished import job(s)", purged);
+        }
+    }
+
+    /**
+     * Delete spool files no unfinished job refers to, e.g. left by a job failed while its instance
+     * was down. Files younger than a lease may belong to an upload still being received.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void deleteOrphanedSpoolFiles() {
+        Instant cutoff = Instant.now().minusSeconds(importConfig.getLeaseSeconds());
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDirectory(), SPOOL_GLOB)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)
+                        && !jobRepository.existsBySpoolPathAndStatusIn(file.toAbsolutePath().toString(), UNFINISHED)) {
+                    deleteQuietly(file);
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not list the import spool directory: {}", e.getMessage());
+        }
+        if (deleted > 0) {
+            logger.info("Deleted {} orphaned import spool file(s)", deleted);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Jobs cut short now stay RUNNING and are resumed once their lease expires
+        stopping = true;
+        executor.shutdownNow();
+    }
+
+    private LocalDateTime leaseEnd() {
+        return LocalDateTime.now().plusSeconds(importConfig.getLeaseSeconds());
+    }
+
+    private static void copyProgress(ImportJob job, WalkImportJob record) {
+        record.setBytesProcessed(Math.min(job.getBytesProcessed().get(), job.getBytesTotal()));
+        record.setWalksImported(job.getWalksImported().get());
+        record.setWalksSkipped(job.getWalksSkipped().get());
+        record.setPointsReceived(job.getPointsReceived().get());
+        record.setPointsAccepted(job.getPointsAccepted().get());
+        record.setPointsDiscarded(job.getPointsDiscarded().get());
+    }
+
+    private static ImportJobResponse toResponse(WalkImportJob job) {
+        ImportJobResponse response = new ImportJobResponse();
+        response.setJobId(job.getId());
+        response.setPetId(job.getPetId());
+        response.setFormat(job.getFormat());
+        response.setStatus(job.getStatus());
+        response.setBytesTotal(job.getBytesTotal());
+        response.setBytesProcessed(job.getBytesProcessed());
+        response.setProgressPercent(job.getStatus() == ImportStatus.COMPLETED ? 100
+                : job.getBytesTotal() == 0 ? 0 : (int) (job.getBytesProcessed() * 100 / job.getBytesTotal()));
+        response.setWalksImported(job.getWalksImported());
+        response.setWalksSkipped(job.getWalksSkipped());
+        response.setPointsReceived(job.getPointsReceived());
+        response.setPointsAccepted(job.getPointsAccepted());
+        response.setPointsDiscarded(job.getPointsDiscarded());
+        response.setError(job.getError());
+        response.setCreatedAt(job.getCreatedAt());
+        response.setFinishedAt(job.getFinishedAt());
+        return response;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete import spool file {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Counts the bytes handed to the parser for progress reporting
+     */
+    private static final class ProgressInputStream extends FilterInputStream {
+        private final AtomicLong counter;
+
+        private ProgressInputStream(InputStream in, AtomicLong counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                counter.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                counter.addAndGet(read);
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.WalkLockConfig;
+import com.example.pettrail.enums.WalkLockMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes the transactions that change one walk (point uploads, stop) without a global lock:
+ * the lock is taken before the walk is read and held until the transaction ends, so a stop sees
+ * every committed batch and no batch is stored after the metrics were computed. Different walks
+ * only share a lock on a hash collision.
+ * <p>
+ * LOCAL mode hashes walks onto a fixed set of in-JVM locks; ADVISORY mode takes a PostgreSQL
+ * transaction-scoped advisory lock and works across instances.
+ */
+@Component
+public class WalkLockRegistry {
+
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(?)";
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(?)";
+
+    private final WalkLockMode mode;
+    private final ReentrantLock[] stripes;
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter acquired;
+    private final Timer contendedWait;
+
+    @Autowired
+    public WalkLockRegistry(WalkLockConfig config, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.mode = config.getMode();
+        this.jdbcTemplate = jdbcTemplate;
+        int count = Integer.highestOneBit(Math.max(1, config.getStripes() - 1)) << 1;
+        this.stripes = new ReentrantLock[mode == WalkLockMode.LOCAL ? count : 0];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.acquired = Counter.builder("pettrail.walk.lock.acquired")
+                .description("Per-walk locks taken")
+                .tag("mode", mode.name())
+                .register(meterRegistry);
+        this.contendedWait = Timer.builder("pettrail.walk.lock.wait")
+                .description("Time spent waiting for a per-walk lock held by another transaction")
+                .tag("mode", mode.name())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lock the walk until the current transaction commits or rolls back, waiting if another
+     * transaction holds it
+     * @param walkId the walk ID
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void lock(UUID walkId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Walk locks are held until the end of a transaction; none is active");
+        }
+        if (mode == WalkLockMode.ADVISORY) {
+            long key = walkId.getMostSignificantBits() ^ walkId.getLeastSignificantBits();
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK_SQL, Boolean.class, key))) {
+                contendedWait.record(() -> jdbcTemplate.queryForObject(LOCK_SQL, Object.class, key));
+            }
+        } else {
+            ReentrantLock lock = stripes[stripe(walkId)];
+            if (!lock.tryLock()) {
+                contendedWait.record(lock::lock);
+            }
+            // Runs on the thread that took the lock, after commit or rollback
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+        }
+        acquired.increment();
+    }
+
+    /**
+     * @return true if the lock is shared between instances (ADVISORY mode): a stop committed on
+     * another instance may then not have reached what this instance remembers about the walk
+     */
+    public boolean isDistributed() {
+        return mode == WalkLockMode.ADVISORY;
+    }
+
+    int stripe(UUID walkId) {
+        int hash = walkId.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.pettrail.service;
+
+/**
+ * Splits a walk into moving and stopped time as its points arrive, so the moving speed is not
+ * diluted by sniff breaks. Each interval between two accepted points counts as moving only if its
+ * own speed reaches the pause speed and the pet got further than the pause radius from where it
+ * was a window ago; otherwise it counts as stopped. A window shorter than configured (walk start,
+ * very frequent points) is judged on speed alone.
+ * <p>
+ * Constant work and state per point: the window is a fixed-capacity ring of recent points.
+ */
+public class WalkMotionSegmenter {
+
+    public static final double DEFAULT_PAUSE_SPEED_MPS = 0.5;
+    public static final int DEFAULT_PAUSE_WINDOW_SECONDS = 30;
+    public static final double DEFAULT_PAUSE_RADIUS_M = 15.0;
+
+    // Points kept in the window at most; at more than about 2 Hz the window gets shorter
+    private static final int WINDOW_CAPACITY = 64;
+
+    private final double pauseSpeedMps;
+    private final long windowMicros;
+    private final double pauseRadiusM;
+
+    private final long[] windowTimestamps = new long[WINDOW_CAPACITY];
+    private final double[] windowLatitudes = new double[WINDOW_CAPACITY];
+    private final double[] windowLongitudes = new double[WINDOW_CAPACITY];
+    private int windowHead;
+    private int windowSize;
+
+    private long movingMicros;
+    private long stoppedMicros;
+    private double movingDistanceM;
+    private boolean moving;
+
+    public WalkMotionSegmenter() {
+        this(DEFAULT_PAUSE_SPEED_MPS, DEFAULT_PAUSE_WINDOW_SECONDS, DEFAULT_PAUSE_RADIUS_M);
+    }
+
+    public WalkMotionSegmenter(double pauseSpeedMps, int pauseWindowSeconds, double pauseRadiusM) {
+        this.pauseSpeedMps = pauseSpeedMps;
+        this.windowMicros = pauseWindowSeconds * 1_000_000L;
+        this.pauseRadiusM = pauseRadiusM;
+    }
+
+    /**
+     * Account for the interval ending at a newly accepted point
+     * @param lat latitude in degrees (filtered position)
+     * @param lon longitude in degrees (filtered position)
+     * @param timestampMicros timestamp in WalkTrack's microseconds, not before the previous point's
+     * @param distanceM distance from the previous point in meters
+     */
+    public void add(double lat, double lon, long timestampMicros, double distanceM) {
+        if (windowSize > 0) {
+            int last = (windowHead + windowSize - 1) % WINDOW_CAPACITY;
+            long intervalMicros = timestampMicros - windowTimestamps[last];
+            if (intervalMicros > 0) {
+                moving = distanceM * 1_000_000.0 / intervalMicros >= pauseSpeedMps && leftWindow(lat, lon, timestampMicros);
+                if (moving) {
+                    movingMicros += intervalMicros;
+                    movingDistanceM += distanceM;
+                } else {
+                    stoppedMicros += intervalMicros;
+                }
+            }
+        }
+        push(lat, lon, timestampMicros);
+    }
+
+    /**
+     * Continue from a point accepted earlier without accounting for any time
+     */
+    public void seed(double lat, double lon, long timestampMicros) {
+        windowSize = 0;
+        push(lat, lon, timestampMicros);
+    }
+
+    private boolean leftWindow(double lat, double lon, long timestampMicros) {
+        // Drop points while the next one is still at least a window old, keeping one reference that old
+        long windowStart = timestampMicros - windowMicros;
+        while (windowSize > 1 && windowTimestamps[(windowHead + 1) % WINDOW_CAPACITY] <= windowStart) {
+            windowHead = (windowHead + 1) % WINDOW_CAPACITY;
+            windowSize--;
+        }
+        if (windowTimestamps[windowHead] > windowStart) {
+            return true;
+        }
+        return WalkPointFilter.haversineDistance(windowLatitudes[windowHead], windowLongitudes[windowHead],
+                lat, lon) >= pauseRadiusM;
+    }
+
+    private void push(double lat, double lon, long timestampMicros) {
+        if (windowSize == WINDOW_CAPACITY) {
+            windowHead = (windowHead + 1) % WINDOW_CAPACITY;
+            windowSize--;
+        }
+        int tail = (windowHead + windowSize) % WINDOW_CAPACITY;
+        windowTimestamps[tail] = timestampMicros;
+        windowLatitudes[tail] = lat;
+        windowLongitudes[tail] = lon;
+        windowSize++;
+    }
+
+    /**
+     * @return time spent moving since this segmenter was created, in microseconds
+     */
+    public long getMovingMicros() {
+        return movingMicros;
+    }
+
+    /**
+     * @return time spent stopped between points since this segmenter was created, in microseconds
+     */
+    public long getStoppedMicros() {
+        return stoppedMicros;
+    }
+
+    /**
+     * @return distance covered while moving since this segmenter was created, in meters
+     */
+    public double getMovingDistanceM() {
+        return movingDistanceM;
+    }
+
+    /**
+     * @return whether the interval ending at the last point counted as moving
+     */
+    public boolean isMoving() {
+        return moving;
+    }
+}
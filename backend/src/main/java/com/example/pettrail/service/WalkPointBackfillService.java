@@ -0,0 +1,141 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.WalkPointStorageConfig;
+import com.example.pettrail.enums.PointStorageMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Converts walk_points rows written before the fixed-point columns existed (see V10 migration), a
+ * batch per transaction. In FIXED storage mode it also clears the decimal columns, so those rows
+ * shrink as well. Rows are visited in primary key order; the position is kept in memory, so after a
+ * restart the scan starts over, skipping converted rows through the index. A pass that reaches the end
+ * starts another one, since rows may have been written behind it, until a pass converts nothing.
+ * Runs on one instance at a time, holding a session advisory lock for the whole run.
+ */
+@Service
+public class WalkPointBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalkPointBackfillService.class);
+
+    static final UUID START = new UUID(0, 0);
+
+    static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(hashtext('walk_point_backfill'))";
+    static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(hashtext('walk_point_backfill'))";
+
+    // COALESCE keeps the fixed-point values of rows that already have them (written in DUAL mode). Rows
+    // locked by a concurrent delete are waited for rather than skipped, so the position never passes them.
+    private static final String CONVERT_SQL =
+            "WITH batch AS (SELECT id, timestamp FROM walk_points WHERE id > ? AND %s " +
+            "ORDER BY id LIMIT ? FOR UPDATE), " +
+            "converted AS (UPDATE walk_points w SET " +
+            "lat_e7 = COALESCE(w.lat_e7, round(w.latitude * 10000000)::int), " +
+            "lon_e7 = COALESCE(w.lon_e7, round(w.longitude * 10000000)::int), " +
+            "elev_cm = COALESCE(w.elev_cm, round(w.elevation * 100)::int)%s " +
+            "FROM batch b WHERE w.id = b.id AND w.timestamp = b.timestamp RETURNING 1) " +
+            "SELECT (SELECT count(*) FROM converted), (SELECT id FROM batch ORDER BY id DESC LIMIT 1)";
+    private static final String CONVERT_DUAL_SQL = String.format(CONVERT_SQL, "lat_e7 IS NULL", "");
+    private static final String CONVERT_FIXED_SQL = String.format(CONVERT_SQL, "latitude IS NOT NULL",
+            ", latitude = NULL, longitude = NULL, elevation = NULL");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final WalkPointStorageConfig storageConfig;
+
+    private volatile UUID position = START;
+    private volatile long convertedInPass;
+    private volatile boolean complete;
+
+    @Autowired
+    public WalkPointBackfillService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                    WalkPointStorageConfig storageConfig) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.storageConfig = storageConfig;
+    }
+
+    /**
+     * Convert up to the per-run number of batches, unless another instance is already at it; stops
+     * for good once a whole pass finds nothing left
+     */
+    @Scheduled(fixedDelayString = "${pettrail.point-storage.backfill-interval-ms:60000}")
+    public void backfill() {
+        if (!storageConfig.isBackfillEnabled() || complete) {
+            return;
+        }
+        // A session lock on a connection held for the run; the batches are converted on other connections
+        Long total;
+        try {
+            total = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                if (!queryBoolean(connection, TRY_LOCK_SQL)) {
+                    logger.debug("walk_points backfill already running on another instance");
+                    return null;
+                }
+                try {
+                    return convertBatches();
+                } finally {
+                    queryBoolean(connection, UNLOCK_SQL);
+                }
+            });
+        } catch (DataAccessException e) {
+            logger.error("walk_points fixed-point backfill failed, will retry on the next run", e);
+            return;
+        }
+        if (total != null && total > 0) {
+            logger.info("Converted {} walk_points row(s) to fixed-point coordinates", total);
+        }
+    }
+
+    private long convertBatches() {
+        String sql = storageConfig.getMode() == PointStorageMode.FIXED ? CONVERT_FIXED_SQL : CONVERT_DUAL_SQL;
+        long total = 0;
+        for (int batch = 0; batch < storageConfig.getBackfillMaxBatchesPerRun(); batch++) {
+            Batch converted = transactionTemplate.execute(status -> jdbcTemplate.queryForObject(sql,
+                    (rs, rowNum) -> new Batch(rs.getLong(1), rs.getObject(2, UUID.class)),
+                    position, storageConfig.getBackfillBatchSize()));
+            if (converted == null || converted.last() == null) {
+                if (convertedInPass == 0) {
+                    complete = true;
+                    logger.info("walk_points fixed-point backfill complete ({} storage mode)", storageConfig.getMode());
+                } else {
+                    // Rows written behind the position while the pass ran are found by the next one
+                    position = START;
+                    convertedInPass = 0;
+                }
+                break;
+            }
+            total += converted.rows();
+            convertedInPass += converted.rows();
+            position = converted.last();
+        }
+        return total;
+    }
+
+    boolean isComplete() {
+        return complete;
+    }
+
+    private static boolean queryBoolean(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+
+    private record Batch(long rows, UUID last) {
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.service.filter.FilteredPoint;
+import com.example.pettrail.service.filter.PointFilterStage;
+import com.example.pettrail.service.filter.SpeedStage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Filter pipeline applied to the points of one walk, in timestamp order. Each stage keeps
+ * constant-size state, so the same pipeline can run across request batches or over a streamed
+ * import. Stages may discard a point or move it (smoothing); the position after the last stage is
+ * the one to store.
+ */
+public class WalkPointFilter {
+
+    // Earth's radius in meters
+    private static final double EARTH_RADIUS_M = 6371000.0;
+
+    private final PointFilterStage[] stages;
+    private final WalkMotionSegmenter motion;
+    private final FilteredPoint point = new FilteredPoint();
+
+    private boolean hasPrevious;
+    private long previousTsMicros;
+    private double previousLat;
+    private double previousLon;
+    private double lastDistanceM;
+
+    /**
+     * Only the speed rules, as applied before the pipeline was configurable
+     */
+    public WalkPointFilter() {
+        this(List.of(new SpeedStage(SpeedStage.DEFAULT_MAX_SPEED_MPS)));
+    }
+
+    public WalkPointFilter(List<PointFilterStage> stages) {
+        this(stages, new WalkMotionSegmenter());
+    }
+
+    public WalkPointFilter(List<PointFilterStage> stages, WalkMotionSegmenter motion) {
+        this.stages = stages.toArray(new PointFilterStage[0]);
+        this.motion = motion;
+    }
+
+    /**
+     * Run a point through the stages and, if it passes, make it the new reference
+     * @param lat latitude in degrees
+     * @param lon longitude in degrees
+     * @param ts point timestamp
+     * @return null if the point is accepted, otherwise the reason it was discarded
+     */
+    public String accept(double lat, double lon, LocalDateTime ts) {
+        return accept(lat, lon, WalkTrack.toEpochMicros(ts), Double.NaN);
+    }
+
+    /**
+     * Same as {@link #accept(double, double, LocalDateTime)} for a timestamp in WalkTrack's
+     * microseconds; allocates nothing
+     * @param accuracyM reported horizontal accuracy in meters, NaN when unknown
+     */
+    public String accept(double lat, double lon, long timestampMicros, double accuracyM) {
+        point.set(lat, lon, timestampMicros, accuracyM);
+        for (PointFilterStage stage : stages) {
+            String discardReason = stage.apply(point);
+            if (discardReason != null) {
+                return discardReason;
+            }
+        }
+
+        lastDistanceM = hasPrevious
+                ? haversineDistance(previousLat, previousLon, point.getLatitude(), point.getLongitude())
+                : 0.0;
+        motion.add(point.getLatitude(), point.getLongitude(), point.getTimestampMicros(), lastDistanceM);
+        remember();
+        return null;
+    }
+
+    /**
+     * Continue from a point accepted earlier, e.g. the last stored point of a walk whose filter
+     * state is no longer in memory
+     */
+    public void seed(double lat, double lon, long timestampMicros) {
+        point.set(lat, lon, timestampMicros, Double.NaN);
+        for (PointFilterStage stage : stages) {
+            stage.seed(point);
+        }
+        lastDistanceM = 0.0;
+        motion.seed(point.getLatitude(), point.getLongitude(), point.getTimestampMicros());
+        remember();
+    }
+
+    private void remember() {
+        hasPrevious = true;
+        previousTsMicros = point.getTimestampMicros();
+        previousLat = point.getLatitude();
+        previousLon = point.getLongitude();
+    }
+
+    /**
+     * @return true once a point was accepted or seeded
+     */
+    public boolean hasPrevious() {
+        return hasPrevious;
+    }
+
+    /**
+     * @return timestamp of the last accepted point, in WalkTrack's microseconds
+     */
+    public long getPreviousTimestampMicros() {
+        return previousTsMicros;
+    }
+
+    /**
+     * @return latitude of the last accepted point after the stages (the one to store)
+     */
+    public double getLatitude() {
+        return previousLat;
+    }
+
+    /**
+     * @return longitude of the last accepted point after the stages (the one to store)
+     */
+    public double getLongitude() {
+        return previousLon;
+    }
+
+    /**
+     * @return distance in meters between the last two accepted points (0 after the first one)
+     */
+    public double getLastDistanceM() {
+        return lastDistanceM;
+    }
+
+    /**
+     * @return moving and stopped time of the points accepted by this pipeline
+     */
+    public WalkMotionSegmenter getMotion() {
+        return motion;
+    }
+
+    /**
+     * Calculate the distance between two points using the Haversine formula
+     * @param lat1 latitude of first point in degrees
+     * @param lon1 longitude of first point in degrees
+     * @param lat2 latitude of second point in degrees
+     * @param lon2 longitude of second point in degrees
+     * @return distance in meters
+     */
+    public static double haversineDistance(double lat1, double lon1, double lat2, double lon2) {
+        // Convert degrees to radians
+        double lat1Rad = Math.toRadians(lat1);
+        double lon1Rad = Math.toRadians(lon1);
+        double lat2Rad = Math.toRadians(lat2);
+        double lon2Rad = Math.toRadians(lon2);
+
+        // Differences in coordinates
+        double deltaLat = lat2Rad - lat1Rad;
+        double deltaLon = lon2Rad - lon1Rad;
+
+        // Haversine formula
+        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2) +
+                Math.cos(lat1Rad) * Math.cos(lat2Rad) *
+                Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        // Distance in meters
+        return EARTH_RADIUS_M * c;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.WalkFilterConfig;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.repository.WalkPointTrackReader;
+import com.example.pettrail.service.filter.AccuracyStage;
+import com.example.pettrail.service.filter.KalmanStage;
+import com.example.pettrail.service.filter.PointFilterStage;
+import com.example.pettrail.service.filter.SpeedStage;
+import com.example.pettrail.service.filter.StationaryStage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds point filter pipelines from the configuration and keeps the one of each active walk
+ * between upload batches. State that is not in memory (restart, eviction) or no longer ends at the
+ * walk's last stored point (another instance stored a batch since) is rebuilt from that point. The
+ * caller passes that point, or its timestamp when the active-walk registry has it, so a batch that
+ * continues the walk reads nothing here.
+ */
+@Component
+public class WalkPointFilterRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalkPointFilterRegistry.class);
+
+    private final WalkFilterConfig filterConfig;
+    private final WalkPointTrackReader walkPointTrackReader;
+    private final Map<UUID, Entry> filters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public WalkPointFilterRegistry(WalkFilterConfig filterConfig, WalkPointTrackReader walkPointTrackReader) {
+        this.filterConfig = filterConfig;
+        this.walkPointTrackReader = walkPointTrackReader;
+    }
+
+    /**
+     * @return a pipeline with the configured stages and no state
+     */
+    public WalkPointFilter newFilter() {
+        List<PointFilterStage> stages = new ArrayList<>();
+        for (var type : filterConfig.getStages()) {
+            stages.add(switch (type) {
+                case ACCURACY -> new AccuracyStage(filterConfig.getMaxAccuracyM());
+                case SPEED -> new SpeedStage(filterConfig.getMaxSpeedMps());
+                case KALMAN -> new KalmanStage(filterConfig.getAccelerationNoise(), filterConfig.getDefaultAccuracyM());
+                case STATIONARY -> new StationaryStage(filterConfig.getStationaryRadiusM());
+            });
+        }
+        return new WalkPointFilter(stages, new WalkMotionSegmenter(filterConfig.getPauseSpeedMps(),
+                filterConfig.getPauseWindowSeconds(), filterConfig.getPauseRadiusM()));
+    }
+
+    /**
+     * The walk's pipeline, when the timestamp of the walk's last stored point may be known without a
+     * query (see ActiveWalk). The state in memory is reused if it ends there; otherwise, or when the
+     * timestamp is not known, the last stored point is read as in {@link #forWalk(UUID, WalkTrack)}.
+     * @param walkId the walk ID
+     * @param lastPointMicros the timestamp of the walk's last stored point, or ActiveWalk.NO_POINT
+     * @return the pipeline
+     */
+    public WalkPointFilter forWalk(UUID walkId, long lastPointMicros) {
+        Entry entry = filters.get(walkId);
+        if (entry != null && lastPointMicros != ActiveWalk.NO_POINT && entry.endsAt(lastPointMicros)) {
+            entry.lastUsedNanos = System.nanoTime();
+            return entry.filter;
+        }
+        return forWalk(walkId, walkPointTrackReader.readLastPoint(walkId));
+    }
+
+    /**
+     * The walk's pipeline. The state in memory is reused only while it ends at the walk's last
+     * stored point; when there is none, or another instance stored points since (its last
+     * timestamp differs), a new pipeline is seeded from the last stored point, so intervals are
+     * neither measured twice nor against a point that is no longer the walk's last.
+     * Callers must hold the walk's lock and synchronize on the returned filter while using it.
+     * @param walkId the walk ID
+     * @param last the walk's last stored point, or an empty track if it has none
+     * @return the pipeline
+     */
+    public WalkPointFilter forWalk(UUID walkId, WalkTrack last) {
+        Entry entry = filters.get(walkId);
+        if (entry == null || !entry.endsAt(last)) {
+            if (entry != null) {
+                logger.debug("Filter state of walk {} is behind its stored points; reseeding", walkId);
+            }
+            WalkPointFilter filter = newFilter();
+            if (!last.isEmpty()) {
+                filter.seed(last.latitude(0), last.longitude(0), last.timestampMicros(0));
+            }
+            entry = new Entry(filter);
+            filters.put(walkId, entry);
+        }
+        entry.lastUsedNanos = System.nanoTime();
+        return entry.filter;
+    }
+
+    /**
+     * Drop the walk's state if the current transaction does not commit, so the next batch starts
+     * again from what was actually stored
+     * @param walkId the walk ID
+     */
+    public void evictOnRollback(UUID walkId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    evict(walkId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Drop the walk's state, e.g. when it is finished
+     * @param walkId the walk ID
+     */
+    public void evict(UUID walkId) {
+        filters.remove(walkId);
+    }
+
+    @Scheduled(fixedDelay = 600000)
+    public void purgeIdle() {
+        long idleNanos = TimeUnit.MINUTES.toNanos(filterConfig.getStateIdleMinutes());
+        long now = System.nanoTime();
+        int before = filters.size();
+        filters.values().removeIf(entry -> now - entry.lastUsedNanos > idleNanos);
+        if (filters.size() < before) {
+            logger.debug("Dropped filter state of {} idle walk(s)", before - filters.size());
+        }
+    }
+
+    private static final class Entry {
+        private final WalkPointFilter filter;
+        private volatile long lastUsedNanos;
+
+        private Entry(WalkPointFilter filter) {
+            this.filter = filter;
+        }
+
+        private boolean endsAt(WalkTrack last) {
+            if (last.isEmpty()) {
+                synchronized (filter) {
+                    return !filter.hasPrevious();
+                }
+            }
+            return endsAt(last.timestampMicros(0));
+        }
+
+        private boolean endsAt(long timestampMicros) {
+            synchronized (filter) {
+                return filter.hasPrevious() && filter.getPreviousTimestampMicros() == timestampMicros;
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.WalkPointPartitionConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly partitions of walk_points (see V5 migration): creates upcoming months
+ * ahead of time, creates past months for imported walks, moves points that still landed in the
+ * default partition into their month's partition, and detaches partitions that fall out of the
+ * retention window
+ */
+@Service
+public class WalkPointPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalkPointPartitionService.class);
+
+    private static final String PARENT_TABLE = "walk_points";
+    private static final String DEFAULT_PARTITION = "walk_points_default";
+    private static final Pattern PARTITION_NAME = Pattern.compile("walk_points_p(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter SUFFIX_FORMATTER = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final DateTimeFormatter BOUND_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Serializes partition DDL across instances; held until the end of each transaction
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext('walk_points_partitions'))";
+    // DDL waits behind long-running queries at most this long, then the next run retries
+    private static final String LOCK_TIMEOUT_SQL = "SET LOCAL lock_timeout = '5s'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final WalkPointPartitionConfig partitionConfig;
+
+    // Months known to have a partition, so imports only check the catalog once per month
+    private final Set<YearMonth> knownMonths = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public WalkPointPartitionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                     WalkPointPartitionConfig partitionConfig) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partitionConfig = partitionConfig;
+    }
+
+    /**
+     * Run the maintenance once on startup so a fresh deploy never inserts into the default partition
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maintain();
+    }
+
+    /**
+     * Nightly maintenance: create the upcoming partitions, split populated months out of the
+     * default partition, then apply the retention policy
+     */
+    @Scheduled(cron = "${pettrail.partitions.cron:0 15 3 * * *}")
+    public void maintain() {
+        if (!partitionConfig.isEnabled()) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        try {
+            int created = ensurePartitions(current, current.plusMonths(partitionConfig.getMonthsAhead()));
+            if (created > 0) {
+                logger.info("Created {} walk_points partition(s)", created);
+            }
+            splitDefaultPartition();
+            if (partitionConfig.getRetentionMonths() > 0) {
+                detachPartitionsBefore(current.minusMonths(partitionConfig.getRetentionMonths()));
+            }
+        } catch (DataAccessException e) {
+            logger.error("walk_points partition maintenance failed, will retry on the next run", e);
+        }
+    }
+
+    /**
+     * Make sure a partition exists for every month in the range
+     * @param from first month (inclusive)
+     * @param to last month (inclusive)
+     * @return number of partitions created
+     */
+    public int ensurePartitions(YearMonth from, YearMonth to) {
+        int created = 0;
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            YearMonth target = month;
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> createPartition(target)))) {
+                created++;
+            }
+            knownMonths.add(target);
+        }
+        return created;
+    }
+
+    /**
+     * Make sure the months of points about to be written have their own partition, so old walks
+     * (imports) don't pile up in the default partition. Must be called outside any transaction
+     * that already wrote walk_points: the DDL would wait for it.
+     * @param from timestamp of the first point
+     * @param to timestamp of the last point
+     * @return number of partitions created
+     */
+    public int ensurePartitionsFor(LocalDateTime from, LocalDateTime to) {
+        if (!partitionConfig.isEnabled()) {
+            return 0;
+        }
+        int created = 0;
+        YearMonth last = YearMonth.from(to);
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(last); month = month.plusMonths(1)) {
+            if (!knownMonths.contains(month)) {
+                created += ensurePartitions(month, month);
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Give every month with points in the default partition its own partition, moving the points
+     * into it (see createPartition), so the default partition stays small
+     * @return number of partitions created
+     */
+    public int splitDefaultPartition() {
+        List<LocalDateTime> months = jdbcTemplate.queryForList(
+                "SELECT DISTINCT date_trunc('month', timestamp) FROM " + DEFAULT_PARTITION + " ORDER BY 1",
+                LocalDateTime.class);
+        int created = 0;
+        for (LocalDateTime start : months) {
+            YearMonth month = YearMonth.from(start);
+            created += ensurePartitions(month, month);
+        }
+        if (created > 0) {
+            logger.info("Split {} month(s) of walk points out of {}", created, DEFAULT_PARTITION);
+        }
+        return created;
+    }
+
+    /**
+     * Detach every monthly partition that ends before the cutoff. Detaching is a catalog-only
+     * operation, unlike deleting the rows; the detached tables are left in place for archiving
+     * unless pettrail.partitions.drop-detached is set.
+     * @param cutoff first month to keep
+     * @return names of the detached partitions
+     */
+    public List<String> detachPartitionsBefore(YearMonth cutoff) {
+        List<String> detached = new ArrayList<>();
+        for (String partition : listPartitions()) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(cutoff)) {
+                continue;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute(LOCK_SQL);
+                jdbcTemplate.execute(LOCK_TIMEOUT_SQL);
+                jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + partition);
+                if (partitionConfig.isDropDetached()) {
+                    jdbcTemplate.execute("DROP TABLE " + partition);
+                }
+            });
+            knownMonths.remove(month);
+            logger.info("Detached walk_points partition {}{}", partition,
+                    partitionConfig.isDropDetached() ? " and dropped it" : "");
+            detached.add(partition);
+        }
+        return detached;
+    }
+
+    private boolean createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        jdbcTemplate.execute(LOCK_SQL);
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition))) {
+            return false;
+        }
+        jdbcTemplate.execute(LOCK_TIMEOUT_SQL);
+
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+        String bounds = " FOR VALUES FROM ('" + start.format(BOUND_FORMATTER) + "') TO ('" + end.format(BOUND_FORMATTER) + "')";
+
+        Boolean hasStrayRows = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION + " WHERE timestamp >= ? AND timestamp < ?)",
+                Boolean.class, start, end);
+        if (!Boolean.TRUE.equals(hasStrayRows)) {
+            jdbcTemplate.execute("CREATE TABLE " + partition + " PARTITION OF " + PARENT_TABLE + bounds);
+            return true;
+        }
+
+        // Points for this month already landed in the default partition: move them into a
+        // standalone table first, then attach it (a plain CREATE ... PARTITION OF would fail)
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + PARENT_TABLE + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        int moved = jdbcTemplate.update(
+                "WITH moved AS (DELETE FROM " + DEFAULT_PARTITION + " WHERE timestamp >= ? AND timestamp < ? RETURNING *) " +
+                "INSERT INTO " + partition + " SELECT * FROM moved", start, end);
+        jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " ATTACH PARTITION " + partition + bounds);
+        logger.warn("Moved {} walk point(s) from {} into new partition {}", moved, DEFAULT_PARTITION, partition);
+        return true;
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = ?::regclass ORDER BY c.relname", String.class, PARENT_TABLE);
+    }
+
+    static String partitionName(YearMonth month) {
+        return "walk_points_p" + month.format(SUFFIX_FORMATTER);
+    }
+}
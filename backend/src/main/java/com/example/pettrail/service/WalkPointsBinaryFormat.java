@@ -0,0 +1,296 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.dto.ValidationError;
+import com.example.pettrail.exception.InvalidPointsPayloadException;
+import com.example.pettrail.model.WalkTrack;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary encoding of a points batch (Content-Type application/x-pettrail-points), an
+ * alternative to the JSON array for mobile clients. Decoding goes straight into a WalkTrack's
+ * primitive arrays and range-checks every value in the same pass.
+ * <pre>
+ * "PTP" 0x01                          magic and version
+ * varint n                            number of points (1..5000)
+ * byte flags                          bit 0: elevations follow, bit 1: accuracies follow
+ * n x zigzag varint                   timestamp deltas in ms (the first one is ms since 1970-01-01T00:00Z)
+ * n x zigzag varint                   latitude deltas in 1e-7 degrees (the first one is absolute)
+ * n x zigzag varint                   longitude deltas in 1e-7 degrees
+ * if flags bit 0:
+ *   ceil(n / 8) bytes                 bitmap, bit i (LSB first) set when point i has an elevation
+ *   zigzag varint per set bit         elevation deltas in cm between the points that have one
+ * if flags bit 1:
+ *   n x varint                        horizontal accuracy in dm, 0 when unknown
+ * </pre>
+ * Varints are unsigned LEB128; zigzag maps signed values to unsigned as in protobuf.
+ */
+public final class WalkPointsBinaryFormat {
+
+    public static final String MEDIA_TYPE = "application/x-pettrail-points";
+
+    public static final int MAX_POINTS = 5000;
+
+    private static final byte[] MAGIC = {'P', 'T', 'P', 1};
+    private static final int FLAG_ELEVATION = 1;
+    private static final int FLAG_ACCURACY = 2;
+    private static final double COORDINATE_SCALE = 1e7;
+    private static final double ELEVATION_SCALE = 100.0;
+    private static final double ACCURACY_SCALE = 10.0;
+    private static final long MAX_TIMESTAMP_MILLIS = 253402300799999L; // 9999-12-31T23:59:59.999Z
+    private static final long MAX_ELEVATION_CM = 99999999L; // NUMERIC(8,2)
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private static final long MAX_ACCURACY_DM = 1_000_000L; // 100 km
+
+    // Header, then at most 10 bytes per timestamp, 5 per coordinate, elevation and accuracy, plus the bitmap
+    static final int MAX_PAYLOAD_BYTES = MAGIC.length + 3 + 1 + MAX_POINTS * (10 + 5 + 5 + 5 + 5) + (MAX_POINTS + 7) / 8;
+
+    private WalkPointsBinaryFormat() {
+    }
+
+    /**
+     * Read and decode a batch
+     * @param in the request body
+     * @return the points, in upload order
+     * @throws InvalidPointsPayloadException if the payload is malformed, too large or has out-of-range values
+     */
+    public static WalkTrack decode(InputStream in) throws IOException {
+        byte[] payload = in.readNBytes(MAX_PAYLOAD_BYTES + 1);
+        if (payload.length > MAX_PAYLOAD_BYTES) {
+            throw new InvalidPointsPayloadException("Payload is larger than " + MAX_PAYLOAD_BYTES + " bytes");
+        }
+        return decode(payload);
+    }
+
+    /**
+     * Decode a batch
+     * @param payload the encoded batch
+     * @return the points, in upload order
+     * @throws InvalidPointsPayloadException if the payload is malformed or has out-of-range values
+     */
+    public static WalkTrack decode(byte[] payload) {
+        Reader reader = new Reader(payload);
+        for (byte b : MAGIC) {
+            if (reader.readByte() != b) {
+                throw new InvalidPointsPayloadException("Not a " + MEDIA_TYPE + " version 1 payload");
+            }
+        }
+        long count = reader.readVarint();
+        if (count < 1 || count > MAX_POINTS) {
+            throw new InvalidPointsPayloadException("Payload must have 1..5000 points.");
+        }
+        int n = (int) count;
+        int flags = reader.readByte();
+
+        long[] timestamps = new long[n];
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        double[] elevations = new double[n];
+        List<ValidationError> errors = new ArrayList<>();
+
+        long value = 0;
+        for (int i = 0; i < n; i++) {
+            value += reader.readSignedVarint();
+            if (value < 0 || value > MAX_TIMESTAMP_MILLIS) {
+                reject(errors, i, "ts", "Timestamp must be between 1970 and 9999");
+            } else {
+                timestamps[i] = value * 1000;
+            }
+        }
+        value = 0;
+        for (int i = 0; i < n; i++) {
+            value += reader.readSignedVarint();
+            if (value < -900_000_000L || value > 900_000_000L) {
+                reject(errors, i, "lat", "Latitude must be between -90 and 90 degrees");
+            }
+            latitudes[i] = value / COORDINATE_SCALE;
+        }
+        value = 0;
+        for (int i = 0; i < n; i++) {
+            value += reader.readSignedVarint();
+            if (value < -1_800_000_000L || value > 1_800_000_000L) {
+                reject(errors, i, "lon", "Longitude must be between -180 and 180 degrees");
+            }
+            longitudes[i] = value / COORDINATE_SCALE;
+        }
+
+        if ((flags & FLAG_ELEVATION) != 0) {
+            int bitmapOffset = reader.skip((n + 7) / 8);
+            value = 0;
+            for (int i = 0; i < n; i++) {
+                if ((payload[bitmapOffset + (i >>> 3)] & (1 << (i & 7))) == 0) {
+                    elevations[i] = Double.NaN;
+                    continue;
+                }
+                value += reader.readSignedVarint();
+                if (value < 0 || value > MAX_ELEVATION_CM) {
+                    reject(errors, i, "elev", "Elevation must be between 0 and 999999.99 meters");
+                }
+                elevations[i] = value / ELEVATION_SCALE;
+            }
+        } else {
+            Arrays.fill(elevations, Double.NaN);
+        }
+
+        double[] accuracies = null;
+        if ((flags & FLAG_ACCURACY) != 0) {
+            accuracies = new double[n];
+            for (int i = 0; i < n; i++) {
+                long decimeters = reader.readVarint();
+                if (decimeters > MAX_ACCURACY_DM) {
+                    reject(errors, i, "accuracy", "Accuracy must be between 0 and 100000 meters");
+                }
+                accuracies[i] = decimeters == 0 ? Double.NaN : decimeters / ACCURACY_SCALE;
+            }
+        }
+
+        if (reader.remaining() != 0) {
+            throw new InvalidPointsPayloadException("Unexpected " + reader.remaining() + " trailing byte(s) in payload");
+        }
+        if (!errors.isEmpty()) {
+            throw new InvalidPointsPayloadException("One or more validation errors occurred.", errors);
+        }
+        return new WalkTrack(n, timestamps, latitudes, longitudes, elevations, accuracies);
+    }
+
+    /**
+     * Encode a batch, e.g. for a JVM client or a test
+     * @param points the points to send
+     * @return the encoded batch
+     */
+    public static byte[] encode(WalkTrack points) {
+        int n = points.size();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + n * 12);
+        out.writeBytes(MAGIC);
+        writeVarint(out, n);
+
+        boolean anyElevation = false;
+        boolean anyAccuracy = false;
+        for (int i = 0; i < n; i++) {
+            anyElevation |= points.hasElevation(i);
+            anyAccuracy |= points.hasAccuracy(i);
+        }
+        out.write((anyElevation ? FLAG_ELEVATION : 0) | (anyAccuracy ? FLAG_ACCURACY : 0));
+
+        long previous = 0;
+        for (int i = 0; i < n; i++) {
+            long millis = Math.floorDiv(points.timestampMicros(i), 1000L);
+            writeSignedVarint(out, millis - previous);
+            previous = millis;
+        }
+        previous = 0;
+        for (int i = 0; i < n; i++) {
+            long lat = Math.round(points.latitude(i) * COORDINATE_SCALE);
+            writeSignedVarint(out, lat - previous);
+            previous = lat;
+        }
+        previous = 0;
+        for (int i = 0; i < n; i++) {
+            long lon = Math.round(points.longitude(i) * COORDINATE_SCALE);
+            writeSignedVarint(out, lon - previous);
+            previous = lon;
+        }
+
+        if (anyElevation) {
+            byte[] bitmap = new byte[(n + 7) / 8];
+            for (int i = 0; i < n; i++) {
+                if (points.hasElevation(i)) {
+                    bitmap[i >>> 3] |= (byte) (1 << (i & 7));
+                }
+            }
+            out.writeBytes(bitmap);
+            previous = 0;
+            for (int i = 0; i < n; i++) {
+                if (points.hasElevation(i)) {
+                    long elevation = Math.round(points.elevation(i) * ELEVATION_SCALE);
+                    writeSignedVarint(out, elevation - previous);
+                    previous = elevation;
+                }
+            }
+        }
+        if (anyAccuracy) {
+            for (int i = 0; i < n; i++) {
+                // Rounded up, so a known accuracy never encodes as 0 (unknown)
+                writeVarint(out, points.hasAccuracy(i) ? (long) Math.ceil(points.accuracy(i) * ACCURACY_SCALE) : 0);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static void reject(List<ValidationError> errors, int index, String field, String issue) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new ValidationError("points[" + index + "]." + field, issue));
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeSignedVarint(ByteArrayOutputStream out, long value) {
+        writeVarint(out, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Bounds-checked cursor over the payload
+     */
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        private Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int readByte() {
+            if (position >= buffer.length) {
+                throw truncated();
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        long readVarint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new InvalidPointsPayloadException("Malformed varint at byte " + position);
+        }
+
+        long readSignedVarint() {
+            long raw = readVarint();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        int skip(int length) {
+            if (buffer.length - position < length) {
+                throw truncated();
+            }
+            int start = position;
+            position += length;
+            return start;
+        }
+
+        int remaining() {
+            return buffer.length - position;
+        }
+
+        private InvalidPointsPayloadException truncated() {
+            return new InvalidPointsPayloadException("Payload is truncated");
+        }
+    }
+}
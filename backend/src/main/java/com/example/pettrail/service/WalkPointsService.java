@@ -1,12 +1,15 @@
 package com.example.pettrail.service;
 
+import com.example.pettrail.config.PrimaryPinRegistry;
 import com.example.pettrail.dto.WalkPointRequest;
 import com.example.pettrail.dto.WalkPointsBatchResponse;
+import com.example.pettrail.enums.InvalidationType;
 import com.example.pettrail.exception.WalkFinishedException;
 import com.example.pettrail.exception.WalkNotFoundException;
 import com.example.pettrail.model.Walk;
-import com.example.pettrail.model.WalkPoint;
-import com.example.pettrail.repository.WalkPointRepository;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.repository.WalkPointBulkWriter;
+import com.example.pettrail.repository.WalkPointTrackReader;
 import com.example.pettrail.repository.WalkRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,9 +17,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,20 +26,29 @@ import java.util.UUID;
 public class WalkPointsService {
 
     private static final Logger logger = LoggerFactory.getLogger(WalkPointsService.class);
-    
-    // Speed threshold in meters per second (50 m/s = 180 km/h)
-    private static final double SPEED_THRESHOLD_MPS = 50.0;
-    
-    // Earth's radius in meters
-    private static final double EARTH_RADIUS_M = 6371000.0;
 
     private final WalkRepository walkRepository;
-    private final WalkPointRepository walkPointRepository;
+    private final PrimaryPinRegistry primaryPinRegistry;
+    private final WalkPointBulkWriter walkPointBulkWriter;
+    private final WalkPointFilterRegistry walkPointFilterRegistry;
+    private final WalkPointTrackReader walkPointTrackReader;
+    private final WalkLockRegistry walkLockRegistry;
+    private final ActiveWalkRegistry activeWalkRegistry;
+    private final ElevationEnricher elevationEnricher;
 
     @Autowired
-    public WalkPointsService(WalkRepository walkRepository, WalkPointRepository walkPointRepository) {
+    public WalkPointsService(WalkRepository walkRepository, PrimaryPinRegistry primaryPinRegistry,
+                             WalkPointBulkWriter walkPointBulkWriter, WalkPointFilterRegistry walkPointFilterRegistry,
+                             WalkPointTrackReader walkPointTrackReader, WalkLockRegistry walkLockRegistry,
+                             ActiveWalkRegistry activeWalkRegistry, ElevationEnricher elevationEnricher) {
         this.walkRepository = walkRepository;
-        this.walkPointRepository = walkPointRepository;
+        this.primaryPinRegistry = primaryPinRegistry;
+        this.walkPointBulkWriter = walkPointBulkWriter;
+        this.walkPointFilterRegistry = walkPointFilterRegistry;
+        this.walkPointTrackReader = walkPointTrackReader;
+        this.walkLockRegistry = walkLockRegistry;
+        this.activeWalkRegistry = activeWalkRegistry;
+        this.elevationEnricher = elevationEnricher;
     }
 
     /**
@@ -50,81 +61,67 @@ public class WalkPointsService {
      */
     @Transactional
     public WalkPointsBatchResponse ingestPoints(UUID walkId, List<WalkPointRequest> points) {
-        // Validate walk exists and is active
-        Walk walk = walkRepository.findById(walkId)
-                .orElseThrow(() -> new WalkNotFoundException("Walk not found with ID: " + walkId));
+        return ingestPoints(walkId, toTrack(points));
+    }
 
-        if (!walk.isActive()) {
-            throw new WalkFinishedException("walk already finished");
-        }
+    /**
+     * Process a batch of walk points held in primitive arrays (the binary upload format, or a
+     * converted JSON batch). Points are sorted by timestamp through an index permutation, run
+     * through the walk's filter pipeline, which continues from the previous batch, given missing
+     * elevations from the terrain tiles and handed to the JDBC writer by index, without per-point
+     * objects. Stored positions are the filtered ones.
+     * Batches for the same walk, and a stop, run one after another (see WalkLockRegistry).
+     * @param walkId the walk ID
+     * @param points the points, in upload order
+     * @return processing summary
+     * @throws WalkNotFoundException if walk doesn't exist
+     * @throws WalkFinishedException if walk is already finished
+     */
+    @Transactional
+    public WalkPointsBatchResponse ingestPoints(UUID walkId, WalkTrack points) {
+        walkLockRegistry.lock(walkId);
+        WalkPointFilter filter = activeWalkFilter(walkId);
 
         int received = points.size();
-        int accepted = 0;
-        int discarded = 0;
-
-        // Sort points by timestamp to ensure chronological order
-        List<WalkPointRequest> sortedPoints = new ArrayList<>(points);
-        sortedPoints.sort(Comparator.comparing(WalkPointRequest::getTs));
-
-        List<WalkPoint> pointsToSave = new ArrayList<>();
-        WalkPointRequest previousPoint = null;
-
-        for (WalkPointRequest currentPoint : sortedPoints) {
-            boolean shouldAccept = true;
-            String discardReason = null;
-
-            // Check if this is not the first point
-            if (previousPoint != null) {
-                // Calculate time difference
-                Duration timeDiff = Duration.between(previousPoint.getTs(), currentPoint.getTs());
-                long timeDiffSeconds = timeDiff.getSeconds();
-
-                // If time difference is non-positive, discard the point
-                if (timeDiffSeconds <= 0) {
-                    shouldAccept = false;
-                    discardReason = "non-increasing ts";
-                } else {
-                    // Calculate distance using Haversine formula
-                    double distanceMeters = calculateHaversineDistance(
-                            previousPoint.getLat().doubleValue(),
-                            previousPoint.getLon().doubleValue(),
-                            currentPoint.getLat().doubleValue(),
-                            currentPoint.getLon().doubleValue()
-                    );
-
-                    // Calculate speed in meters per second
-                    double speedMps = distanceMeters / timeDiffSeconds;
-
-                    // If speed exceeds threshold, discard the point
-                    if (speedMps > SPEED_THRESHOLD_MPS) {
-                        shouldAccept = false;
-                        discardReason = "speed > 50 m/s";
-                    }
-                }
-            }
-
-            if (shouldAccept) {
-                // Convert to entity and add to save list
-                WalkPoint walkPoint = new WalkPoint(
-                        UUID.fromString(walkId.toString()),
-                        currentPoint.getLat(),
-                        currentPoint.getLon(),
-                        currentPoint.getTs(),
-                        currentPoint.getElev()
-                );
-                pointsToSave.add(walkPoint);
-                accepted++;
-                previousPoint = currentPoint;
+        int[] order = points.timestampOrder();
+        int accepted;
+        long movingMicros = 0;
+        long stoppedMicros = 0;
+        double movingDistanceM = 0.0;
+        synchronized (filter) {
+            if (received > 0 && filter.hasPrevious()
+                    && points.timestampMicros(order[0]) <= filter.getPreviousTimestampMicros()) {
+                // Older than what the walk already has, e.g. an offline queue flushing late: filter
+                // the batch on its own and leave the walk's state alone
+                logger.debug("Late batch for walk {}; filtering it separately", walkId);
+                accepted = retainAccepted(walkId, points, order, walkPointFilterRegistry.newFilter());
             } else {
-                discarded++;
-                logger.info("Discarded point for walk {}: {} (lat: {}, lon: {}, ts: {})", 
-                        walkId, discardReason, currentPoint.getLat(), currentPoint.getLon(), currentPoint.getTs());
+                // Late batches add no motion: their time is already covered by the walk's intervals.
+                // The filter ends at the walk's last stored point (forWalk reseeds it otherwise), so
+                // time another instance already added is not measured again.
+                WalkMotionSegmenter motion = filter.getMotion();
+                movingMicros = -motion.getMovingMicros();
+                stoppedMicros = -motion.getStoppedMicros();
+                movingDistanceM = -motion.getMovingDistanceM();
+                accepted = retainAccepted(walkId, points, order, filter);
+                movingMicros += motion.getMovingMicros();
+                stoppedMicros += motion.getStoppedMicros();
+                movingDistanceM += motion.getMovingDistanceM();
             }
         }
+        walkPointFilterRegistry.evictOnRollback(walkId);
+        int discarded = received - accepted;
 
         // Save all accepted points in batch
-        if (!pointsToSave.isEmpty()) {
-            walkPointRepository.saveAll(pointsToSave);
+        if (accepted > 0) {
+            elevationEnricher.fillMissing(points, order, accepted);
+            walkPointBulkWriter.insert(walkId, points, order, accepted);
+            if (movingMicros > 0 || stoppedMicros > 0) {
+                walkRepository.addMotion(walkId, movingMicros / 1000, stoppedMicros / 1000, movingDistanceM);
+            }
+            activeWalkRegistry.pointsStored(walkId, points.timestampMicros(order[accepted - 1]));
+            // The live map reads this route right away; keep it off lagging replicas
+            primaryPinRegistry.pin(walkId);
             logger.info("Saved {} points for walk {}", accepted, walkId);
         }
 
@@ -135,31 +132,93 @@ public class WalkPointsService {
     }
 
     /**
-     * Calculate the distance between two points using the Haversine formula
-     * @param lat1 latitude of first point in degrees
-     * @param lon1 longitude of first point in degrees
-     * @param lat2 latitude of second point in degrees
-     * @param lon2 longitude of second point in degrees
-     * @return distance in meters
+     * Run the filter over the points in timestamp order, move the accepted points to their filtered
+     * positions and their indexes to the front of the array (in place: the write position never
+     * passes the read position)
+     * @param walkId the walk ID, for logging
+     * @param points the points
+     * @param order indexes of the points in timestamp order
+     * @param filter the walk's filter pipeline
+     * @return number of accepted points
+     */
+    static int retainAccepted(UUID walkId, WalkTrack points, int[] order, WalkPointFilter filter) {
+        int accepted = 0;
+        for (int i = 0; i < order.length; i++) {
+            int index = order[i];
+            String discardReason = filter.accept(points.latitude(index), points.longitude(index),
+                    points.timestampMicros(index), points.accuracy(index));
+            if (discardReason == null) {
+                points.moveTo(index, filter.getLatitude(), filter.getLongitude());
+                order[accepted++] = index;
+            } else {
+                logger.info("Discarded point for walk {}: {} (lat: {}, lon: {}, ts: {})",
+                        walkId, discardReason, points.latitude(index), points.longitude(index), points.timestamp(index));
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Copy a JSON batch into primitive arrays in one pass
+     */
+    static WalkTrack toTrack(List<WalkPointRequest> points) {
+        int size = points.size();
+        long[] timestamps = new long[size];
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        double[] elevations = new double[size];
+        double[] accuracies = null;
+        for (int i = 0; i < size; i++) {
+            WalkPointRequest point = points.get(i);
+            timestamps[i] = WalkTrack.toEpochMicros(point.getTs());
+            latitudes[i] = point.getLat().doubleValue();
+            longitudes[i] = point.getLon().doubleValue();
+            BigDecimal elevation = point.getElev();
+            elevations[i] = elevation != null ? elevation.doubleValue() : Double.NaN;
+            if (point.getAccuracy() != null) {
+                if (accuracies == null) {
+                    accuracies = new double[size];
+                    Arrays.fill(accuracies, Double.NaN);
+                }
+                accuracies[i] = point.getAccuracy().doubleValue();
+            }
+        }
+        return new WalkTrack(size, timestamps, latitudes, longitudes, elevations, accuracies);
+    }
+
+    /**
+     * Check that the walk is active and get its filter pipeline, which must end at the walk's last
+     * stored point. The caller holds the walk lock.
      */
-    private double calculateHaversineDistance(double lat1, double lon1, double lat2, double lon2) {
-        // Convert degrees to radians
-        double lat1Rad = Math.toRadians(lat1);
-        double lon1Rad = Math.toRadians(lon1);
-        double lat2Rad = Math.toRadians(lat2);
-        double lon2Rad = Math.toRadians(lon2);
-
-        // Differences in coordinates
-        double deltaLat = lat2Rad - lat1Rad;
-        double deltaLon = lon2Rad - lon1Rad;
-
-        // Haversine formula
-        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2) +
-                Math.cos(lat1Rad) * Math.cos(lat2Rad) *
-                Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        // Distance in meters
-        return EARTH_RADIUS_M * c;
+    private WalkPointFilter activeWalkFilter(UUID walkId) {
+        // Finished walks stay finished. Active ones need no query while the walk lock is local: the
+        // caller holds it, so a stop cannot be in between, and only this instance stores points, so
+        // the registry knows the last one. Under the shared lock another instance may have stopped
+        // the walk before its notification arrived, or stored points since, so the walk's state and
+        // last point are read in one query, which the lock makes current.
+        ActiveWalk known = activeWalkRegistry.find(walkId);
+        if (known != null) {
+            if (!known.isActive()) {
+                throw new WalkFinishedException("walk already finished");
+            }
+            if (!walkLockRegistry.isDistributed()) {
+                return walkPointFilterRegistry.forWalk(walkId, known.getLastPointMicros());
+            }
+            WalkTrack last = walkPointTrackReader.readLastPointIfActive(walkId);
+            if (last != null) {
+                return walkPointFilterRegistry.forWalk(walkId, last);
+            }
+            activeWalkRegistry.invalidate(InvalidationType.WALK_STOPPED, List.of(walkId));
+        }
+
+        // Validate walk exists and is active
+        Walk walk = walkRepository.findById(walkId)
+                .orElseThrow(() -> new WalkNotFoundException("Walk not found with ID: " + walkId));
+        activeWalkRegistry.remember(walk);
+
+        if (!walk.isActive()) {
+            throw new WalkFinishedException("walk already finished");
+        }
+        return walkPointFilterRegistry.forWalk(walkId, ActiveWalk.NO_POINT);
     }
 }
@@ -0,0 +1,218 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.dto.WalkProfileResponse;
+import com.example.pettrail.dto.WalkSplit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Builds a walk's splits and speed/elevation profile from its points in timestamp order, in one
+ * pass and bounded memory, so the same code serves a stop (points already read) and a streamed
+ * import.
+ * <ul>
+ * <li>Splits end where the cumulative distance crosses a multiple of the split distance, at a time
+ * interpolated within the crossing segment.</li>
+ * <li>Elevation is averaged over a few seconds, then goes through a dead band: the smoothed
+ * elevation only moves, and gain or loss only grows, once the average is the hysteresis away from
+ * it, so GPS noise on flat ground adds nothing.</li>
+ * <li>The series have fixed-width samples from the first point, each segment's distance spread over
+ * the samples it overlaps; when the walk outgrows the maximum number of samples, neighbouring
+ * samples are merged and the width doubles.</li>
+ * </ul>
+ */
+public class WalkProfileBuilder {
+
+    // Time constant of the elevation average, in seconds
+    private static final double ELEVATION_AVERAGE_S = 30.0;
+
+    private final double splitDistanceM;
+    private final double hysteresisM;
+    private final int maxSamples;
+
+    // Splits
+    private final List<WalkSplit> splits = new ArrayList<>();
+    private double distanceM;
+    private double nextSplitAtM;
+    private double splitStartMicros;
+    private double splitStartGainM;
+    private double splitStartLossM;
+
+    // Elevation average and dead band
+    private boolean hasElevation;
+    private long elevationMicros;
+    private double averageElevationM;
+    private double smoothedElevationM;
+    private double gainM;
+    private double lossM;
+
+    // Series
+    private long sampleMicros;
+    private final double[] sampleDistances;
+    private final double[] sampleElevationSums;
+    private final int[] sampleElevationCounts;
+
+    private boolean hasPrevious;
+    private long firstMicros;
+    private long previousMicros;
+    private double previousLat;
+    private double previousLon;
+
+    public WalkProfileBuilder(double splitDistanceM, double hysteresisM, int sampleIntervalS, int maxSamples) {
+        this.splitDistanceM = splitDistanceM;
+        this.hysteresisM = hysteresisM;
+        // An even count, so that samples always merge in pairs
+        this.maxSamples = Math.max(2, maxSamples & ~1);
+        this.sampleMicros = Math.max(1, sampleIntervalS) * 1_000_000L;
+        this.sampleDistances = new double[this.maxSamples];
+        this.sampleElevationSums = new double[this.maxSamples];
+        this.sampleElevationCounts = new int[this.maxSamples];
+        this.nextSplitAtM = splitDistanceM;
+    }
+
+    /**
+     * Add the next point of the walk
+     * @param lat latitude in degrees
+     * @param lon longitude in degrees
+     * @param elevationM elevation in meters, NaN when unknown
+     * @param timestampMicros timestamp in WalkTrack's microseconds, not before the previous point's
+     */
+    public void add(double lat, double lon, double elevationM, long timestampMicros) {
+        double segmentM = 0.0;
+        if (hasPrevious) {
+            segmentM = WalkPointFilter.haversineDistance(previousLat, previousLon, lat, lon);
+        } else {
+            hasPrevious = true;
+            firstMicros = timestampMicros;
+            splitStartMicros = timestampMicros;
+        }
+        int sample = sampleOf(timestampMicros);
+
+        if (segmentM > 0.0) {
+            crossSplits(segmentM, timestampMicros);
+            distanceM += segmentM;
+            spreadOverSamples(segmentM, timestampMicros, sample);
+        }
+
+        if (!Double.isNaN(elevationM)) {
+            smoothElevation(elevationM, timestampMicros);
+        }
+        if (hasElevation) {
+            sampleElevationSums[sample] += smoothedElevationM;
+            sampleElevationCounts[sample]++;
+        }
+
+        previousMicros = timestampMicros;
+        previousLat = lat;
+        previousLon = lon;
+    }
+
+    private void crossSplits(double segmentM, long timestampMicros) {
+        while (distanceM + segmentM >= nextSplitAtM) {
+            double crossingMicros = previousMicros
+                    + (nextSplitAtM - distanceM) / segmentM * (timestampMicros - previousMicros);
+            splits.add(split(splitDistanceM, crossingMicros - splitStartMicros));
+            splitStartMicros = crossingMicros;
+            splitStartGainM = gainM;
+            splitStartLossM = lossM;
+            nextSplitAtM += splitDistanceM;
+        }
+    }
+
+    private void smoothElevation(double elevationM, long timestampMicros) {
+        if (!hasElevation) {
+            hasElevation = true;
+            averageElevationM = elevationM;
+            smoothedElevationM = elevationM;
+        } else {
+            // Exponential average weighted by the time since the previous elevation, whatever the sampling rate
+            double weight = 1.0 - Math.exp(-(timestampMicros - elevationMicros) / (ELEVATION_AVERAGE_S * 1_000_000.0));
+            averageElevationM += weight * (elevationM - averageElevationM);
+            if (averageElevationM - smoothedElevationM >= hysteresisM) {
+                gainM += averageElevationM - smoothedElevationM;
+                smoothedElevationM = averageElevationM;
+            } else if (smoothedElevationM - averageElevationM >= hysteresisM) {
+                lossM += smoothedElevationM - averageElevationM;
+                smoothedElevationM = averageElevationM;
+            }
+        }
+        elevationMicros = timestampMicros;
+    }
+
+    private void spreadOverSamples(double segmentM, long timestampMicros, int lastSample) {
+        long spanMicros = timestampMicros - previousMicros;
+        int sample = (int) ((previousMicros - firstMicros) / sampleMicros);
+        if (spanMicros <= 0 || sample == lastSample) {
+            sampleDistances[lastSample] += segmentM;
+            return;
+        }
+        for (; sample <= lastSample; sample++) {
+            long start = Math.max(previousMicros, firstMicros + sample * sampleMicros);
+            long end = Math.min(timestampMicros, firstMicros + (sample + 1) * sampleMicros);
+            sampleDistances[sample] += segmentM * (end - start) / spanMicros;
+        }
+    }
+
+    private int sampleOf(long timestampMicros) {
+        long offset = Math.max(0L, timestampMicros - firstMicros);
+        while (offset / sampleMicros >= maxSamples) {
+            // Merge neighbouring samples: the walk keeps fitting in maxSamples at twice the width
+            int half = maxSamples / 2;
+            for (int i = 0; i < half; i++) {
+                sampleDistances[i] = sampleDistances[2 * i] + sampleDistances[2 * i + 1];
+                sampleElevationSums[i] = sampleElevationSums[2 * i] + sampleElevationSums[2 * i + 1];
+                sampleElevationCounts[i] = sampleElevationCounts[2 * i] + sampleElevationCounts[2 * i + 1];
+            }
+            Arrays.fill(sampleDistances, half, maxSamples, 0.0);
+            Arrays.fill(sampleElevationSums, half, maxSamples, 0.0);
+            Arrays.fill(sampleElevationCounts, half, maxSamples, 0);
+            sampleMicros *= 2;
+        }
+        return (int) (offset / sampleMicros);
+    }
+
+    /**
+     * @return the profile of the points added so far, ending with the split in progress
+     */
+    public WalkProfileResponse build(UUID walkId) {
+        List<WalkSplit> allSplits = new ArrayList<>(splits);
+        double remainderM = distanceM - (nextSplitAtM - splitDistanceM);
+        if (remainderM >= 1.0) {
+            allSplits.add(split(remainderM, previousMicros - splitStartMicros));
+        }
+
+        // Up to the last point; a sample starting at the last point would last no time
+        int samples = hasPrevious ? (int) ((previousMicros - firstMicros + sampleMicros - 1) / sampleMicros) : 0;
+        List<Double> speeds = new ArrayList<>(samples);
+        List<Double> elevations = new ArrayList<>(samples);
+        Double elevation = null;
+        for (int i = 0; i < samples; i++) {
+            // The last sample only lasts until the last point
+            long spanMicros = Math.min(sampleMicros, previousMicros - firstMicros - i * sampleMicros);
+            speeds.add(round(sampleDistances[i] * 3_600_000.0 / spanMicros, 2));
+            // Samples without a point (filtered out, or none sent) keep the smoothed elevation
+            if (sampleElevationCounts[i] > 0) {
+                elevation = round(sampleElevationSums[i] / sampleElevationCounts[i], 1);
+            }
+            elevations.add(elevation);
+        }
+
+        return new WalkProfileResponse(walkId, round(distanceM, 1), round(gainM, 1), round(lossM, 1),
+                allSplits, (int) (sampleMicros / 1_000_000L), speeds, elevations);
+    }
+
+    private WalkSplit split(double splitM, double durationMicros) {
+        double durationS = durationMicros / 1_000_000.0;
+        Integer pace = splitM > 0.0 ? (int) Math.round(durationS * 1000.0 / splitM) : null;
+        double speed = durationS > 0.0 ? round(splitM / durationS * 3.6, 2) : 0.0;
+        return new WalkSplit(splits.size() + 1, round(splitM, 1), (int) Math.round(durationS), pace, speed,
+                round(gainM - splitStartGainM, 1), round(lossM - splitStartLossM, 1));
+    }
+
+    private static double round(double value, int decimals) {
+        double scale = decimals == 1 ? 10.0 : 100.0;
+        return Math.round(value * scale) / scale;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.PrimaryPinRegistry;
+import com.example.pettrail.config.WalkProfileConfig;
+import com.example.pettrail.exception.WalkNotFinishedException;
+import com.example.pettrail.exception.WalkNotFoundException;
+import com.example.pettrail.model.Walk;
+import com.example.pettrail.model.WalkProfile;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.repository.WalkProfileRepository;
+import com.example.pettrail.repository.WalkRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+/**
+ * Splits and speed/elevation profiles of finished walks. A profile is built once, when the walk is
+ * stopped or imported, from points the caller reads anyway, and stored as JSON; reads serve the
+ * stored JSON without touching walk_points. Walks finished before profiles existed, or built by an
+ * older builder version, get theirs on first read.
+ */
+@Service
+public class WalkProfileService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalkProfileService.class);
+
+    // Bump when the builder's output changes; stored profiles of older versions are rebuilt on read
+    static final int VERSION = 1;
+
+    private final WalkRepository walkRepository;
+    private final WalkProfileRepository walkProfileRepository;
+    private final WalkRouteReader walkRouteReader;
+    private final PrimaryPinRegistry primaryPinRegistry;
+    private final WalkProfileConfig profileConfig;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    @Autowired
+    public WalkProfileService(WalkRepository walkRepository, WalkProfileRepository walkProfileRepository,
+                              WalkRouteReader walkRouteReader, PrimaryPinRegistry primaryPinRegistry,
+                              WalkProfileConfig profileConfig, ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager) {
+        this.walkRepository = walkRepository;
+        this.walkProfileRepository = walkProfileRepository;
+        this.walkRouteReader = walkRouteReader;
+        this.primaryPinRegistry = primaryPinRegistry;
+        this.profileConfig = profileConfig;
+        this.objectMapper = objectMapper;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return a builder with the configured split distance, hysteresis and sampling
+     */
+    public WalkProfileBuilder newBuilder() {
+        return new WalkProfileBuilder(profileConfig.getSplitDistanceM(), profileConfig.getElevationHysteresisM(),
+                profileConfig.getSampleIntervalS(), profileConfig.getMaxSamples());
+    }
+
+    /**
+     * Build and store the profile of a walk from its points, in the caller's transaction
+     * @param walkId the walk ID
+     * @param points the walk's points, ordered by timestamp
+     * @return the stored JSON
+     */
+    public String save(UUID walkId, WalkTrack points) {
+        WalkProfileBuilder builder = newBuilder();
+        for (int i = 0; i < points.size(); i++) {
+            builder.add(points.latitude(i), points.longitude(i), points.elevation(i), points.timestampMicros(i));
+        }
+        return save(walkId, builder);
+    }
+
+    /**
+     * Store the profile of a walk fed to a builder point by point, in the caller's transaction
+     * @param walkId the walk ID
+     * @param builder the builder that saw all of the walk's points
+     * @return the stored JSON
+     */
+    public String save(UUID walkId, WalkProfileBuilder builder) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(builder.build(walkId));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize the profile of walk " + walkId, e);
+        }
+        walkProfileRepository.upsert(walkId, VERSION, data);
+        return data;
+    }
+
+    /**
+     * Get the profile of a finished walk as JSON (a WalkProfileResponse)
+     * @param walkId the walk ID
+     * @return the profile JSON
+     * @throws WalkNotFoundException if walk doesn't exist
+     * @throws WalkNotFinishedException if the walk is still active
+     */
+    public String getProfileJson(UUID walkId) {
+        String stored = readTransaction.execute(status -> {
+            primaryPinRegistry.routeToPrimaryIfPinned(walkId);
+            return walkProfileRepository.findById(walkId)
+                    .filter(profile -> profile.getVersion() == VERSION)
+                    .map(WalkProfile::getData)
+                    .orElse(null);
+        });
+        if (stored != null) {
+            return stored;
+        }
+
+        return writeTransaction.execute(status -> {
+            Walk walk = requireFinishedWalk(walkId);
+            logger.debug("Building the missing profile of walk {}", walkId);
+            return save(walkId, walkRouteReader.readTrack(walk));
+        });
+    }
+
+    /**
+     * Get the entity tag of a walk's profile, which never changes once the walk is finished
+     * @param walkId the walk ID
+     * @return the tag
+     * @throws WalkNotFoundException if walk doesn't exist
+     * @throws WalkNotFinishedException if the walk is still active
+     */
+    public String getProfileETag(UUID walkId) {
+        Walk walk = readTransaction.execute(status -> {
+            primaryPinRegistry.routeToPrimaryIfPinned(walkId);
+            return requireFinishedWalk(walkId);
+        });
+        // Weak, like the GeoJSON tag, so the response can still be compressed
+        return "W/\"p" + VERSION + '-' + Long.toHexString(WalkTrack.toEpochMicros(walk.getFinishedAt())) + '"';
+    }
+
+    private Walk requireFinishedWalk(UUID walkId) {
+        Walk walk = walkRepository.findById(walkId)
+                .orElseThrow(() -> new WalkNotFoundException("Walk not found with ID: " + walkId));
+        if (walk.isActive()) {
+            throw new WalkNotFinishedException("walk not finished");
+        }
+        return walk;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.RouteCacheConfig;
+import com.example.pettrail.enums.InvalidationType;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.model.WalkTrackCodec;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Routes of finished walks, kept in the compact WalkTrackCodec encoding (a few bytes per point)
+ * and bounded by their total size. Caffeine's W-TinyLFU eviction keeps frequently viewed walks,
+ * such as shared ones, over a burst of one-off views. Callers must only pass finished walks and
+ * look the walk up first: that lookup is what hides deleted walks until CacheInvalidationBus tells
+ * the other instances to drop them.
+ */
+@Component
+public class WalkRouteCache implements CacheInvalidationListener {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 96; // Key, buffer object and cache node
+
+    private final boolean enabled;
+    private final boolean offHeap;
+    private final Cache<UUID, ByteBuffer> cache;
+
+    @Autowired
+    public WalkRouteCache(RouteCacheConfig config, MeterRegistry meterRegistry) {
+        this(config, meterRegistry, ForkJoinPool.commonPool());
+    }
+
+    // The executor runs Caffeine's maintenance, e.g. updating the weighted size after a put
+    WalkRouteCache(RouteCacheConfig config, MeterRegistry meterRegistry, Executor executor) {
+        this.enabled = config.isEnabled() && config.getMaxBytes() > 0;
+        this.offHeap = config.isOffHeap();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(Math.max(0, config.getMaxBytes()))
+                .weigher((UUID walkId, ByteBuffer route) -> route.capacity() + ENTRY_OVERHEAD_BYTES)
+                .recordStats()
+                .executor(executor)
+                .build();
+
+        // cache.gets{result=hit|miss}, cache.evictions, ... tagged cache=walkRoutes
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "walkRoutes");
+        Gauge.builder("pettrail.route.cache.bytes", cache,
+                        c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                .description("Encoded size of the cached routes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get the route of a finished walk, loading and caching it on a miss
+     * @param walkId the walk ID
+     * @param loader reads the route from the database or the archive
+     * @return the route; a new instance on every call
+     */
+    public WalkTrack get(UUID walkId, Supplier<WalkTrack> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        ByteBuffer encoded = cache.getIfPresent(walkId);
+        if (encoded != null) {
+            return WalkTrackCodec.decode(encoded);
+        }
+        // Loaded outside the cache: Caffeine's get(key, loader) would hold a map lock during the query.
+        // Concurrent misses for one walk may both load it, the later put wins with the same content
+        WalkTrack track = loader.get();
+        cache.put(walkId, encode(track));
+        return track;
+    }
+
+    /**
+     * Get the cached route of a finished walk without loading it on a miss
+     * @param walkId the walk ID
+     * @return the route, a new instance on every call, or null if not cached
+     */
+    public WalkTrack getIfPresent(UUID walkId) {
+        if (!enabled) {
+            return null;
+        }
+        ByteBuffer encoded = cache.getIfPresent(walkId);
+        return encoded != null ? WalkTrackCodec.decode(encoded) : null;
+    }
+
+    /**
+     * Drop the routes of deleted walks
+     * @param walkIds the walk IDs
+     */
+    public void invalidateAll(Collection<UUID> walkIds) {
+        cache.invalidateAll(walkIds);
+    }
+
+    @Override
+    public void invalidate(InvalidationType type, List<UUID> ids) {
+        if (type == InvalidationType.WALKS_DELETED) {
+            cache.invalidateAll(ids);
+        }
+    }
+
+    @Override
+    public void flush() {
+        cache.invalidateAll();
+    }
+
+    private ByteBuffer encode(WalkTrack track) {
+        WalkTrackCodec.Buffer out = new WalkTrackCodec.Buffer(16 + track.size() * 8);
+        WalkTrackCodec.encode(track, out);
+        if (offHeap) {
+            ByteBuffer direct = ByteBuffer.allocateDirect(out.length());
+            direct.put(out.array(), 0, out.length()).flip();
+            return direct;
+        }
+        return ByteBuffer.wrap(Arrays.copyOf(out.array(), out.length()));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.model.Walk;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.repository.WalkArchiveRepository;
+import com.example.pettrail.repository.WalkPointTrackReader;
+import com.example.pettrail.repository.WalkRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+/**
+ * Loads the route of a walk from walk_points or, once archived, from its archive segment.
+ * Routes of finished walks never change and go through the route cache.
+ */
+@Service
+public class WalkRouteReader {
+
+    private final WalkRepository walkRepository;
+    private final WalkPointTrackReader walkPointTrackReader;
+    private final WalkArchiveRepository walkArchiveRepository;
+    private final WalkRouteCache walkRouteCache;
+
+    @Autowired
+    public WalkRouteReader(WalkRepository walkRepository, WalkPointTrackReader walkPointTrackReader,
+                           WalkArchiveRepository walkArchiveRepository, WalkRouteCache walkRouteCache) {
+        this.walkRepository = walkRepository;
+        this.walkPointTrackReader = walkPointTrackReader;
+        this.walkArchiveRepository = walkArchiveRepository;
+        this.walkRouteCache = walkRouteCache;
+    }
+
+    /**
+     * Read the route of a walk, ordered by timestamp
+     * @param walk the walk
+     * @return the route (empty if the walk has no points)
+     */
+    public WalkTrack readTrack(Walk walk) {
+        if (walk.isActive()) {
+            return load(walk);
+        }
+        return walkRouteCache.get(walk.getId(), () -> load(walk));
+    }
+
+    /**
+     * Read the route of a finished walk without filling the route cache, for bulk reads (exports)
+     * that would otherwise evict the routes users are looking at
+     * @param walkId the walk ID
+     * @param archiveSegment the walk's archive segment as last read, null if not archived
+     * @return the route (empty if the walk has no points)
+     */
+    public WalkTrack readFinishedTrackUncached(UUID walkId, String archiveSegment) {
+        WalkTrack cached = walkRouteCache.getIfPresent(walkId);
+        return cached != null ? cached : load(walkId, archiveSegment, false);
+    }
+
+    private WalkTrack load(Walk walk) {
+        return load(walk.getId(), walk.getArchiveSegment(), walk.isActive());
+    }
+
+    private WalkTrack load(UUID walkId, String archiveSegment, boolean active) {
+        if (archiveSegment != null) {
+            return readArchived(archiveSegment, walkId);
+        }
+        WalkTrack track = walkPointTrackReader.readTrack(walkId);
+        if (track.isEmpty() && !active) {
+            // The archiver may have moved the points after the walk row was loaded
+            String segment = walkRepository.findArchiveSegmentById(walkId);
+            if (segment != null) {
+                return readArchived(segment, walkId);
+            }
+        }
+        return track;
+    }
+
+    private WalkTrack readArchived(String segment, UUID walkId) {
+        try {
+            return walkArchiveRepository.readTrack(segment, walkId);
+        } catch (IOException e) {
+            // Compaction may have moved the route to a new segment after the walk row was loaded
+            String current = walkRepository.findArchiveSegmentById(walkId);
+            if (current != null && !current.equals(segment)) {
+                try {
+                    return walkArchiveRepository.readTrack(current, walkId);
+                } catch (IOException retryFailure) {
+                    e.addSuppressed(retryFailure);
+                }
+            }
+            throw new UncheckedIOException("Cannot read archived route of walk " + walkId, e);
+        }
+    }
+}
@@ -1,20 +1,22 @@
 package com.example.pettrail.service;
 
+import com.example.pettrail.config.PrimaryPinRegistry;
 import com.example.pettrail.dto.StartWalkResponse;
 import com.example.pettrail.dto.StopWalkResponse;
 import com.example.pettrail.dto.WalksPageResponse;
 import com.example.pettrail.dto.WalkListItem;
 import com.example.pettrail.dto.WalkGeoJsonResponse;
+import com.example.pettrail.enums.InvalidationType;
 import com.example.pettrail.exception.PetNotFoundException;
 import com.example.pettrail.exception.ActiveWalkExistsException;
 import com.example.pettrail.exception.WalkNotFoundException;
 import com.example.pettrail.exception.WalkFinishedException;
 import com.example.pettrail.model.Walk;
-import com.example.pettrail.model.WalkPoint;
+import com.example.pettrail.model.UuidV7Generator;
+import com.example.pettrail.model.WalkTrack;
 import com.example.pettrail.model.User;
 import com.example.pettrail.repository.PetRepository;
 import com.example.pettrail.repository.WalkRepository;
-import com.example.pettrail.repository.WalkPointRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,6 +32,7 @@ import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -45,14 +48,31 @@ public class WalkService {
     
     private final PetRepository petRepository;
     private final WalkRepository walkRepository;
-    private final WalkPointRepository walkPointRepository;
+    private final PrimaryPinRegistry primaryPinRegistry;
+    private final WalkRouteReader walkRouteReader;
+    private final WalkPointFilterRegistry walkPointFilterRegistry;
+    private final WalkLockRegistry walkLockRegistry;
+    private final ActiveWalkRegistry activeWalkRegistry;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final WalkProfileService walkProfileService;
     private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
+    private static final int GEOJSON_ETAG_VERSION = 2;
 
     @Autowired
-    public WalkService(PetRepository petRepository, WalkRepository walkRepository, WalkPointRepository walkPointRepository) {
+    public WalkService(PetRepository petRepository, WalkRepository walkRepository,
+                       PrimaryPinRegistry primaryPinRegistry, WalkRouteReader walkRouteReader,
+                       WalkPointFilterRegistry walkPointFilterRegistry, WalkLockRegistry walkLockRegistry,
+                       ActiveWalkRegistry activeWalkRegistry, CacheInvalidationBus cacheInvalidationBus,
+                       WalkProfileService walkProfileService) {
         this.petRepository = petRepository;
         this.walkRepository = walkRepository;
-        this.walkPointRepository = walkPointRepository;
+        this.primaryPinRegistry = primaryPinRegistry;
+        this.walkRouteReader = walkRouteReader;
+        this.walkPointFilterRegistry = walkPointFilterRegistry;
+        this.walkLockRegistry = walkLockRegistry;
+        this.activeWalkRegistry = activeWalkRegistry;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.walkProfileService = walkProfileService;
     }
 
     /**
@@ -68,24 +88,32 @@ public class WalkService {
         User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         UUID userId = currentUser.getId();
         
+        // A known active walk of the user's pet answers without a query
+        ActiveWalk active = activeWalkRegistry.findActiveByPet(petId);
+        if (active != null && active.getUserId().equals(userId)) {
+            throw new ActiveWalkExistsException("caminhada ativa já existe");
+        }
+
         // Check if pet exists and belongs to the current user
         if (!petRepository.existsByIdAndUserId(petId, userId)) {
             throw new PetNotFoundException("Pet not found with ID: " + petId);
         }
 
-        // Check if there's already an active walk for this pet
-        if (walkRepository.existsActiveWalkByPetId(petId)) {
+        // Create new walk with server time, unless there's already an active walk for this pet
+        LocalDateTime now = LocalDateTime.now();
+        Walk walk = new Walk(petId, userId, now);
+        walk.setId(UuidV7Generator.next());
+        if (walkRepository.insertUnlessActive(walk.getId(), petId, userId, now) == 0) {
             throw new ActiveWalkExistsException("caminhada ativa já existe");
         }
+        activeWalkRegistry.started(walk);
 
-        // Create new walk with server time
-        LocalDateTime now = LocalDateTime.now();
-        Walk walk = new Walk(petId, userId, now);
-        Walk savedWalk = walkRepository.save(walk);
+        // Keep the pet's walk list on the primary until replicas have the new walk
+        primaryPinRegistry.pin(petId);
 
         // Return response with walk ID and ISO-8601 formatted start time
         String startedAt = now.format(ISO_FORMATTER);
-        return new StartWalkResponse(savedWalk.getId(), startedAt);
+        return new StartWalkResponse(walk.getId(), startedAt);
     }
 
     /**
@@ -97,6 +125,9 @@ public class WalkService {
      */
     @Transactional
     public StopWalkResponse stopWalk(UUID walkId) {
+        // Wait for point batches in flight: metrics must include every stored point
+        walkLockRegistry.lock(walkId);
+
         // Find the walk
         Walk walk = walkRepository.findById(walkId)
                 .orElseThrow(() -> new WalkNotFoundException("Walk not found with ID: " + walkId));
@@ -106,49 +137,103 @@ public class WalkService {
             throw new WalkFinishedException("walk already finished");
         }
 
-        // Get all accepted points for the walk (ordered by timestamp)
-        List<WalkPoint> points = walkPointRepository.findByWalkIdOrderByTimestamp(UUID.fromString(walkId.toString()));
+        Walk savedWalk = finish(walk, walkRouteReader.readTrack(walk), LocalDateTime.now());
+
+        // Just-stopped walks are usually viewed right away: read them from the primary for a while
+        primaryPinRegistry.pin(walkId, walk.getPetId());
+
+        logger.info("Walk {} stopped: distance={}m, duration={}s, avg_speed={}km/h",
+                walkId, savedWalk.getDistanciaM(), savedWalk.getDuracaoS(), savedWalk.getVelMediaKmh());
         
+        return new StopWalkResponse(
+                savedWalk.getId(),
+                savedWalk.getDistanciaM(),
+                savedWalk.getDuracaoS(),
+                savedWalk.getVelMediaKmh(),
+                toSeconds(savedWalk.getTempoMovimentoMs()),
+                toSeconds(savedWalk.getTempoParadoMs()),
+                savedWalk.getVelMovimentoKmh(),
+                savedWalk.getStartedAt(),
+                savedWalk.getFinishedAt()
+        );
+    }
+
+    /**
+     * Finish a walk that got no points since the cutoff (its owner forgot to stop it), as if it had
+     * been stopped at its last point, or at its start if it has none
+     * @param walkId the walk ID
+     * @param idleSince the cutoff: the walk's last point must be older
+     * @return true if the walk was finished; false if it is gone, already finished or got points since
+     */
+    @Transactional
+    public boolean finishIdleWalk(UUID walkId, LocalDateTime idleSince) {
+        walkLockRegistry.lock(walkId);
+
+        Walk walk = walkRepository.findById(walkId).orElse(null);
+        if (walk == null || walk.getFinishedAt() != null) {
+            return false;
+        }
+        WalkTrack points = walkRouteReader.readTrack(walk);
+        LocalDateTime lastActivity = points.isEmpty() ? walk.getStartedAt() : points.timestamp(points.size() - 1);
+        if (!lastActivity.isBefore(idleSince)) {
+            return false;
+        }
+
+        // A point stamped before the start (device clock) must not make the duration negative
+        Walk savedWalk = finish(walk, points,
+                lastActivity.isBefore(walk.getStartedAt()) ? walk.getStartedAt() : lastActivity);
+        logger.info("Idle walk {} finished at its last point {}: distance={}m, duration={}s, avg_speed={}km/h",
+                walkId, savedWalk.getFinishedAt(), savedWalk.getDistanciaM(), savedWalk.getDuracaoS(),
+                savedWalk.getVelMediaKmh());
+        return true;
+    }
+
+    /**
+     * Mark an active walk finished and store its consolidated metrics. The caller holds the walk lock.
+     * @param walk the active walk
+     * @param points the walk's points, ordered by timestamp
+     * @param finishedAt the end of the walk
+     * @return the saved walk
+     */
+    private Walk finish(Walk walk, WalkTrack points, LocalDateTime finishedAt) {
+        // Uploads waiting for the walk lock are rejected without a query once it is released
+        activeWalkRegistry.finishing(walk);
+        cacheInvalidationBus.publish(InvalidationType.WALK_STOPPED, List.of(walk.getId()));
+
         // Calculate total distance using Haversine formula
         double totalDistanceM = calculateTotalDistance(points);
-        
-        // Set finished time to current server time
-        LocalDateTime finishedAt = LocalDateTime.now();
-        
+
         // Calculate duration in seconds
         int duracaoS = (int) Duration.between(walk.getStartedAt(), finishedAt).getSeconds();
-        
+
         // Calculate average speed in km/h
         double velMediaKmh = calculateAverageSpeed(totalDistanceM, duracaoS);
-        
+
         // Update walk with metrics
         walk.setFinishedAt(finishedAt);
         walk.setDistanciaM(totalDistanceM);
         walk.setDuracaoS(duracaoS);
         walk.setVelMediaKmh(velMediaKmh);
-        
-        // Save the updated walk
+        // Moving and stopped time were accumulated by the uploads (see WalkMotionSegmenter)
+        if (walk.getTempoMovimentoMs() != null) {
+            walk.setVelMovimentoKmh(calculateAverageSpeed(walk.getDistanciaMovimentoM(),
+                    (int) (walk.getTempoMovimentoMs() / 1000)));
+        }
         Walk savedWalk = walkRepository.save(walk);
-        
-        logger.info("Walk {} stopped: distance={}m, duration={}s, avg_speed={}km/h", 
-                walkId, totalDistanceM, duracaoS, velMediaKmh);
-        
-        return new StopWalkResponse(
-                savedWalk.getId(),
-                savedWalk.getDistanciaM(),
-                savedWalk.getDuracaoS(),
-                savedWalk.getVelMediaKmh(),
-                savedWalk.getStartedAt(),
-                savedWalk.getFinishedAt()
-        );
+        // Splits and profile from the points read for the distance; the profile endpoint serves them as stored
+        walkProfileService.save(walk.getId(), points);
+
+        // No more points can arrive
+        walkPointFilterRegistry.evict(walk.getId());
+        return savedWalk;
     }
 
     /**
      * Calculate total distance using Haversine formula between consecutive points
-     * @param points list of walk points ordered by timestamp
+     * @param points walk points ordered by timestamp
      * @return total distance in meters
      */
-    private double calculateTotalDistance(List<WalkPoint> points) {
+    private double calculateTotalDistance(WalkTrack points) {
         if (points.size() < 2) {
             return 0.0;
         }
@@ -156,14 +241,11 @@ public class WalkService {
         double totalDistance = 0.0;
         
         for (int i = 1; i < points.size(); i++) {
-            WalkPoint prev = points.get(i - 1);
-            WalkPoint curr = points.get(i);
-            
             double distance = calculateHaversineDistance(
-                    prev.getLatitude().doubleValue(),
-                    prev.getLongitude().doubleValue(),
-                    curr.getLatitude().doubleValue(),
-                    curr.getLongitude().doubleValue()
+                    points.latitude(i - 1),
+                    points.longitude(i - 1),
+                    points.latitude(i),
+                    points.longitude(i)
             );
             
             totalDistance += distance;
@@ -172,6 +254,10 @@ public class WalkService {
         return totalDistance;
     }
 
+    private static Integer toSeconds(Long millis) {
+        return millis != null ? (int) (millis / 1000) : null;
+    }
+
     /**
      * Calculate average speed in km/h
      * @param distanceM distance in meters
@@ -231,12 +317,15 @@ public class WalkService {
      */
     @Transactional(readOnly = true)
     public WalksPageResponse listByPet(UUID petId, int page, int size) {
+        primaryPinRegistry.routeToPrimaryIfPinned(petId);
+
         // Get current user from security context
         User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         UUID userId = currentUser.getId();
         
-        // Check if pet exists and belongs to the current user
-        if (!petRepository.existsByIdAndUserId(petId, userId)) {
+        // Check if pet exists and belongs to the current user (a known active walk of theirs proves it)
+        ActiveWalk active = activeWalkRegistry.findActiveByPet(petId);
+        if ((active == null || !active.getUserId().equals(userId)) && !petRepository.existsByIdAndUserId(petId, userId)) {
             throw new PetNotFoundException("Pet not found with ID: " + petId);
         }
 
@@ -254,7 +343,10 @@ public class WalkService {
                         walk.getFinishedAt(),
                         walk.getDistanciaM(),
                         walk.getDuracaoS(),
-                        walk.getVelMediaKmh()
+                        walk.getVelMediaKmh(),
+                        toSeconds(walk.getTempoMovimentoMs()),
+                        toSeconds(walk.getTempoParadoMs()),
+                        walk.getVelMovimentoKmh()
                 ))
                 .collect(Collectors.toList());
         
@@ -275,25 +367,44 @@ public class WalkService {
      */
     @Transactional(readOnly = true)
     public WalkGeoJsonResponse getGeoJson(UUID walkId) {
+        primaryPinRegistry.routeToPrimaryIfPinned(walkId);
+
         // Check if walk exists
-        if (!walkRepository.existsById(walkId)) {
-            throw new WalkNotFoundException("Walk not found with ID: " + walkId);
-        }
+        Walk walk = walkRepository.findById(walkId)
+                .orElseThrow(() -> new WalkNotFoundException("Walk not found with ID: " + walkId));
 
-        // Get all accepted points for the walk (ordered by timestamp)
-        List<WalkPoint> points = walkPointRepository.findByWalkIdOrderByTimestamp(walkId);
+        // Get all accepted points for the walk (ordered by timestamp), from the database or the archive
+        WalkTrack track = walkRouteReader.readTrack(walk);
         
         // Convert points to GeoJSON coordinates [lon, lat] format
-        List<List<Double>> coordinates = points.stream()
-                .map(point -> List.of(
-                        point.getLongitude().doubleValue(),
-                        point.getLatitude().doubleValue()
-                ))
-                .collect(Collectors.toList());
+        List<List<Double>> coordinates = new ArrayList<>(track.size());
+        for (int i = 0; i < track.size(); i++) {
+            coordinates.add(List.of(track.longitude(i), track.latitude(i)));
+        }
         
         return new WalkGeoJsonResponse(walkId, coordinates);
     }
 
+    /**
+     * Get the entity tag of a walk's GeoJSON, which only changes until the walk is finished
+     * @param walkId the walk ID
+     * @return the tag, or null while the walk is active
+     * @throws WalkNotFoundException if walk doesn't exist
+     */
+    @Transactional(readOnly = true)
+    public String getGeoJsonETag(UUID walkId) {
+        primaryPinRegistry.routeToPrimaryIfPinned(walkId);
+
+        Walk walk = walkRepository.findById(walkId)
+                .orElseThrow(() -> new WalkNotFoundException("Walk not found with ID: " + walkId));
+        if (walk.getFinishedAt() == null) {
+            return null;
+        }
+        // Bump the version when the GeoJSON of a finished walk can change (format, stored precision).
+        // Weak: Tomcat doesn't compress responses with a strong tag, and If-None-Match compares weakly anyway
+        return "W/\"g" + GEOJSON_ETAG_VERSION + '-' + Long.toHexString(WalkTrack.toEpochMicros(walk.getFinishedAt())) + '"';
+    }
+
     /**
      * Get the active walk for a pet
      * @param petId the pet ID
@@ -305,6 +416,12 @@ public class WalkService {
         User currentUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         UUID userId = currentUser.getId();
         
+        // A known active walk of the user's pet answers without a query
+        ActiveWalk active = activeWalkRegistry.findActiveByPet(petId);
+        if (active != null && active.getUserId().equals(userId)) {
+            return new StartWalkResponse(active.getWalkId(), active.getStartedAt().format(ISO_FORMATTER));
+        }
+
         // Check if pet exists and belongs to the current user
         if (!petRepository.existsByIdAndUserId(petId, userId)) {
             throw new PetNotFoundException("Pet not found with ID: " + petId);
@@ -315,6 +432,7 @@ public class WalkService {
         
         if (activeWalk.isPresent()) {
             Walk walk = activeWalk.get();
+            activeWalkRegistry.remember(walk);
             String startedAt = walk.getStartedAt().format(ISO_FORMATTER);
             return new StartWalkResponse(walk.getId(), startedAt);
         }
@@ -0,0 +1,18 @@
+package com.example.pettrail.service.exporter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Stored timestamps have no zone and are in the server's zone (see the importer); exports write
+ * them as UTC instants so GPX consumers and re-imports read the same moment
+ */
+final class ExportTimestamps {
+
+    private ExportTimestamps() {
+    }
+
+    static String format(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toString();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.pettrail.service.exporter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Header of a walk being exported; the route follows as individual points
+ */
+public final class ExportedWalk {
+
+    private final UUID id;
+    private final UUID petId;
+    private final String petName;
+    private final LocalDateTime startedAt;
+    private final LocalDateTime finishedAt;
+    private final Double distanciaM;
+    private final Integer duracaoS;
+    private final Double velMediaKmh;
+
+    public ExportedWalk(UUID id, UUID petId, String petName, LocalDateTime startedAt, LocalDateTime finishedAt,
+                        Double distanciaM, Integer duracaoS, Double velMediaKmh) {
+        this.id = id;
+        this.petId = petId;
+        this.petName = petName;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.distanciaM = distanciaM;
+        this.duracaoS = duracaoS;
+        this.velMediaKmh = velMediaKmh;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getPetId() {
+        return petId;
+    }
+
+    public String getPetName() {
+        return petName;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Double getDistanciaM() {
+        return distanciaM;
+    }
+
+    public Integer getDuracaoS() {
+        return duracaoS;
+    }
+
+    public Double getVelMediaKmh() {
+        return velMediaKmh;
+    }
+}
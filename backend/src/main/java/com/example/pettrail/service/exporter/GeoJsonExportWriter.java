@@ -0,0 +1,117 @@
+package com.example.pettrail.service.exporter;
+
+import com.example.pettrail.model.WalkTrack;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * GeoJSON FeatureCollection with one LineString feature per walk. Coordinates are [lon, lat] or
+ * [lon, lat, elevation]; the point times follow in properties.coordTimes, which is why the times
+ * of the current walk (and only those) are buffered.
+ */
+public class GeoJsonExportWriter implements WalkExportWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final JsonGenerator json;
+    private ExportedWalk walk;
+    private long[] timesMicros = new long[1024];
+    private int pointCount;
+    private boolean started;
+
+    public GeoJsonExportWriter(OutputStream out) throws IOException {
+        this.json = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+    }
+
+    @Override
+    public void startWalk(ExportedWalk walk) throws IOException {
+        startDocument();
+        this.walk = walk;
+        this.pointCount = 0;
+        json.writeStartObject();
+        json.writeStringField("type", "Feature");
+        json.writeStringField("id", walk.getId().toString());
+        json.writeObjectFieldStart("geometry");
+        json.writeStringField("type", "LineString");
+        json.writeArrayFieldStart("coordinates");
+    }
+
+    @Override
+    public void point(double latitude, double longitude, double elevation, LocalDateTime timestamp) throws IOException {
+        json.writeStartArray();
+        json.writeNumber(longitude);
+        json.writeNumber(latitude);
+        if (!Double.isNaN(elevation)) {
+            json.writeNumber(elevation);
+        }
+        json.writeEndArray();
+
+        if (pointCount == timesMicros.length) {
+            timesMicros = Arrays.copyOf(timesMicros, pointCount * 2);
+        }
+        timesMicros[pointCount++] = WalkTrack.toEpochMicros(timestamp);
+    }
+
+    @Override
+    public void endWalk() throws IOException {
+        json.writeEndArray(); // coordinates
+        json.writeEndObject(); // geometry
+
+        json.writeObjectFieldStart("properties");
+        json.writeStringField("walkId", walk.getId().toString());
+        json.writeStringField("petId", walk.getPetId().toString());
+        json.writeStringField("petName", walk.getPetName());
+        json.writeStringField("startedAt", ExportTimestamps.format(walk.getStartedAt()));
+        json.writeStringField("finishedAt", walk.getFinishedAt() != null ? ExportTimestamps.format(walk.getFinishedAt()) : null);
+        writeNumberField("distanciaM", walk.getDistanciaM());
+        if (walk.getDuracaoS() != null) {
+            json.writeNumberField("duracaoS", walk.getDuracaoS());
+        } else {
+            json.writeNullField("duracaoS");
+        }
+        writeNumberField("velMediaKmh", walk.getVelMediaKmh());
+        json.writeArrayFieldStart("coordTimes");
+        for (int i = 0; i < pointCount; i++) {
+            json.writeString(ExportTimestamps.format(WalkTrack.fromEpochMicros(timesMicros[i])));
+        }
+        json.writeEndArray();
+        json.writeEndObject(); // properties
+
+        json.writeEndObject(); // feature
+        walk = null;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        startDocument();
+        json.writeEndArray(); // features
+        json.writeEndObject();
+        json.flush();
+        json.close(); // AUTO_CLOSE_TARGET is off, the underlying stream stays open
+    }
+
+    private void startDocument() throws IOException {
+        if (started) {
+            return;
+        }
+        started = true;
+        json.writeStartObject();
+        json.writeStringField("type", "FeatureCollection");
+        json.writeArrayFieldStart("features");
+    }
+
+    private void writeNumberField(String name, Double value) throws IOException {
+        if (value != null) {
+            json.writeNumberField(name, value);
+        } else {
+            json.writeNullField(name);
+        }
+    }
+}
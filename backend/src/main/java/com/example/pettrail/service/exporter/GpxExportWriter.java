@@ -0,0 +1,103 @@
+package com.example.pettrail.service.exporter;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * GPX 1.1 document with one track per walk
+ */
+public class GpxExportWriter implements WalkExportWriter {
+
+    private static final String NAMESPACE = "http://www.topografix.com/GPX/1/1";
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+    private static final DateTimeFormatter NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final XMLStreamWriter xml;
+    private boolean started;
+
+    public GpxExportWriter(OutputStream out) throws IOException {
+        try {
+            this.xml = OUTPUT_FACTORY.createXMLStreamWriter(out, "UTF-8");
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot create GPX writer", e);
+        }
+    }
+
+    @Override
+    public void startWalk(ExportedWalk walk) throws IOException {
+        try {
+            startDocument();
+            xml.writeStartElement("trk");
+            writeElement("name", walk.getPetName() + " " + walk.getStartedAt().format(NAME_FORMATTER));
+            writeElement("src", "PetTrail walk " + walk.getId());
+            writeElement("type", "walk");
+            xml.writeStartElement("trkseg");
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot write GPX", e);
+        }
+    }
+
+    @Override
+    public void point(double latitude, double longitude, double elevation, LocalDateTime timestamp) throws IOException {
+        try {
+            xml.writeStartElement("trkpt");
+            // xsd:decimal does not allow the exponent notation Double.toString may produce
+            xml.writeAttribute("lat", BigDecimal.valueOf(latitude).toPlainString());
+            xml.writeAttribute("lon", BigDecimal.valueOf(longitude).toPlainString());
+            if (!Double.isNaN(elevation)) {
+                writeElement("ele", BigDecimal.valueOf(elevation).toPlainString());
+            }
+            writeElement("time", ExportTimestamps.format(timestamp));
+            xml.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot write GPX", e);
+        }
+    }
+
+    @Override
+    public void endWalk() throws IOException {
+        try {
+            xml.writeEndElement(); // trkseg
+            xml.writeEndElement(); // trk
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot write GPX", e);
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        try {
+            startDocument();
+            xml.writeEndElement(); // gpx
+            xml.writeEndDocument();
+            xml.flush();
+            xml.close(); // Does not close the underlying stream
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot write GPX", e);
+        }
+    }
+
+    private void startDocument() throws XMLStreamException {
+        if (started) {
+            return;
+        }
+        started = true;
+        xml.writeStartDocument("UTF-8", "1.0");
+        xml.writeStartElement("gpx");
+        xml.writeDefaultNamespace(NAMESPACE);
+        xml.writeAttribute("version", "1.1");
+        xml.writeAttribute("creator", "PetTrail");
+    }
+
+    private void writeElement(String name, String text) throws XMLStreamException {
+        xml.writeStartElement(name);
+        xml.writeCharacters(text);
+        xml.writeEndElement();
+    }
+}
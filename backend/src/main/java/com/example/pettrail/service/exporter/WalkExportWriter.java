@@ -0,0 +1,25 @@
+package com.example.pettrail.service.exporter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Writes walks to an output stream as they are read, one point at a time. Implementations keep
+ * at most one walk in memory.
+ */
+public interface WalkExportWriter {
+
+    void startWalk(ExportedWalk walk) throws IOException;
+
+    /**
+     * @param elevation metres, or NaN when unknown
+     */
+    void point(double latitude, double longitude, double elevation, LocalDateTime timestamp) throws IOException;
+
+    void endWalk() throws IOException;
+
+    /**
+     * Complete the document and flush it; the underlying stream is left open
+     */
+    void finish() throws IOException;
+}
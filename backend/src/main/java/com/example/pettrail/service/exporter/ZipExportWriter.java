@@ -0,0 +1,60 @@
+package com.example.pettrail.service.exporter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * ZIP archive with one GPX file per walk, each compressed as it is written
+ */
+public class ZipExportWriter implements WalkExportWriter {
+
+    private static final DateTimeFormatter ENTRY_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd_HHmm");
+
+    private final ZipOutputStream zip;
+    private final BufferedOutputStream entryBuffer; // Deflater calls per small XML write are costly
+    private GpxExportWriter entry;
+
+    public ZipExportWriter(OutputStream out) {
+        this.zip = new ZipOutputStream(out);
+        this.entryBuffer = new BufferedOutputStream(zip, 1 << 16);
+    }
+
+    @Override
+    public void startWalk(ExportedWalk walk) throws IOException {
+        ZipEntry zipEntry = new ZipEntry(entryName(walk));
+        zipEntry.setTimeLocal(walk.getStartedAt());
+        zip.putNextEntry(zipEntry);
+        entry = new GpxExportWriter(entryBuffer);
+        entry.startWalk(walk);
+    }
+
+    @Override
+    public void point(double latitude, double longitude, double elevation, LocalDateTime timestamp) throws IOException {
+        entry.point(latitude, longitude, elevation, timestamp);
+    }
+
+    @Override
+    public void endWalk() throws IOException {
+        entry.endWalk();
+        entry.finish();
+        entryBuffer.flush();
+        zip.closeEntry();
+        entry = null;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        zip.finish(); // Writes the central directory without closing the underlying stream
+        zip.flush();
+    }
+
+    static String entryName(ExportedWalk walk) {
+        String pet = walk.getPetName().replaceAll("[^\\p{L}\\p{N}_-]+", "-");
+        return walk.getStartedAt().format(ENTRY_FORMATTER) + "_" + pet + "_" + walk.getId() + ".gpx";
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.pettrail.service.filter;
+
+/**
+ * Discards points whose reported horizontal accuracy is worse than a limit. Points without an
+ * accuracy pass.
+ */
+public class AccuracyStage implements PointFilterStage {
+
+    private final double maxAccuracyM;
+    private final String discardReason;
+
+    public AccuracyStage(double maxAccuracyM) {
+        this.maxAccuracyM = maxAccuracyM;
+        this.discardReason = "accuracy > " + formatMeters(maxAccuracyM) + " m";
+    }
+
+    @Override
+    public String apply(FilteredPoint point) {
+        // NaN (unknown) never compares greater
+        return point.getAccuracyM() > maxAccuracyM ? discardReason : null;
+    }
+
+    @Override
+    public void seed(FilteredPoint point) {
+        // Stateless
+    }
+
+    static String formatMeters(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.pettrail.service.filter;
+
+/**
+ * The point going through the filter stages. One instance is reused for every point of a walk,
+ * so filtering allocates nothing; stages may move it.
+ */
+public final class FilteredPoint {
+
+    private double latitude;
+    private double longitude;
+    private long timestampMicros; // Same scale as WalkTrack
+    private double accuracyM; // NaN when unknown
+
+    public void set(double latitude, double longitude, long timestampMicros, double accuracyM) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.timestampMicros = timestampMicros;
+        this.accuracyM = accuracyM;
+    }
+
+    public void moveTo(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public long getTimestampMicros() {
+        return timestampMicros;
+    }
+
+    public double getAccuracyM() {
+        return accuracyM;
+    }
+}
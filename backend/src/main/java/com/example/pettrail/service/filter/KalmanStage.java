@@ -0,0 +1,113 @@
+package com.example.pettrail.service.filter;
+
+/**
+ * Constant-velocity Kalman filter over the positions, in meters east/north of the walk's first
+ * point. Each position is replaced by the filter's estimate, which removes most of the GPS jitter
+ * that would otherwise add phantom distance. The reported accuracy is the measurement noise, so
+ * precise fixes move the estimate more than poor ones. Never discards.
+ */
+public class KalmanStage implements PointFilterStage {
+
+    // Meters per degree of latitude (Earth's radius 6371 km, as in the distance calculations)
+    private static final double METERS_PER_DEGREE = 6371000.0 * Math.PI / 180.0;
+
+    // Velocity uncertainty of a fresh estimate, (m/s)²; a dog can start off at a run
+    private static final double INITIAL_VELOCITY_VARIANCE = 25.0;
+
+    private final double accelerationVariance;
+    private final double defaultAccuracyM;
+
+    private boolean initialized;
+    private long lastTsMicros;
+    private double originLat;
+    private double originLon;
+    private double metersPerDegreeLon;
+
+    // Position and velocity per axis; the covariance is the same for both axes, since their
+    // model and measurement noise are
+    private double east;
+    private double eastVelocity;
+    private double north;
+    private double northVelocity;
+    private double positionVariance;
+    private double covariance;
+    private double velocityVariance;
+
+    /**
+     * @param accelerationNoise standard deviation of the unmodelled acceleration, m/s²
+     * @param defaultAccuracyM accuracy assumed for points without one, meters
+     */
+    public KalmanStage(double accelerationNoise, double defaultAccuracyM) {
+        this.accelerationVariance = accelerationNoise * accelerationNoise;
+        this.defaultAccuracyM = defaultAccuracyM;
+    }
+
+    @Override
+    public String apply(FilteredPoint point) {
+        if (!initialized) {
+            seed(point);
+            return null;
+        }
+
+        // Predict: move by the estimated velocity, and grow the uncertainty with the elapsed time
+        double dt = Math.max(0L, point.getTimestampMicros() - lastTsMicros) / 1_000_000.0;
+        if (dt > 0) {
+            double dt2 = dt * dt;
+            east += eastVelocity * dt;
+            north += northVelocity * dt;
+            positionVariance += 2 * dt * covariance + dt2 * velocityVariance + accelerationVariance * dt2 * dt2 / 4;
+            covariance += dt * velocityVariance + accelerationVariance * dt2 * dt / 2;
+            velocityVariance += accelerationVariance * dt2;
+        }
+
+        // Update with the measured position
+        double measurementVariance = measurementVariance(point);
+        double innovationVariance = positionVariance + measurementVariance;
+        double positionGain = positionVariance / innovationVariance;
+        double velocityGain = covariance / innovationVariance;
+
+        double eastResidual = toEast(point.getLongitude()) - east;
+        double northResidual = toNorth(point.getLatitude()) - north;
+        east += positionGain * eastResidual;
+        north += positionGain * northResidual;
+        eastVelocity += velocityGain * eastResidual;
+        northVelocity += velocityGain * northResidual;
+
+        velocityVariance -= velocityGain * covariance;
+        positionVariance *= 1 - positionGain;
+        covariance *= 1 - positionGain;
+
+        lastTsMicros = point.getTimestampMicros();
+        point.moveTo(originLat + north / METERS_PER_DEGREE, originLon + east / metersPerDegreeLon);
+        return null;
+    }
+
+    @Override
+    public void seed(FilteredPoint point) {
+        initialized = true;
+        lastTsMicros = point.getTimestampMicros();
+        originLat = point.getLatitude();
+        originLon = point.getLongitude();
+        metersPerDegreeLon = METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(originLat)), 1e-6);
+        east = 0.0;
+        north = 0.0;
+        eastVelocity = 0.0;
+        northVelocity = 0.0;
+        positionVariance = measurementVariance(point);
+        covariance = 0.0;
+        velocityVariance = INITIAL_VELOCITY_VARIANCE;
+    }
+
+    private double measurementVariance(FilteredPoint point) {
+        double accuracy = point.getAccuracyM() > 0 ? point.getAccuracyM() : defaultAccuracyM;
+        return accuracy * accuracy;
+    }
+
+    private double toEast(double lon) {
+        return (lon - originLon) * metersPerDegreeLon;
+    }
+
+    private double toNorth(double lat) {
+        return (lat - originLat) * METERS_PER_DEGREE;
+    }
+}
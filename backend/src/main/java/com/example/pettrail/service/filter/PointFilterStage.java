@@ -0,0 +1,23 @@
+package com.example.pettrail.service.filter;
+
+/**
+ * One step of the point filter pipeline (see WalkPointFilter). A stage sees the points of one walk
+ * in timestamp order, only those that passed the stages before it, and keeps constant-size state,
+ * so the pipeline can run incrementally across upload batches.
+ */
+public interface PointFilterStage {
+
+    /**
+     * Check a point and update the stage's state
+     * @param point the point; the stage may move it
+     * @return null to pass the point on, otherwise the reason it is discarded
+     */
+    String apply(FilteredPoint point);
+
+    /**
+     * Continue from a point accepted earlier (e.g. the last stored point of the walk) without
+     * checking it
+     * @param point the point
+     */
+    void seed(FilteredPoint point);
+}
@@ -0,0 +1,57 @@
+package com.example.pettrail.service.filter;
+
+import com.example.pettrail.service.WalkPointFilter;
+
+/**
+ * The original outlier rules: a point must be later than the last one that passed, and reaching
+ * it must not take more than the maximum speed
+ */
+public class SpeedStage implements PointFilterStage {
+
+    // Speed threshold in meters per second (50 m/s = 180 km/h)
+    public static final double DEFAULT_MAX_SPEED_MPS = 50.0;
+
+    private final double maxSpeedMps;
+    private final String discardReason;
+
+    private boolean hasPrevious;
+    private long previousTsMicros;
+    private double previousLat;
+    private double previousLon;
+
+    public SpeedStage(double maxSpeedMps) {
+        this.maxSpeedMps = maxSpeedMps;
+        this.discardReason = "speed > " + AccuracyStage.formatMeters(maxSpeedMps) + " m/s";
+    }
+
+    @Override
+    public String apply(FilteredPoint point) {
+        if (hasPrevious) {
+            // Calculate time difference in whole seconds, rounded down
+            long timeDiffSeconds = Math.floorDiv(point.getTimestampMicros() - previousTsMicros, 1_000_000L);
+
+            // If time difference is non-positive, discard the point
+            if (timeDiffSeconds <= 0) {
+                return "non-increasing ts";
+            }
+
+            double distanceMeters = WalkPointFilter.haversineDistance(previousLat, previousLon,
+                    point.getLatitude(), point.getLongitude());
+
+            // If speed exceeds threshold, discard the point
+            if (distanceMeters / timeDiffSeconds > maxSpeedMps) {
+                return discardReason;
+            }
+        }
+        seed(point);
+        return null;
+    }
+
+    @Override
+    public void seed(FilteredPoint point) {
+        hasPrevious = true;
+        previousTsMicros = point.getTimestampMicros();
+        previousLat = point.getLatitude();
+        previousLon = point.getLongitude();
+    }
+}
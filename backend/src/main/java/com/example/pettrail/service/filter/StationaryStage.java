@@ -0,0 +1,49 @@
+package com.example.pettrail.service.filter;
+
+import com.example.pettrail.service.WalkPointFilter;
+
+/**
+ * Discards points that stay within a small radius of the last kept point. While the pet stands
+ * still, the fixes wander around its position; keeping them would add distance that was never
+ * walked. When it moves, points are kept about the radius apart, which leaves the distance of a
+ * real path unchanged.
+ */
+public class StationaryStage implements PointFilterStage {
+
+    // Points averaged into the anchor at most; later ones still move it a little
+    private static final int MAX_ANCHOR_WEIGHT = 20;
+
+    private final double radiusM;
+
+    private boolean hasAnchor;
+    private double anchorLat;
+    private double anchorLon;
+    private int anchorWeight;
+
+    public StationaryStage(double radiusM) {
+        this.radiusM = radiusM;
+    }
+
+    @Override
+    public String apply(FilteredPoint point) {
+        if (hasAnchor && WalkPointFilter.haversineDistance(anchorLat, anchorLon,
+                point.getLatitude(), point.getLongitude()) < radiusM) {
+            // Pull the anchor to the mean of the points around it, so it settles on the real
+            // position instead of wherever the first fix happened to land
+            anchorWeight = Math.min(anchorWeight + 1, MAX_ANCHOR_WEIGHT);
+            anchorLat += (point.getLatitude() - anchorLat) / anchorWeight;
+            anchorLon += (point.getLongitude() - anchorLon) / anchorWeight;
+            return "stationary jitter";
+        }
+        seed(point);
+        return null;
+    }
+
+    @Override
+    public void seed(FilteredPoint point) {
+        hasAnchor = true;
+        anchorLat = point.getLatitude();
+        anchorLon = point.getLongitude();
+        anchorWeight = 1;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.pettrail.service.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Line-by-line CSV parser. The header row names the columns (comma or semicolon separated):
+ * latitude, longitude and time are required, elevation and a track/walk id column are optional.
+ * Without a track column the whole file is a single track.
+ */
+public class CsvTrackParser implements TrackParser {
+
+    private static final Set<String> LATITUDE = Set.of("lat", "latitude");
+    private static final Set<String> LONGITUDE = Set.of("lon", "lng", "long", "longitude");
+    private static final Set<String> TIME = Set.of("ts", "time", "timestamp", "datetime", "date_time", "recorded_at");
+    private static final Set<String> ELEVATION = Set.of("elev", "ele", "elevation", "alt", "altitude");
+    private static final Set<String> TRACK = Set.of("track", "track_id", "walk", "walk_id", "segment", "trip", "activity_id");
+
+    @Override
+    public void parse(InputStream in, TrackSink sink) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+        String header = reader.readLine();
+        if (header == null) {
+            return;
+        }
+        if (!header.isEmpty() && header.charAt(0) == '\uFEFF') {
+            header = header.substring(1);
+        }
+        char separator = count(header, ';') > count(header, ',') ? ';' : ',';
+        List<String> columns = split(header, separator);
+
+        int latColumn = find(columns, LATITUDE);
+        int lonColumn = find(columns, LONGITUDE);
+        int timeColumn = find(columns, TIME);
+        int elevationColumn = find(columns, ELEVATION);
+        int trackColumn = find(columns, TRACK);
+        if (latColumn < 0 || lonColumn < 0 || timeColumn < 0) {
+            throw new IOException("CSV header must name latitude, longitude and time columns: " + header);
+        }
+
+        boolean trackOpen = false;
+        String currentTrack = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> values = split(line, separator);
+            if (trackColumn >= 0) {
+                String track = value(values, trackColumn);
+                if (trackOpen && !Objects.equals(track, currentTrack)) {
+                    sink.endTrack();
+                    trackOpen = false;
+                }
+                currentTrack = track;
+            }
+            if (!trackOpen) {
+                sink.startTrack();
+                trackOpen = true;
+            }
+            sink.point(
+                    TrackTimestamps.parseDouble(value(values, latColumn)),
+                    TrackTimestamps.parseDouble(value(values, lonColumn)),
+                    elevationColumn >= 0 ? TrackTimestamps.parseDouble(value(values, elevationColumn)) : Double.NaN,
+                    TrackTimestamps.parse(value(values, timeColumn)));
+        }
+        if (trackOpen) {
+            sink.endTrack();
+        }
+    }
+
+    private static int find(List<String> columns, Set<String> names) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (names.contains(columns.get(i).toLowerCase(Locale.ROOT))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String value(List<String> values, int column) {
+        return column < values.size() ? values.get(column) : null;
+    }
+
+    private static int count(String text, char c) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == c) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Split one record, honoring double-quoted fields (no embedded newlines)
+     */
+    static List<String> split(String line, char separator) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == separator && !quoted) {
+                values.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString().trim());
+        return values;
+    }
+}
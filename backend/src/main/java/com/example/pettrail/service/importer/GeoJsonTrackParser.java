@@ -0,0 +1,192 @@
+package com.example.pettrail.service.importer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * GeoJSON parser on the Jackson streaming API. Each Feature (or a bare geometry) becomes a track;
+ * all its positions are concatenated. Point times come from a 4th position element (epoch) or from
+ * the properties.coordTimes / properties.coordinateProperties.times arrays written by most exporters.
+ * Only one feature is buffered at a time.
+ */
+public class GeoJsonTrackParser implements TrackParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Override
+    public void parse(InputStream in, TrackSink sink) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Malformed GeoJSON: expected an object");
+            }
+            readObject(parser, sink);
+        }
+    }
+
+    /**
+     * Read a FeatureCollection, Feature or geometry object; the parser is positioned on its START_OBJECT
+     */
+    private void readObject(JsonParser parser, TrackSink sink) throws IOException {
+        FeatureBuffer feature = new FeatureBuffer();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("features".equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    readObject(parser, sink);
+                }
+            } else if ("geometry".equals(field) && value == JsonToken.START_OBJECT) {
+                readGeometry(parser, feature);
+            } else if ("coordinates".equals(field) && value == JsonToken.START_ARRAY) {
+                readCoordinates(parser, feature);
+            } else if ("geometries".equals(field) && value == JsonToken.START_ARRAY) {
+                readGeometries(parser, feature);
+            } else if ("properties".equals(field) && value == JsonToken.START_OBJECT) {
+                readProperties(parser, feature);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        feature.emit(sink);
+    }
+
+    private void readGeometry(JsonParser parser, FeatureBuffer feature) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("coordinates".equals(field) && value == JsonToken.START_ARRAY) {
+                readCoordinates(parser, feature);
+            } else if ("geometries".equals(field) && value == JsonToken.START_ARRAY) {
+                readGeometries(parser, feature);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readGeometries(JsonParser parser, FeatureBuffer feature) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            readGeometry(parser, feature);
+        }
+    }
+
+    /**
+     * Read a position or a (nested) array of positions; the parser is positioned on its START_ARRAY
+     */
+    private void readCoordinates(JsonParser parser, FeatureBuffer feature) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) {
+            do {
+                readCoordinates(parser, feature);
+            } while (parser.nextToken() == JsonToken.START_ARRAY);
+            return;
+        }
+        double[] position = {Double.NaN, Double.NaN, Double.NaN, Double.NaN};
+        int index = 0;
+        while (token != JsonToken.END_ARRAY) {
+            if (index < position.length && token.isNumeric()) {
+                position[index] = parser.getDoubleValue();
+            } else {
+                parser.skipChildren();
+            }
+            index++;
+            token = parser.nextToken();
+        }
+        if (index > 0) {
+            feature.addPosition(position[1], position[0], position[2], TrackTimestamps.fromEpoch(position[3]));
+        }
+    }
+
+    private void readProperties(JsonParser parser, FeatureBuffer feature) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("coordTimes".equals(field) && value == JsonToken.START_ARRAY) {
+                readTimes(parser, feature);
+            } else if ("coordinateProperties".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String nested = parser.currentName();
+                    if (parser.nextToken() == JsonToken.START_ARRAY && "times".equals(nested)) {
+                        readTimes(parser, feature);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Read a (nested, for multi-geometries) array of ISO-8601 strings or epoch numbers
+     */
+    private void readTimes(JsonParser parser, FeatureBuffer feature) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.START_ARRAY) {
+                readTimes(parser, feature);
+            } else if (token.isNumeric()) {
+                feature.addTime(TrackTimestamps.fromEpoch(parser.getDoubleValue()));
+            } else if (token == JsonToken.VALUE_STRING) {
+                feature.addTime(TrackTimestamps.parse(parser.getText()));
+            } else {
+                parser.skipChildren();
+                feature.addTime(null);
+            }
+        }
+    }
+
+    /**
+     * Positions and times of the feature being read; properties may come before or after the geometry
+     */
+    private static final class FeatureBuffer {
+        private double[] latitudes = new double[256];
+        private double[] longitudes = new double[256];
+        private double[] elevations = new double[256];
+        private LocalDateTime[] positionTimes = new LocalDateTime[256];
+        private LocalDateTime[] times = new LocalDateTime[0];
+        private int size;
+        private int timeCount;
+
+        private void addPosition(double lat, double lon, double elevation, LocalDateTime ts) {
+            if (size == latitudes.length) {
+                int capacity = size * 2;
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                elevations = Arrays.copyOf(elevations, capacity);
+                positionTimes = Arrays.copyOf(positionTimes, capacity);
+            }
+            latitudes[size] = lat;
+            longitudes[size] = lon;
+            elevations[size] = elevation;
+            positionTimes[size] = ts;
+            size++;
+        }
+
+        private void addTime(LocalDateTime ts) {
+            if (timeCount == times.length) {
+                times = Arrays.copyOf(times, Math.max(256, timeCount * 2));
+            }
+            times[timeCount++] = ts;
+        }
+
+        private void emit(TrackSink sink) {
+            if (size == 0) {
+                return;
+            }
+            sink.startTrack();
+            for (int i = 0; i < size; i++) {
+                LocalDateTime ts = i < timeCount && times[i] != null ? times[i] : positionTimes[i];
+                sink.point(latitudes[i], longitudes[i], elevations[i], ts);
+            }
+            sink.endTrack();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.pettrail.service.importer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+
+/**
+ * GPX parser on StAX: each &lt;trk&gt; becomes a track (its &lt;trkseg&gt;s are concatenated);
+ * waypoints and routes are ignored
+ */
+public class GpxTrackParser implements TrackParser {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createFactory();
+
+    @Override
+    public void parse(InputStream in, TrackSink sink) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            boolean inTrack = false;
+            boolean inPoint = false;
+            double lat = Double.NaN;
+            double lon = Double.NaN;
+            double elevation = Double.NaN;
+            LocalDateTime ts = null;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("trk".equals(name)) {
+                        inTrack = true;
+                        sink.startTrack();
+                    } else if (inTrack && "trkpt".equals(name)) {
+                        inPoint = true;
+                        lat = TrackTimestamps.parseDouble(reader.getAttributeValue(null, "lat"));
+                        lon = TrackTimestamps.parseDouble(reader.getAttributeValue(null, "lon"));
+                        elevation = Double.NaN;
+                        ts = null;
+                    } else if (inPoint && "ele".equals(name)) {
+                        elevation = TrackTimestamps.parseDouble(reader.getElementText());
+                    } else if (inPoint && "time".equals(name)) {
+                        ts = TrackTimestamps.parse(reader.getElementText());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (inPoint && "trkpt".equals(name)) {
+                        inPoint = false;
+                        sink.point(lat, lon, elevation, ts);
+                    } else if (inTrack && "trk".equals(name)) {
+                        inTrack = false;
+                        sink.endTrack();
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed GPX: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // Nothing left to release
+                }
+            }
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // Uploaded files are untrusted: no DTDs, no external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.pettrail.service.importer;
+
+import com.example.pettrail.enums.ImportFormat;
+import com.example.pettrail.enums.ImportStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one import on the instance running it; written by the import worker and copied to
+ * the job row (WalkImportJob) by WalkImportService
+ */
+public class ImportJob {
+
+    private final UUID id;
+    private final UUID userId;
+    private final UUID petId;
+    private final ImportFormat format;
+    private final long bytesTotal;
+
+    private final AtomicLong bytesProcessed = new AtomicLong();
+    private final AtomicInteger walksImported = new AtomicInteger();
+    private final AtomicInteger walksSkipped = new AtomicInteger();
+    private final AtomicLong pointsReceived = new AtomicLong();
+    private final AtomicLong pointsAccepted = new AtomicLong();
+    private final AtomicLong pointsDiscarded = new AtomicLong();
+
+    private volatile ImportStatus status = ImportStatus.QUEUED;
+    private volatile String error;
+    private volatile LocalDateTime finishedAt;
+
+    public ImportJob(UUID id, UUID userId, UUID petId, ImportFormat format, long bytesTotal) {
+        this.id = id;
+        this.userId = userId;
+        this.petId = petId;
+        this.format = format;
+        this.bytesTotal = bytesTotal;
+    }
+
+    public void markRunning() {
+        status = ImportStatus.RUNNING;
+    }
+
+    public void markCompleted() {
+        finishedAt = LocalDateTime.now();
+        status = ImportStatus.COMPLETED;
+    }
+
+    public void markFailed(String error) {
+        this.error = error;
+        finishedAt = LocalDateTime.now();
+        status = ImportStatus.FAILED;
+    }
+
+    public boolean isFinished() {
+        return status == ImportStatus.COMPLETED || status == ImportStatus.FAILED;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public UUID getPetId() {
+        return petId;
+    }
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public long getBytesTotal() {
+        return bytesTotal;
+    }
+
+    public ImportStatus getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public AtomicLong getBytesProcessed() {
+        return bytesProcessed;
+    }
+
+    public AtomicInteger getWalksImported() {
+        return walksImported;
+    }
+
+    public AtomicInteger getWalksSkipped() {
+        return walksSkipped;
+    }
+
+    public AtomicLong getPointsReceived() {
+        return pointsReceived;
+    }
+
+    public AtomicLong getPointsAccepted() {
+        return pointsAccepted;
+    }
+
+    public AtomicLong getPointsDiscarded() {
+        return pointsDiscarded;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.pettrail.service.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streams the tracks of an uploaded file into a sink without materializing the document
+ */
+public interface TrackParser {
+
+    /**
+     * @param in the file contents
+     * @param sink receives tracks and points in file order
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    void parse(InputStream in, TrackSink sink) throws IOException;
+}
@@ -0,0 +1,24 @@
+package com.example.pettrail.service.importer;
+
+import java.time.LocalDateTime;
+
+/**
+ * Receives the tracks found by a TrackParser, one point at a time
+ */
+public interface TrackSink {
+
+    /**
+     * A new track starts; following points belong to it until endTrack
+     */
+    void startTrack();
+
+    /**
+     * @param lat latitude in degrees (NaN if missing or unparseable)
+     * @param lon longitude in degrees (NaN if missing or unparseable)
+     * @param elevation elevation in meters (NaN if absent)
+     * @param ts point timestamp (null if absent)
+     */
+    void point(double lat, double lon, double elevation, LocalDateTime ts);
+
+    void endTrack();
+}
@@ -0,0 +1,79 @@
+package com.example.pettrail.service.importer;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Timestamp parsing shared by the import parsers. Zoned times are converted to the server's zone,
+ * like every other timestamp the backend stores.
+ */
+final class TrackTimestamps {
+
+    // Epoch values above this are milliseconds, below are seconds (1e11 s is year 5138)
+    private static final double EPOCH_MILLIS_THRESHOLD = 1e11;
+
+    private TrackTimestamps() {
+    }
+
+    /**
+     * @param text ISO-8601 date-time with or without offset, or epoch seconds/milliseconds
+     * @return the local timestamp, or null if the text is empty or not a timestamp
+     */
+    static LocalDateTime parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        String value = text.trim();
+        if (value.isEmpty()) {
+            return null;
+        }
+        char first = value.charAt(0);
+        if (value.indexOf('-', 1) < 0 && (Character.isDigit(first) || first == '-')) {
+            try {
+                return fromEpoch(Double.parseDouble(value));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        try {
+            return OffsetDateTime.parse(value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            // No offset: already a local time
+        }
+        try {
+            return LocalDateTime.parse(value.replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param epoch seconds or milliseconds since 1970-01-01T00:00Z
+     * @return the local timestamp, or null if the value is not finite
+     */
+    static LocalDateTime fromEpoch(double epoch) {
+        if (!Double.isFinite(epoch)) {
+            return null;
+        }
+        long micros = Math.abs(epoch) >= EPOCH_MILLIS_THRESHOLD ? Math.round(epoch * 1000) : Math.round(epoch * 1_000_000);
+        Instant instant = Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1000);
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    /**
+     * @return the value as a double, or NaN if it is not a number
+     */
+    static double parseDouble(String text) {
+        if (text == null || text.isBlank()) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.pettrail.service.importer;
+
+import com.example.pettrail.model.Walk;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.repository.WalkPointBulkWriter;
+import com.example.pettrail.repository.WalkRepository;
+import com.example.pettrail.service.ElevationEnricher;
+import com.example.pettrail.service.WalkMotionSegmenter;
+import com.example.pettrail.service.WalkPointFilter;
+import com.example.pettrail.service.WalkPointPartitionService;
+import com.example.pettrail.service.WalkProfileBuilder;
+import com.example.pettrail.service.WalkProfileService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Turns parsed tracks into finished walks. Each walk is written in its own transaction: the walk
+ * row first, then its points in fixed-size JDBC batches, then the metrics accumulated while the
+ * points went through the same filter pipeline as live uploads. Memory stays at one batch.
+ */
+public class WalkImportSink implements TrackSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalkImportSink.class);
+
+    private final ImportJob job;
+    private final WalkRepository walkRepository;
+    private final WalkPointBulkWriter bulkWriter;
+    private final PlatformTransactionManager transactionManager;
+    private final Supplier<WalkPointFilter> filterFactory;
+    private final WalkProfileService profileService;
+    private final ElevationEnricher elevationEnricher;
+    private final WalkPointPartitionService partitionService;
+    private final Duration splitGap;
+
+    // Points accepted for the current walk and not yet written
+    private final long[] bufferTimestamps;
+    private final double[] bufferLatitudes;
+    private final double[] bufferLongitudes;
+    private final double[] bufferElevations;
+    private int buffered;
+
+    // Current walk
+    private boolean walkOpen;
+    private boolean duplicate;
+    private TransactionStatus transaction;
+    private Walk walk;
+    private WalkPointFilter filter;
+    private WalkProfileBuilder profile;
+    private LocalDateTime lastSeenTs;
+    private LocalDateTime firstAcceptedTs;
+    private LocalDateTime lastAcceptedTs;
+    private double distanceM;
+    private long walkPoints;
+    private long walkAccepted;
+
+    public WalkImportSink(ImportJob job, WalkRepository walkRepository, WalkPointBulkWriter bulkWriter,
+                          PlatformTransactionManager transactionManager, Supplier<WalkPointFilter> filterFactory,
+                          WalkProfileService profileService, ElevationEnricher elevationEnricher,
+                          WalkPointPartitionService partitionService, Duration splitGap, int batchSize) {
+        this.job = job;
+        this.walkRepository = walkRepository;
+        this.bulkWriter = bulkWriter;
+        this.transactionManager = transactionManager;
+        this.filterFactory = filterFactory;
+        this.profileService = profileService;
+        this.elevationEnricher = elevationEnricher;
+        this.partitionService = partitionService;
+        this.splitGap = splitGap;
+        this.bufferTimestamps = new long[batchSize];
+        this.bufferLatitudes = new double[batchSize];
+        this.bufferLongitudes = new double[batchSize];
+        this.bufferElevations = new double[batchSize];
+    }
+
+    @Override
+    public void startTrack() {
+        finishWalk();
+    }
+
+    @Override
+    public void point(double lat, double lon, double elevation, LocalDateTime ts) {
+        job.getPointsReceived().incrementAndGet();
+        if (ts == null || !(lat >= -90 && lat <= 90) || !(lon >= -180 && lon <= 180)) {
+            job.getPointsDiscarded().incrementAndGet();
+            return;
+        }
+
+        // A long pause inside a track starts a new walk
+        if (walkOpen && lastSeenTs != null && Duration.between(lastSeenTs, ts).compareTo(splitGap) > 0) {
+            finishWalk();
+        }
+        if (lastSeenTs == null || ts.isAfter(lastSeenTs)) {
+            lastSeenTs = ts;
+        }
+        if (!walkOpen) {
+            beginWalk(ts);
+        }
+        walkPoints++;
+        if (duplicate || filter.accept(lat, lon, ts) != null) {
+            return;
+        }
+
+        if (firstAcceptedTs == null) {
+            firstAcceptedTs = ts;
+        }
+        lastAcceptedTs = ts;
+        distanceM += filter.getLastDistanceM();
+        walkAccepted++;
+
+        bufferTimestamps[buffered] = WalkTrack.toEpochMicros(ts);
+        // Filtered (smoothed) position
+        bufferLatitudes[buffered] = filter.getLatitude();
+        bufferLongitudes[buffered] = filter.getLongitude();
+        // walk_points only allows elevations >= 0
+        bufferElevations[buffered] = elevation >= 0 ? elevation : Double.NaN;
+        buffered++;
+        if (buffered == bufferTimestamps.length) {
+            flush();
+        }
+    }
+
+    @Override
+    public void endTrack() {
+        finishWalk();
+        lastSeenTs = null;
+    }
+
+    /**
+     * Complete the walk in progress at the end of the file
+     */
+    public void finish() {
+        finishWalk();
+    }
+
+    /**
+     * Roll back the walk in progress after a failure; walks already committed are kept
+     */
+    public void abort() {
+        if (transaction != null && !transaction.isCompleted()) {
+            transactionManager.rollback(transaction);
+        }
+        transaction = null;
+        walkOpen = false;
+    }
+
+    private void beginWalk(LocalDateTime startedAt) {
+        walkOpen = true;
+        filter = filterFactory.get();
+        profile = profileService.newBuilder();
+        firstAcceptedTs = null;
+        lastAcceptedTs = null;
+        distanceM = 0.0;
+        walkPoints = 0;
+        walkAccepted = 0;
+        buffered = 0;
+
+        // Re-importing the same file must not duplicate walks
+        duplicate = walkRepository.existsByPetIdAndStartedAt(job.getPetId(), startedAt);
+        if (duplicate) {
+            return;
+        }
+        // Imported walks are usually months old: give their month a partition before the walk's
+        // transaction writes any point (later, the DDL would wait for that transaction). Points past
+        // the month end go to the default partition until the nightly maintenance moves them.
+        try {
+            partitionService.ensurePartitionsFor(startedAt, startedAt);
+        } catch (DataAccessException e) {
+            logger.warn("Cannot create the walk_points partition for {}, points go to the default partition: {}",
+                    startedAt, e.getMessage());
+        }
+        transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        Walk newWalk = new Walk(job.getPetId(), job.getUserId(), startedAt, startedAt);
+        walk = walkRepository.saveAndFlush(newWalk);
+    }
+
+    private void flush() {
+        if (buffered > 0) {
+            WalkTrack batch = new WalkTrack(buffered, bufferTimestamps, bufferLatitudes, bufferLongitudes, bufferElevations);
+            elevationEnricher.fillMissing(batch);
+            // The profile sees the elevations that are stored
+            for (int i = 0; i < buffered; i++) {
+                profile.add(bufferLatitudes[i], bufferLongitudes[i], bufferElevations[i], bufferTimestamps[i]);
+            }
+            bulkWriter.insert(walk.getId(), batch);
+            buffered = 0;
+        }
+    }
+
+    private void finishWalk() {
+        if (!walkOpen) {
+            return;
+        }
+        walkOpen = false;
+
+        if (duplicate || walkAccepted < 2) {
+            if (transaction != null) {
+                transactionManager.rollback(transaction);
+                transaction = null;
+            }
+            job.getWalksSkipped().incrementAndGet();
+            job.getPointsDiscarded().addAndGet(walkPoints);
+            return;
+        }
+
+        flush();
+        int duracaoS = (int) Duration.between(firstAcceptedTs, lastAcceptedTs).getSeconds();
+        walk.setFinishedAt(lastAcceptedTs);
+        walk.setDistanciaM(distanceM);
+        walk.setDuracaoS(duracaoS);
+        walk.setVelMediaKmh(averageSpeedKmh(distanceM, duracaoS));
+        WalkMotionSegmenter motion = filter.getMotion();
+        walk.setTempoMovimentoMs(motion.getMovingMicros() / 1000);
+        walk.setTempoParadoMs(motion.getStoppedMicros() / 1000);
+        walk.setDistanciaMovimentoM(motion.getMovingDistanceM());
+        walk.setVelMovimentoKmh(averageSpeedKmh(motion.getMovingDistanceM(), (int) (motion.getMovingMicros() / 1_000_000)));
+        walkRepository.save(walk);
+        profileService.save(walk.getId(), profile);
+        transactionManager.commit(transaction);
+        transaction = null;
+
+        job.getWalksImported().incrementAndGet();
+        job.getPointsAccepted().addAndGet(walkAccepted);
+        job.getPointsDiscarded().addAndGet(walkPoints - walkAccepted);
+        logger.debug("Imported walk {} for pet {}: {} points, {}m", walk.getId(), job.getPetId(), walkAccepted, distanceM);
+    }
+
+    private static double averageSpeedKmh(double distanceM, int durationS) {
+        if (durationS == 0) {
+            return 0.00;
+        }
+        // Same rounding as live walks (WalkService)
+        return BigDecimal.valueOf((distanceM / 1000.0) / (durationS / 3600.0))
+                .setScale(2, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.pettrail.service.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buckets in the rate_limit_buckets table, so the limits hold across instances. Taking a token is
+ * one upsert that only changes the row if the request is allowed; a rejected request needs a
+ * second query for the wait time. Instances use their own clocks, so they should be NTP-synced.
+ * If the database is unavailable, requests are allowed.
+ */
+@Component
+@ConditionalOnProperty(name = "pettrail.rate-limit.store", havingValue = "jdbc")
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcRateLimitStore.class);
+
+    private static final String ACQUIRE_SQL =
+            "INSERT INTO rate_limit_buckets (bucket_key, arrival_us) VALUES (?, ?) " +
+            "ON CONFLICT (bucket_key) DO UPDATE SET arrival_us = GREATEST(rate_limit_buckets.arrival_us, ?) + ? " +
+            "WHERE GREATEST(rate_limit_buckets.arrival_us, ?) + ? - ? <= ? " +
+            "RETURNING arrival_us";
+
+    private static final long FAILURE_LOG_INTERVAL_MICROS = 60_000_000L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicLong lastFailureLogged = new AtomicLong(Long.MIN_VALUE);
+
+    @Autowired
+    public JdbcRateLimitStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long tryAcquire(String key, long intervalMicros, long burstMicros) {
+        long now = nowMicros();
+        try {
+            List<Long> taken = jdbcTemplate.queryForList(ACQUIRE_SQL, Long.class,
+                    key, now + intervalMicros, now, intervalMicros, now, intervalMicros, now, burstMicros);
+            if (!taken.isEmpty()) {
+                return 0;
+            }
+            Long arrival = jdbcTemplate.queryForObject(
+                    "SELECT arrival_us FROM rate_limit_buckets WHERE bucket_key = ?", Long.class, key);
+            return Math.max(1, Math.max(arrival, now) + intervalMicros - now - burstMicros);
+        } catch (DataAccessException e) {
+            // Rate limiting must not take the API down with the database
+            long last = lastFailureLogged.get();
+            if (now - last > FAILURE_LOG_INTERVAL_MICROS && lastFailureLogged.compareAndSet(last, now)) {
+                logger.warn("Rate limit store unavailable, allowing requests: {}", e.getMessage());
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Drop full buckets; a missing bucket behaves the same
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgeFull() {
+        try {
+            int purged = jdbcTemplate.update("DELETE FROM rate_limit_buckets WHERE arrival_us <= ?", nowMicros());
+            logger.debug("Purged {} full rate limit bucket(s)", purged);
+        } catch (DataAccessException e) {
+            logger.warn("Could not purge rate limit buckets: {}", e.getMessage());
+        }
+    }
+
+    private static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1000;
+    }
+}
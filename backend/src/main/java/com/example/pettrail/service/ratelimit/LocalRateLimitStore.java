@@ -0,0 +1,64 @@
+package com.example.pettrail.service.ratelimit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Buckets in this instance's memory, one AtomicLong each, updated with compare-and-set: no locks
+ * on the request path. Limits apply per instance.
+ */
+@Component
+@ConditionalOnProperty(name = "pettrail.rate-limit.store", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimitStore implements RateLimitStore {
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final LongSupplier clockMicros;
+
+    public LocalRateLimitStore() {
+        this(() -> System.nanoTime() / 1000);
+    }
+
+    LocalRateLimitStore(LongSupplier clockMicros) {
+        this.clockMicros = clockMicros;
+    }
+
+    @Override
+    public long tryAcquire(String key, long intervalMicros, long burstMicros) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+        long now = clockMicros.getAsLong();
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + intervalMicros;
+            long wait = next - now - burstMicros;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drop full buckets; a missing bucket behaves the same. A request racing with the removal may
+     * go uncounted, which only errs on the side of the client.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgeFull() {
+        long now = clockMicros.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
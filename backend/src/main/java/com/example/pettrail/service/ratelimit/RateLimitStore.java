@@ -0,0 +1,18 @@
+package com.example.pettrail.service.ratelimit;
+
+/**
+ * Where the token buckets live. A bucket is a single number, its theoretical arrival time (GCRA):
+ * the time at which it would be full again. Taking a token pushes it one interval further; a
+ * request is rejected when that would put it more than the burst ahead of now.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Take one token from a bucket
+     * @param key the bucket key (policy and client)
+     * @param intervalMicros time to refill one token
+     * @param burstMicros capacity times the interval
+     * @return 0 if a token was taken, otherwise microseconds until one is available
+     */
+    long tryAcquire(String key, long intervalMicros, long burstMicros);
+}
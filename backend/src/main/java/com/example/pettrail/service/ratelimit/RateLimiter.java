@@ -0,0 +1,126 @@
+package com.example.pettrail.service.ratelimit;
+
+import com.example.pettrail.config.RateLimitConfig;
+import com.example.pettrail.enums.RateLimitKeyType;
+import com.example.pettrail.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the configured rate limit policies: finds the first policy matching the request,
+ * derives the client key and takes a token from the matching bucket in the store
+ */
+@Component
+public class RateLimiter {
+
+    private final RateLimitStore store;
+    private final List<CompiledPolicy> policies;
+
+    @Autowired
+    public RateLimiter(RateLimitConfig config, RateLimitStore store, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.policies = config.getPolicies().stream()
+                .map(policy -> new CompiledPolicy(policy, meterRegistry))
+                .toList();
+    }
+
+    /**
+     * Count a request against its policy
+     * @param request the request, after authentication
+     * @return null if the request may proceed, otherwise the rejection
+     */
+    public Rejection check(HttpServletRequest request) {
+        PathContainer path = null;
+        for (CompiledPolicy policy : policies) {
+            if (!policy.methods.isEmpty() && !policy.methods.contains(request.getMethod())) {
+                continue;
+            }
+            if (path == null) {
+                path = PathContainer.parsePath(request.getRequestURI());
+            }
+            if (!policy.matches(path)) {
+                continue;
+            }
+
+            String key = policy.name + ':' + clientKey(policy.keyType, request);
+            long waitMicros = store.tryAcquire(key, policy.intervalMicros, policy.burstMicros);
+            if (waitMicros == 0) {
+                return null;
+            }
+            policy.rejected.increment();
+            // Whole seconds for Retry-After, rounded up
+            return new Rejection(policy.name, Math.max(1, (waitMicros + 999_999) / 1_000_000));
+        }
+        return null;
+    }
+
+    private static String clientKey(RateLimitKeyType keyType, HttpServletRequest request) {
+        if (keyType == RateLimitKeyType.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof User user) {
+                return "u:" + user.getId();
+            }
+        }
+        // Behind a proxy this is the forwarded client address (server.forward-headers-strategy)
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * A rejected request
+     * @param policy name of the policy that rejected it
+     * @param retryAfterSeconds when the client may retry
+     */
+    public record Rejection(String policy, long retryAfterSeconds) {
+    }
+
+    private static final class CompiledPolicy {
+        private final String name;
+        private final List<PathPattern> paths;
+        private final Set<String> methods;
+        private final RateLimitKeyType keyType;
+        private final long intervalMicros;
+        private final long burstMicros;
+        private final Counter rejected;
+
+        private CompiledPolicy(RateLimitConfig.Policy policy, MeterRegistry meterRegistry) {
+            if (policy.getCapacity() < 1 || !(policy.getRefillPerMinute() > 0)) {
+                throw new IllegalArgumentException("Rate limit policy " + policy.getName()
+                        + " needs capacity >= 1 and refill-per-minute > 0");
+            }
+            this.name = policy.getName();
+            this.paths = policy.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+            this.methods = policy.getMethods().stream()
+                    .map(method -> method.toUpperCase(Locale.ROOT))
+                    .collect(Collectors.toUnmodifiableSet());
+            this.keyType = policy.getKey();
+            this.intervalMicros = Math.max(1, Math.round(60_000_000.0 / policy.getRefillPerMinute()));
+            this.burstMicros = intervalMicros * policy.getCapacity();
+            this.rejected = Counter.builder("pettrail.ratelimit.rejected")
+                    .description("Requests rejected by rate limiting")
+                    .tag("policy", name)
+                    .register(meterRegistry);
+        }
+
+        private boolean matches(PathContainer path) {
+            for (PathPattern pattern : paths) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
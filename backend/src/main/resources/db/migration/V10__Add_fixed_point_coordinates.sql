@@ -0,0 +1,19 @@
+-- Fixed-point coordinates (see WalkPointColumns): latitude/longitude in 1e-7 degrees (~1 cm) and
+-- elevation in centimeters, as 4-byte integers instead of variable-length NUMERICs.
+-- Reads prefer these columns and fall back to the decimal ones, which stay until every row has been
+-- converted by WalkPointBackfillService. pettrail.point-storage.mode=DUAL writes both forms (safe with
+-- instances still on the decimal-only code); FIXED writes only these and clears the decimal columns.
+-- The new columns are nullable without default, so adding them doesn't rewrite the table.
+ALTER TABLE walk_points
+    ADD COLUMN lat_e7 INTEGER NULL,
+    ADD COLUMN lon_e7 INTEGER NULL,
+    ADD COLUMN elev_cm INTEGER NULL,
+    ALTER COLUMN latitude DROP NOT NULL,
+    ALTER COLUMN longitude DROP NOT NULL,
+    -- Same ranges as chk_latitude, chk_longitude and chk_elevation
+    ADD CONSTRAINT chk_lat_e7 CHECK (lat_e7 >= -900000000 AND lat_e7 <= 900000000),
+    ADD CONSTRAINT chk_lon_e7 CHECK (lon_e7 >= -1800000000 AND lon_e7 <= 1800000000),
+    ADD CONSTRAINT chk_elev_cm CHECK (elev_cm IS NULL OR elev_cm >= 0),
+    -- Every point keeps its position in at least one of the two forms
+    ADD CONSTRAINT chk_position CHECK ((lat_e7 IS NOT NULL AND lon_e7 IS NOT NULL)
+                                       OR (latitude IS NOT NULL AND longitude IS NOT NULL));
@@ -0,0 +1,14 @@
+-- Every walk_points read filters by walk_id and orders by timestamp (a route, the last point, a batch
+-- of routes for the archiver). With (walk_id, timestamp) these become ordered index range scans with
+-- no sort step, and the index still serves the walk_id foreign key for cascading deletes.
+CREATE INDEX IF NOT EXISTS idx_walk_points_walk_timestamp ON walk_points (walk_id, timestamp);
+DROP INDEX IF EXISTS idx_walk_points_walk_id;
+
+-- V3's standalone timestamp B-tree only survives on schemas created before V5
+DROP INDEX IF EXISTS idx_walk_points_timestamp;
+
+-- Points arrive in time order, so a BRIN index is a few pages per partition and nearly free to
+-- maintain. It serves the time-range scans WalkPointPartitionService runs on the default
+-- partition before creating a month's partition.
+CREATE INDEX IF NOT EXISTS idx_walk_points_timestamp_brin ON walk_points USING brin (timestamp)
+    WITH (pages_per_range = 32);
@@ -0,0 +1,11 @@
+-- Moving/stopped split of a walk's time (see WalkMotionSegmenter), accumulated per upload batch.
+-- Walks recorded before this migration keep NULL: they were never segmented.
+ALTER TABLE walks ADD COLUMN tempo_movimento_ms BIGINT DEFAULT NULL;
+ALTER TABLE walks ADD COLUMN tempo_parado_ms BIGINT DEFAULT NULL;
+ALTER TABLE walks ADD COLUMN distancia_movimento_m DOUBLE PRECISION DEFAULT NULL;
+-- Set when the walk finishes, like vel_media_kmh
+ALTER TABLE walks ADD COLUMN vel_movimento_kmh DOUBLE PRECISION DEFAULT NULL;
+
+ALTER TABLE walks ALTER COLUMN tempo_movimento_ms SET DEFAULT 0;
+ALTER TABLE walks ALTER COLUMN tempo_parado_ms SET DEFAULT 0;
+ALTER TABLE walks ALTER COLUMN distancia_movimento_m SET DEFAULT 0;
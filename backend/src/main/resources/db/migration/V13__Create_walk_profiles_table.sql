@@ -0,0 +1,9 @@
+-- Splits and speed/elevation profile of finished walks (see WalkProfileService), built once at stop or
+-- import and served as stored; walks finished before this migration get theirs on first read
+CREATE TABLE IF NOT EXISTS walk_profiles (
+    walk_id UUID PRIMARY KEY,
+    version INTEGER NOT NULL,
+    data JSONB NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (walk_id) REFERENCES walks(id) ON DELETE CASCADE
+);
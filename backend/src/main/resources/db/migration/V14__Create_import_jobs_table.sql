@@ -0,0 +1,29 @@
+-- Walk imports (see WalkImportService). The upload is spooled to a file by the instance that received
+-- it; the job row lets every instance report the progress, and lets an instance that can read the
+-- spool file (the same one after a restart, or any of them when the spool directory is shared)
+-- resume a job whose worker stopped renewing its lease.
+CREATE TABLE IF NOT EXISTS import_jobs (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    pet_id UUID NOT NULL,
+    format VARCHAR(10) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    spool_path VARCHAR(1000) NOT NULL,
+    bytes_total BIGINT NOT NULL,
+    bytes_processed BIGINT NOT NULL DEFAULT 0,
+    walks_imported INTEGER NOT NULL DEFAULT 0,
+    walks_skipped INTEGER NOT NULL DEFAULT 0,
+    points_received BIGINT NOT NULL DEFAULT 0,
+    points_accepted BIGINT NOT NULL DEFAULT 0,
+    points_discarded BIGINT NOT NULL DEFAULT 0,
+    -- Workers that started the job so far
+    attempts INTEGER NOT NULL DEFAULT 0,
+    error VARCHAR(500) NULL,
+    -- End of the worker's lease; a queued or running job past it may be taken over
+    lease_until TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_import_jobs_due ON import_jobs (lease_until)
+WHERE status IN ('QUEUED', 'RUNNING');
@@ -0,0 +1,3 @@
+-- Exports read a user's finished walks a page at a time in (started_at, id) order (see WalkExportService)
+CREATE INDEX IF NOT EXISTS idx_walks_user_started ON walks (user_id, started_at, id)
+WHERE finished_at IS NOT NULL;
@@ -0,0 +1,11 @@
+-- Deleting an archived walk only removes its row: its route stays in the archive segment file until the
+-- segment is rewritten without it (see WalkArchiveService.compactSegment). A pet deletion job records the
+-- segments its walks were archived in and is complete only once each of them has been compacted.
+CREATE TABLE IF NOT EXISTS pet_deletion_job_segments (
+    job_id UUID NOT NULL REFERENCES pet_deletion_jobs (id) ON DELETE CASCADE,
+    segment VARCHAR(64) NOT NULL,
+    PRIMARY KEY (job_id, segment)
+);
+
+-- The walks still stored in a segment, locked when it is compacted
+CREATE INDEX IF NOT EXISTS idx_walks_archive_segment ON walks (archive_segment) WHERE archive_segment IS NOT NULL;
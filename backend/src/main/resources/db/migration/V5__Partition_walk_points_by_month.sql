@@ -0,0 +1,48 @@
+-- Range-partition walk_points by month on the point timestamp.
+-- Inserts, vacuum and index maintenance then only touch the current month, and retention
+-- becomes DETACH PARTITION instead of large DELETEs. Future partitions are created ahead of
+-- time by WalkPointPartitionService; the default partition only catches out-of-range points.
+
+-- Same columns, defaults and CHECK constraints as the existing table
+CREATE TABLE walk_points_partitioned (LIKE walk_points INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (timestamp);
+
+-- The partition key must be part of the primary key
+ALTER TABLE walk_points_partitioned ADD PRIMARY KEY (id, timestamp);
+
+-- One partition per month that already has points, plus the current month and the next three
+DO $$
+DECLARE
+    month_start TIMESTAMP;
+BEGIN
+    FOR month_start IN
+        SELECT DISTINCT date_trunc('month', timestamp) FROM walk_points
+        UNION
+        SELECT generate_series(date_trunc('month', LOCALTIMESTAMP),
+                               date_trunc('month', LOCALTIMESTAMP) + INTERVAL '3 months',
+                               INTERVAL '1 month')
+    LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF walk_points_partitioned FOR VALUES FROM (%L) TO (%L)',
+                       'walk_points_p' || to_char(month_start, 'YYYY_MM'),
+                       month_start,
+                       month_start + INTERVAL '1 month');
+    END LOOP;
+END $$;
+
+CREATE TABLE walk_points_default PARTITION OF walk_points_partitioned DEFAULT;
+
+INSERT INTO walk_points_partitioned SELECT * FROM walk_points;
+
+-- Keep the id sequence (BIGSERIAL schemas) alive when the old table is dropped
+ALTER SEQUENCE IF EXISTS walk_points_id_seq OWNED BY NONE;
+
+DROP TABLE walk_points;
+ALTER TABLE walk_points_partitioned RENAME TO walk_points;
+ALTER TABLE walk_points RENAME CONSTRAINT walk_points_partitioned_pkey TO walk_points_pkey;
+ALTER SEQUENCE IF EXISTS walk_points_id_seq OWNED BY walk_points.id;
+
+ALTER TABLE walk_points ADD CONSTRAINT fk_walk_points_walk
+    FOREIGN KEY (walk_id) REFERENCES walks(id) ON DELETE CASCADE;
+
+-- Points are always read per walk; partition pruning replaces the standalone timestamp index
+CREATE INDEX idx_walk_points_walk_id ON walk_points (walk_id);
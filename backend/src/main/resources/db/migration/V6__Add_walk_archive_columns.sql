@@ -0,0 +1,9 @@
+-- Finished walks older than pettrail.archive.min-age-days have their points moved from
+-- walk_points into compressed segment files (see WalkArchiveService)
+ALTER TABLE walks ADD COLUMN archived_at TIMESTAMP DEFAULT NULL;
+ALTER TABLE walks ADD COLUMN archive_segment VARCHAR(64) DEFAULT NULL;
+
+-- Candidates for the archiver: finished walks whose points are still in the database
+CREATE INDEX IF NOT EXISTS idx_walks_archive_candidates
+ON walks (finished_at)
+WHERE archived_at IS NULL AND finished_at IS NOT NULL;
@@ -0,0 +1,7 @@
+-- Token buckets of the shared rate limiter (pettrail.rate-limit.store=jdbc, see JdbcRateLimitStore).
+-- arrival_us is the time (µs since 1970) at which the bucket is full again.
+-- UNLOGGED: no WAL for this hot, disposable data; a crash only resets the limits
+CREATE UNLOGGED TABLE IF NOT EXISTS rate_limit_buckets (
+    bucket_key VARCHAR(200) PRIMARY KEY,
+    arrival_us BIGINT NOT NULL
+);
@@ -0,0 +1,27 @@
+-- Pets are deleted in the background (see PetDeletionService). The request only sets deleted_at, which
+-- hides the pet and its walks; a job then removes the points and walks in small batches, each in its
+-- own transaction, and finally the pet row.
+ALTER TABLE pets ADD COLUMN deleted_at TIMESTAMP DEFAULT NULL;
+
+-- Pets waiting for their job, looked up by every walk query (see Walk)
+CREATE INDEX IF NOT EXISTS idx_pets_deleted ON pets (id) WHERE deleted_at IS NOT NULL;
+
+CREATE TABLE IF NOT EXISTS pet_deletion_jobs (
+    id UUID PRIMARY KEY,
+    pet_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    walks_total INTEGER NOT NULL,
+    walks_deleted INTEGER NOT NULL DEFAULT 0,
+    points_deleted BIGINT NOT NULL DEFAULT 0,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error VARCHAR(500) NULL,
+    -- When a worker may pick the job up: the retry time after a failure, or the end of the running worker's lease
+    next_attempt_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_pet_deletion_jobs_pet ON pet_deletion_jobs (pet_id);
+CREATE INDEX IF NOT EXISTS idx_pet_deletion_jobs_due ON pet_deletion_jobs (next_attempt_at)
+WHERE status IN ('QUEUED', 'RUNNING');
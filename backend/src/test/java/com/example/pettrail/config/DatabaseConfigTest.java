@@ -0,0 +1,50 @@
+package com.example.pettrail.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseConfigTest {
+
+    private DatabaseConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new DatabaseConfig();
+        ReflectionTestUtils.setField(config, "serverConnectionBudget", 40);
+        ReflectionTestUtils.setField(config, "instances", 1);
+    }
+
+    @Test
+    void poolSizeFollowsTheCoresWhenTheLoadIsUnknown() {
+        assertEquals(9, config.resolvePoolSize(4));
+    }
+
+    @Test
+    void poolSizeIsNoLargerThanTheExpectedLoad() {
+        ReflectionTestUtils.setField(config, "expectedConcurrency", 6);
+        assertEquals(6, config.resolvePoolSize(4));
+
+        // More load than the cores can serve queues in the pool
+        ReflectionTestUtils.setField(config, "expectedConcurrency", 50);
+        assertEquals(9, config.resolvePoolSize(4));
+    }
+
+    @Test
+    void poolSizeIsCappedByTheInstanceShareOfTheBudget() {
+        ReflectionTestUtils.setField(config, "instances", 8);
+        assertEquals(5, config.resolvePoolSize(16));
+
+        ReflectionTestUtils.setField(config, "expectedConcurrency", 1);
+        assertEquals(2, config.resolvePoolSize(16));
+    }
+
+    @Test
+    void fixedPoolSizeWins() {
+        ReflectionTestUtils.setField(config, "poolSize", 12);
+        ReflectionTestUtils.setField(config, "expectedConcurrency", 3);
+        assertEquals(12, config.resolvePoolSize(4));
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.pettrail.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private ResultSet lagResult;
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        primary = mock(HikariDataSource.class);
+        replica = mock(HikariDataSource.class);
+        when(replica.getPoolName()).thenReturn("pettrail-replica-0");
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class, RETURNS_DEEP_STUBS);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        lagResult = mock(ResultSet.class);
+        when(lagResult.next()).thenReturn(true);
+        when(replicaConnection.createStatement().executeQuery(anyString())).thenReturn(lagResult);
+
+        meterRegistry = new SimpleMeterRegistry();
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), 1000, meterRegistry,
+                Executors.newSingleThreadScheduledExecutor());
+    }
+
+    @AfterEach
+    void tearDown() {
+        routing.close();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void replicasTakeNoReadsBeforeTheirFirstHealthCheck() throws Exception {
+        beginTransaction(true);
+
+        assertSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    void readOnlyTransactionsGoToAReplicaWithinTheLagLimit() throws Exception {
+        when(lagResult.getDouble(1)).thenReturn(200.0);
+        routing.checkReplicas();
+
+        beginTransaction(true);
+        assertSame(replicaConnection, routing.getConnection());
+        assertEquals(200.0, meterRegistry.get("pettrail.db.replica.lag").gauge().value());
+        assertEquals(1.0, meterRegistry.get("pettrail.db.routing.reads").tag("target", "replica").counter().count());
+    }
+
+    @Test
+    void writesAndTransactionlessCallsStayOnThePrimary() throws Exception {
+        when(lagResult.getDouble(1)).thenReturn(0.0);
+        routing.checkReplicas();
+        clearInvocations(replica);
+
+        assertSame(primaryConnection, routing.getConnection());
+        beginTransaction(false);
+        assertSame(primaryConnection, routing.getConnection());
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    void aReplicaLaggingBeyondTheLimitIsTakenOutOfRotationUntilItCatchesUp() throws Exception {
+        when(lagResult.getDouble(1)).thenReturn(0.0);
+        routing.checkReplicas();
+        when(lagResult.getDouble(1)).thenReturn(4000.0);
+        routing.checkReplicas();
+
+        beginTransaction(true);
+        assertSame(primaryConnection, routing.getConnection());
+        assertEquals(0.0, meterRegistry.get("pettrail.db.replica.healthy").gauge().value());
+
+        when(lagResult.getDouble(1)).thenReturn(800.0);
+        routing.checkReplicas();
+        assertSame(replicaConnection, routing.getConnection());
+    }
+
+    @Test
+    void aReplicaThatRefusesConnectionsFailsOverToThePrimary() throws Exception {
+        when(lagResult.getDouble(1)).thenReturn(0.0);
+        routing.checkReplicas();
+        reset(replica);
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        beginTransaction(true);
+        assertSame(primaryConnection, routing.getConnection());
+        assertSame(primaryConnection, routing.getConnection());
+        // Marked down on the first failure: the second read did not try it again
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    void readsOfARecentlyWrittenKeyArePinnedToThePrimaryForTheTransaction() throws Exception {
+        when(lagResult.getDouble(1)).thenReturn(0.0);
+        routing.checkReplicas();
+        PrimaryPinRegistry pins = new PrimaryPinRegistry(new ReadReplicaConfig());
+        UUID written = UUID.randomUUID();
+        pins.pin(written);
+
+        beginTransaction(true);
+        pins.routeToPrimaryIfPinned(UUID.randomUUID());
+        assertSame(replicaConnection, routing.getConnection());
+
+        pins.routeToPrimaryIfPinned(written);
+        assertTrue(PrimaryPinRegistry.isPrimaryRequired());
+        assertSame(primaryConnection, routing.getConnection());
+
+        // The pin ends with the transaction, not with the thread
+        completeTransaction();
+        assertFalse(PrimaryPinRegistry.isPrimaryRequired());
+        beginTransaction(true);
+        assertSame(replicaConnection, routing.getConnection());
+    }
+
+    @Test
+    void pinsExpireAfterTheWindow() throws Exception {
+        ReadReplicaConfig config = new ReadReplicaConfig();
+        config.setPinWindowMs(0);
+        PrimaryPinRegistry pins = new PrimaryPinRegistry(config);
+        UUID written = UUID.randomUUID();
+        pins.pin(written);
+
+        beginTransaction(true);
+        pins.routeToPrimaryIfPinned(written);
+        assertFalse(PrimaryPinRegistry.isPrimaryRequired());
+    }
+
+    @Test
+    void explicitCredentialsAreNeverRouted() throws Exception {
+        Connection ownConnection = mock(Connection.class);
+        when(primary.getConnection("admin", "secret")).thenReturn(ownConnection);
+        beginTransaction(true);
+
+        assertSame(ownConnection, routing.getConnection("admin", "secret"));
+    }
+
+    private static void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private static void completeTransaction() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+    }
+}
@@ -4,9 +4,11 @@ import com.example.pettrail.dto.WalksPageResponse;
 import com.example.pettrail.dto.WalkListItem;
 import com.example.pettrail.dto.WalkGeoJsonResponse;
 import com.example.pettrail.exception.PetNotFoundException;
+import com.example.pettrail.exception.WalkNotFinishedException;
 import com.example.pettrail.exception.WalkNotFoundException;
 import com.example.pettrail.service.WalkService;
 import com.example.pettrail.service.WalkPointsService;
+import com.example.pettrail.service.WalkProfileService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,6 +24,9 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.UUID;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -39,6 +44,9 @@ class WalkControllerTest {
     @Mock
     private WalkPointsService walkPointsService;
 
+    @Mock
+    private WalkProfileService walkProfileService;
+
     @InjectMocks
     private WalkController walkController;
 
@@ -57,7 +65,7 @@ class WalkControllerTest {
         LocalDateTime startedAt = LocalDateTime.of(2025, 8, 13, 23, 15, 0);
         LocalDateTime finishedAt = LocalDateTime.of(2025, 8, 13, 23, 41, 0);
         
-        WalkListItem walkItem = new WalkListItem(TEST_WALK_ID, startedAt, finishedAt, 2450.7, 1560, 5.65);
+        WalkListItem walkItem = new WalkListItem(TEST_WALK_ID, startedAt, finishedAt, 2450.7, 1560, 5.65, 1320, 240, 6.63);
         WalksPageResponse expectedResponse = new WalksPageResponse(
                 Arrays.asList(walkItem), 0, 10, 3, 21L
         );
@@ -84,6 +92,31 @@ class WalkControllerTest {
                 .andExpect(jsonPath("$.totalElements").value(21));
     }
 
+    @Test
+    void listWalksByPet_NotModifiedUntilPageChanges() throws Exception {
+        // Arrange
+        WalkListItem walkItem = new WalkListItem(TEST_WALK_ID, LocalDateTime.of(2025, 8, 13, 23, 15, 0), null, null, null, null, null, null, null);
+        when(walkService.listByPet(TEST_PET_ID, 0, 10))
+                .thenReturn(new WalksPageResponse(Arrays.asList(walkItem), 0, 10, 1, 1L));
+
+        String eTag = mockMvc.perform(get("/api/walks").param("petId", TEST_PET_ID.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/walks").param("petId", TEST_PET_ID.toString()).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        // Finishing the walk changes the tag
+        WalkListItem finished = new WalkListItem(TEST_WALK_ID, walkItem.getStartedAt(), LocalDateTime.of(2025, 8, 13, 23, 41, 0), 2450.7, 1560, 5.65, 1320, 240, 6.63);
+        when(walkService.listByPet(TEST_PET_ID, 0, 10))
+                .thenReturn(new WalksPageResponse(Arrays.asList(finished), 0, 10, 1, 1L));
+        mockMvc.perform(get("/api/walks").param("petId", TEST_PET_ID.toString()).header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].duracaoS").value(1560));
+    }
+
     @Test
     void listWalksByPet_WithDefaults() throws Exception {
         // Arrange
@@ -214,6 +247,21 @@ class WalkControllerTest {
                 .andExpect(jsonPath("$.properties.walkId").value(TEST_WALK_ID.toString()));
     }
 
+    @Test
+    void getWalkGeoJson_FinishedWalkNotModified() throws Exception {
+        // Arrange
+        when(walkService.getGeoJsonETag(TEST_WALK_ID)).thenReturn("W/\"g1-abc\"");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/walks/" + TEST_WALK_ID + "/geojson")
+                        .header("If-None-Match", "\"g1-abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"g1-abc\""));
+
+        // The route is never read
+        verify(walkService, never()).getGeoJson(any());
+    }
+
     @Test
     void getWalkGeoJson_EmptyRoute() throws Exception {
         // Arrange
@@ -260,4 +308,46 @@ class WalkControllerTest {
                 .andExpect(jsonPath("$.details[0].field").value("id"))
                 .andExpect(jsonPath("$.details[0].issue").value("required numeric id"));
     }
+
+    @Test
+    void getWalkProfile_CachedForGood() throws Exception {
+        // Arrange
+        when(walkProfileService.getProfileETag(TEST_WALK_ID)).thenReturn("W/\"p1-abc\"");
+        when(walkProfileService.getProfileJson(TEST_WALK_ID)).thenReturn("{\"distanciaM\": 1450.2, \"parciais\": [{\"km\": 1}]}");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/walks/" + TEST_WALK_ID + "/profile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("ETag", "W/\"p1-abc\""))
+                .andExpect(header().string("Cache-Control", "max-age=31536000, private, immutable"))
+                .andExpect(jsonPath("$.distanciaM").value(1450.2))
+                .andExpect(jsonPath("$.parciais[0].km").value(1));
+    }
+
+    @Test
+    void getWalkProfile_NotModified() throws Exception {
+        // Arrange
+        when(walkProfileService.getProfileETag(TEST_WALK_ID)).thenReturn("W/\"p1-abc\"");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/walks/" + TEST_WALK_ID + "/profile")
+                        .header("If-None-Match", "W/\"p1-abc\""))
+                .andExpect(status().isNotModified());
+
+        // The profile is never read
+        verify(walkProfileService, never()).getProfileJson(any());
+    }
+
+    @Test
+    void getWalkProfile_ActiveWalk() throws Exception {
+        // Arrange
+        when(walkProfileService.getProfileETag(TEST_WALK_ID)).thenThrow(new WalkNotFinishedException("walk not finished"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/walks/" + TEST_WALK_ID + "/profile"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.code").value("CONFLICT"))
+                .andExpect(jsonPath("$.message").value("walk not finished"));
+    }
 }
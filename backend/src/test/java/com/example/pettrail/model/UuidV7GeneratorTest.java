@@ -0,0 +1,78 @@
+package com.example.pettrail.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    void next_HasVersion7VariantAndCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7Generator.next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long timestamp = id.getMostSignificantBits() >>> 16;
+        // May run ahead of the clock by a few ms when other tests drew many IDs in one millisecond
+        assertTrue(timestamp >= before && timestamp <= System.currentTimeMillis() + 1000);
+    }
+
+    @Test
+    void next_IsStrictlyIncreasingInByteOrderAcrossThreads() throws Exception {
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<UUID[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    UUID[] ids = new UUID[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        ids[i] = UuidV7Generator.next();
+                    }
+                    return ids;
+                }));
+            }
+            Set<UUID> all = new HashSet<>();
+            for (Future<UUID[]> future : futures) {
+                UUID[] ids = future.get();
+                for (int i = 1; i < ids.length; i++) {
+                    assertTrue(compareUnsigned(ids[i - 1], ids[i]) < 0, "IDs of one thread must increase");
+                }
+                all.addAll(Arrays.asList(ids));
+            }
+            assertEquals(threads * perThread, all.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void build_CounterOverflowCarriesIntoTimestamp() {
+        long ms = 1_760_000_000_000L;
+        UUID last = UuidV7Generator.build(ms << 12 | 0xFFF, 0);
+        UUID carried = UuidV7Generator.build((ms << 12 | 0xFFF) + 1, 0);
+
+        assertEquals(ms, last.getMostSignificantBits() >>> 16);
+        assertEquals(ms + 1, carried.getMostSignificantBits() >>> 16);
+        assertEquals(0, carried.getMostSignificantBits() & 0xFFF);
+        assertTrue(compareUnsigned(last, carried) < 0);
+    }
+
+    // PostgreSQL compares UUIDs as unsigned bytes; UUID.compareTo is signed
+    private static int compareUnsigned(UUID a, UUID b) {
+        int result = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return result != 0 ? result : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.pettrail.repository;
+
+import com.example.pettrail.config.ElevationConfig;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.service.ElevationEnricher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DemTileRepositoryTest {
+
+    @TempDir
+    Path demDirectory;
+
+    private ElevationConfig config;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        config = new ElevationConfig();
+        config.setDirectory(demDirectory.toString());
+        config.setEnabled(true);
+        // 24°S-23°S, 47°W-46°W in 3 x 3 samples (half a degree apart), rows from north to south
+        writeTile("S24W047.hgt", 3, new short[]{
+                100, 200, 300,
+                400, 500, Short.MIN_VALUE,
+                700, 800, 900});
+    }
+
+    @Test
+    void elevationIsInterpolatedBetweenTheSurroundingSamples() {
+        DemTileRepository repository = new DemTileRepository(config);
+
+        DemTileRepository.Tile tile = repository.tileFor(-23.25, -46.75);
+        assertFalse(tile.isMissing());
+        // North-west corner, then halfway between the first two rows and columns
+        assertEquals(100.0, tile.elevation(-23.0, -47.0), 1e-9);
+        assertEquals(300.0, tile.elevation(-23.25, -46.75), 1e-9);
+        assertEquals(800.0, tile.elevation(-24.0, -46.5), 1e-9);
+        // The void is left out: (200 + 300 + 500) / 3 weighted equally
+        assertEquals(1000.0 / 3, tile.elevation(-23.25, -46.25), 1e-9);
+        assertTrue(tile.contains(-23.9, -46.1));
+        assertFalse(tile.contains(-22.9, -46.1));
+    }
+
+    @Test
+    void missingTilesGiveNoElevation() {
+        DemTileRepository repository = new DemTileRepository(config);
+
+        DemTileRepository.Tile tile = repository.tileFor(48.85, 2.35);
+        assertTrue(tile.isMissing());
+        assertTrue(Double.isNaN(tile.elevation(48.85, 2.35)));
+    }
+
+    @Test
+    void leastRecentlyUsedTileIsClosed() {
+        config.setMaxOpenTiles(2);
+        DemTileRepository repository = new DemTileRepository(config);
+
+        DemTileRepository.Tile first = repository.tileFor(-23.5, -46.5);
+        repository.tileFor(48.85, 2.35);
+        assertSame(first, repository.tileFor(-23.5, -46.5));
+        repository.tileFor(40.71, -74.0);
+        repository.tileFor(35.68, 139.69);
+
+        assertNotSame(first, repository.tileFor(-23.5, -46.5));
+    }
+
+    @Test
+    void enricherOnlyFillsMissingElevations() {
+        ElevationEnricher enricher = new ElevationEnricher(config, new DemTileRepository(config), new SimpleMeterRegistry());
+        double[] elevations = {Double.NaN, 42.0, Double.NaN, Double.NaN};
+        WalkTrack points = new WalkTrack(4, new long[4],
+                new double[]{-23.5, -23.5, 10.0, -23.25},
+                new double[]{-47.0, -47.0, 10.0, -46.75},
+                elevations);
+
+        enricher.fillMissing(points, new int[]{3, 0, 1, 2}, 3);
+
+        assertEquals(400.0, points.elevation(0), 1e-9);
+        assertEquals(42.0, points.elevation(1));
+        // Not in the processed part of the order, and then without a tile
+        assertTrue(Double.isNaN(points.elevation(2)));
+        assertEquals(300.0, points.elevation(3), 1e-9);
+        enricher.fillMissing(points);
+        assertTrue(Double.isNaN(points.elevation(2)));
+    }
+
+    private void writeTile(String name, int samples, short[] heights) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(samples * samples * 2);
+        for (short height : heights) {
+            buffer.putShort(height);
+        }
+        Files.write(demDirectory.resolve(name), buffer.array());
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.pettrail.repository;
+
+import com.example.pettrail.model.UuidV7Generator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Insert benchmark of random (v4) against time-ordered (v7) primary keys on a table shaped like
+ * walk_points, against a real PostgreSQL. Each variant inserts the same points in JDBC batches and
+ * reports throughput, WAL written and the size of the primary key index. Results are logged; the
+ * assertion only checks that v7 keeps the index smaller.
+ * <p>
+ * Only runs when pointed at a scratch database, e.g.
+ * {@code mvn test -Dtest=UuidKeyInsertBenchmarkTest -Dpettrail.benchmark.jdbc-url=jdbc:postgresql://localhost:5432/scratch}
+ * (optionally -Dpettrail.benchmark.username / .password / .rows). It creates and drops its own tables.
+ */
+@EnabledIfSystemProperty(named = "pettrail.benchmark.jdbc-url", matches = ".+")
+class UuidKeyInsertBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(UuidKeyInsertBenchmarkTest.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Test
+    void timeOrderedKeys_KeepPrimaryKeyIndexSmaller() throws SQLException {
+        int rows = Integer.getInteger("pettrail.benchmark.rows", 1_000_000);
+        String url = System.getProperty("pettrail.benchmark.jdbc-url");
+        String separator = url.contains("?") ? "&" : "?";
+        try (Connection con = DriverManager.getConnection(url + separator + "reWriteBatchedInserts=true",
+                System.getProperty("pettrail.benchmark.username", "postgres"),
+                System.getProperty("pettrail.benchmark.password", ""))) {
+
+            Result v4 = run(con, "bench_uuid_v4", UUID::randomUUID, rows);
+            Result v7 = run(con, "bench_uuid_v7", UuidV7Generator::next, rows);
+
+            StringBuilder table = new StringBuilder(String.format("%n%-4s %10s %14s %12s %12s",
+                    "keys", "rows/s", "WAL bytes", "pkey bytes", "pkey pages"));
+            for (Result result : new Result[]{v4, v7}) {
+                table.append(String.format("%n%-4s %10.0f %14d %12d %12d", result.name, result.rowsPerSecond,
+                        result.walBytes, result.indexBytes, result.indexPages));
+            }
+            logger.info("UUID key insert benchmark ({} rows):{}", rows, table);
+            assertTrue(v7.indexBytes < v4.indexBytes);
+        }
+    }
+
+    private static Result run(Connection con, String table, Supplier<UUID> ids, int rows) throws SQLException {
+        try (Statement statement = con.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            statement.execute("CREATE TABLE " + table + " (id UUID NOT NULL, walk_id UUID NOT NULL, " +
+                    "latitude NUMERIC(10, 8) NOT NULL, longitude NUMERIC(11, 8) NOT NULL, timestamp TIMESTAMP NOT NULL, " +
+                    "elevation NUMERIC(8, 2), created_at TIMESTAMP, PRIMARY KEY (id, timestamp))");
+        }
+        try {
+            long walStart = walPosition(con);
+            long start = System.nanoTime();
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement("INSERT INTO " + table +
+                    " (id, walk_id, latitude, longitude, timestamp, elevation, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                UUID walkId = UUID.randomUUID();
+                LocalDateTime time = LocalDateTime.of(2025, 8, 14, 22, 0);
+                for (int i = 0; i < rows; i++) {
+                    // A new walk every 2000 points, as a steady stream of uploads would produce
+                    if (i % 2000 == 0) {
+                        walkId = UUID.randomUUID();
+                    }
+                    ps.setObject(1, ids.get());
+                    ps.setObject(2, walkId);
+                    ps.setDouble(3, -23.5505 - (i % 2000) * 0.00001);
+                    ps.setDouble(4, -46.6333 - (i % 2000) * 0.00001);
+                    ps.setObject(5, time.plusSeconds(i));
+                    ps.setDouble(6, 760 + i % 10);
+                    ps.setObject(7, time);
+                    ps.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0 || i == rows - 1) {
+                        ps.executeBatch();
+                        con.commit();
+                    }
+                }
+            } finally {
+                con.setAutoCommit(true);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long walBytes = walPosition(con) - walStart;
+
+            try (Statement statement = con.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT pg_relation_size('" + table + "_pkey'), " +
+                         "pg_relation_size('" + table + "_pkey') / current_setting('block_size')::int")) {
+                rs.next();
+                return new Result(table.substring(table.lastIndexOf('_') + 1), rows / seconds, walBytes,
+                        rs.getLong(1), rs.getLong(2));
+            }
+        } finally {
+            try (Statement statement = con.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS " + table);
+            }
+        }
+    }
+
+    private static long walPosition(Connection con) throws SQLException {
+        try (Statement statement = con.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), '0/0')::bigint")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private record Result(String name, double rowsPerSecond, long walBytes, long indexBytes, long indexPages) {
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.pettrail.repository;
+
+import com.example.pettrail.config.WalkArchiveConfig;
+import com.example.pettrail.model.WalkPoint;
+import com.example.pettrail.model.WalkTrack;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalkArchiveRepositoryTest {
+
+    private static final UUID WALK_ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440001");
+    private static final UUID WALK_ID_2 = UUID.fromString("550e8400-e29b-41d4-a716-446655440002");
+    private static final UUID EMPTY_WALK_ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440003");
+
+    @TempDir
+    Path archiveDirectory;
+
+    private WalkArchiveRepository walkArchiveRepository;
+
+    @BeforeEach
+    void setUp() {
+        WalkArchiveConfig config = new WalkArchiveConfig();
+        config.setDirectory(archiveDirectory.toString());
+        walkArchiveRepository = new WalkArchiveRepository(config);
+    }
+
+    @Test
+    void writeSegment_ThenReadTrack_ReturnsSamePoints() throws IOException {
+        List<WalkPoint> points = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2025, 8, 14, 22, 0, 0, 123456000);
+        for (int i = 0; i < 500; i++) {
+            BigDecimal elevation = i % 3 == 0 ? null : new BigDecimal("760.25").add(BigDecimal.valueOf(i, 2));
+            points.add(new WalkPoint(WALK_ID,
+                    new BigDecimal("-23.55050000").add(BigDecimal.valueOf(i * 37L, 8)),
+                    new BigDecimal("-46.63330000").subtract(BigDecimal.valueOf(i * 41L, 8)),
+                    start.plusSeconds(i * 5L), elevation));
+        }
+        List<WalkPoint> otherPoints = List.of(
+                new WalkPoint(WALK_ID_2, new BigDecimal("89.99999999"), new BigDecimal("179.99999999"), start),
+                new WalkPoint(WALK_ID_2, new BigDecimal("-90.00000000"), new BigDecimal("-180.00000000"), start.plusDays(1)));
+
+        Map<UUID, WalkTrack> tracks = new LinkedHashMap<>();
+        tracks.put(WALK_ID, WalkTrack.fromPoints(points));
+        tracks.put(WALK_ID_2, WalkTrack.fromPoints(otherPoints));
+        tracks.put(EMPTY_WALK_ID, WalkTrack.fromPoints(List.of()));
+
+        String segment = walkArchiveRepository.writeSegment(tracks);
+
+        assertTrue(Files.exists(archiveDirectory.resolve(segment)));
+        assertTrue(Files.size(archiveDirectory.resolve(segment)) < points.size() * 8L);
+        assertTrackEquals(points, walkArchiveRepository.readTrack(segment, WALK_ID));
+        assertTrackEquals(otherPoints, walkArchiveRepository.readTrack(segment, WALK_ID_2));
+        assertTrue(walkArchiveRepository.readTrack(segment, EMPTY_WALK_ID).isEmpty());
+    }
+
+    @Test
+    void readTrack_UnknownWalk_ThrowsIOException() throws IOException {
+        String segment = walkArchiveRepository.writeSegment(Map.of(WALK_ID, WalkTrack.fromPoints(List.of())));
+
+        assertThrows(IOException.class, () -> walkArchiveRepository.readTrack(segment, WALK_ID_2));
+        assertThrows(IOException.class, () -> walkArchiveRepository.readTrack("../" + segment, WALK_ID));
+    }
+
+    @Test
+    void deleteSegment_RemovesFileAndMapping() throws IOException {
+        String segment = walkArchiveRepository.writeSegment(Map.of(WALK_ID, WalkTrack.fromPoints(List.of())));
+        walkArchiveRepository.readTrack(segment, WALK_ID);
+
+        assertTrue(walkArchiveRepository.deleteSegment(segment));
+
+        assertFalse(Files.exists(archiveDirectory.resolve(segment)));
+        assertThrows(IOException.class, () -> walkArchiveRepository.readTrack(segment, WALK_ID));
+        assertFalse(walkArchiveRepository.deleteSegment(segment));
+        assertThrows(IOException.class, () -> walkArchiveRepository.deleteSegment("../" + segment));
+    }
+
+    @Test
+    void closeDeletedSegments_DropsSegmentsDeletedElsewhere() throws IOException {
+        String kept = walkArchiveRepository.writeSegment(Map.of(WALK_ID, WalkTrack.fromPoints(List.of())));
+        String deleted = walkArchiveRepository.writeSegment(Map.of(WALK_ID_2, WalkTrack.fromPoints(List.of())));
+        walkArchiveRepository.readTrack(kept, WALK_ID);
+        walkArchiveRepository.readTrack(deleted, WALK_ID_2);
+        Files.delete(archiveDirectory.resolve(deleted));
+
+        assertEquals(1, walkArchiveRepository.closeDeletedSegments());
+
+        assertTrue(walkArchiveRepository.readTrack(kept, WALK_ID).isEmpty());
+        assertThrows(IOException.class, () -> walkArchiveRepository.readTrack(deleted, WALK_ID_2));
+    }
+
+    private void assertTrackEquals(List<WalkPoint> expected, WalkTrack actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            WalkPoint point = expected.get(i);
+            assertEquals(point.getTimestamp(), actual.timestamp(i));
+            assertEquals(point.getLatitude().doubleValue(), actual.latitude(i));
+            assertEquals(point.getLongitude().doubleValue(), actual.longitude(i));
+            if (point.getElevation() == null) {
+                assertFalse(actual.hasElevation(i));
+            } else {
+                assertEquals(point.getElevation().doubleValue(), actual.elevation(i));
+            }
+        }
+    }
+}
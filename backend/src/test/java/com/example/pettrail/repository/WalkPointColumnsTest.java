@@ -0,0 +1,49 @@
+package com.example.pettrail.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WalkPointColumnsTest {
+
+    @Test
+    void fixedColumnsArePreferred() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt(2)).thenReturn(-235505000);
+        when(rs.getInt(3)).thenReturn(-466333000);
+        when(rs.getInt(4)).thenReturn(76020);
+        when(rs.wasNull()).thenReturn(false);
+
+        assertEquals(-23.5505, WalkPointColumns.latitude(rs, 1), 0.0);
+        assertEquals(-46.6333, WalkPointColumns.longitude(rs, 1), 0.0);
+        assertEquals(760.2, WalkPointColumns.elevation(rs, 1), 0.0);
+        verify(rs, never()).getDouble(anyInt());
+    }
+
+    @Test
+    void unconvertedRowsFallBackToTheDecimalColumns() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getDouble(5)).thenReturn(-23.55050001);
+        when(rs.getDouble(6)).thenReturn(-46.6333);
+        when(rs.wasNull()).thenReturn(true, true);
+
+        assertEquals(-23.55050001, WalkPointColumns.latitude(rs, 1), 0.0);
+        assertEquals(-46.6333, WalkPointColumns.longitude(rs, 1), 0.0);
+
+        // Neither column set: no elevation
+        when(rs.wasNull()).thenReturn(true, true);
+        assertTrue(Double.isNaN(WalkPointColumns.elevation(rs, 1)));
+    }
+
+    @Test
+    void conversionRoundsToTheNearestUnit() {
+        assertEquals(-235505000, WalkPointColumns.toFixedCoordinate(-23.5505));
+        assertEquals(1800000000, WalkPointColumns.toFixedCoordinate(180.0));
+        assertEquals(123456789, WalkPointColumns.toFixedCoordinate(12.34567894));
+        assertEquals(76025, WalkPointColumns.toFixedElevation(760.249));
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.pettrail.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the query plans of the walk_points queries against a real PostgreSQL, to catch plan
+ * regressions when indexes or queries change. Each query must be served by the index meant for it:
+ * per-walk reads and deletes by (walk_id, timestamp), the last point without sorting the walk, and
+ * time-range scans of the default partition by the BRIN index.
+ * <p>
+ * Only runs when pointed at a database migrated by the application, e.g.
+ * {@code mvn test -Dtest=WalkPointQueryPlanTest -Dpettrail.explain.jdbc-url=jdbc:postgresql://localhost:5432/pettrail}
+ * (optionally -Dpettrail.explain.username / .password). Test rows and statistics are added in a
+ * transaction that is rolled back at the end.
+ */
+@EnabledIfSystemProperty(named = "pettrail.explain.jdbc-url", matches = ".+")
+class WalkPointQueryPlanTest {
+
+    private static final int WALKS = 300;
+    private static final int POINTS_PER_WALK = 400;
+    private static final int STRAY_POINTS = 50_000;
+    private static final LocalDateTime STRAY_START = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static Connection con;
+    private static final List<UUID> walkIds = new ArrayList<>();
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        con = DriverManager.getConnection(System.getProperty("pettrail.explain.jdbc-url"),
+                System.getProperty("pettrail.explain.username", "postgres"),
+                System.getProperty("pettrail.explain.password", ""));
+        con.setAutoCommit(false);
+
+        UUID userId = UUID.randomUUID();
+        UUID petId = UUID.randomUUID();
+        update("INSERT INTO users (id, email, password, first_name, last_name, role, enabled) " +
+                "VALUES (?, ?, 'x', 'Plan', 'Test', 'USER', true)", userId, "plan-" + userId + "@example.com");
+        update("INSERT INTO pets (id, name, species, age, race, user_id) VALUES (?, 'Rex', 'DOG', 3, 'Mixed', ?)",
+                petId, userId);
+        for (int i = 0; i < WALKS; i++) {
+            UUID walkId = UUID.randomUUID();
+            walkIds.add(walkId);
+            update("INSERT INTO walks (id, pet_id, user_id, started_at, finished_at) " +
+                    "VALUES (?, ?, ?, LOCALTIMESTAMP, LOCALTIMESTAMP)", walkId, petId, userId);
+        }
+
+        // Walks upload one after another into the current month's partition, in time order
+        update("INSERT INTO walk_points (id, walk_id, timestamp, lat_e7, lon_e7, elev_cm, created_at) " +
+                "SELECT gen_random_uuid(), w.id, date_trunc('month', LOCALTIMESTAMP) + " +
+                "make_interval(secs => (w.n - 1) * ? + p), -235505000 + p, -466333000 - p, 76000, LOCALTIMESTAMP " +
+                "FROM (SELECT id, row_number() OVER (ORDER BY id) AS n FROM walks WHERE pet_id = ?) w, " +
+                "generate_series(0, ? - 1) p", POINTS_PER_WALK, petId, POINTS_PER_WALK);
+        // Points with timestamps no partition covers yet land in the default partition
+        update("INSERT INTO walk_points (id, walk_id, timestamp, lat_e7, lon_e7, created_at) " +
+                "SELECT gen_random_uuid(), ?, ?::timestamp + make_interval(secs => p), -235505000, -466333000, " +
+                "LOCALTIMESTAMP FROM generate_series(0, ? - 1) p", walkIds.get(0), STRAY_START, STRAY_POINTS);
+        try (Statement statement = con.createStatement()) {
+            statement.execute("ANALYZE walks");
+            statement.execute("ANALYZE walk_points");
+        }
+    }
+
+    @AfterAll
+    static void rollBack() throws SQLException {
+        if (con != null) {
+            con.rollback();
+            con.close();
+        }
+    }
+
+    @Test
+    void routeIsReadFromTheCompositeIndex() throws SQLException {
+        Plan plan = explain(WalkPointTrackReader.TRACK_SQL, walkIds.get(WALKS / 2));
+
+        // The default partition rules out an ordered Append, so the route's rows may still be sorted
+        assertNoSeqScan(plan);
+        assertIndexesFrom(plan, "idx_walk_points_walk_timestamp");
+    }
+
+    @Test
+    void lastPointIsReadBackwardsFromTheCompositeIndex() throws SQLException {
+        Plan plan = explain(WalkPointTrackReader.LAST_POINT_SQL, walkIds.get(WALKS / 2));
+
+        assertNoSeqScan(plan);
+        assertNoSort(plan);
+        assertIndexesFrom(plan, "idx_walk_points_walk_timestamp");
+    }
+
+    @Test
+    void archiverBatchUsesTheCompositeIndex() throws SQLException {
+        List<UUID> batch = walkIds.subList(10, 20);
+        String sql = WalkPointTrackReader.TRACKS_SQL.replace(":walkIds", String.join(", ", Collections.nCopies(batch.size(), "?")));
+
+        Plan plan = explain(sql, batch.toArray());
+
+        assertNoSeqScan(plan);
+        assertIndexesFrom(plan, "idx_walk_points_walk_timestamp");
+    }
+
+    @Test
+    void pointBatchDeletionUsesTheCompositeIndex() throws SQLException {
+        List<UUID> batch = walkIds.subList(10, 12);
+        // WalkPointRepository.deleteBatchByWalkIdIn
+        String sql = "DELETE FROM walk_points WHERE walk_id IN (?, ?) AND (id, timestamp) IN " +
+                "(SELECT id, timestamp FROM walk_points WHERE walk_id IN (?, ?) LIMIT 5000)";
+
+        Plan plan = explain(sql, batch.get(0), batch.get(1), batch.get(0), batch.get(1));
+
+        assertNoSeqScan(plan);
+        assertIndexesFrom(plan, "idx_walk_points_walk_timestamp", "walk_points_pkey");
+    }
+
+    @Test
+    void defaultPartitionRangeCheckUsesTheBrinIndex() throws SQLException {
+        // The check WalkPointPartitionService runs before creating a month's partition
+        Plan plan = explain("SELECT EXISTS (SELECT 1 FROM walk_points_default " +
+                "WHERE timestamp >= ? AND timestamp < ?)", STRAY_START.plusMonths(2), STRAY_START.plusMonths(3));
+
+        assertNoSeqScan(plan);
+        assertIndexesFrom(plan, "idx_walk_points_timestamp_brin");
+    }
+
+    private static void assertNoSort(Plan plan) {
+        assertTrue(plan.nodes().stream().noneMatch(node -> node.path("Node Type").asText().contains("Sort")),
+                () -> "unexpected sort in\n" + plan);
+    }
+
+    // Empty partitions (the months created ahead of time) are scanned for free
+    private static void assertNoSeqScan(Plan plan) throws SQLException {
+        for (JsonNode node : plan.nodes()) {
+            if ("Seq Scan".equals(node.path("Node Type").asText())) {
+                String relation = node.path("Relation Name").asText();
+                assertEquals(0, estimatedRows(relation), () -> "unexpected sequential scan of " + relation + " in\n" + plan);
+            }
+        }
+    }
+
+    // Partition plans name the partitions' indexes: compare the partitioned indexes they belong to
+    private static void assertIndexesFrom(Plan plan, String... expected) throws SQLException {
+        List<String> indexes = new ArrayList<>();
+        for (JsonNode node : plan.nodes()) {
+            if (node.has("Index Name")) {
+                indexes.add(parentIndex(node.get("Index Name").asText()));
+            }
+        }
+        assertFalse(indexes.isEmpty(), () -> "no index scan in\n" + plan);
+        assertTrue(List.of(expected).containsAll(indexes), () -> "unexpected indexes " + indexes + " in\n" + plan);
+    }
+
+    private static long estimatedRows(String relation) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT greatest(reltuples, 0)::bigint FROM pg_class WHERE relname = ?")) {
+            ps.setString(1, relation);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static String parentIndex(String index) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT p.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent WHERE c.relname = ?")) {
+            ps.setString(1, index);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : index;
+            }
+        }
+    }
+
+    private static Plan explain(String sql, Object... params) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("EXPLAIN (FORMAT JSON) " + sql)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                List<JsonNode> nodes = new ArrayList<>();
+                StringBuilder text = new StringBuilder();
+                collect(MAPPER.readTree(rs.getString(1)).get(0).get("Plan"), 0, nodes, text);
+                return new Plan(nodes, text.toString());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Unreadable plan", e);
+            }
+        }
+    }
+
+    private static void collect(JsonNode node, int depth, List<JsonNode> nodes, StringBuilder text) {
+        nodes.add(node);
+        text.append("  ".repeat(depth)).append(node.path("Node Type").asText());
+        if (node.has("Relation Name")) {
+            text.append(" on ").append(node.get("Relation Name").asText());
+        }
+        if (node.has("Index Name")) {
+            text.append(" using ").append(node.get("Index Name").asText());
+        }
+        text.append(" (rows=").append(node.path("Plan Rows").asLong()).append(")\n");
+        for (JsonNode child : node.path("Plans")) {
+            collect(child, depth + 1, nodes, text);
+        }
+    }
+
+    private static void update(String sql, Object... params) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            ps.executeUpdate();
+        }
+    }
+
+    // A plan's nodes in depth-first order, and an indented summary for failure messages
+    private record Plan(List<JsonNode> nodes, String text) {
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+}
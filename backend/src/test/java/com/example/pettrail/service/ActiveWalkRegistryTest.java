@@ -0,0 +1,118 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.ActiveWalkConfig;
+import com.example.pettrail.model.Walk;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronization;
+
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static com.example.pettrail.service.TestTransactions.inTransaction;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ActiveWalkRegistryTest {
+
+    private final UUID petId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+
+    private JdbcTemplate jdbcTemplate;
+    private ActiveWalkRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        registry = new ActiveWalkRegistry(new ActiveWalkConfig(), jdbcTemplate, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void startedWalkIsKnownOnlyOnceCommitted() {
+        Walk walk = walk();
+
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> registry.started(walk));
+        assertNull(registry.find(walk.getId()));
+
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> registry.started(walk));
+        assertTrue(registry.find(walk.getId()).isActive());
+        assertSame(registry.find(walk.getId()), registry.findActiveByPet(petId));
+    }
+
+    @Test
+    void stopIsVisibleAtOnceAndUndoneOnRollback() {
+        Walk walk = walk();
+        registry.remember(walk);
+
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> {
+            registry.finishing(walk);
+            assertFalse(registry.find(walk.getId()).isActive());
+            assertNull(registry.findActiveByPet(petId));
+        });
+        assertTrue(registry.find(walk.getId()).isActive());
+        assertNotNull(registry.findActiveByPet(petId));
+
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> registry.finishing(walk));
+        assertFalse(registry.find(walk.getId()).isActive());
+        assertNull(registry.findActiveByPet(petId));
+    }
+
+    @Test
+    void resyncDropsWalksStoppedElsewhereAndKeepsLocalStops() throws Exception {
+        Walk stoppedElsewhere = walk();
+        Walk stoppedHere = walk();
+        stoppedHere.setPetId(UUID.randomUUID());
+        registry.remember(stoppedElsewhere);
+        registry.remember(stoppedHere);
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> registry.finishing(stoppedHere));
+
+        // The database still lists the walk stopped here (query snapshot taken before the stop),
+        // plus a walk started on another instance
+        UUID startedElsewhere = UUID.randomUUID();
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject(1, UUID.class)).thenReturn(stoppedHere.getId(), startedElsewhere);
+        when(rs.getObject(2, UUID.class)).thenReturn(stoppedHere.getPetId(), UUID.randomUUID());
+        when(rs.getObject(3, UUID.class)).thenReturn(userId);
+        when(rs.getObject(4, LocalDateTime.class)).thenReturn(LocalDateTime.now());
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(rs);
+            handler.processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        registry.resync();
+
+        assertNull(registry.find(stoppedElsewhere.getId()));
+        assertNull(registry.findActiveByPet(petId));
+        assertFalse(registry.find(stoppedHere.getId()).isActive());
+        assertTrue(registry.find(startedElsewhere).isActive());
+        assertEquals(ActiveWalk.NO_POINT, registry.find(startedElsewhere).getLastPointMicros());
+    }
+
+    @Test
+    void deletedPetsWalksAreForgotten() {
+        Walk walk = walk();
+        registry.remember(walk);
+
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> registry.petDeleted(petId));
+
+        assertNull(registry.find(walk.getId()));
+        assertNull(registry.findActiveByPet(petId));
+        verify(jdbcTemplate, never()).query(anyString(), any(RowCallbackHandler.class));
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Boolean.class), any(Object[].class));
+    }
+
+    private Walk walk() {
+        Walk walk = new Walk(petId, userId, LocalDateTime.now());
+        walk.setId(UUID.randomUUID());
+        return walk;
+    }
+}
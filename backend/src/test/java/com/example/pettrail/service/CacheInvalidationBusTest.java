@@ -0,0 +1,121 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.InvalidationConfig;
+import com.example.pettrail.enums.InvalidationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.example.pettrail.service.TestTransactions.inTransaction;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CacheInvalidationBusTest {
+
+    private static final String OTHER_NODE = UUID.randomUUID().toString();
+
+    private JdbcTemplate jdbcTemplate;
+    private CacheInvalidationListener listener;
+    private SimpleMeterRegistry meterRegistry;
+    private CacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        listener = mock(CacheInvalidationListener.class);
+        meterRegistry = new SimpleMeterRegistry();
+        bus = new CacheInvalidationBus(new InvalidationConfig(), jdbcTemplate, new DataSourceProperties(),
+                List.of(listener), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.shutdown();
+    }
+
+    @Test
+    void messagesSurviveEncoding() {
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        CacheInvalidationBus.Message message = new CacheInvalidationBus.Message(OTHER_NODE, 42,
+                InvalidationType.WALKS_DELETED, ids);
+
+        assertEquals(message, CacheInvalidationBus.Message.decode(message.encode()));
+        CacheInvalidationBus.Message heartbeat = CacheInvalidationBus.Message.decode(OTHER_NODE + " 7");
+        assertNull(heartbeat.type());
+        assertEquals(7, heartbeat.sequence());
+        assertNull(CacheInvalidationBus.Message.decode(OTHER_NODE + " 8 NO_SUCH_TYPE " + UUID.randomUUID()));
+        assertNull(CacheInvalidationBus.Message.decode("garbage"));
+    }
+
+    @Test
+    void consecutiveNotificationsAreAppliedAndGapsFlush() {
+        UUID walkId = UUID.randomUUID();
+        bus.receive(message(5, InvalidationType.WALK_STOPPED, walkId));
+        bus.receive(message(6, InvalidationType.WALK_STOPPED, walkId));
+        verify(listener, times(2)).invalidate(InvalidationType.WALK_STOPPED, List.of(walkId));
+
+        // #7 was lost
+        bus.receive(message(8, InvalidationType.PET_DELETED, UUID.randomUUID()));
+        verify(listener).flush();
+        verify(listener, never()).invalidate(eq(InvalidationType.PET_DELETED), anyList());
+        assertEquals(1.0, meterRegistry.get("pettrail.invalidation.flushes").tag("reason", "gap").counter().count());
+    }
+
+    @Test
+    void heartbeatRevealsALostLastNotification() {
+        bus.receive(message(3, InvalidationType.WALK_STOPPED, UUID.randomUUID()));
+        bus.receive(OTHER_NODE + " 3");
+        verify(listener, never()).flush();
+
+        bus.receive(OTHER_NODE + " 4");
+        verify(listener).flush();
+    }
+
+    @Test
+    void publishedChangesAreSentOnlyOnCommitInSequence() {
+        List<UUID> walkIds = new ArrayList<>();
+        for (int i = 0; i < CacheInvalidationBus.MAX_IDS_PER_MESSAGE + 1; i++) {
+            walkIds.add(UUID.randomUUID());
+        }
+
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK,
+                () -> bus.publish(InvalidationType.WALK_STOPPED, List.of(UUID.randomUUID())));
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED,
+                () -> bus.publish(InvalidationType.WALKS_DELETED, walkIds));
+
+        ArgumentCaptor<String> payloads = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, timeout(5000).times(2)).queryForObject(anyString(), eq(Object.class),
+                eq("pettrail_invalidation"), payloads.capture());
+        List<CacheInvalidationBus.Message> messages = payloads.getAllValues().stream().map(CacheInvalidationBus.Message::decode).toList();
+        assertEquals(1, messages.get(0).sequence());
+        assertEquals(2, messages.get(1).sequence());
+        assertEquals(CacheInvalidationBus.MAX_IDS_PER_MESSAGE, messages.get(0).ids().size());
+        assertEquals(walkIds.get(walkIds.size() - 1), messages.get(1).ids().get(0));
+    }
+
+    @Test
+    void ownNotificationsAreIgnored() {
+        bus.publish(InvalidationType.WALK_STOPPED, List.of(UUID.randomUUID()));
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, timeout(5000)).queryForObject(anyString(), eq(Object.class), anyString(), payload.capture());
+
+        bus.receive(payload.getValue());
+
+        verifyNoInteractions(listener);
+    }
+
+    private static String message(long sequence, InvalidationType type, UUID id) {
+        return new CacheInvalidationBus.Message(OTHER_NODE, sequence, type, List.of(id)).encode();
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.PetDeletionConfig;
+import com.example.pettrail.enums.InvalidationType;
+import com.example.pettrail.enums.PetDeletionStatus;
+import com.example.pettrail.exception.PetNotFoundException;
+import com.example.pettrail.model.PetDeletionJob;
+import com.example.pettrail.repository.PetDeletionJobRepository;
+import com.example.pettrail.repository.PetRepository;
+import com.example.pettrail.repository.WalkPointRepository;
+import com.example.pettrail.repository.WalkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PetDeletionServiceTest {
+
+    @Mock
+    private PetRepository petRepository;
+
+    @Mock
+    private WalkRepository walkRepository;
+
+    @Mock
+    private WalkPointRepository walkPointRepository;
+
+    @Mock
+    private PetDeletionJobRepository jobRepository;
+
+    @Mock
+    private WalkRouteCache walkRouteCache;
+
+    @Mock
+    private WalkArchiveService walkArchiveService;
+
+    @Mock
+    private ActiveWalkRegistry activeWalkRegistry;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PetDeletionConfig config;
+    private PetDeletionService petDeletionService;
+
+    private final UUID petId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private PetDeletionJob job;
+
+    @BeforeEach
+    void setUp() {
+        config = new PetDeletionConfig();
+        config.setWalkBatchSize(2);
+        config.setPointBatchSize(100);
+        petDeletionService = new PetDeletionService(petRepository, walkRepository, walkPointRepository,
+                jobRepository, walkRouteCache, walkArchiveService, activeWalkRegistry, cacheInvalidationBus, config,
+                transactionManager);
+
+        job = new PetDeletionJob(petId, userId, 3, LocalDateTime.now());
+        job.setId(UUID.randomUUID());
+    }
+
+    @Test
+    void requestDeletion_UnknownOrForeignPetIsNotFound() {
+        when(petRepository.markDeleted(eq(petId), eq(userId), any())).thenReturn(0);
+
+        assertThrows(PetNotFoundException.class, () -> petDeletionService.requestDeletion(petId, userId));
+
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    void process_DeletesPointsInBatchesThenWalksThenPet() {
+        List<UUID> first = List.of(UUID.randomUUID(), UUID.randomUUID());
+        List<UUID> second = List.of(UUID.randomUUID());
+        when(walkRepository.findIdBatchByPetId(petId, 2)).thenReturn(first).thenReturn(second).thenReturn(List.of());
+        when(walkPointRepository.deleteBatchByWalkIdIn(first, 100)).thenReturn(100, 40);
+        when(walkPointRepository.deleteBatchByWalkIdIn(second, 100)).thenReturn(10);
+        when(walkRepository.lockArchiveSegmentsByIdIn(first)).thenReturn(Arrays.asList(null, null));
+        when(walkRepository.lockArchiveSegmentsByIdIn(second)).thenReturn(Arrays.asList((String) null));
+        when(walkRepository.deleteByIdIn(first)).thenReturn(2);
+        when(walkRepository.deleteByIdIn(second)).thenReturn(1);
+        when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+
+        int budgetLeft = petDeletionService.process(job, 10);
+
+        assertEquals(7, budgetLeft);
+        verify(walkPointRepository, times(2)).deleteBatchByWalkIdIn(first, 100);
+        verify(jobRepository).addProgress(eq(job.getId()), eq(0), eq(100L), any());
+        verify(jobRepository).addProgress(eq(job.getId()), eq(2), eq(0L), any());
+        verify(walkRouteCache).invalidateAll(first);
+        verify(walkRouteCache).invalidateAll(second);
+        verify(cacheInvalidationBus).publish(InvalidationType.WALKS_DELETED, first);
+        verify(cacheInvalidationBus).publish(InvalidationType.WALKS_DELETED, second);
+        verify(petRepository).deleteMarked(petId);
+        assertEquals(PetDeletionStatus.COMPLETED, job.getStatus());
+        assertNotNull(job.getFinishedAt());
+    }
+
+    @Test
+    void process_CompactsArchiveSegmentsBeforeCompleting() {
+        List<UUID> walkIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(walkRepository.findIdBatchByPetId(petId, 2)).thenReturn(walkIds).thenReturn(List.of());
+        when(walkRepository.lockArchiveSegmentsByIdIn(walkIds)).thenReturn(List.of("walks-a.seg", "walks-a.seg"));
+        when(walkRepository.deleteByIdIn(walkIds)).thenReturn(2);
+        when(jobRepository.findSegments(job.getId())).thenReturn(List.of("walks-a.seg")).thenReturn(List.of());
+        when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+
+        petDeletionService.process(job, 10);
+
+        verify(jobRepository).addSegment(job.getId(), "walks-a.seg");
+        verify(jobRepository).addProgress(eq(job.getId()), eq(2), eq(0L), any());
+        InOrder inOrder = inOrder(walkArchiveService, jobRepository, petRepository);
+        inOrder.verify(walkArchiveService).compactSegment("walks-a.seg");
+        inOrder.verify(jobRepository).removeSegment(job.getId(), "walks-a.seg");
+        inOrder.verify(petRepository).deleteMarked(petId);
+        assertEquals(PetDeletionStatus.COMPLETED, job.getStatus());
+    }
+
+    @Test
+    void process_FailedCompactionKeepsTheSegmentPending() {
+        when(walkRepository.findIdBatchByPetId(petId, 2)).thenReturn(List.of());
+        when(jobRepository.findSegments(job.getId())).thenReturn(List.of("walks-a.seg"));
+        when(walkArchiveService.compactSegment("walks-a.seg")).thenThrow(new IllegalStateException("disk full"));
+        when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+
+        petDeletionService.process(job, 10);
+
+        verify(jobRepository, never()).removeSegment(any(), any());
+        verify(petRepository, never()).deleteMarked(any());
+        assertEquals(PetDeletionStatus.QUEUED, job.getStatus());
+        assertNull(job.getFinishedAt());
+    }
+
+    @Test
+    void process_StopsWhenTheBudgetIsSpentAndStaysDue() {
+        List<UUID> walkIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(walkRepository.findIdBatchByPetId(petId, 2)).thenReturn(walkIds);
+        when(walkPointRepository.deleteBatchByWalkIdIn(walkIds, 100)).thenReturn(100);
+        when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        job.setNextAttemptAt(LocalDateTime.now().plusMinutes(5));
+
+        assertEquals(0, petDeletionService.process(job, 3));
+
+        verify(walkPointRepository, times(3)).deleteBatchByWalkIdIn(walkIds, 100);
+        verify(walkRepository, never()).deleteByIdIn(any());
+        verify(petRepository, never()).deleteMarked(any());
+        assertFalse(job.getNextAttemptAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void process_FailureIsRetriedWithBackoffThenMarkedFailed() {
+        config.setMaxAttempts(2);
+        config.setRetryDelaySeconds(30);
+        when(walkRepository.findIdBatchByPetId(petId, 2)).thenReturn(List.of(UUID.randomUUID()));
+        when(walkPointRepository.deleteBatchByWalkIdIn(any(), anyInt())).thenThrow(new RuntimeException("lock timeout"));
+        when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+
+        petDeletionService.process(job, 10);
+
+        assertEquals(PetDeletionStatus.QUEUED, job.getStatus());
+        assertEquals(1, job.getAttempts());
+        assertEquals("lock timeout", job.getLastError());
+        assertTrue(job.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(25)));
+
+        petDeletionService.process(job, 10);
+
+        assertEquals(PetDeletionStatus.FAILED, job.getStatus());
+        assertEquals(2, job.getAttempts());
+        assertNotNull(job.getFinishedAt());
+        verify(jobRepository, never()).addProgress(any(), anyInt(), anyLong(), any());
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.JwtConfig;
+import com.example.pettrail.exception.InvalidRefreshTokenException;
+import com.example.pettrail.model.RefreshToken;
+import com.example.pettrail.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokenService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID familyId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, new JwtConfig());
+    }
+
+    @Test
+    void issue_StoresOnlyTheHash() {
+        String token = refreshTokenService.issue(userId);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(userId, saved.getValue().getUserId());
+        assertEquals(RefreshTokenService.hash(token), saved.getValue().getTokenHash());
+        assertNotEquals(token, saved.getValue().getTokenHash());
+        assertTrue(saved.getValue().getExpiresAt().isAfter(LocalDateTime.now().plusDays(29)));
+    }
+
+    @Test
+    void rotate_IssuesNextTokenInSameFamily() {
+        RefreshToken current = stored("old", null, null, LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("old"))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markUsed(eq(current.getId()), any())).thenReturn(1);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("old");
+
+        assertEquals(userId, rotation.userId());
+        assertNotEquals("old", rotation.refreshToken());
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(familyId, saved.getValue().getFamilyId());
+        verify(refreshTokenRepository, never()).revokeFamily(any(), any());
+    }
+
+    @Test
+    void rotate_ReusedTokenRevokesFamily() {
+        RefreshToken current = stored("old", LocalDateTime.now().minusMinutes(5), null, LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(current));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("old"));
+
+        verify(refreshTokenRepository).revokeFamily(eq(familyId), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void rotate_LosingConcurrentRefreshRevokesFamily() {
+        RefreshToken current = stored("old", null, null, LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markUsed(eq(current.getId()), any())).thenReturn(0);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("old"));
+
+        verify(refreshTokenRepository).revokeFamily(eq(familyId), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void rotate_RejectsExpiredRevokedAndUnknownTokens() {
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("expired")))
+                .thenReturn(Optional.of(stored("expired", null, null, LocalDateTime.now().minusSeconds(1))));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("revoked")))
+                .thenReturn(Optional.of(stored("revoked", null, LocalDateTime.now(), LocalDateTime.now().plusDays(1))));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("unknown"))).thenReturn(Optional.empty());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("expired"));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("revoked"));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("unknown"));
+
+        verify(refreshTokenRepository, never()).markUsed(any(), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    private RefreshToken stored(String token, LocalDateTime usedAt, LocalDateTime revokedAt, LocalDateTime expiresAt) {
+        RefreshToken refreshToken = new RefreshToken(userId, familyId, RefreshTokenService.hash(token),
+                expiresAt.minusDays(30), expiresAt);
+        refreshToken.setId(UUID.randomUUID());
+        refreshToken.setUsedAt(usedAt);
+        refreshToken.setRevokedAt(revokedAt);
+        return refreshToken;
+    }
+}
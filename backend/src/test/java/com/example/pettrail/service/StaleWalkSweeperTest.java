@@ -0,0 +1,90 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.StaleWalkConfig;
+import com.example.pettrail.repository.WalkRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class StaleWalkSweeperTest {
+
+    private WalkRepository walkRepository;
+    private WalkService walkService;
+    private Connection connection;
+    private SimpleMeterRegistry meterRegistry;
+    private StaleWalkSweeper sweeper;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        walkRepository = mock(WalkRepository.class);
+        walkService = mock(WalkService.class);
+        connection = mock(Connection.class, RETURNS_DEEP_STUBS);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection))
+                .when(jdbcTemplate).execute(ArgumentMatchers.<ConnectionCallback<Object>>any());
+        meterRegistry = new SimpleMeterRegistry();
+
+        StaleWalkConfig config = new StaleWalkConfig();
+        config.setBatchSize(2);
+        config.setThreads(2);
+        sweeper = new StaleWalkSweeper(walkRepository, walkService, jdbcTemplate, config, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sweeper.shutdown();
+    }
+
+    @Test
+    void idleWalksAreFinishedBatchByBatchThenTheLockIsReleased() throws Exception {
+        ResultSet lock = lockResult(true);
+        List<UUID> first = List.of(UUID.randomUUID(), UUID.randomUUID());
+        List<UUID> second = List.of(UUID.randomUUID());
+        when(walkRepository.findIdleActiveWalkIds(any(), eq(2))).thenReturn(first).thenReturn(second);
+        when(walkService.finishIdleWalk(any(), any())).thenReturn(true);
+        when(walkService.finishIdleWalk(eq(first.get(1)), any())).thenThrow(new IllegalStateException("boom"));
+
+        sweeper.sweep();
+
+        verify(walkRepository, times(2)).findIdleActiveWalkIds(any(), anyInt());
+        verify(walkService, times(3)).finishIdleWalk(any(), any(LocalDateTime.class));
+        verify(connection.createStatement()).executeQuery(StaleWalkSweeper.UNLOCK_SQL);
+        assertEquals(2.0, meterRegistry.get("pettrail.walks.idle.finished").counter().count());
+        assertEquals(1.0, meterRegistry.get("pettrail.walks.idle.failures").counter().count());
+        verify(lock, atLeastOnce()).getBoolean(1);
+    }
+
+    @Test
+    void sweepIsSkippedWhileAnotherInstanceHoldsTheLock() throws Exception {
+        lockResult(false);
+
+        sweeper.sweep();
+
+        verifyNoInteractions(walkRepository, walkService);
+        verify(connection.createStatement(), never()).executeQuery(StaleWalkSweeper.UNLOCK_SQL);
+    }
+
+    private ResultSet lockResult(boolean acquired) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBoolean(1)).thenReturn(acquired);
+        when(connection.createStatement().executeQuery(anyString())).thenReturn(resultSet);
+        return resultSet;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.pettrail.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * What the transaction manager does around a @Transactional method, without a database: the body
+ * runs with synchronization active, then the registered synchronizations see the outcome. A body
+ * that throws ends as a rollback.
+ */
+final class TestTransactions {
+
+    private TestTransactions() {
+    }
+
+    static void inTransaction(Runnable body) {
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, body);
+    }
+
+    static void inTransaction(int status, Runnable body) {
+        TransactionSynchronizationManager.initSynchronization();
+        int outcome = TransactionSynchronization.STATUS_ROLLED_BACK;
+        try {
+            body.run();
+            outcome = status;
+        } finally {
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                if (outcome == TransactionSynchronization.STATUS_COMMITTED) {
+                    synchronization.afterCommit();
+                }
+                synchronization.afterCompletion(outcome);
+            }
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.WalkExportConfig;
+import com.example.pettrail.enums.ExportFormat;
+import com.example.pettrail.model.User;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.repository.PetRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks the export's keyset paging on (started_at, id) against a real PostgreSQL: walks sharing a
+ * started_at across a page boundary are neither skipped nor repeated.
+ * <p>
+ * Only runs when pointed at a database migrated by the application, e.g.
+ * {@code mvn test -Dtest=WalkExportPagingTest -Dpettrail.export-test.jdbc-url=jdbc:postgresql://localhost:5432/pettrail}
+ * (optionally -Dpettrail.export-test.username / .password). Test rows are added in a transaction
+ * that is rolled back at the end.
+ */
+@EnabledIfSystemProperty(named = "pettrail.export-test.jdbc-url", matches = ".+")
+class WalkExportPagingTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 8, 14, 22, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate testTransaction;
+    private WalkExportConfig exportConfig;
+    private WalkExportService exportService;
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("pettrail.export-test.jdbc-url"),
+                System.getProperty("pettrail.export-test.username", "postgres"),
+                System.getProperty("pettrail.export-test.password", ""));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        testTransaction = new TransactionTemplate(transactionManager);
+
+        WalkRouteReader walkRouteReader = mock(WalkRouteReader.class);
+        when(walkRouteReader.readFinishedTrackUncached(any(), any()))
+                .thenReturn(new WalkTrack(0, new long[0], new double[0], new double[0], new double[0]));
+        exportConfig = new WalkExportConfig();
+        exportService = new WalkExportService(mock(PetRepository.class), walkRouteReader, exportConfig,
+                jdbcTemplate, transactionManager);
+
+        User user = new User("paging-" + userId + "@example.com", "x", "Paging", "Test", null);
+        user.setId(userId);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4})
+    void export_WalksSharingStartedAt_EachExportedOnce(int pageSize) {
+        exportConfig.setPageSize(pageSize);
+
+        testTransaction.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            UUID petId = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO users (id, email, password, first_name, last_name, role, enabled) " +
+                    "VALUES (?, ?, 'x', 'Paging', 'Test', 'USER', true)", userId, "paging-" + userId + "@example.com");
+            jdbcTemplate.update("INSERT INTO pets (id, name, species, age, race, user_id) " +
+                    "VALUES (?, 'Rex', 'DOG', 3, 'Mixed', ?)", petId, userId);
+            // Four walks at T0, so most page sizes end a page inside the tie
+            LocalDateTime[] starts = {T0, T0, T0, T0, T0.plusHours(1), T0.plusHours(2), T0.plusHours(2)};
+            for (LocalDateTime start : starts) {
+                jdbcTemplate.update("INSERT INTO walks (id, pet_id, user_id, started_at, finished_at) " +
+                        "VALUES (?, ?, ?, ?, ?)", UUID.randomUUID(), petId, userId, start, start.plusMinutes(30));
+            }
+            List<UUID> expected = jdbcTemplate.queryForList("SELECT id FROM walks WHERE user_id = ? " +
+                    "ORDER BY started_at, id", UUID.class, userId);
+
+            assertEquals(expected, exportedWalkIds());
+        });
+    }
+
+    private List<UUID> exportedWalkIds() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            exportService.export(ExportFormat.GEOJSON, null, null, null).writeTo(out);
+            List<UUID> ids = new ArrayList<>();
+            for (JsonNode feature : new ObjectMapper().readTree(out.toByteArray()).get("features")) {
+                ids.add(UUID.fromString(feature.get("id").asText()));
+            }
+            return ids;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.WalkLockConfig;
+import com.example.pettrail.enums.WalkLockMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.example.pettrail.service.TestTransactions.inTransaction;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WalkLockRegistryTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void localLockIsHeldUntilTheTransactionEnds() throws Exception {
+        WalkLockRegistry registry = localRegistry(1024);
+        UUID walkId = UUID.randomUUID();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> inTransaction(() -> {
+                registry.lock(walkId);
+                locked.countDown();
+                await(commit);
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            Future<?> second = executor.submit(() -> inTransaction(() -> registry.lock(walkId)));
+            assertThrows(TimeoutException.class, () -> second.get(200, TimeUnit.MILLISECONDS));
+
+            // Another walk is not held up
+            inTransaction(() -> registry.lock(UUID.randomUUID()));
+
+            commit.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(3.0, meterRegistry.get("pettrail.walk.lock.acquired").counter().count());
+        assertEquals(1, meterRegistry.get("pettrail.walk.lock.wait").timer().count());
+    }
+
+    @Test
+    void stripeCountIsRoundedUpToAPowerOfTwo() {
+        WalkLockRegistry registry = localRegistry(1000);
+        for (int i = 0; i < 10_000; i++) {
+            int stripe = registry.stripe(UUID.randomUUID());
+            assertTrue(stripe >= 0 && stripe < 1024);
+        }
+    }
+
+    @Test
+    void advisoryLockWaitsOnlyWhenTryLockFails() {
+        WalkLockConfig config = new WalkLockConfig();
+        config.setMode(WalkLockMode.ADVISORY);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(eq("SELECT pg_try_advisory_xact_lock(?)"), eq(Boolean.class), anyLong()))
+                .thenReturn(true, false);
+        WalkLockRegistry registry = new WalkLockRegistry(config, jdbcTemplate, meterRegistry);
+
+        inTransaction(() -> registry.lock(UUID.randomUUID()));
+        verify(jdbcTemplate, never()).queryForObject(eq("SELECT pg_advisory_xact_lock(?)"), eq(Object.class), anyLong());
+
+        inTransaction(() -> registry.lock(UUID.randomUUID()));
+        verify(jdbcTemplate).queryForObject(eq("SELECT pg_advisory_xact_lock(?)"), eq(Object.class), anyLong());
+        assertEquals(1, meterRegistry.get("pettrail.walk.lock.wait").timer().count());
+    }
+
+    @Test
+    void lockOutsideATransactionIsRejected() {
+        WalkLockRegistry registry = localRegistry(16);
+
+        assertThrows(IllegalStateException.class, () -> registry.lock(UUID.randomUUID()));
+    }
+
+    private WalkLockRegistry localRegistry(int stripes) {
+        WalkLockConfig config = new WalkLockConfig();
+        config.setMode(WalkLockMode.LOCAL);
+        config.setStripes(stripes);
+        return new WalkLockRegistry(config, mock(JdbcTemplate.class), meterRegistry);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.WalkFilterConfig;
+import com.example.pettrail.enums.PointFilterStageType;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.repository.WalkPointTrackReader;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class WalkMotionSegmenterTest {
+
+    private static final long T0 = WalkTrack.toEpochMicros(LocalDateTime.parse("2025-08-14T22:00:00"));
+    private static final double LAT0 = -23.5505;
+    private static final double LON0 = -46.6333;
+    private static final double METERS_PER_DEGREE = 6371000.0 * Math.PI / 180.0;
+
+    @Test
+    void sniffBreakInTheConfiguredPipeline_CountsAsStoppedTime() {
+        // 5 minutes north at 1.4 m/s, 3 minutes standing with 4 m of noise, 5 more minutes north
+        WalkPointFilter filter = new WalkPointFilterRegistry(smoothingConfig(), mock(WalkPointTrackReader.class)).newFilter();
+        Random noise = new Random(7);
+        double northM = 0.0;
+        for (int i = 0; i <= 780; i++) {
+            if (i <= 300 || i > 480) {
+                northM += i == 0 ? 0.0 : 1.4;
+            }
+            double lat = LAT0 + (northM + noise.nextGaussian() * 4) / METERS_PER_DEGREE;
+            double lon = LON0 + noise.nextGaussian() * 4 / (METERS_PER_DEGREE * Math.cos(Math.toRadians(LAT0)));
+            filter.accept(lat, lon, T0 + i * 1_000_000L, 4.0);
+        }
+
+        WalkMotionSegmenter motion = filter.getMotion();
+        double movingS = motion.getMovingMicros() / 1e6;
+        double stoppedS = motion.getStoppedMicros() / 1e6;
+        assertEquals(600, movingS, 45, "moving " + movingS);
+        assertEquals(180, stoppedS, 45, "stopped " + stoppedS);
+        assertEquals(motion.getMovingDistanceM() / movingS, 1.4, 0.2);
+    }
+
+    @Test
+    void pacingAroundOnTheSpot_IsStoppedDespiteTheSpeed() {
+        // 1 m/s back and forth over 10 m for two minutes: fast enough, but never leaves the pause radius
+        WalkMotionSegmenter motion = new WalkMotionSegmenter();
+        motion.seed(LAT0, LON0, T0);
+        double previousM = 0.0;
+        for (int i = 1; i <= 120; i++) {
+            double northM = 10 - Math.abs(i % 20 - 10);
+            motion.add(LAT0 + northM / METERS_PER_DEGREE, LON0, T0 + i * 1_000_000L, Math.abs(northM - previousM));
+            previousM = northM;
+        }
+
+        // Only the start, before a full window was seen, is judged on speed alone
+        assertEquals(29_000_000L, motion.getMovingMicros());
+        assertEquals(91_000_000L, motion.getStoppedMicros());
+        assertFalse(motion.isMoving());
+    }
+
+    @Test
+    void seedingAccountsForNoTime() {
+        WalkMotionSegmenter motion = new WalkMotionSegmenter();
+        motion.seed(LAT0, LON0, T0);
+        motion.add(LAT0 + 10 / METERS_PER_DEGREE, LON0, T0 + 5_000_000L, 10.0);
+        motion.seed(LAT0, LON0, T0 + 3_600_000_000L);
+        motion.add(LAT0, LON0, T0 + 3_610_000_000L, 0.0);
+
+        assertEquals(5_000_000L, motion.getMovingMicros());
+        assertEquals(10_000_000L, motion.getStoppedMicros());
+        assertEquals(10.0, motion.getMovingDistanceM());
+    }
+
+    private static WalkFilterConfig smoothingConfig() {
+        WalkFilterConfig config = new WalkFilterConfig();
+        config.setStages(List.of(PointFilterStageType.ACCURACY, PointFilterStageType.SPEED,
+                PointFilterStageType.KALMAN, PointFilterStageType.STATIONARY));
+        return config;
+    }
+}
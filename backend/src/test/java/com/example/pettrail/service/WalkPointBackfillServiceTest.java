@@ -0,0 +1,110 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.WalkPointStorageConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class WalkPointBackfillServiceTest {
+
+    private static final UUID FIRST = UUID.fromString("550e8400-e29b-41d4-a716-446655440001");
+    private static final UUID SECOND = UUID.fromString("550e8400-e29b-41d4-a716-446655440002");
+
+    private JdbcTemplate jdbcTemplate;
+    private Connection connection;
+    private WalkPointBackfillService service;
+    private final List<Object> positions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        connection = mock(Connection.class, RETURNS_DEEP_STUBS);
+        doAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection))
+                .when(jdbcTemplate).execute(ArgumentMatchers.<ConnectionCallback<Object>>any());
+
+        WalkPointStorageConfig config = new WalkPointStorageConfig();
+        config.setBackfillBatchSize(2);
+        config.setBackfillMaxBatchesPerRun(10);
+        service = new WalkPointBackfillService(jdbcTemplate, mock(PlatformTransactionManager.class), config);
+    }
+
+    @Test
+    void backfill_PassConvertedRows_StartsAnotherPass() throws Exception {
+        lockResult(true);
+        batches(new long[]{2, 1}, new UUID[]{FIRST, SECOND});
+
+        service.backfill();
+
+        assertEquals(List.of(WalkPointBackfillService.START, FIRST, SECOND), positions);
+        assertFalse(service.isComplete());
+        verify(connection.createStatement()).executeQuery(WalkPointBackfillService.UNLOCK_SQL);
+
+        // A row written behind the first pass
+        batches(new long[]{1}, new UUID[]{FIRST});
+
+        service.backfill();
+
+        assertEquals(List.of(WalkPointBackfillService.START, FIRST), positions);
+        assertFalse(service.isComplete());
+    }
+
+    @Test
+    void backfill_PassConvertsNothing_Complete() throws Exception {
+        lockResult(true);
+        batches(new long[0], new UUID[0]);
+
+        service.backfill();
+        service.backfill();
+
+        assertEquals(List.of(WalkPointBackfillService.START), positions);
+        assertTrue(service.isComplete());
+    }
+
+    @Test
+    void backfill_AnotherInstanceHoldsTheLock_Skipped() throws Exception {
+        lockResult(false);
+
+        service.backfill();
+
+        verify(jdbcTemplate, never()).queryForObject(anyString(), ArgumentMatchers.<RowMapper<Object>>any(), any(), anyInt());
+        verify(connection.createStatement(), never()).executeQuery(WalkPointBackfillService.UNLOCK_SQL);
+        assertFalse(service.isComplete());
+    }
+
+    private void lockResult(boolean acquired) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBoolean(1)).thenReturn(acquired);
+        when(connection.createStatement().executeQuery(anyString())).thenReturn(resultSet);
+    }
+
+    // Each call converts the next batch, then the scan finds nothing past the position
+    private void batches(long[] rows, UUID[] last) {
+        positions.clear();
+        int[] call = {0};
+        doAnswer(invocation -> {
+            positions.add(invocation.getArgument(2));
+            int i = call[0]++;
+            ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.getLong(1)).thenReturn(i < rows.length ? rows[i] : 0L);
+            when(resultSet.getObject(2, UUID.class)).thenReturn(i < last.length ? last[i] : null);
+            return invocation.<RowMapper<?>>getArgument(1).mapRow(resultSet, 0);
+        }).when(jdbcTemplate).queryForObject(anyString(), ArgumentMatchers.<RowMapper<Object>>any(), any(), anyInt());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.WalkFilterConfig;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.repository.WalkPointTrackReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WalkPointFilterRegistryTest {
+
+    private static final long T0 = WalkTrack.toEpochMicros(LocalDateTime.parse("2025-08-14T22:00:00"));
+    private static final double LAT0 = -23.5505;
+    private static final double LON0 = -46.6333;
+
+    private WalkPointTrackReader walkPointTrackReader;
+    private WalkPointFilterRegistry registry;
+    private UUID walkId;
+
+    @BeforeEach
+    void setUp() {
+        walkPointTrackReader = mock(WalkPointTrackReader.class);
+        registry = new WalkPointFilterRegistry(new WalkFilterConfig(), walkPointTrackReader);
+        walkId = UUID.randomUUID();
+    }
+
+    @Test
+    void forWalk_NoPoints_StartsEmpty() {
+        when(walkPointTrackReader.readLastPoint(walkId)).thenReturn(lastPoint());
+
+        WalkPointFilter filter = registry.forWalk(walkId, ActiveWalk.NO_POINT);
+
+        assertFalse(filter.hasPrevious());
+        assertSame(filter, registry.forWalk(walkId, ActiveWalk.NO_POINT));
+    }
+
+    @Test
+    void forWalk_StateEndsAtLastStoredPoint_Reused() {
+        WalkPointFilter filter = registry.forWalk(walkId, lastPoint());
+        assertNull(filter.accept(LAT0, LON0, T0, 5.0));
+        assertNull(filter.accept(LAT0 + 0.0001, LON0, T0 + 10_000_000L, 5.0));
+
+        // This instance stored the batch
+        assertSame(filter, registry.forWalk(walkId, lastPoint(T0 + 10_000_000L)));
+    }
+
+    @Test
+    void forWalk_KnownLastPoint_ReusedWithoutQuery() {
+        WalkPointFilter filter = registry.forWalk(walkId, lastPoint(T0));
+
+        assertSame(filter, registry.forWalk(walkId, T0));
+        verifyNoInteractions(walkPointTrackReader);
+    }
+
+    @Test
+    void forWalk_KnownLastPointDiffers_ReadsLastPoint() {
+        WalkPointFilter filter = registry.forWalk(walkId, lastPoint(T0));
+        when(walkPointTrackReader.readLastPoint(walkId)).thenReturn(lastPoint(T0 + 10_000_000L));
+
+        WalkPointFilter reseeded = registry.forWalk(walkId, T0 + 10_000_000L);
+
+        assertNotSame(filter, reseeded);
+        assertEquals(T0 + 10_000_000L, reseeded.getPreviousTimestampMicros());
+    }
+
+    @Test
+    void forWalk_AnotherInstanceStoredPointsSince_Reseeded() {
+        WalkPointFilter filter = registry.forWalk(walkId, lastPoint());
+        assertNull(filter.accept(LAT0, LON0, T0, 5.0));
+
+        // The next batch went to another instance
+        WalkPointFilter reseeded = registry.forWalk(walkId, lastPoint(T0 + 60_000_000L));
+
+        assertNotSame(filter, reseeded);
+        assertEquals(T0 + 60_000_000L, reseeded.getPreviousTimestampMicros());
+        // Only the time after the other instance's last point is measured
+        assertNull(reseeded.accept(LAT0 + 0.0001, LON0, T0 + 70_000_000L, 5.0));
+        WalkMotionSegmenter motion = reseeded.getMotion();
+        assertEquals(10_000_000L, motion.getMovingMicros() + motion.getStoppedMicros());
+    }
+
+    @Test
+    void forWalk_AfterEvict_SeededFromLastStoredPoint() {
+        when(walkPointTrackReader.readLastPoint(walkId)).thenReturn(lastPoint(T0));
+        WalkPointFilter filter = registry.forWalk(walkId, T0);
+        registry.evict(walkId);
+
+        WalkPointFilter seeded = registry.forWalk(walkId, T0);
+
+        assertNotSame(filter, seeded);
+        assertTrue(seeded.hasPrevious());
+        assertEquals(T0, seeded.getPreviousTimestampMicros());
+        verify(walkPointTrackReader, times(2)).readLastPoint(walkId);
+    }
+
+    private static WalkTrack lastPoint(long... timestampsMicros) {
+        int size = timestampsMicros.length;
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        Arrays.fill(latitudes, LAT0);
+        Arrays.fill(longitudes, LON0);
+        return new WalkTrack(size, timestampsMicros, latitudes, longitudes, new double[size]);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.WalkFilterConfig;
+import com.example.pettrail.enums.PointFilterStageType;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.repository.WalkPointTrackReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * The full pipeline (accuracy, speed, Kalman, stationary) on synthetic tracks with
+ * seeded GPS noise
+ */
+class WalkPointFilterTest {
+
+    private static final long T0 = WalkTrack.toEpochMicros(LocalDateTime.parse("2025-08-14T22:00:00"));
+    private static final double LAT0 = -23.5505;
+    private static final double LON0 = -46.6333;
+    private static final double METERS_PER_DEGREE = 6371000.0 * Math.PI / 180.0;
+
+    private WalkPointFilterRegistry registry;
+    private Random noise;
+
+    @BeforeEach
+    void setUp() {
+        registry = new WalkPointFilterRegistry(smoothingConfig(), mock(WalkPointTrackReader.class));
+        noise = new Random(42);
+    }
+
+    @Test
+    void walkingWithJitter_DistanceCloseToTruth() {
+        // 10 minutes north at 1.4 m/s, one fix per second with 5 m of noise: 840 m walked
+        WalkPointFilter raw = new WalkPointFilter();
+        WalkPointFilter pipeline = registry.newFilter();
+        double rawDistance = 0.0;
+        double filteredDistance = 0.0;
+        for (int i = 0; i <= 600; i++) {
+            double lat = LAT0 + (1.4 * i + noise.nextGaussian() * 5) / METERS_PER_DEGREE;
+            double lon = LON0 + noise.nextGaussian() * 5 / (METERS_PER_DEGREE * Math.cos(Math.toRadians(LAT0)));
+            long ts = T0 + i * 1_000_000L;
+            if (raw.accept(lat, lon, ts, 5.0) == null) {
+                rawDistance += raw.getLastDistanceM();
+            }
+            if (pipeline.accept(lat, lon, ts, 5.0) == null) {
+                filteredDistance += pipeline.getLastDistanceM();
+            }
+        }
+
+        assertTrue(rawDistance > 1500, "noise should inflate the raw distance: " + rawDistance);
+        assertEquals(840, filteredDistance, 840 * 0.1, "filtered distance (raw " + rawDistance + " m)");
+    }
+
+    @Test
+    void standingStill_NoPhantomDistance() {
+        // 5 minutes in one place with 4 m of noise
+        WalkPointFilter pipeline = registry.newFilter();
+        double distance = 0.0;
+        int accepted = 0;
+        for (int i = 0; i < 300; i++) {
+            double lat = LAT0 + noise.nextGaussian() * 4 / METERS_PER_DEGREE;
+            double lon = LON0 + noise.nextGaussian() * 4 / METERS_PER_DEGREE;
+            if (pipeline.accept(lat, lon, T0 + i * 1_000_000L, 4.0) == null) {
+                distance += pipeline.getLastDistanceM();
+                accepted++;
+            }
+        }
+
+        assertTrue(distance < 15, "phantom distance " + distance);
+        assertTrue(accepted < 10, "kept " + accepted + " points");
+    }
+
+    @Test
+    void inaccurateFix_Discarded() {
+        WalkPointFilter pipeline = registry.newFilter();
+
+        assertNull(pipeline.accept(LAT0, LON0, T0, 8.0));
+        assertEquals("accuracy > 50 m", pipeline.accept(LAT0 + 0.001, LON0, T0 + 60_000_000L, 120.0));
+        // Unknown accuracy passes
+        assertNull(pipeline.accept(LAT0 + 0.001, LON0, T0 + 60_000_000L, Double.NaN));
+    }
+
+    @Test
+    void seededFilter_ContinuesAcrossBatches() {
+        WalkPointFilter pipeline = registry.newFilter();
+        pipeline.seed(LAT0, LON0, T0);
+
+        // 1 km in 1 s right after the last stored point
+        assertEquals("speed > 50 m/s", pipeline.accept(LAT0 + 0.009, LON0, T0 + 1_000_000L, Double.NaN));
+        assertEquals("non-increasing ts", pipeline.accept(LAT0, LON0, T0, Double.NaN));
+        assertNull(pipeline.accept(LAT0 + 0.0001, LON0, T0 + 10_000_000L, Double.NaN));
+        assertEquals(11.1, pipeline.getLastDistanceM(), 11.1 * 0.5);
+    }
+
+    @Test
+    void defaultPipeline_KeepsRawPositions() {
+        WalkPointFilter pipeline = new WalkPointFilterRegistry(new WalkFilterConfig(), mock(WalkPointTrackReader.class)).newFilter();
+        int accepted = 0;
+        for (int i = 0; i < 60; i++) {
+            double lat = LAT0 + noise.nextGaussian() * 4 / METERS_PER_DEGREE;
+            double lon = LON0 + noise.nextGaussian() * 4 / METERS_PER_DEGREE;
+            if (pipeline.accept(lat, lon, T0 + i * 1_000_000L, 4.0) == null) {
+                assertEquals(lat, pipeline.getLatitude());
+                assertEquals(lon, pipeline.getLongitude());
+                accepted++;
+            }
+        }
+
+        assertEquals(60, accepted);
+    }
+
+    private static WalkFilterConfig smoothingConfig() {
+        WalkFilterConfig config = new WalkFilterConfig();
+        config.setStages(List.of(PointFilterStageType.ACCURACY, PointFilterStageType.SPEED,
+                PointFilterStageType.KALMAN, PointFilterStageType.STATIONARY));
+        return config;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.WalkPointPartitionConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class WalkPointPartitionServiceTest {
+
+    private static final String EXISTS_SQL = "SELECT to_regclass(?) IS NOT NULL";
+
+    private JdbcTemplate jdbcTemplate;
+    private WalkPointPartitionConfig config;
+    private WalkPointPartitionService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        config = new WalkPointPartitionConfig();
+        service = new WalkPointPartitionService(jdbcTemplate, transactionManager, config);
+
+        when(jdbcTemplate.queryForObject(eq(EXISTS_SQL), eq(Boolean.class), anyString())).thenReturn(false);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class), any(), any())).thenReturn(false);
+    }
+
+    @Test
+    void importedMonthsGetTheirOwnPartitionAndTheCatalogIsCheckedOncePerMonth() {
+        LocalDateTime march = LocalDateTime.of(2019, 3, 30, 18, 0);
+
+        assertEquals(2, service.ensurePartitionsFor(march, march.plusDays(3)));
+        assertEquals(0, service.ensurePartitionsFor(march.plusDays(1), march.plusDays(2)));
+
+        verify(jdbcTemplate).execute("CREATE TABLE walk_points_p2019_03 PARTITION OF walk_points"
+                + " FOR VALUES FROM ('2019-03-01 00:00:00') TO ('2019-04-01 00:00:00')");
+        verify(jdbcTemplate).execute(startsWith("CREATE TABLE walk_points_p2019_04 PARTITION OF"));
+        verify(jdbcTemplate, times(2)).queryForObject(eq(EXISTS_SQL), eq(Boolean.class), anyString());
+    }
+
+    @Test
+    void existingPartitionsAreLeftAlone() {
+        when(jdbcTemplate.queryForObject(EXISTS_SQL, Boolean.class, "walk_points_p2021_07")).thenReturn(true);
+        LocalDateTime july = LocalDateTime.of(2021, 7, 4, 9, 0);
+
+        assertEquals(0, service.ensurePartitionsFor(july, july));
+        assertEquals(0, service.ensurePartitionsFor(july, july));
+
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE"));
+        verify(jdbcTemplate, times(1)).queryForObject(eq(EXISTS_SQL), eq(Boolean.class), anyString());
+    }
+
+    @Test
+    void populatedMonthsAreMovedOutOfTheDefaultPartition() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT DISTINCT date_trunc('month', timestamp) FROM walk_points_default"),
+                eq(LocalDateTime.class))).thenReturn(List.of(LocalDateTime.of(2018, 11, 1, 0, 0)));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class), any(), any())).thenReturn(true);
+
+        assertEquals(1, service.splitDefaultPartition());
+
+        verify(jdbcTemplate).execute("CREATE TABLE walk_points_p2018_11 (LIKE walk_points INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        verify(jdbcTemplate).update(startsWith("WITH moved AS (DELETE FROM walk_points_default"),
+                eq(LocalDateTime.of(2018, 11, 1, 0, 0)), eq(LocalDateTime.of(2018, 12, 1, 0, 0)));
+        verify(jdbcTemplate).execute("ALTER TABLE walk_points ATTACH PARTITION walk_points_p2018_11"
+                + " FOR VALUES FROM ('2018-11-01 00:00:00') TO ('2018-12-01 00:00:00')");
+    }
+
+    @Test
+    void nothingIsCreatedWhenPartitioningIsDisabled() {
+        config.setEnabled(false);
+        LocalDateTime now = LocalDateTime.now();
+
+        assertEquals(0, service.ensurePartitionsFor(now, now));
+        service.maintain();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.dto.WalkPointRequest;
+import com.example.pettrail.model.WalkPoint;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.service.filter.SpeedStage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Allocation benchmark of the points pipeline (sort, outlier filter, hand-off to the writer) for
+ * a full 5000-point batch, measured with the per-thread allocation counter. The previous
+ * entity-based pipeline is reproduced here as the baseline. The measured bytes per point appear in
+ * the assertion messages; the assertions only guard against large regressions.
+ */
+class WalkPointsAllocationTest {
+
+    private static final int POINTS = 5000;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 200;
+    private static final UUID WALK_ID = UUID.fromString("550e8400-e29b-41d4-a716-446655440001");
+
+    private final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private List<WalkPointRequest> requests;
+    private WalkTrack track;
+    private long sink;
+
+    @BeforeEach
+    void setUp() {
+        requests = new ArrayList<>(POINTS);
+        LocalDateTime start = LocalDateTime.of(2025, 8, 14, 22, 0);
+        for (int i = 0; i < POINTS; i++) {
+            // Every 100th pair arrives swapped, as it does from phones that flush buffers late
+            int second = i % 100 == 98 ? i + 1 : i % 100 == 99 ? i - 1 : i;
+            requests.add(new WalkPointRequest(
+                    BigDecimal.valueOf(-23.5505 - i * 0.00001),
+                    BigDecimal.valueOf(-46.6333 - i * 0.00001),
+                    start.plusSeconds(second),
+                    BigDecimal.valueOf(760 + i % 10)));
+        }
+        track = WalkPointsService.toTrack(requests);
+    }
+
+    @Test
+    void columnarPipeline_AllocatesFarLessThanEntityPipeline() {
+        assertTrue(threadBean.isThreadAllocatedMemorySupported());
+
+        double legacy = bytesPerPoint(() -> sink += legacyPipeline(requests).size());
+        double json = bytesPerPoint(() -> sink += columnarPipeline(WalkPointsService.toTrack(requests)));
+        double binary = bytesPerPoint(() -> sink += columnarPipeline(track));
+
+        // Most of what is left on the JSON path is BigDecimal.doubleValue() on the request DTOs
+        assertTrue(json * 2 < legacy, "columnar JSON path allocated " + json + " B/point vs " + legacy);
+        // Only the int[] permutation and the merge buffer for out-of-order input (4 B/point each)
+        assertTrue(binary <= 12, "columnar binary path allocated " + binary + " B/point vs " + legacy);
+    }
+
+    @Test
+    void columnarPipeline_AcceptsSameAsEntityPipeline() {
+        List<WalkPoint> expected = legacyPipeline(requests);
+
+        int[] order = track.timestampOrder();
+        int accepted = WalkPointsService.retainAccepted(WALK_ID, track, order, new WalkPointFilter());
+
+        assertEquals(expected.size(), accepted);
+        for (int i = 0; i < accepted; i++) {
+            assertEquals(expected.get(i).getTimestamp(), track.timestamp(order[i]));
+            assertEquals(expected.get(i).getLatitude().doubleValue(), track.latitude(order[i]));
+        }
+    }
+
+    private int columnarPipeline(WalkTrack points) {
+        int[] order = points.timestampOrder();
+        // The original speed rules, which the baseline reproduces
+        return WalkPointsService.retainAccepted(WALK_ID, points, order, new WalkPointFilter());
+    }
+
+    private double bytesPerPoint(Runnable round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.run();
+        }
+        long before = threadBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            round.run();
+        }
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - before;
+        return (double) allocated / MEASURED_ROUNDS / POINTS;
+    }
+
+    /**
+     * The pipeline before the columnar rewrite: list copy, boxed comparator sort, Duration per
+     * pair and a WalkPoint entity per accepted point
+     */
+    private static List<WalkPoint> legacyPipeline(List<WalkPointRequest> points) {
+        List<WalkPointRequest> sortedPoints = new ArrayList<>(points);
+        sortedPoints.sort(Comparator.comparing(WalkPointRequest::getTs));
+
+        List<WalkPoint> pointsToSave = new ArrayList<>();
+        WalkPointRequest previousPoint = null;
+        for (WalkPointRequest currentPoint : sortedPoints) {
+            boolean accept = true;
+            if (previousPoint != null) {
+                long timeDiffSeconds = Duration.between(previousPoint.getTs(), currentPoint.getTs()).getSeconds();
+                if (timeDiffSeconds <= 0) {
+                    accept = false;
+                } else {
+                    double distance = WalkPointFilter.haversineDistance(
+                            previousPoint.getLat().doubleValue(), previousPoint.getLon().doubleValue(),
+                            currentPoint.getLat().doubleValue(), currentPoint.getLon().doubleValue());
+                    accept = distance / timeDiffSeconds <= SpeedStage.DEFAULT_MAX_SPEED_MPS;
+                }
+            }
+            if (accept) {
+                pointsToSave.add(new WalkPoint(UUID.fromString(WALK_ID.toString()), currentPoint.getLat(),
+                        currentPoint.getLon(), currentPoint.getTs(), currentPoint.getElev()));
+                previousPoint = currentPoint;
+            }
+        }
+        return pointsToSave;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.exception.InvalidPointsPayloadException;
+import com.example.pettrail.model.WalkTrack;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalkPointsBinaryFormatTest {
+
+    private static final long T0 = WalkTrack.toEpochMicros(LocalDateTime.parse("2025-08-14T22:00:00"));
+
+    @Test
+    void encodeDecode_RoundTrip() throws Exception {
+        WalkTrack points = new WalkTrack(3,
+                new long[]{T0, T0 + 1_000_000L, T0 + 2_500_000L},
+                new double[]{-23.5505, -23.5510123, -23.5516},
+                new double[]{-46.6333, -46.6339, -46.6344},
+                new double[]{760.25, Double.NaN, 761.0},
+                new double[]{8.5, Double.NaN, 12.0});
+
+        byte[] payload = WalkPointsBinaryFormat.encode(points);
+        WalkTrack decoded = WalkPointsBinaryFormat.decode(new ByteArrayInputStream(payload));
+
+        assertEquals(3, decoded.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(points.timestampMicros(i), decoded.timestampMicros(i));
+            assertEquals(points.latitude(i), decoded.latitude(i));
+            assertEquals(points.longitude(i), decoded.longitude(i));
+            assertEquals(points.hasElevation(i), decoded.hasElevation(i));
+            assertEquals(points.hasAccuracy(i), decoded.hasAccuracy(i));
+        }
+        assertEquals(760.25, decoded.elevation(0));
+        assertEquals(8.5, decoded.accuracy(0));
+        assertEquals(LocalDateTime.parse("2025-08-14T22:00:02.500"), decoded.timestamp(2));
+    }
+
+    @Test
+    void decode_OutOfRangeValues() {
+        WalkTrack points = new WalkTrack(2,
+                new long[]{T0, T0 + 1_000_000L},
+                new double[]{-23.5505, 91.0},
+                new double[]{-46.6333, -181.0},
+                new double[]{Double.NaN, Double.NaN});
+
+        InvalidPointsPayloadException ex = assertThrows(InvalidPointsPayloadException.class,
+                () -> WalkPointsBinaryFormat.decode(WalkPointsBinaryFormat.encode(points)));
+
+        assertEquals(2, ex.getDetails().size());
+        assertEquals("points[1].lat", ex.getDetails().get(0).getField());
+        assertEquals("points[1].lon", ex.getDetails().get(1).getField());
+    }
+
+    @Test
+    void decode_MalformedPayloads() {
+        byte[] payload = WalkPointsBinaryFormat.encode(new WalkTrack(1, new long[]{T0},
+                new double[]{-23.5505}, new double[]{-46.6333}, new double[]{Double.NaN}));
+
+        assertThrows(InvalidPointsPayloadException.class,
+                () -> WalkPointsBinaryFormat.decode(Arrays.copyOf(payload, payload.length - 1)));
+        assertThrows(InvalidPointsPayloadException.class,
+                () -> WalkPointsBinaryFormat.decode(Arrays.copyOf(payload, payload.length + 1)));
+        assertThrows(InvalidPointsPayloadException.class,
+                () -> WalkPointsBinaryFormat.decode(new byte[]{'{', '"'}));
+        // Zero points
+        assertThrows(InvalidPointsPayloadException.class,
+                () -> WalkPointsBinaryFormat.decode(new byte[]{'P', 'T', 'P', 1, 0, 0}));
+    }
+}
@@ -1,15 +1,22 @@
 package com.example.pettrail.service;
 
+import com.example.pettrail.config.PrimaryPinRegistry;
 import com.example.pettrail.dto.WalkPointRequest;
 import com.example.pettrail.dto.WalkPointsBatchResponse;
+import com.example.pettrail.enums.ActiveWalkStatus;
+import com.example.pettrail.enums.InvalidationType;
 import com.example.pettrail.exception.WalkFinishedException;
 import com.example.pettrail.exception.WalkNotFoundException;
 import com.example.pettrail.model.Walk;
-import com.example.pettrail.repository.WalkPointRepository;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.repository.WalkPointBulkWriter;
+import com.example.pettrail.repository.WalkPointTrackReader;
 import com.example.pettrail.repository.WalkRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -22,7 +29,11 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,7 +47,25 @@ class WalkPointsServiceTest {
     private WalkRepository walkRepository;
 
     @Mock
-    private WalkPointRepository walkPointRepository;
+    private PrimaryPinRegistry primaryPinRegistry;
+
+    @Mock
+    private WalkPointBulkWriter walkPointBulkWriter;
+
+    @Mock
+    private WalkPointFilterRegistry walkPointFilterRegistry;
+
+    @Mock
+    private WalkPointTrackReader walkPointTrackReader;
+
+    @Mock
+    private WalkLockRegistry walkLockRegistry;
+
+    @Mock
+    private ActiveWalkRegistry activeWalkRegistry;
+
+    @Mock
+    private ElevationEnricher elevationEnricher;
 
     @InjectMocks
     private WalkPointsService walkPointsService;
@@ -52,6 +81,10 @@ class WalkPointsServiceTest {
         finishedWalk = new Walk(TEST_WALK_ID_2, null, LocalDateTime.now().minusHours(1));
         finishedWalk.setId(TEST_WALK_ID_2);
         finishedWalk.setFinishedAt(LocalDateTime.now());
+
+        // Speed rules only, so the expectations don't depend on smoothing
+        lenient().when(walkPointFilterRegistry.forWalk(any(), anyLong())).thenReturn(new WalkPointFilter());
+        lenient().when(walkPointFilterRegistry.forWalk(any(), any(WalkTrack.class))).thenReturn(new WalkPointFilter());
     }
 
     @Test
@@ -66,7 +99,6 @@ class WalkPointsServiceTest {
         );
 
         when(walkRepository.findById(walkId)).thenReturn(Optional.of(activeWalk));
-        when(walkPointRepository.saveAll(anyList())).thenReturn(Arrays.asList());
 
         // When
         WalkPointsBatchResponse response = walkPointsService.ingestPoints(walkId, points);
@@ -77,8 +109,11 @@ class WalkPointsServiceTest {
         assertEquals(2, response.getAccepted());
         assertEquals(0, response.getDiscarded());
 
-        verify(walkRepository).findById(walkId);
-        verify(walkPointRepository).saveAll(anyList());
+        // The walk is locked before it is checked, so a concurrent stop cannot slip in between
+        InOrder inOrder = inOrder(walkLockRegistry, walkRepository, walkPointBulkWriter);
+        inOrder.verify(walkLockRegistry).lock(walkId);
+        inOrder.verify(walkRepository).findById(walkId);
+        inOrder.verify(walkPointBulkWriter).insert(eq(walkId), any(WalkTrack.class), any(int[].class), eq(response.getAccepted()));
     }
 
     @Test
@@ -98,7 +133,7 @@ class WalkPointsServiceTest {
         });
 
         verify(walkRepository).findById(walkId);
-        verify(walkPointRepository, never()).saveAll(anyList());
+        verify(walkPointBulkWriter, never()).insert(any(), any(), any(), anyInt());
     }
 
     @Test
@@ -118,7 +153,7 @@ class WalkPointsServiceTest {
         });
 
         verify(walkRepository).findById(walkId);
-        verify(walkPointRepository, never()).saveAll(anyList());
+        verify(walkPointBulkWriter, never()).insert(any(), any(), any(), anyInt());
     }
 
     @Test
@@ -133,7 +168,6 @@ class WalkPointsServiceTest {
         );
 
         when(walkRepository.findById(walkId)).thenReturn(Optional.of(activeWalk));
-        when(walkPointRepository.saveAll(anyList())).thenReturn(Arrays.asList());
 
         // When
         WalkPointsBatchResponse response = walkPointsService.ingestPoints(walkId, points);
@@ -145,7 +179,7 @@ class WalkPointsServiceTest {
         assertEquals(1, response.getDiscarded()); // Second point discarded as outlier
 
         verify(walkRepository).findById(walkId);
-        verify(walkPointRepository).saveAll(anyList());
+        verify(walkPointBulkWriter).insert(eq(walkId), any(WalkTrack.class), any(int[].class), eq(response.getAccepted()));
     }
 
     @Test
@@ -160,7 +194,6 @@ class WalkPointsServiceTest {
         );
 
         when(walkRepository.findById(walkId)).thenReturn(Optional.of(activeWalk));
-        when(walkPointRepository.saveAll(anyList())).thenReturn(Arrays.asList());
 
         // When
         WalkPointsBatchResponse response = walkPointsService.ingestPoints(walkId, points);
@@ -172,6 +205,175 @@ class WalkPointsServiceTest {
         assertEquals(1, response.getDiscarded()); // Second point discarded due to non-increasing timestamp
 
         verify(walkRepository).findById(walkId);
-        verify(walkPointRepository).saveAll(anyList());
+        verify(walkPointBulkWriter).insert(eq(walkId), any(WalkTrack.class), any(int[].class), eq(response.getAccepted()));
+    }
+
+    @Test
+    void testIngestPoints_Binary_SortsAndFilters() {
+        // Given - Points out of order, the last one far away 1 second later
+        UUID walkId = TEST_WALK_ID;
+        long t0 = WalkTrack.toEpochMicros(LocalDateTime.parse("2025-08-14T22:00:00"));
+        WalkTrack points = new WalkTrack(3,
+                new long[]{t0 + 10_000_000L, t0, t0 + 11_000_000L},
+                new double[]{-23.5510, -23.5505, -23.5600},
+                new double[]{-46.6339, -46.6333, -46.6400},
+                new double[]{Double.NaN, 760.5, Double.NaN});
+
+        when(walkRepository.findById(walkId)).thenReturn(Optional.of(activeWalk));
+
+        // When
+        WalkPointsBatchResponse response = walkPointsService.ingestPoints(walkId, points);
+
+        // Then
+        assertEquals(3, response.getReceived());
+        assertEquals(2, response.getAccepted());
+        assertEquals(1, response.getDiscarded());
+
+        // Accepted points are passed by index, in timestamp order
+        ArgumentCaptor<int[]> saved = ArgumentCaptor.forClass(int[].class);
+        verify(walkPointBulkWriter).insert(eq(walkId), same(points), saved.capture(), eq(2));
+        assertEquals(1, saved.getValue()[0]);
+        assertEquals(0, saved.getValue()[1]);
+    }
+
+    @Test
+    void testIngestPoints_Binary_WalkFinished() {
+        // Given
+        UUID walkId = TEST_WALK_ID_2;
+        WalkTrack points = new WalkTrack(1, new long[]{0L}, new double[]{-23.5505}, new double[]{-46.6333},
+                new double[]{Double.NaN});
+
+        when(walkRepository.findById(walkId)).thenReturn(Optional.of(finishedWalk));
+
+        // When & Then
+        assertThrows(WalkFinishedException.class, () -> walkPointsService.ingestPoints(walkId, points));
+        verify(walkPointBulkWriter, never()).insert(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testIngestPoints_KnownActiveWalk_SkipsLookup() {
+        // Given
+        UUID walkId = TEST_WALK_ID;
+        WalkTrack points = new WalkTrack(1, new long[]{0L}, new double[]{-23.5505}, new double[]{-46.6333},
+                new double[]{Double.NaN});
+        when(activeWalkRegistry.find(walkId)).thenReturn(new ActiveWalk(walkId, UUID.randomUUID(), UUID.randomUUID(),
+                activeWalk.getStartedAt(), -1_000_000L, ActiveWalkStatus.ACTIVE));
+
+        // When
+        WalkPointsBatchResponse response = walkPointsService.ingestPoints(walkId, points);
+
+        // Then - The filter is checked against the registry's last point, without queries
+        assertEquals(1, response.getAccepted());
+        verify(walkPointFilterRegistry).forWalk(walkId, -1_000_000L);
+        verify(walkRepository, never()).findById(any());
+        verifyNoInteractions(walkPointTrackReader);
+        verify(activeWalkRegistry).pointsStored(walkId, 0L);
+    }
+
+    @Test
+    void testIngestPoints_KnownFinishedWalk_RejectedWithoutLookup() {
+        // Given
+        UUID walkId = TEST_WALK_ID_2;
+        WalkTrack points = new WalkTrack(1, new long[]{0L}, new double[]{-23.5505}, new double[]{-46.6333},
+                new double[]{Double.NaN});
+        when(activeWalkRegistry.find(walkId)).thenReturn(new ActiveWalk(walkId, UUID.randomUUID(), UUID.randomUUID(),
+                finishedWalk.getStartedAt(), ActiveWalk.NO_POINT, ActiveWalkStatus.FINISHED));
+
+        // When & Then
+        assertThrows(WalkFinishedException.class, () -> walkPointsService.ingestPoints(walkId, points));
+        verify(walkRepository, never()).findById(any());
+        verify(walkPointBulkWriter, never()).insert(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testIngestPoints_KnownActiveWalk_SharedLock_CheckedInDatabase() {
+        // Given
+        UUID walkId = TEST_WALK_ID;
+        WalkTrack points = new WalkTrack(1, new long[]{0L}, new double[]{-23.5505}, new double[]{-46.6333},
+                new double[]{Double.NaN});
+        WalkTrack last = new WalkTrack(1, new long[]{-1_000_000L}, new double[]{-23.5505}, new double[]{-46.6333},
+                new double[]{Double.NaN});
+        when(walkLockRegistry.isDistributed()).thenReturn(true);
+        when(activeWalkRegistry.find(walkId)).thenReturn(new ActiveWalk(walkId, UUID.randomUUID(), UUID.randomUUID(),
+                activeWalk.getStartedAt(), ActiveWalk.NO_POINT, ActiveWalkStatus.ACTIVE));
+        when(walkPointTrackReader.readLastPointIfActive(walkId)).thenReturn(last);
+
+        // When
+        WalkPointsBatchResponse response = walkPointsService.ingestPoints(walkId, points);
+
+        // Then - One query checks the walk and finds where its points end
+        assertEquals(1, response.getAccepted());
+        InOrder inOrder = inOrder(walkLockRegistry, walkPointTrackReader, walkPointFilterRegistry);
+        inOrder.verify(walkLockRegistry).lock(walkId);
+        inOrder.verify(walkPointTrackReader).readLastPointIfActive(walkId);
+        inOrder.verify(walkPointFilterRegistry).forWalk(walkId, last);
+        verify(walkRepository, never()).findById(any());
+    }
+
+    @Test
+    void testIngestPoints_KnownActiveWalk_StoppedOnAnotherInstance_Rejected() {
+        // Given: the stop committed elsewhere, its notification has not arrived yet
+        UUID walkId = TEST_WALK_ID_2;
+        WalkTrack points = new WalkTrack(1, new long[]{0L}, new double[]{-23.5505}, new double[]{-46.6333},
+                new double[]{Double.NaN});
+        when(walkLockRegistry.isDistributed()).thenReturn(true);
+        when(activeWalkRegistry.find(walkId)).thenReturn(new ActiveWalk(walkId, UUID.randomUUID(), UUID.randomUUID(),
+                finishedWalk.getStartedAt(), ActiveWalk.NO_POINT, ActiveWalkStatus.ACTIVE));
+        when(walkPointTrackReader.readLastPointIfActive(walkId)).thenReturn(null);
+        when(walkRepository.findById(walkId)).thenReturn(Optional.of(finishedWalk));
+
+        // When & Then
+        assertThrows(WalkFinishedException.class, () -> walkPointsService.ingestPoints(walkId, points));
+        verify(activeWalkRegistry).invalidate(InvalidationType.WALK_STOPPED, List.of(walkId));
+        verify(walkPointBulkWriter, never()).insert(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testIngestPoints_ContinuesFromPreviousBatch() {
+        // Given - The walk's filter already accepted a point; the next batch starts with a jump
+        UUID walkId = TEST_WALK_ID;
+        WalkPointFilter filter = new WalkPointFilter();
+        filter.seed(-23.5505, -46.6333, WalkTrack.toEpochMicros(LocalDateTime.parse("2025-08-14T22:00:00")));
+        when(walkPointFilterRegistry.forWalk(walkId, ActiveWalk.NO_POINT)).thenReturn(filter);
+        when(walkRepository.findById(walkId)).thenReturn(Optional.of(activeWalk));
+
+        List<WalkPointRequest> points = List.of(
+                new WalkPointRequest(new BigDecimal("-23.5600"), new BigDecimal("-46.6400"),
+                        LocalDateTime.parse("2025-08-14T22:00:01")));
+
+        // When
+        WalkPointsBatchResponse response = walkPointsService.ingestPoints(walkId, points);
+
+        // Then
+        assertEquals(0, response.getAccepted());
+        assertEquals(1, response.getDiscarded());
+        verify(walkPointBulkWriter, never()).insert(any(), any(), any(), anyInt());
+        verify(walkPointFilterRegistry).evictOnRollback(walkId);
+    }
+
+    @Test
+    void testIngestPoints_LateBatchFilteredSeparately() {
+        // Given - A batch older than the walk's last accepted point (offline queue flushed late)
+        UUID walkId = TEST_WALK_ID;
+        WalkPointFilter filter = new WalkPointFilter();
+        filter.seed(-23.5505, -46.6333, WalkTrack.toEpochMicros(LocalDateTime.parse("2025-08-14T22:10:00")));
+        when(walkPointFilterRegistry.forWalk(walkId, ActiveWalk.NO_POINT)).thenReturn(filter);
+        when(walkPointFilterRegistry.newFilter()).thenReturn(new WalkPointFilter());
+        when(walkRepository.findById(walkId)).thenReturn(Optional.of(activeWalk));
+
+        List<WalkPointRequest> points = Arrays.asList(
+                new WalkPointRequest(new BigDecimal("-23.5505"), new BigDecimal("-46.6333"),
+                        LocalDateTime.parse("2025-08-14T22:00:00")),
+                new WalkPointRequest(new BigDecimal("-23.5510"), new BigDecimal("-46.6339"),
+                        LocalDateTime.parse("2025-08-14T22:00:10")));
+
+        // When
+        WalkPointsBatchResponse response = walkPointsService.ingestPoints(walkId, points);
+
+        // Then - Accepted, and the walk's own state is untouched
+        assertEquals(2, response.getAccepted());
+        assertEquals(WalkTrack.toEpochMicros(LocalDateTime.parse("2025-08-14T22:10:00")),
+                filter.getPreviousTimestampMicros());
+        verify(walkPointBulkWriter).insert(eq(walkId), any(WalkTrack.class), any(int[].class), eq(2));
     }
 }
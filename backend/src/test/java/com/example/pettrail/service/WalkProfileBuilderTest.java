@@ -0,0 +1,89 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.dto.WalkProfileResponse;
+import com.example.pettrail.dto.WalkSplit;
+import com.example.pettrail.model.WalkTrack;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalkProfileBuilderTest {
+
+    private static final long T0 = WalkTrack.toEpochMicros(LocalDateTime.parse("2025-08-14T22:00:00"));
+    private static final double LAT0 = -23.5505;
+    private static final double LON0 = -46.6333;
+    private static final double METERS_PER_DEGREE = 6371000.0 * Math.PI / 180.0;
+    private static final UUID WALK_ID = UUID.randomUUID();
+
+    @Test
+    void splitsEndAtInterpolatedKilometreCrossings() {
+        // 2.5 km north: the first kilometre at 2 m/s, the rest at 1 m/s, a point every 30 s
+        WalkProfileBuilder builder = new WalkProfileBuilder(1000.0, 3.0, 5, 300);
+        double northM = 0.0;
+        long ts = T0;
+        while (northM < 2500.0) {
+            builder.add(LAT0 + northM / METERS_PER_DEGREE, LON0, Double.NaN, ts);
+            double speed = northM < 1000.0 ? 2.0 : 1.0;
+            northM = Math.min(2500.0, northM + speed * 30);
+            ts += 30_000_000L;
+        }
+        builder.add(LAT0 + northM / METERS_PER_DEGREE, LON0, Double.NaN, ts);
+
+        WalkProfileResponse profile = builder.build(WALK_ID);
+        assertEquals(3, profile.getParciais().size());
+        WalkSplit first = profile.getParciais().get(0);
+        assertEquals(1000.0, first.getDistanciaM());
+        assertEquals(500, first.getDuracaoS(), 1);
+        assertEquals(7.2, first.getVelMediaKmh(), 0.05);
+        // 20 m still at 2 m/s, then 980 m at 1 m/s
+        WalkSplit second = profile.getParciais().get(1);
+        assertEquals(990, second.getDuracaoS(), 1);
+        assertEquals(990, second.getRitmoSKm(), 1);
+        WalkSplit last = profile.getParciais().get(2);
+        assertEquals(3, last.getKm());
+        assertEquals(500.0, last.getDistanciaM(), 0.5);
+        // The last step is cut short at 2500 m: 10 m in a whole 30 s
+        assertEquals(520, last.getDuracaoS(), 1);
+        assertEquals(2500.0, profile.getDistanciaM(), 0.5);
+    }
+
+    @Test
+    void elevationNoiseOnFlatGroundAddsNoGain() {
+        // Flat for 10 minutes with 1 m of noise, then a steady 20 m climb
+        WalkProfileBuilder builder = new WalkProfileBuilder(1000.0, 3.0, 5, 300);
+        Random noise = new Random(11);
+        for (int i = 0; i <= 600; i++) {
+            builder.add(LAT0 + i / METERS_PER_DEGREE, LON0, 760.0 + noise.nextGaussian(), T0 + i * 1_000_000L);
+        }
+        for (int i = 1; i <= 200; i++) {
+            builder.add(LAT0 + (600 + i) / METERS_PER_DEGREE, LON0, 760.0 + i * 0.1, T0 + (600 + i) * 1_000_000L);
+        }
+
+        WalkProfileResponse profile = builder.build(WALK_ID);
+        assertEquals(18.0, profile.getGanhoElevacaoM(), 3.0);
+        assertEquals(0.0, profile.getPerdaElevacaoM());
+    }
+
+    @Test
+    void longWalksAreDownsampledToTheMaximum() {
+        // 3 hours at 1.5 m/s, a point every second, without elevation
+        WalkProfileBuilder builder = new WalkProfileBuilder(1000.0, 3.0, 5, 300);
+        for (int i = 0; i <= 3 * 3600; i++) {
+            builder.add(LAT0 + 1.5 * i / METERS_PER_DEGREE, LON0, Double.NaN, T0 + i * 1_000_000L);
+        }
+
+        WalkProfileResponse profile = builder.build(WALK_ID);
+        // 10800 s in 5 s samples needs 2160; doubling three times gives 40 s samples
+        assertEquals(40, profile.getIntervaloS());
+        assertEquals(270, profile.getVelocidadesKmh().size());
+        for (double speed : profile.getVelocidadesKmh()) {
+            assertEquals(5.4, speed, 0.05);
+        }
+        assertTrue(profile.getElevacoesM().stream().allMatch(elevation -> elevation == null));
+        assertEquals(17, profile.getParciais().size());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.pettrail.service;
+
+import com.example.pettrail.config.RouteCacheConfig;
+import com.example.pettrail.model.WalkTrack;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalkRouteCacheTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void hitsDecodeTheSameRouteWithoutLoading(boolean offHeap) {
+        RouteCacheConfig config = new RouteCacheConfig();
+        config.setOffHeap(offHeap);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // Maintenance on the calling thread, so the weighted size is current after each put
+        WalkRouteCache cache = new WalkRouteCache(config, meterRegistry, Runnable::run);
+
+        UUID walkId = UUID.randomUUID();
+        WalkTrack route = route();
+        AtomicInteger loads = new AtomicInteger();
+
+        WalkTrack first = cache.get(walkId, () -> {
+            loads.incrementAndGet();
+            return route;
+        });
+        WalkTrack second = cache.get(walkId, () -> {
+            loads.incrementAndGet();
+            return route;
+        });
+
+        assertSame(route, first);
+        assertEquals(1, loads.get());
+        assertSameRoute(route, second);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "walkRoutes").tag("result", "hit")
+                .functionCounter().count());
+        assertTrue(meterRegistry.get("pettrail.route.cache.bytes").gauge().value() > 0);
+
+        cache.invalidateAll(List.of(walkId));
+        assertEquals(0.0, meterRegistry.get("pettrail.route.cache.bytes").gauge().value());
+        cache.get(walkId, () -> {
+            loads.incrementAndGet();
+            return route;
+        });
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void zeroSizeCacheAlwaysLoads() {
+        RouteCacheConfig config = new RouteCacheConfig();
+        config.setMaxBytes(0);
+        WalkRouteCache cache = new WalkRouteCache(config, new SimpleMeterRegistry());
+
+        AtomicInteger loads = new AtomicInteger();
+        UUID walkId = UUID.randomUUID();
+        cache.get(walkId, () -> {
+            loads.incrementAndGet();
+            return route();
+        });
+        cache.get(walkId, () -> {
+            loads.incrementAndGet();
+            return route();
+        });
+
+        assertEquals(2, loads.get());
+    }
+
+    // Values at the database scale (1e-8 degrees, centimeters) come back exactly
+    private static WalkTrack route() {
+        return new WalkTrack(4,
+                new long[]{1_760_000_000_000_000L, 1_760_000_001_000_000L, 1_760_000_002_500_000L, 1_760_000_004_000_001L},
+                new double[]{-23.5505, -23.55099878, -23.55199884, -23.55200001},
+                new double[]{-46.6333, -46.63399829, -46.6349999, -46.63500007},
+                new double[]{760.5, Double.NaN, 761.25, 759.99});
+    }
+
+    private static void assertSameRoute(WalkTrack expected, WalkTrack actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.timestampMicros(i), actual.timestampMicros(i));
+            assertEquals(expected.latitude(i), actual.latitude(i), 0.0);
+            assertEquals(expected.longitude(i), actual.longitude(i), 0.0);
+            assertEquals(expected.hasElevation(i), actual.hasElevation(i));
+            if (expected.hasElevation(i)) {
+                assertEquals(expected.elevation(i), actual.elevation(i), 0.0);
+            }
+        }
+    }
+}
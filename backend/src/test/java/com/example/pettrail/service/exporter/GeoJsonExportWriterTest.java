@@ -0,0 +1,88 @@
+package com.example.pettrail.service.exporter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import static com.example.pettrail.service.exporter.GpxExportWriterTest.walk;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoJsonExportWriterTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.parse("2025-08-14T22:00:00");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void finish_TwoWalks_CoordTimesAlignedWithCoordinates() throws Exception {
+        ExportedWalk first = walk("Rex", T0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GeoJsonExportWriter writer = new GeoJsonExportWriter(out);
+        writer.startWalk(first);
+        writer.point(-23.5505, -46.6333, 760.25, T0);
+        writer.point(-23.5510, -46.6339, Double.NaN, T0.plusSeconds(10));
+        writer.point(-23.5520, -46.6345, 761.0, T0.plusSeconds(20));
+        writer.endWalk();
+        writer.startWalk(walk("Bolt", T0.plusDays(1)));
+        writer.point(1.0, 2.0, Double.NaN, T0.plusDays(1));
+        writer.endWalk();
+        writer.finish();
+
+        JsonNode collection = mapper.readTree(out.toByteArray());
+        assertEquals("FeatureCollection", collection.get("type").asText());
+        JsonNode features = collection.get("features");
+        assertEquals(2, features.size());
+        for (JsonNode feature : features) {
+            assertEquals(feature.at("/geometry/coordinates").size(), feature.at("/properties/coordTimes").size());
+        }
+
+        JsonNode feature = features.get(0);
+        assertEquals(first.getId().toString(), feature.get("id").asText());
+        assertEquals("LineString", feature.at("/geometry/type").asText());
+        JsonNode coordinates = feature.at("/geometry/coordinates");
+        assertEquals(-46.6333, coordinates.get(0).get(0).asDouble());
+        assertEquals(-23.5505, coordinates.get(0).get(1).asDouble());
+        assertEquals(760.25, coordinates.get(0).get(2).asDouble());
+        assertEquals(2, coordinates.get(1).size());
+        JsonNode times = feature.at("/properties/coordTimes");
+        assertEquals(instant(T0), times.get(0).asText());
+        assertEquals(instant(T0.plusSeconds(20)), times.get(2).asText());
+        assertEquals("Rex", feature.at("/properties/petName").asText());
+        assertEquals(3600, feature.at("/properties/duracaoS").asInt());
+    }
+
+    @Test
+    void endWalk_MissingMetrics_WrittenAsNull() throws Exception {
+        ExportedWalk walk = new ExportedWalk(UUID.randomUUID(), UUID.randomUUID(), "Rex", T0, null, null, null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GeoJsonExportWriter writer = new GeoJsonExportWriter(out);
+        writer.startWalk(walk);
+        writer.endWalk();
+        writer.finish();
+
+        JsonNode properties = mapper.readTree(out.toByteArray()).at("/features/0/properties");
+        assertTrue(properties.get("finishedAt").isNull());
+        assertTrue(properties.get("distanciaM").isNull());
+        assertTrue(properties.get("duracaoS").isNull());
+        assertEquals(0, properties.get("coordTimes").size());
+    }
+
+    @Test
+    void finish_NoWalks_EmptyCollection() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new GeoJsonExportWriter(out).finish();
+
+        JsonNode collection = mapper.readTree(out.toByteArray());
+        assertEquals("FeatureCollection", collection.get("type").asText());
+        assertEquals(0, collection.get("features").size());
+    }
+
+    private static String instant(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.pettrail.service.exporter;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GpxExportWriterTest {
+
+    private static final String NAMESPACE = "http://www.topografix.com/GPX/1/1";
+    private static final LocalDateTime T0 = LocalDateTime.parse("2025-08-14T22:00:00");
+
+    @Test
+    void finish_TwoWalks_WellFormedTrackPerWalk() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GpxExportWriter writer = new GpxExportWriter(out);
+        writer.startWalk(walk("Rex & <Bolt>", T0));
+        // Double.toString writes these as 1.0E-5 and 1.0E-4
+        writer.point(0.00001, -0.0001, 760.25, T0);
+        writer.point(-23.5510, -46.6339, Double.NaN, T0.plusSeconds(10));
+        writer.endWalk();
+        writer.startWalk(walk("Rex", T0.plusDays(1)));
+        writer.point(1.0E-7, 2.5, 0.0, T0.plusDays(1));
+        writer.endWalk();
+        writer.finish();
+
+        Document document = parse(out.toByteArray());
+        assertEquals("1.1", document.getDocumentElement().getAttribute("version"));
+        assertEquals(2, document.getElementsByTagNameNS(NAMESPACE, "trk").getLength());
+        assertEquals("Rex & <Bolt> 2025-08-14 22:00",
+                document.getElementsByTagNameNS(NAMESPACE, "name").item(0).getTextContent());
+
+        NodeList points = document.getElementsByTagNameNS(NAMESPACE, "trkpt");
+        assertEquals(3, points.getLength());
+        for (int i = 0; i < points.getLength(); i++) {
+            Element point = (Element) points.item(i);
+            assertFalse(point.getAttribute("lat").contains("E"), point.getAttribute("lat"));
+            assertFalse(point.getAttribute("lon").contains("E"), point.getAttribute("lon"));
+        }
+        Element first = (Element) points.item(0);
+        assertEquals(0.00001, Double.parseDouble(first.getAttribute("lat")));
+        assertEquals(-0.0001, Double.parseDouble(first.getAttribute("lon")));
+        assertEquals("760.25", text(first, "ele"));
+        assertEquals(T0.atZone(ZoneId.systemDefault()).toInstant().toString(), text(first, "time"));
+        assertEquals(0, ((Element) points.item(1)).getElementsByTagNameNS(NAMESPACE, "ele").getLength());
+        assertEquals(1.0E-7, Double.parseDouble(((Element) points.item(2)).getAttribute("lat")));
+    }
+
+    @Test
+    void finish_NoWalks_EmptyDocument() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new GpxExportWriter(out).finish();
+
+        Document document = parse(out.toByteArray());
+        assertEquals("gpx", document.getDocumentElement().getLocalName());
+        assertEquals(0, document.getElementsByTagNameNS(NAMESPACE, "trk").getLength());
+    }
+
+    static ExportedWalk walk(String petName, LocalDateTime startedAt) {
+        return new ExportedWalk(UUID.randomUUID(), UUID.randomUUID(), petName, startedAt, startedAt.plusHours(1),
+                1234.5, 3600, 1.23);
+    }
+
+    static Document parse(byte[] xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml));
+    }
+
+    private static String text(Element parent, String name) {
+        return parent.getElementsByTagNameNS(NAMESPACE, name).item(0).getTextContent();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.pettrail.service.exporter;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static com.example.pettrail.service.exporter.GpxExportWriterTest.parse;
+import static com.example.pettrail.service.exporter.GpxExportWriterTest.walk;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipExportWriterTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.parse("2025-08-14T22:00:00");
+
+    @Test
+    void finish_ThreeWalks_GpxEntryPerWalk() throws Exception {
+        List<ExportedWalk> walks = List.of(walk("Rex", T0), walk("Rex", T0.plusHours(3)), walk("Bolt", T0.plusDays(1)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ZipExportWriter writer = new ZipExportWriter(out);
+        for (int w = 0; w < walks.size(); w++) {
+            writer.startWalk(walks.get(w));
+            for (int i = 0; i <= w; i++) {
+                writer.point(-23.5505 + i * 0.0001, -46.6333, Double.NaN, walks.get(w).getStartedAt().plusSeconds(i * 10L));
+            }
+            writer.endWalk();
+        }
+        writer.finish();
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                int w = names.size();
+                names.add(entry.getName());
+                Document gpx = parse(zip.readAllBytes());
+                assertEquals(1, gpx.getElementsByTagNameNS("*", "trk").getLength());
+                assertEquals(w + 1, gpx.getElementsByTagNameNS("*", "trkpt").getLength());
+            }
+        }
+        assertEquals(walks.stream().map(ZipExportWriter::entryName).toList(), names);
+    }
+
+    @Test
+    void entryName_PetNameSanitized() {
+        UUID id = UUID.fromString("550e8400-e29b-41d4-a716-446655440001");
+        ExportedWalk walk = new ExportedWalk(id, UUID.randomUUID(), "Tobias/../Zé Lúcio", T0, null, null, null, null);
+
+        assertEquals("2025-08-14_2200_Tobias-Zé-Lúcio_" + id + ".gpx", ZipExportWriter.entryName(walk));
+    }
+}
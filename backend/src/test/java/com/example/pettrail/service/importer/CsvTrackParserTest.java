@@ -0,0 +1,92 @@
+package com.example.pettrail.service.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.pettrail.service.importer.RecordingSink.parse;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvTrackParserTest {
+
+    private final CsvTrackParser parser = new CsvTrackParser();
+
+    @Test
+    void parse_CommaSeparated_SingleTrack() throws IOException {
+        String csv = """
+                latitude,longitude,elevation,time
+                -23.5505,-46.6333,760.5,2025-08-14T22:00:00
+                -23.5510,-46.6339,,2025-08-14 22:00:10
+
+                """;
+
+        RecordingSink sink = parse(parser, csv);
+
+        assertEquals(1, sink.tracks.size());
+        assertEquals(2, sink.tracks.get(0).size());
+        RecordingSink.Point first = sink.tracks.get(0).get(0);
+        assertEquals(-23.5505, first.lat());
+        assertEquals(-46.6333, first.lon());
+        assertEquals(760.5, first.elevation());
+        assertEquals(LocalDateTime.parse("2025-08-14T22:00:00"), first.ts());
+        assertTrue(Double.isNaN(sink.tracks.get(0).get(1).elevation()));
+        assertEquals(LocalDateTime.parse("2025-08-14T22:00:10"), sink.tracks.get(0).get(1).ts());
+    }
+
+    @Test
+    void parse_SemicolonSeparatedWithBom_HeaderRecognized() throws IOException {
+        // Spreadsheets in comma-decimal locales: the header has more ';' than ','
+        String csv = "\uFEFFLat;Lon;Timestamp;Note\n"
+                + "-23.5505;-46.6333;1755208800;\"walk, with; separators\"\n";
+
+        RecordingSink sink = parse(parser, csv);
+
+        assertEquals(1, sink.tracks.size());
+        RecordingSink.Point point = sink.tracks.get(0).get(0);
+        assertEquals(-23.5505, point.lat());
+        assertEquals(TrackTimestamps.fromEpoch(1755208800), point.ts());
+    }
+
+    @Test
+    void parse_TrackColumn_TrackPerRun() throws IOException {
+        String csv = """
+                walk_id,lat,lon,ts
+                a,1.0,2.0,2025-08-14T22:00:00
+                a,1.1,2.1,2025-08-14T22:00:10
+                b,3.0,4.0,2025-08-15T08:00:00
+                a,5.0,6.0,2025-08-16T08:00:00
+                """;
+
+        RecordingSink sink = parse(parser, csv);
+
+        assertEquals(List.of(2, 1, 1), sink.tracks.stream().map(List::size).toList());
+        assertEquals(3.0, sink.tracks.get(1).get(0).lat());
+    }
+
+    @Test
+    void parse_UnparseableValues_PassedAsMissing() throws IOException {
+        String csv = """
+                lat,lon,time
+                north,2.0,yesterday
+                """;
+
+        RecordingSink sink = parse(parser, csv);
+
+        RecordingSink.Point point = sink.tracks.get(0).get(0);
+        assertTrue(Double.isNaN(point.lat()));
+        assertNull(point.ts());
+    }
+
+    @Test
+    void parse_MissingTimeColumn_ThrowsIOException() {
+        assertThrows(IOException.class, () -> parse(parser, "lat,lon,elevation\n1,2,3\n"));
+    }
+
+    @Test
+    void split_QuotedFields_SeparatorsAndEscapedQuotesKept() {
+        assertEquals(List.of("a", "b,c", "say \"hi\"", ""),
+                CsvTrackParser.split("a, \"b,c\" ,\"say \"\"hi\"\"\",", ','));
+    }
+}
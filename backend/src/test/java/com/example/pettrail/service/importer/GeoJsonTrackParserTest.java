@@ -0,0 +1,102 @@
+package com.example.pettrail.service.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static com.example.pettrail.service.importer.RecordingSink.parse;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoJsonTrackParserTest {
+
+    private final GeoJsonTrackParser parser = new GeoJsonTrackParser();
+
+    @Test
+    void parse_FeatureWithCoordTimes_TimesAlignedWithPositions() throws IOException {
+        // Properties after the geometry, as some exporters write them
+        String json = """
+                {"type": "Feature",
+                 "geometry": {"type": "LineString", "coordinates": [[-46.6333, -23.5505, 760.5], [-46.6339, -23.5510]]},
+                 "properties": {"name": "Morning", "coordTimes": ["2025-08-14T22:00:00Z", "2025-08-14T22:00:10Z"]}}
+                """;
+
+        RecordingSink sink = parse(parser, json);
+
+        assertEquals(1, sink.tracks.size());
+        assertEquals(2, sink.tracks.get(0).size());
+        RecordingSink.Point first = sink.tracks.get(0).get(0);
+        assertEquals(-23.5505, first.lat());
+        assertEquals(-46.6333, first.lon());
+        assertEquals(760.5, first.elevation());
+        assertEquals(local("2025-08-14T22:00:00Z"), first.ts());
+        RecordingSink.Point second = sink.tracks.get(0).get(1);
+        assertTrue(Double.isNaN(second.elevation()));
+        assertEquals(local("2025-08-14T22:00:10Z"), second.ts());
+    }
+
+    @Test
+    void parse_FeatureCollection_TrackPerFeature() throws IOException {
+        String json = """
+                {"type": "FeatureCollection", "features": [
+                  {"type": "Feature", "properties": {"coordinateProperties": {"times": [1755208800, 1755208810]}},
+                   "geometry": {"type": "LineString", "coordinates": [[2.0, 1.0], [2.1, 1.1]]}},
+                  {"type": "Feature", "properties": null,
+                   "geometry": {"type": "Point", "coordinates": [4.0, 3.0]}},
+                  {"type": "Feature", "properties": {}, "geometry": null}
+                ]}
+                """;
+
+        RecordingSink sink = parse(parser, json);
+
+        assertEquals(2, sink.tracks.size());
+        assertEquals(2, sink.tracks.get(0).size());
+        assertEquals(TrackTimestamps.fromEpoch(1755208810), sink.tracks.get(0).get(1).ts());
+        assertEquals(1, sink.tracks.get(1).size());
+        assertEquals(3.0, sink.tracks.get(1).get(0).lat());
+        assertNull(sink.tracks.get(1).get(0).ts());
+    }
+
+    @Test
+    void parse_MultiLineString_LinesJoinedWithNestedTimes() throws IOException {
+        String json = """
+                {"type": "Feature",
+                 "properties": {"coordTimes": [["2025-08-14T22:00:00Z", "2025-08-14T22:00:10Z"], ["2025-08-14T22:05:00Z"]]},
+                 "geometry": {"type": "MultiLineString", "coordinates": [
+                   [[-46.6333, -23.5505], [-46.6339, -23.5510]],
+                   [[-46.6345, -23.5520]]
+                 ]}}
+                """;
+
+        RecordingSink sink = parse(parser, json);
+
+        assertEquals(1, sink.tracks.size());
+        assertEquals(3, sink.tracks.get(0).size());
+        assertEquals(-23.5520, sink.tracks.get(0).get(2).lat());
+        assertEquals(local("2025-08-14T22:05:00Z"), sink.tracks.get(0).get(2).ts());
+    }
+
+    @Test
+    void parse_EpochInPosition_UsedWithoutCoordTimes() throws IOException {
+        String json = """
+                {"type": "LineString", "coordinates": [[2.0, 1.0, 5.0, 1755208800000], [2.1, 1.1, 6.0, 1755208810000]]}
+                """;
+
+        RecordingSink sink = parse(parser, json);
+
+        assertEquals(1, sink.tracks.size());
+        assertEquals(TrackTimestamps.fromEpoch(1755208800), sink.tracks.get(0).get(0).ts());
+        assertEquals(6.0, sink.tracks.get(0).get(1).elevation());
+    }
+
+    @Test
+    void parse_NotAnObject_ThrowsIOException() {
+        assertThrows(IOException.class, () -> parse(parser, "[[2.0, 1.0]]"));
+    }
+
+    private static LocalDateTime local(String instant) {
+        return ZonedDateTime.parse(instant).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.pettrail.service.importer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static com.example.pettrail.service.importer.RecordingSink.parse;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GpxTrackParserTest {
+
+    private final GpxTrackParser parser = new GpxTrackParser();
+
+    @Test
+    void parse_SegmentsOfATrack_Joined() throws IOException {
+        String gpx = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <gpx version="1.1" creator="test" xmlns="http://www.topografix.com/GPX/1/1">
+                  <wpt lat="1.0" lon="2.0"><name>Ignored</name></wpt>
+                  <trk><name>Morning</name>
+                    <trkseg>
+                      <trkpt lat="-23.5505" lon="-46.6333"><ele>760.5</ele><time>2025-08-14T22:00:00Z</time></trkpt>
+                      <trkpt lat="-23.5510" lon="-46.6339"><time>2025-08-14T22:00:10Z</time></trkpt>
+                    </trkseg>
+                    <trkseg>
+                      <trkpt lat="-23.5520" lon="-46.6345"><time>2025-08-14T22:05:00Z</time></trkpt>
+                    </trkseg>
+                  </trk>
+                  <trk><trkseg><trkpt lat="10" lon="20"><time>2025-08-15T08:00:00Z</time></trkpt></trkseg></trk>
+                </gpx>
+                """;
+
+        RecordingSink sink = parse(parser, gpx);
+
+        assertEquals(2, sink.tracks.size());
+        assertEquals(3, sink.tracks.get(0).size());
+        RecordingSink.Point first = sink.tracks.get(0).get(0);
+        assertEquals(-23.5505, first.lat());
+        assertEquals(-46.6333, first.lon());
+        assertEquals(760.5, first.elevation());
+        assertEquals(local("2025-08-14T22:00:00Z"), first.ts());
+        assertTrue(Double.isNaN(sink.tracks.get(0).get(1).elevation()));
+        assertEquals(local("2025-08-14T22:05:00Z"), sink.tracks.get(0).get(2).ts());
+        assertEquals(1, sink.tracks.get(1).size());
+    }
+
+    @Test
+    void parse_ExternalEntity_Rejected(@TempDir Path directory) throws IOException {
+        Path secret = Files.writeString(directory.resolve("secret.txt"), "12.5");
+        String gpx = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <!DOCTYPE gpx [<!ENTITY secret SYSTEM "%s">]>
+                <gpx version="1.1"><trk><trkseg>
+                  <trkpt lat="1" lon="2"><ele>&secret;</ele><time>2025-08-14T22:00:00Z</time></trkpt>
+                </trkseg></trk></gpx>
+                """.formatted(secret.toUri());
+
+        RecordingSink sink = new RecordingSink();
+        assertThrows(IOException.class,
+                () -> parser.parse(new ByteArrayInputStream(gpx.getBytes(StandardCharsets.UTF_8)), sink));
+        assertTrue(sink.tracks.isEmpty());
+    }
+
+    @Test
+    void parse_InternalEntity_Rejected() {
+        String gpx = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <!DOCTYPE gpx [<!ENTITY lat "1.5">]>
+                <gpx version="1.1"><trk><trkseg>
+                  <trkpt lat="1" lon="2"><ele>&lat;</ele></trkpt>
+                </trkseg></trk></gpx>
+                """;
+
+        assertThrows(IOException.class, () -> parse(parser, gpx));
+    }
+
+    @Test
+    void parse_Truncated_ThrowsIOException() {
+        assertThrows(IOException.class, () -> parse(parser, "<gpx><trk><trkseg><trkpt lat=\"1\" lon=\"2\">"));
+    }
+
+    private static LocalDateTime local(String instant) {
+        return ZonedDateTime.parse(instant).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+}
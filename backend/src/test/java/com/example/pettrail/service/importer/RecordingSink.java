@@ -0,0 +1,52 @@
+package com.example.pettrail.service.importer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps what a TrackParser emits, one list of points per track, and checks that tracks are opened
+ * and closed in turn
+ */
+final class RecordingSink implements TrackSink {
+
+    record Point(double lat, double lon, double elevation, LocalDateTime ts) {
+    }
+
+    final List<List<Point>> tracks = new ArrayList<>();
+    private List<Point> current;
+
+    static RecordingSink parse(TrackParser parser, String content) throws IOException {
+        RecordingSink sink = new RecordingSink();
+        parser.parse(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), sink);
+        return sink;
+    }
+
+    @Override
+    public void startTrack() {
+        if (current != null) {
+            throw new IllegalStateException("track started before the previous one ended");
+        }
+        current = new ArrayList<>();
+    }
+
+    @Override
+    public void point(double lat, double lon, double elevation, LocalDateTime ts) {
+        if (current == null) {
+            throw new IllegalStateException("point outside a track");
+        }
+        current.add(new Point(lat, lon, elevation, ts));
+    }
+
+    @Override
+    public void endTrack() {
+        if (current == null) {
+            throw new IllegalStateException("track ended twice");
+        }
+        tracks.add(current);
+        current = null;
+    }
+}
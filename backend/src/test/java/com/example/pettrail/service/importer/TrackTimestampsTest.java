@@ -0,0 +1,50 @@
+package com.example.pettrail.service.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackTimestampsTest {
+
+    private static final Instant INSTANT = Instant.parse("2025-08-14T22:00:00Z");
+    private static final LocalDateTime LOCAL = LocalDateTime.ofInstant(INSTANT, ZoneId.systemDefault());
+
+    @Test
+    void parse_EpochSecondsAndMilliseconds_SameInstant() {
+        assertEquals(LOCAL, TrackTimestamps.parse("1755208800"));
+        assertEquals(LOCAL, TrackTimestamps.parse("1755208800000"));
+        assertEquals(LOCAL.plusNanos(500_000_000), TrackTimestamps.parse("1755208800.5"));
+        assertEquals(LOCAL.plusNanos(250_000_000), TrackTimestamps.parse("1755208800250"));
+    }
+
+    @Test
+    void parse_ZonedTime_ConvertedToServerZone() {
+        assertEquals(LOCAL, TrackTimestamps.parse("2025-08-14T22:00:00Z"));
+        assertEquals(LOCAL, TrackTimestamps.parse("2025-08-14T19:00:00-03:00"));
+    }
+
+    @Test
+    void parse_LocalTime_KeptAsIs() {
+        assertEquals(LocalDateTime.parse("2025-08-14T22:00:00"), TrackTimestamps.parse(" 2025-08-14T22:00:00 "));
+        assertEquals(LocalDateTime.parse("2025-08-14T22:00:00.250"), TrackTimestamps.parse("2025-08-14 22:00:00.250"));
+    }
+
+    @Test
+    void parse_NotATimestamp_Null() {
+        assertNull(TrackTimestamps.parse(null));
+        assertNull(TrackTimestamps.parse("  "));
+        assertNull(TrackTimestamps.parse("14/08/2025 22:00"));
+        assertNull(TrackTimestamps.parse("12abc"));
+        assertNull(TrackTimestamps.fromEpoch(Double.NaN));
+    }
+
+    @Test
+    void fromEpoch_BeforeEpoch_RoundsDown() {
+        assertEquals(LocalDateTime.ofInstant(Instant.parse("1969-12-31T23:59:59.500Z"), ZoneId.systemDefault()),
+                TrackTimestamps.fromEpoch(-0.5));
+    }
+}
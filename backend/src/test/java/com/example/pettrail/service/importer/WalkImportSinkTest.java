@@ -0,0 +1,166 @@
+package com.example.pettrail.service.importer;
+
+import com.example.pettrail.enums.ImportFormat;
+import com.example.pettrail.model.Walk;
+import com.example.pettrail.model.WalkTrack;
+import com.example.pettrail.repository.WalkPointBulkWriter;
+import com.example.pettrail.repository.WalkRepository;
+import com.example.pettrail.service.ElevationEnricher;
+import com.example.pettrail.service.WalkPointFilter;
+import com.example.pettrail.service.WalkPointPartitionService;
+import com.example.pettrail.service.WalkProfileBuilder;
+import com.example.pettrail.service.WalkProfileService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WalkImportSinkTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.parse("2025-08-14T22:00:00");
+    private static final double LAT0 = -23.5505;
+    private static final double LON0 = -46.6333;
+
+    private final UUID petId = UUID.randomUUID();
+    private WalkRepository walkRepository;
+    private PlatformTransactionManager transactionManager;
+    private TransactionStatus transaction;
+    private ImportJob job;
+    private WalkImportSink sink;
+    private final List<Integer> insertedBatches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        walkRepository = mock(WalkRepository.class);
+        when(walkRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            Walk walk = invocation.getArgument(0);
+            walk.setId(UUID.randomUUID());
+            return walk;
+        });
+        transactionManager = mock(PlatformTransactionManager.class);
+        transaction = mock(TransactionStatus.class);
+        when(transactionManager.getTransaction(any())).thenReturn(transaction);
+        WalkPointBulkWriter bulkWriter = mock(WalkPointBulkWriter.class);
+        // The batch arrays are reused once written
+        when(bulkWriter.insert(any(), any(WalkTrack.class))).thenAnswer(invocation -> {
+            insertedBatches.add(invocation.<WalkTrack>getArgument(1).size());
+            return invocation.<WalkTrack>getArgument(1).size();
+        });
+        WalkProfileService profileService = mock(WalkProfileService.class);
+        when(profileService.newBuilder()).thenAnswer(invocation -> mock(WalkProfileBuilder.class));
+
+        job = new ImportJob(UUID.randomUUID(), UUID.randomUUID(), petId, ImportFormat.GPX, 0);
+        sink = new WalkImportSink(job, walkRepository, bulkWriter, transactionManager, WalkPointFilter::new,
+                profileService, mock(ElevationEnricher.class), mock(WalkPointPartitionService.class),
+                Duration.ofMinutes(30), 3);
+    }
+
+    @Test
+    void points_FullBatches_WrittenAsTheyFill() {
+        track(T0, 7);
+
+        assertEquals(List.of(3, 3, 1), insertedBatches);
+        ArgumentCaptor<Walk> walk = ArgumentCaptor.forClass(Walk.class);
+        verify(walkRepository).save(walk.capture());
+        assertEquals(T0, walk.getValue().getStartedAt());
+        assertEquals(T0.plusSeconds(60), walk.getValue().getFinishedAt());
+        assertEquals(60, walk.getValue().getDuracaoS());
+        verify(transactionManager).commit(transaction);
+        assertEquals(1, job.getWalksImported().get());
+        assertEquals(7, job.getPointsAccepted().get());
+    }
+
+    @Test
+    void points_GapLongerThanSplitGap_StartsAnotherWalk() {
+        sink.startTrack();
+        points(T0, 3);
+        points(T0.plusHours(2), 2);
+        sink.endTrack();
+
+        ArgumentCaptor<Walk> walks = ArgumentCaptor.forClass(Walk.class);
+        verify(walkRepository, times(2)).saveAndFlush(walks.capture());
+        assertEquals(List.of(T0, T0.plusHours(2)), walks.getAllValues().stream().map(Walk::getStartedAt).toList());
+        verify(transactionManager, times(2)).commit(transaction);
+        assertEquals(2, job.getWalksImported().get());
+        assertEquals(List.of(3, 2), insertedBatches);
+    }
+
+    @Test
+    void startTrack_WalkAlreadyImported_Skipped() {
+        when(walkRepository.existsByPetIdAndStartedAt(petId, T0)).thenReturn(true);
+
+        track(T0, 4);
+
+        verify(walkRepository, never()).saveAndFlush(any());
+        verify(transactionManager, never()).getTransaction(any());
+        assertTrue(insertedBatches.isEmpty());
+        assertEquals(1, job.getWalksSkipped().get());
+        assertEquals(4, job.getPointsDiscarded().get());
+    }
+
+    @Test
+    void endTrack_FewerThanTwoAcceptedPoints_RolledBack() {
+        track(T0, 1);
+
+        verify(transactionManager).rollback(transaction);
+        verify(transactionManager, never()).commit(any());
+        verify(walkRepository, never()).save(any());
+        assertTrue(insertedBatches.isEmpty());
+        assertEquals(1, job.getWalksSkipped().get());
+        assertEquals(1, job.getPointsDiscarded().get());
+    }
+
+    @Test
+    void point_InvalidPoints_DiscardedWithoutStartingAWalk() {
+        sink.startTrack();
+        sink.point(LAT0, LON0, Double.NaN, null);
+        sink.point(91.0, LON0, Double.NaN, T0);
+        sink.point(LAT0, Double.NaN, Double.NaN, T0);
+        sink.endTrack();
+        sink.finish();
+
+        verify(walkRepository, never()).existsByPetIdAndStartedAt(any(), any());
+        verify(transactionManager, never()).getTransaction(any());
+        assertEquals(3, job.getPointsReceived().get());
+        assertEquals(3, job.getPointsDiscarded().get());
+        assertEquals(0, job.getWalksSkipped().get());
+    }
+
+    @Test
+    void abort_WalkInProgress_RolledBack() {
+        sink.startTrack();
+        points(T0, 2);
+
+        sink.abort();
+        sink.finish();
+
+        verify(transactionManager).rollback(transaction);
+        verify(transactionManager, never()).commit(any());
+        verify(walkRepository, never()).save(any());
+    }
+
+    private void track(LocalDateTime start, int count) {
+        sink.startTrack();
+        points(start, count);
+        sink.endTrack();
+        sink.finish();
+    }
+
+    // A slow walk north, a point every 10 s
+    private void points(LocalDateTime start, int count) {
+        for (int i = 0; i < count; i++) {
+            sink.point(LAT0 + i * 0.0001, LON0, 760.0, start.plusSeconds(i * 10L));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.pettrail.service.ratelimit;
+
+import com.example.pettrail.config.RateLimitConfig;
+import com.example.pettrail.enums.RateLimitKeyType;
+import com.example.pettrail.enums.Role;
+import com.example.pettrail.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private LocalRateLimitStore store;
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        store = new LocalRateLimitStore(clock::get);
+        meterRegistry = new SimpleMeterRegistry();
+
+        RateLimitConfig config = new RateLimitConfig();
+        config.setPolicies(List.of(
+                policy("auth", List.of("/api/auth/login"), List.of("post"), RateLimitKeyType.IP, 3, 6),
+                policy("api", List.of("/api/**"), List.of(), RateLimitKeyType.USER, 5, 60)));
+        rateLimiter = new RateLimiter(config, store, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void burstThenRejectedUntilRefill() {
+        for (int i = 0; i < 3; i++) {
+            assertNull(rateLimiter.check(request("POST", "/api/auth/login", "10.0.0.1")));
+        }
+
+        RateLimiter.Rejection rejection = rateLimiter.check(request("POST", "/api/auth/login", "10.0.0.1"));
+        assertNotNull(rejection);
+        assertEquals("auth", rejection.policy());
+        // 6 per minute: one token every 10 s
+        assertEquals(10, rejection.retryAfterSeconds());
+        assertEquals(1.0, meterRegistry.counter("pettrail.ratelimit.rejected", "policy", "auth").count());
+
+        // Other clients have their own bucket
+        assertNull(rateLimiter.check(request("POST", "/api/auth/login", "10.0.0.2")));
+
+        clock.addAndGet(9_000_000L);
+        assertNotNull(rateLimiter.check(request("POST", "/api/auth/login", "10.0.0.1")));
+        clock.addAndGet(1_000_000L);
+        assertNull(rateLimiter.check(request("POST", "/api/auth/login", "10.0.0.1")));
+    }
+
+    @Test
+    void policyMatchedByPathAndMethod() {
+        // GET on the login path falls through to the general policy
+        for (int i = 0; i < 5; i++) {
+            assertNull(rateLimiter.check(request("GET", "/api/auth/login", "10.0.0.1")));
+        }
+        assertEquals("api", rateLimiter.check(request("GET", "/api/pets", "10.0.0.1")).policy());
+
+        // Outside every policy
+        assertNull(rateLimiter.check(request("GET", "/swagger-ui/index.html", "10.0.0.1")));
+    }
+
+    @Test
+    void authenticatedUsersLimitedPerUser() {
+        User user = new User("ana@example.com", "hash", "Ana", "Silva", Role.USER);
+        user.setId(UUID.randomUUID());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        // Same user from several addresses shares one bucket
+        for (int i = 0; i < 5; i++) {
+            assertNull(rateLimiter.check(request("GET", "/api/pets", "10.0.0." + i)));
+        }
+        assertNotNull(rateLimiter.check(request("GET", "/api/pets", "10.0.0.9")));
+    }
+
+    @Test
+    void concurrentRequests_NeverExceedCapacity() throws Exception {
+        int threads = 8;
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 1000; i++) {
+                        if (store.tryAcquire("shared", 1_000_000L, 50_000_000L) == 0) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // The clock doesn't move: exactly the burst gets through
+        assertEquals(50, allowed.get());
+    }
+
+    @Test
+    void purge_DropsOnlyFullBuckets() {
+        store.tryAcquire("a", 1_000_000L, 5_000_000L);
+        clock.addAndGet(500_000L);
+        store.tryAcquire("b", 1_000_000L, 5_000_000L);
+        clock.addAndGet(600_000L);
+
+        store.purgeFull();
+
+        assertEquals(1, store.size());
+    }
+
+    private static RateLimitConfig.Policy policy(String name, List<String> paths, List<String> methods,
+                                                 RateLimitKeyType key, int capacity, double refillPerMinute) {
+        RateLimitConfig.Policy policy = new RateLimitConfig.Policy();
+        policy.setName(name);
+        policy.setPaths(paths);
+        policy.setMethods(methods);
+        policy.setKey(key);
+        policy.setCapacity(capacity);
+        policy.setRefillPerMinute(refillPerMinute);
+        return policy;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
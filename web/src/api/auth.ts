@@ -15,6 +15,8 @@ export interface RegisterRequest {
 export interface AuthResponse {
   token: string
   tokenType: string
+  expiresIn: number
+  refreshToken: string
   userId: string
   email: string
   firstName: string
@@ -34,11 +36,14 @@ export interface User {
 
 class AuthService {
   private token: string | null = null
+  private refreshToken: string | null = null
+  private refreshing: Promise<boolean> | null = null
   private user: User | null = null
 
   constructor() {
     // Load token and user from localStorage on initialization
     this.token = localStorage.getItem('auth_token')
+    this.refreshToken = localStorage.getItem('auth_refresh_token')
     const userStr = localStorage.getItem('auth_user')
     if (userStr) {
       try {
@@ -63,7 +68,45 @@ class AuthService {
   }
 
   async logout(): Promise<void> {
+    const refreshToken = this.refreshToken
     this.clearAuth()
+    if (refreshToken) {
+      try {
+        await http.post('/auth/logout', { refreshToken })
+      } catch (e) {
+        // Already logged out locally; the token expires on its own
+        console.warn('Failed to revoke refresh token:', e)
+      }
+    }
+  }
+
+  /**
+   * Swap the refresh token for new tokens after the access token expired.
+   * Concurrent callers share one request: a refresh token only works once.
+   */
+  refresh(): Promise<boolean> {
+    if (!this.refreshToken) {
+      return Promise.resolve(false)
+    }
+    if (!this.refreshing) {
+      const refreshToken = this.refreshToken
+      this.refreshing = http.post<AuthResponse>('/auth/refresh', { refreshToken })
+        .then(response => {
+          this.setAuth(response)
+          return true
+        })
+        .catch(error => {
+          // Only a rejected token ends the session; keep it over network errors
+          if (error?.status === 401) {
+            this.clearAuth()
+          }
+          return false
+        })
+        .finally(() => {
+          this.refreshing = null
+        })
+    }
+    return this.refreshing
   }
 
   isAuthenticated(): boolean {
@@ -89,6 +132,7 @@ class AuthService {
 
   private setAuth(authResponse: AuthResponse): void {
     this.token = authResponse.token
+    this.refreshToken = authResponse.refreshToken
     this.user = {
       id: authResponse.userId,
       email: authResponse.email,
@@ -99,13 +143,16 @@ class AuthService {
     }
     
     localStorage.setItem('auth_token', this.token)
+    localStorage.setItem('auth_refresh_token', this.refreshToken)
     localStorage.setItem('auth_user', JSON.stringify(this.user))
   }
 
   private clearAuth(): void {
     this.token = null
+    this.refreshToken = null
     this.user = null
     localStorage.removeItem('auth_token')
+    localStorage.removeItem('auth_refresh_token')
     localStorage.removeItem('auth_user')
   }
 }
@@ -13,7 +13,8 @@ class HttpError extends Error {
     public status: number,
     public message: string,
     public code?: string,
-    public details?: Array<{ field: string; issue: string }>
+    public details?: Array<{ field: string; issue: string }>,
+    public retryAfter?: number // seconds, from Retry-After on 429/503
   ) {
     super(message)
     this.name = 'HttpError'
@@ -22,7 +23,8 @@ class HttpError extends Error {
 
 async function request<T>(
   endpoint: string,
-  options: RequestInit = {}
+  options: RequestInit = {},
+  retried = false
 ): Promise<T> {
   const url = `${API_BASE}${endpoint}`
   
@@ -37,6 +39,11 @@ async function request<T>(
 
   try {
     const response = await fetch(url, config)
+
+    // Expired access token: refresh once and replay (auth endpoints answer 401 for bad credentials)
+    if (response.status === 401 && !retried && !endpoint.startsWith('/auth/') && await authService.refresh()) {
+      return request<T>(endpoint, options, true)
+    }
     
     if (!response.ok) {
       let errorData: ApiError | null = null
@@ -47,11 +54,13 @@ async function request<T>(
         // If response is not JSON, use status text
       }
       
+      const retryAfter = Number(response.headers.get('Retry-After'))
       throw new HttpError(
         response.status,
         errorData?.message || response.statusText,
         errorData?.code,
-        errorData?.details
+        errorData?.details,
+        retryAfter > 0 ? retryAfter : undefined
       )
     }
     
@@ -25,6 +25,17 @@ export interface UpdatePetRequest {
   pictureUrl?: string
 }
 
+// The pet disappears at once; its walks are removed in the background
+export interface PetDeletionJob {
+  jobId: string
+  petId: string
+  status: 'QUEUED' | 'RUNNING' | 'COMPLETED' | 'FAILED'
+  walksTotal: number
+  walksDeleted: number
+  pointsDeleted: number
+  progressPercent: number
+}
+
 export const petsApi = {
   // List all pets
   listPets: (): Promise<Pet[]> => 
@@ -43,6 +54,6 @@ export const petsApi = {
     http.put<Pet>(`/pets/${id}`, data),
     
   // Delete pet
-  deletePet: (id: string): Promise<void> => 
-    http.delete<void>(`/pets/${id}`)
+  deletePet: (id: string): Promise<PetDeletionJob> => 
+    http.delete<PetDeletionJob>(`/pets/${id}`)
 }
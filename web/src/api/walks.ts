@@ -19,6 +19,7 @@ export interface WalkPoint {
   longitude: number
   timestamp: string
   elevation?: number
+  accuracy?: number // meters; inaccurate fixes are discarded and weigh less in smoothing
 }
 
 export interface WalkPointsBatchRequest {
@@ -106,6 +106,9 @@ export const WalkControls = ({
           await walksApi.sendPoints(walkId, batch)
           return true
         } catch (error) {
+          if (error instanceof HttpError && error.status === 429) {
+            throw error // stops the drain
+          }
           console.error('Failed to send batch:', error)
           return false
         }
@@ -150,7 +153,8 @@ export const WalkControls = ({
             latitude: point.latitude,
             longitude: point.longitude,
             timestamp: new Date(point.timestamp).toISOString(),
-            elevation: point.elevation
+            elevation: point.elevation,
+            accuracy: point.accuracy
           }
 
           // Try to send immediately if online
@@ -1,5 +1,6 @@
 import { openDB, DBSchema, IDBPDatabase } from 'idb'
 import { WalkPointsBatchRequest } from '../api/walks'
+import { HttpError } from '../api/http'
 
 interface QueueItem {
   id: string
@@ -109,6 +110,11 @@ class IDBQueue {
           failed++
         }
       } catch (error) {
+        if (error instanceof HttpError && error.status === 429) {
+          // Rate limited: keep the rest queued for the next drain instead of hammering the API
+          console.warn(`Rate limited, retry in ${error.retryAfter ?? '?'} s`)
+          break
+        }
         console.error('Failed to send queued batch:', error)
         await this.incrementRetryCount(item.id)
         failed++